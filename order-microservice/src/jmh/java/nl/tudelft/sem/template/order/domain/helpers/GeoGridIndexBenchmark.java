@@ -0,0 +1,79 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a radius search through the GeoGridIndex against scanning every vendor,
+ * and measures refreshing the index when a single vendor moved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeoGridIndexBenchmark {
+
+    private static final double LATITUDE = 52.0;
+    private static final double LONGITUDE = 4.37;
+    private static final double RADIUS = 5;
+
+    @Param({"1000", "10000", "100000"})
+    private transient int vendors;
+
+    private final transient Random random = new Random(42);
+    private transient VendorLocations vendorLocations;
+    private transient VendorLocations movedVendor;
+    private transient GeoGridIndex index;
+
+    /**
+     * Spreads the vendors uniformly over the Netherlands.
+     */
+    @Setup
+    public void setup() {
+        vendorLocations = new VendorLocations(vendors);
+        movedVendor = new VendorLocations(vendors);
+        for (int i = 0; i < vendors; i++) {
+            UUID id = UUID.randomUUID();
+            double latitude = 50.75 + random.nextDouble() * 2.8;
+            double longitude = 3.35 + random.nextDouble() * 3.9;
+            vendorLocations.add(id, latitude, longitude);
+            movedVendor.add(id, latitude, (i == 0) ? longitude + 0.5 : longitude);
+        }
+        index = GeoGridIndex.build(vendorLocations, GeoGridIndex.DEFAULT_CELL_SIZE);
+    }
+
+    @Benchmark
+    public List<UUID> withinRadiusLinearScan() {
+        return vendorLocations.withinRadius(LATITUDE, LONGITUDE, RADIUS);
+    }
+
+    @Benchmark
+    public List<UUID> withinRadiusIndex() {
+        return index.withinRadius(LATITUDE, LONGITUDE, RADIUS);
+    }
+
+    @Benchmark
+    public GeoGridIndex build() {
+        return GeoGridIndex.build(vendorLocations, GeoGridIndex.DEFAULT_CELL_SIZE);
+    }
+
+    @Benchmark
+    public GeoGridIndex refreshOneMovedVendor() {
+        return index.refresh(movedVendor);
+    }
+}
@@ -0,0 +1,87 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares filtering vendors on distance in a VendorLocations against the map of boxed coordinates it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VendorLocationsBenchmark {
+
+    private static final double LATITUDE = 52.0;
+    private static final double LONGITUDE = 4.37;
+    private static final double RADIUS = 5;
+
+    @Param({"100", "10000"})
+    private transient int vendors;
+
+    private final transient Random random = new Random(42);
+    private final transient Coordinates user = new Coordinates(LATITUDE, LONGITUDE);
+    private transient HashMap<UUID, List<Double>> vendorMap;
+    private transient VendorLocations vendorLocations;
+
+    /**
+     * Spreads the vendors around Delft, roughly half of them are within the radius.
+     */
+    @Setup
+    public void setup() {
+        vendorMap = new HashMap<>();
+        vendorLocations = new VendorLocations();
+        for (int i = 0; i < vendors; i++) {
+            UUID id = UUID.randomUUID();
+            double latitude = LATITUDE + random.nextGaussian() * 0.05;
+            double longitude = LONGITUDE + random.nextGaussian() * 0.05;
+            vendorMap.put(id, List.of(latitude, longitude));
+            vendorLocations.add(id, latitude, longitude);
+        }
+    }
+
+    /**
+     * Filters the vendors the way RestaurantService did, boxing every coordinate.
+     */
+    @Benchmark
+    public List<UUID> withinRadiusLegacy() {
+        return vendorMap.entrySet().stream()
+                .filter(entry -> distance(user, new Coordinates(entry.getValue().get(0), entry.getValue().get(1))) < RADIUS)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<UUID> withinRadius() {
+        return vendorLocations.withinRadius(LATITUDE, LONGITUDE, RADIUS);
+    }
+
+    /**
+     * The distance as RestaurantService computed it for every vendor.
+     */
+    private static double distance(Coordinates c1, Coordinates c2) {
+        double p = Math.PI / 180;
+        double a = 0.5 - Math.cos((c2.latitude - c1.latitude) * p) / 2
+                + Math.cos(c1.latitude * p) * Math.cos(c2.latitude * p)
+                * (1 - Math.cos((c2.longitude - c1.longitude) * p)) / 2;
+        return 2 * VendorLocations.EARTH_RADIUS * Math.asin(Math.sqrt(a));
+    }
+}
@@ -0,0 +1,94 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.order.Application;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Concurrent conditional status updates, as OrderService applies a status transition, against the embedded
+ * database of the service. With a single order every update waits for the row lock of the previous one,
+ * with many orders the threads mostly update different rows, so the difference is the cost of contention.
+ * The status is toggled between accepted and preparing, which only the repository allows, so the
+ * benchmark can run for as long as it needs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class OrderStatusUpdateBenchmark {
+
+    @Param({"1", "1000"})
+    private transient int orders;
+
+    private final transient UUID vendorID = UUID.randomUUID();
+    private transient ConfigurableApplicationContext context;
+    private transient OrderRepository orderRepository;
+    private transient List<UUID> orderIDs;
+
+    /**
+     * Starts the service without its web server and stores the accepted orders.
+     */
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(Application.class).web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=warn").run();
+        orderRepository = context.getBean(OrderRepository.class);
+        orderIDs = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            Order order = new Order().orderID(UUID.randomUUID()).vendorID(vendorID).customerID(UUID.randomUUID())
+                    .date(BigDecimal.valueOf(System.currentTimeMillis())).listOfDishes(new ArrayList<>())
+                    .orderPaid(true).status(Order.StatusEnum.ACCEPTED);
+            orderRepository.save(order);
+            orderIDs.add(order.getOrderID());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Moves a random order to the other status. When another thread moved it first the update changes
+     * nothing, and the update back from the other status is tried instead, like a transition that lost
+     * the race is read again.
+     *
+     * @return the number of orders changed
+     */
+    @Benchmark
+    public int toggleStatus() {
+        UUID orderID = orderIDs.get(ThreadLocalRandom.current().nextInt(orderIDs.size()));
+        int updated = orderRepository.updateStatusIfCurrent(orderID, Order.StatusEnum.ACCEPTED,
+                Order.StatusEnum.PREPARING);
+        if (updated == 0) {
+            updated = orderRepository.updateStatusIfCurrent(orderID, Order.StatusEnum.PREPARING,
+                    Order.StatusEnum.ACCEPTED);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,174 @@
+package nl.tudelft.sem.template.user.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.order.domain.helpers.VendorLocations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the JsonParserService against the parsers it replaced,
+ * which created a new ObjectMapper per call and built a JsonNode tree of the whole /vendor payload.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonParserServiceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private transient int vendors;
+
+    private transient String vendorsJson;
+    private transient List<String> vendorJsonList;
+    private transient JsonParserService jsonParserService;
+
+    /**
+     * Builds a /vendor payload with the given number of vendors.
+     */
+    @Setup
+    public void setup() {
+        jsonParserService = new JsonParserService();
+        vendorJsonList = new ArrayList<>();
+        for (int i = 0; i < vendors; i++) {
+            vendorJsonList.add(String.format(Locale.ROOT, """
+                    {
+                        "userID": "%s",
+                        "user": {
+                            "id": "%s",
+                            "firstname": "John",
+                            "surname": "James",
+                            "email": "john@email.com",
+                            "avatar": "www.avatar.com/avatar.png",
+                            "password": "12345",
+                            "verified": false,
+                            "userType": "Vendor"
+                        },
+                        "cuisineType": "italian",
+                        "address": {
+                            "street": "Mekelweg 5",
+                            "city": "Delft",
+                            "country": "Netherlands",
+                            "zip": "2628CC"
+                        },
+                        "location": {
+                            "latitude": %f,
+                            "longitude": %f
+                        }
+                    }""", UUID.randomUUID(), UUID.randomUUID(), 52.0 + i * 1e-4, 4.3 + i * 1e-4));
+        }
+        vendorsJson = "[" + String.join(",", vendorJsonList) + "]";
+    }
+
+    @Benchmark
+    public HashMap<UUID, List<Double>> parseVendorsLocationLegacy() {
+        return Legacy.parseVendorsLocation(vendorsJson);
+    }
+
+    @Benchmark
+    public VendorLocations parseVendorsLocationStreaming() {
+        return jsonParserService.parseVendorsLocation(vendorsJson);
+    }
+
+    @Benchmark
+    public HashMap<UUID, String> parseVendorCuisineLegacy() {
+        return Legacy.parseVendorCuisine(vendorJsonList);
+    }
+
+    @Benchmark
+    public HashMap<UUID, String> parseVendorCuisineSharedReader() {
+        return jsonParserService.parseVendorCuisine(vendorJsonList);
+    }
+
+    /**
+     * The parsers as they were before JsonParserService shared its ObjectMapper.
+     */
+    private static final class Legacy {
+
+        private Legacy() {
+        }
+
+        static List<Double> parseLocation(String json) {
+            if (json == null || json.isEmpty()) {
+                return null;
+            }
+            try {
+                ObjectMapper objectMapper = new ObjectMapper();
+                JsonNode jsonNode = objectMapper.readTree(json);
+                Double latitude = (jsonNode.get("latitude").isDouble()) ? jsonNode.get("latitude").asDouble() : null;
+                Double longitude = (jsonNode.get("longitude").isDouble()) ? jsonNode.get("longitude").asDouble() : null;
+                if (latitude == null || longitude == null) {
+                    return null;
+                }
+                return new ArrayList<>(List.of(latitude, longitude));
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
+
+        static HashMap<UUID, List<Double>> parseVendorsLocation(String jsonVendors) {
+            if (jsonVendors == null || jsonVendors.isEmpty()) {
+                return null;
+            }
+            try {
+                HashMap<UUID, List<Double>> result = new HashMap<>();
+                ObjectMapper objectMapper = new ObjectMapper();
+                JsonNode jsonArray = objectMapper.readTree(jsonVendors);
+                for (JsonNode jsonVendor : jsonArray) {
+                    JsonNode locationNode = jsonVendor.get("location");
+                    String loc = (locationNode == null) ? null : locationNode.toString();
+                    List<Double> location = parseLocation(loc);
+                    if (location == null) {
+                        break;
+                    }
+                    try {
+                        UUID uuid = UUID.fromString(jsonVendor.get("userID").asText());
+                        result.put(uuid, location);
+                    } catch (IllegalArgumentException e) {
+                        break;
+                    }
+                }
+                return result;
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
+
+        static HashMap<UUID, String> parseVendorCuisine(List<String> restaurantsJson) {
+            if (restaurantsJson.isEmpty()) {
+                return null;
+            }
+            HashMap<UUID, String> result = new HashMap<>();
+            for (String json : restaurantsJson) {
+                ObjectMapper objectMapper = new ObjectMapper();
+                try {
+                    JsonNode jsonNode = objectMapper.readTree(json);
+                    UUID restaurantID = UUID.fromString(jsonNode.get("userID").asText());
+                    String cuisine = jsonNode.get("cuisineType").asText();
+                    result.put(restaurantID, cuisine);
+                } catch (Exception ignored) {
+                    continue;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -4,13 +4,16 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Example microservice application.
  */
 @SpringBootApplication
-@EntityScan(basePackages = "nl.tudelft.sem.template.model")
+@EntityScan(basePackages = {"nl.tudelft.sem.template.model", "nl.tudelft.sem.template.order.domain.analytics",
+    "nl.tudelft.sem.template.order.domain.lines"})
 @ComponentScan({"nl.tudelft.sem.template.user", "nl.tudelft.sem.template.order"})
+@EnableScheduling
 public class Application {
     public static void main(String[] args) {
         SpringApplication.run(Application.class, args);
@@ -1,5 +1,6 @@
 package nl.tudelft.sem.template.order.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import java.util.Objects;
 import javax.sql.DataSource;
 import lombok.Getter;
@@ -8,7 +9,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 /**
@@ -28,18 +28,34 @@ public class H2Config {
     }
 
     /**
-     * Set up the connection to the database.
+     * Set up the connection pool to the database.
+     * Connections are validated with {@link java.sql.Connection#isValid(int)} when they are borrowed
+     * after being idle, and connections that are not returned within the leak detection threshold are logged.
+     * The pool registers its active/idle/pending connections, acquire time and timeouts as
+     * hikaricp.* metrics.
      *
      * @return The data source.
      */
-    @Bean
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("order-pool");
         dataSource.setDriverClassName(Objects.requireNonNull(environment.getProperty("jdbc.driverClassName")));
-        dataSource.setUrl(environment.getProperty("jdbc.url"));
+        dataSource.setJdbcUrl(environment.getProperty("jdbc.url"));
         dataSource.setUsername(environment.getProperty("jdbc.user"));
         dataSource.setPassword(environment.getProperty("jdbc.pass"));
 
+        dataSource.setMaximumPoolSize(environment.getProperty("jdbc.pool.maximumPoolSize", Integer.class, 10));
+        dataSource.setMinimumIdle(environment.getProperty("jdbc.pool.minimumIdle", Integer.class, 2));
+        dataSource.setConnectionTimeout(environment.getProperty("jdbc.pool.connectionTimeoutMs", Long.class, 3000L));
+        dataSource.setValidationTimeout(environment.getProperty("jdbc.pool.validationTimeoutMs", Long.class, 1000L));
+        dataSource.setLeakDetectionThreshold(
+                environment.getProperty("jdbc.pool.leakDetectionThresholdMs", Long.class, 10000L));
+
+        // H2 keeps a per-connection cache of parsed statements, pooled connections make it survive between requests
+        dataSource.addDataSourceProperty("QUERY_CACHE_SIZE",
+                environment.getProperty("jdbc.pool.statementCacheSize", "64"));
+
         return dataSource;
     }
 }
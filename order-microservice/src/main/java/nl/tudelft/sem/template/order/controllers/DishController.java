@@ -1,6 +1,7 @@
 package nl.tudelft.sem.template.order.controllers;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import nl.tudelft.sem.template.api.DishApi;
 import nl.tudelft.sem.template.model.Dish;
@@ -66,6 +67,21 @@ public class DishController implements DishApi {
         }
     }
 
+    /**
+     * Finds which of a list of dishes do not exist, used to validate all dishes of an order at once.
+     *
+     * @param dishIds the ids of the dishes to look for
+     * @return 200 OK with the ids of the dishes that could not be found, empty if all dishes exist
+     *         400 BAD REQUEST if the lookup was not successful
+     */
+    public ResponseEntity<Set<UUID>> getMissingDishes(List<UUID> dishIds) {
+        try {
+            return ResponseEntity.ok(dishService.getMissingDishIDs(dishIds));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Endpoint for updating a dish.
      *
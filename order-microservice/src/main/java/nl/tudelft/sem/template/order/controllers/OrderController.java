@@ -6,8 +6,10 @@ import java.util.UUID;
 import nl.tudelft.sem.template.api.OrderApi;
 import nl.tudelft.sem.template.model.Address;
 import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.OrderTotal;
 import nl.tudelft.sem.template.order.domain.helpers.FilteringByStatus;
 import nl.tudelft.sem.template.order.domain.helpers.FilteringParam;
+import nl.tudelft.sem.template.order.domain.helpers.OrderCursor;
 import nl.tudelft.sem.template.order.domain.helpers.OrderValidation;
 import nl.tudelft.sem.template.order.domain.user.CustomerNotFoundException;
 import nl.tudelft.sem.template.order.domain.user.DishNotFoundException;
@@ -16,11 +18,14 @@ import nl.tudelft.sem.template.order.domain.user.InvalidOrderStatusException;
 import nl.tudelft.sem.template.order.domain.user.NoOrdersException;
 import nl.tudelft.sem.template.order.domain.user.NullFieldException;
 import nl.tudelft.sem.template.order.domain.user.OrderNotFoundException;
+import nl.tudelft.sem.template.order.domain.user.OrderPayments;
 import nl.tudelft.sem.template.order.domain.user.OrderService;
+import nl.tudelft.sem.template.order.domain.user.OrderStatusConflictException;
+import nl.tudelft.sem.template.order.domain.user.OrderUnitOfWork;
 import nl.tudelft.sem.template.order.domain.user.UserIDNotFoundException;
 import nl.tudelft.sem.template.order.domain.user.VendorNotFoundException;
-import nl.tudelft.sem.template.user.services.JsonParserService;
 import nl.tudelft.sem.template.user.services.UserMicroServiceService;
+import nl.tudelft.sem.template.user.services.UserRoleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -31,21 +36,31 @@ public class OrderController implements OrderApi {
 
     private final transient OrderService orderService;
     private final transient UserMicroServiceService userMicroServiceService;
+    private final transient UserRoleService userRoleService;
     private final transient DishController dishController;
+    private final transient OrderUnitOfWork unitOfWork;
+    private final transient OrderPayments payments;
 
     /**
      * Constructor method for OrderController.
      *
      * @param orderService an orderservice
      * @param userMicroServiceService a userMicroServiceService
+     * @param userRoleService a userRoleService, used to check whether a user is an admin
      * @param dishController a dishController
+     * @param unitOfWork the orders loaded in the current request, so an order is read once per request
+     * @param payments the payments of orders, deduplicated by their idempotency key
      */
     @Autowired
     public OrderController(OrderService orderService, UserMicroServiceService userMicroServiceService,
-                           DishController dishController) {
+                           UserRoleService userRoleService, DishController dishController,
+                           OrderUnitOfWork unitOfWork, OrderPayments payments) {
         this.orderService = orderService;
         this.userMicroServiceService = userMicroServiceService;
+        this.userRoleService = userRoleService;
         this.dishController = dishController;
+        this.unitOfWork = unitOfWork;
+        this.payments = payments;
     }
 
     /**
@@ -71,25 +86,32 @@ public class OrderController implements OrderApi {
 
     /**
      * Endpoint for returning all Orders in the database.
-     * First checks if the user is an admin
+     * First checks if the user is an admin.
+     * With a limit or cursor one page of the orders is returned, sorted on date and orderID.
      *
-     * @return 200 OK - The Orders are successfully returned
+     * @param userID the id of the user asking for the orders
+     * @param limit the number of orders on a page, or null
+     * @param cursor the cursor of the page, or null for the first page
+     * @return 200 OK - The Orders are successfully returned, with the cursor of the next page in X-Next-Cursor
+     *         400 BAD REQUEST - The limit or cursor is malformed
      *         401 UNAUTHORIZED - The user is not authorised to ask for all the orders
      *         404 NOT FOUND - No Orders are stored in the database
      */
     @Override
-    public ResponseEntity<List<Order>> getAllOrders(UUID userID) {
+    public ResponseEntity<List<Order>> getAllOrders(UUID userID, Integer limit, String cursor) {
 
         try {
-            String jsonUser = userMicroServiceService.getUserInformation(userID);
-            userNotFoundThrower(userID, jsonUser);
-            String userType = JsonParserService.parseUserType(jsonUser);
-            if (userType.equals("Admin")) {
-                List<Order> list = orderService.getAllOrders();
-                return ResponseEntity.ok(list);
-            } else {
+            String userType = userRoleService.getUserType(userID);
+            if (!userType.equals("Admin")) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             }
+            if (OrderPages.isPaged(limit, cursor)) {
+                return OrderPages.ok(orderService.getAllOrders(OrderCursor.parse(cursor), limit));
+            }
+            List<Order> list = orderService.getAllOrders();
+            return ResponseEntity.ok(list);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -108,7 +130,7 @@ public class OrderController implements OrderApi {
     public ResponseEntity<Order> getOrderById(UUID orderID) {
 
         try {
-            Order o = orderService.getOrderById(orderID);
+            Order o = unitOfWork.getOrder(orderID);
             return ResponseEntity.ok(o);
         } catch (NullFieldException e) {
             return ResponseEntity.unprocessableEntity().build();
@@ -121,7 +143,8 @@ public class OrderController implements OrderApi {
 
     /**
      * Endpoint for returning an order to a vendor by specifying its id.
-     * The order is returned only after it is paid and if all of its dishes are available
+     * The order is returned only after it is paid and if all of its dishes are available.
+     * The order is loaded once, the validation and the response use the same order.
      *
      * @param orderId the id of the order to be retrieved
      * @return 200 OK if the order has been successfully retrieved, including the order
@@ -139,6 +162,31 @@ public class OrderController implements OrderApi {
         return ResponseEntity.notFound().build();
     }
 
+    /**
+     * Endpoint for the feed of orders of a vendor, which its kitchen polls for new orders.
+     * Every response has the cursor to poll from next in X-Next-Cursor, also when there are no new orders.
+     *
+     * @param vendorID the id of the vendor
+     * @param since only return the orders placed after this moment if no cursor is given, or null
+     * @param limit the number of orders on a page, or null
+     * @param cursor the cursor of the page, or null for the first page
+     * @return 200 OK with a page of the orders, sorted on date and orderID
+     *         404 NOT FOUND if the vendor does not exist
+     *         400 BAD REQUEST if the limit or cursor is malformed
+     */
+    @Override
+    public ResponseEntity<List<Order>> getVendorOrderFeed(UUID vendorID, Long since, Integer limit, String cursor) {
+        try {
+            OrderCursor after = cursor == null && since != null
+                    ? OrderCursor.since(BigDecimal.valueOf(since)) : OrderCursor.parse(cursor);
+            return OrderPages.poll(orderService.getOrdersOfVendor(vendorID, after, limit), after);
+        } catch (VendorNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Endpoint for editing an Order.
      *
@@ -156,9 +204,7 @@ public class OrderController implements OrderApi {
         }
 
         try {
-            String jsonUser = userMicroServiceService.getUserInformation(userID);
-            userNotFoundThrower(userID, jsonUser);
-            String userType = JsonParserService.parseUserType(jsonUser);
+            String userType = userRoleService.getUserType(userID);
             return adminCheckerEdit(orderID, order, userType);
         } catch (OrderNotFoundException e) {
             return ResponseEntity.notFound().build();
@@ -167,18 +213,6 @@ public class OrderController implements OrderApi {
         }
     }
 
-    /** Throws exception if the id is malformed.
-     *
-     * @param userID the id to show in exception
-     * @param jsonUser the json to check on
-     * @throws UserIDNotFoundException the exception to throw
-     */
-    private static void userNotFoundThrower(UUID userID, String jsonUser) throws UserIDNotFoundException {
-        if (jsonUser == null || jsonUser.isEmpty()) {
-            throw new UserIDNotFoundException(userID);
-        }
-    }
-
     /** Checks if the usertype is an admin.
      *
      * @param orderID the id of the order
@@ -211,9 +245,7 @@ public class OrderController implements OrderApi {
     @Override
     public ResponseEntity<Void> deleteOrderByID(UUID orderID, UUID userID) {
         try {
-            String jsonUser = userMicroServiceService.getUserInformation(userID);
-            userNotFoundThrower(userID, jsonUser);
-            String userType = JsonParserService.parseUserType(jsonUser);
+            String userType = userRoleService.getUserType(userID);
             return adminChecker(orderID, userType);
         } catch (OrderNotFoundException e) {
             return ResponseEntity.notFound().build();
@@ -248,7 +280,7 @@ public class OrderController implements OrderApi {
     @Override
     public ResponseEntity<Void> orderOrderIDIsPaidGet(UUID orderID) {
         try {
-            boolean isPaid = orderService.orderIsPaid(orderID);
+            boolean isPaid = unitOfWork.isPaid(orderID);
             if (isPaid) {
                 return ResponseEntity.ok().build();
             } else {
@@ -262,16 +294,17 @@ public class OrderController implements OrderApi {
     }
 
     /**
-     * OrderID isPaid controller method to update the isPaid field.
+     * OrderID isPaid controller method to mark an order as paid.
      * It throws a 404 if the order is not found.
      *
-     * @param orderID the id of the order to be checked
+     * @param orderID the id of the order that was paid
+     * @param idempotencyKey the key of the payment, retries with the same key are answered from memory
      * @return the order after it was updated
      */
     @Override
-    public ResponseEntity<Order> updateOrderPaid(UUID orderID) {
+    public ResponseEntity<Order> updateOrderPaid(UUID orderID, String idempotencyKey) {
         try {
-            Order updatedOrder = orderService.orderIsPaidUpdate(orderID);
+            Order updatedOrder = payments.pay(orderID, idempotencyKey);
             return ResponseEntity.ok(updatedOrder);
         } catch (OrderNotFoundException notFound) {
             return ResponseEntity.notFound().build();
@@ -292,7 +325,7 @@ public class OrderController implements OrderApi {
      */
     public ResponseEntity<List<UUID>> getListOfDishes(UUID orderID) {
         try {
-            Order order = orderService.getOrderById(orderID);
+            Order order = unitOfWork.getOrder(orderID);
             return ResponseEntity.ok(order.getListOfDishes());
         } catch (NullFieldException e) {
             return ResponseEntity.unprocessableEntity().build();
@@ -316,7 +349,7 @@ public class OrderController implements OrderApi {
      */
     public ResponseEntity<String> getSpecialRequirements(UUID orderID) {
         try {
-            Order order = orderService.getOrderById(orderID);
+            Order order = unitOfWork.getOrder(orderID);
             return ResponseEntity.ok(order.getSpecialRequirements());
         } catch (NullFieldException e) {
             return ResponseEntity.unprocessableEntity().build();
@@ -339,7 +372,7 @@ public class OrderController implements OrderApi {
      */
     public ResponseEntity<Address> getOrderAddress(UUID orderID) {
         try {
-            Order order = orderService.getOrderById(orderID);
+            Order order = unitOfWork.getOrder(orderID);
             return ResponseEntity.ok(order.getAddress());
         } catch (NullFieldException e) {
             return ResponseEntity.unprocessableEntity().build();
@@ -362,7 +395,7 @@ public class OrderController implements OrderApi {
      */
     public ResponseEntity<BigDecimal> getOrderDate(UUID orderID) {
         try {
-            Order order = orderService.getOrderById(orderID);
+            Order order = unitOfWork.getOrder(orderID);
             return ResponseEntity.ok(order.getDate());
         } catch (NullFieldException e) {
             return ResponseEntity.unprocessableEntity().build();
@@ -385,7 +418,7 @@ public class OrderController implements OrderApi {
      */
     public ResponseEntity<String> getCustomerName(UUID orderID) {
         try {
-            Order order = orderService.getOrderById(orderID);
+            Order order = unitOfWork.getOrder(orderID);
             UUID userID = order.getCustomerID();
             return ResponseEntity.ok(userMicroServiceService.getUserName(userID));
         } catch (NullFieldException e) {
@@ -400,16 +433,24 @@ public class OrderController implements OrderApi {
     }
 
     /** Controller for the /order/{orderID}/history endpoint.
+     * With a limit or cursor one page of the orders is returned, sorted on date and orderID.
      *
      * @param customerID the id of the customer on which we base the SQL query
+     * @param limit the number of orders on a page, or null
+     * @param cursor the cursor of the page, or null for the first page
      *
-     * @return a response which can be 200 if there is at least a past order of this user in the database
+     * @return a response which can be 200 if there is at least a past order of this user in the database,
+     *                                     or with a page of the orders and the next cursor in X-Next-Cursor
      *                                 404 if there are no orders of this user
-     *                                 400 if something else goes wrong
+     *                                 400 if the limit or cursor is malformed, or something else goes wrong
      */
     @Override
-    public ResponseEntity<List<Order>> getCustomerOrderHistory(UUID customerID) {
+    public ResponseEntity<List<Order>> getCustomerOrderHistory(UUID customerID, Integer limit, String cursor) {
         try {
+            if (OrderPages.isPaged(limit, cursor)) {
+                return OrderPages.ok(orderService.getPastOrdersByCustomerID(customerID,
+                        OrderCursor.parse(cursor), limit));
+            }
             FilteringParam<Order> filteringParam = new FilteringByStatus(Order.StatusEnum.DELIVERED);
             List<Order> allOrdersByCustomerID = orderService.getPastOrdersByCustomerID(customerID, filteringParam);
             return ResponseEntity.ok(allOrdersByCustomerID);
@@ -423,17 +464,38 @@ public class OrderController implements OrderApi {
     }
 
     /**Controller for the /order/{orderID}/totalCost endpoint.
-     * It takes the implementation provided in VendorAnalyticsController.
+     * The total is computed by the database in a single query.
      *
      * @param orderID ID of order that needs to be fetched (required)
      * @return a response where for 200 returns the total sum of the
      *          dishes that can be found in the database
+     *         404 NOT FOUND if the order does not exist
+     *         400 BAD REQUEST if the calculation was unsuccessful
      */
     @Override
     public ResponseEntity<Float> orderOrderIDTotalCostGet(UUID orderID) {
-        VendorAnalyticsController vendorAnalyticsController =
-                new VendorAnalyticsController(this, dishController, orderService);
-        return vendorAnalyticsController.getOrderEarnings(orderID);
+        try {
+            return ResponseEntity.ok(orderService.getOrderTotal(orderID));
+        } catch (OrderNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**Controller for the /order/totalCosts endpoint.
+     *
+     * @param orderIDs IDs of the orders to compute the total cost of (required)
+     * @return a response where for 200 returns the total cost of each order that exists
+     *         400 BAD REQUEST if the calculation was unsuccessful
+     */
+    @Override
+    public ResponseEntity<List<OrderTotal>> orderTotalCostsPost(List<UUID> orderIDs) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderTotals(orderIDs));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -513,7 +575,7 @@ public class OrderController implements OrderApi {
      *
      * @param orderID ID specifying the Order
      * @param status New Status as String
-     * @return Edited Order in the database
+     * @return 200 if the status was changed, 409 if the order cannot move to the status or was changed concurrently
      */
     @Override
     public ResponseEntity<Void> updateStatusOfOrderById(UUID orderID, String status) {
@@ -524,6 +586,8 @@ public class OrderController implements OrderApi {
             return ResponseEntity.notFound().build();
         } catch (InvalidOrderStatusException e) {
             return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        } catch (OrderStatusConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
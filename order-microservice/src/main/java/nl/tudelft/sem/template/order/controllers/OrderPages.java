@@ -0,0 +1,52 @@
+package nl.tudelft.sem.template.order.controllers;
+
+import java.util.List;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.order.domain.helpers.OrderCursor;
+import nl.tudelft.sem.template.order.domain.helpers.OrderPage;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Responses of the endpoints that return orders a page at a time.
+ */
+final class OrderPages {
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private OrderPages() {
+    }
+
+    /**
+     * Creates the response with a page of orders.
+     *
+     * @param page the page
+     * @return 200 OK with the orders of the page, and the cursor of the next page in the X-Next-Cursor header
+     */
+    static ResponseEntity<List<Order>> ok(OrderPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        page.getNext().ifPresent(next -> response.header(NEXT_CURSOR, next.encode()));
+        return response.body(page.getOrders());
+    }
+
+    /**
+     * Creates the response with a page of a feed that clients poll for new orders.
+     *
+     * @param page the page
+     * @param after the cursor the page was read after
+     * @return 200 OK with the orders of the page, and the cursor to poll from in the X-Next-Cursor header,
+     *         also on the last page
+     */
+    static ResponseEntity<List<Order>> poll(OrderPage page, OrderCursor after) {
+        return ResponseEntity.ok().header(NEXT_CURSOR, page.getNextOrLast(after).encode()).body(page.getOrders());
+    }
+
+    /**
+     * Checks whether the orders were asked for a page at a time.
+     *
+     * @param limit the limit parameter, or null
+     * @param cursor the cursor parameter, or null
+     * @return true if a limit or a cursor was given
+     */
+    static boolean isPaged(Integer limit, String cursor) {
+        return limit != null || cursor != null;
+    }
+}
@@ -0,0 +1,116 @@
+package nl.tudelft.sem.template.order.controllers;
+
+import java.util.UUID;
+import nl.tudelft.sem.template.order.domain.helpers.TimeWindow;
+import nl.tudelft.sem.template.order.domain.user.CustomerNotFoundException;
+import nl.tudelft.sem.template.order.domain.user.OrderExports;
+import nl.tudelft.sem.template.order.domain.user.VendorNotFoundException;
+import nl.tudelft.sem.template.user.services.UserRoleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Streams the lists of orders of the order history endpoints as newline delimited JSON, one order per line.
+ * The orders are written while they are read from the database, so any number of orders can be exported
+ * without holding them in memory. These endpoints are not part of the generated api, because a streamed
+ * body can not be returned through its interfaces.
+ */
+@RestController
+public class OrderStreamController {
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final MediaType NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON);
+
+    private final transient OrderExports orderExports;
+    private final transient UserRoleService userRoleService;
+
+    /**
+     * Constructor method for OrderStreamController.
+     *
+     * @param orderExports the exports of the orders
+     * @param userRoleService a userRoleService, used to check whether a user is an admin
+     */
+    @Autowired
+    public OrderStreamController(OrderExports orderExports, UserRoleService userRoleService) {
+        this.orderExports = orderExports;
+        this.userRoleService = userRoleService;
+    }
+
+    /**
+     * Endpoint for streaming all Orders in the database.
+     * First checks if the user is an admin
+     *
+     * @param userID the id of the user asking for the orders
+     * @return 200 OK - The Orders are streamed, sorted on date and orderID
+     *         401 UNAUTHORIZED - The user is not authorised to ask for all the orders
+     *         404 NOT FOUND - The type of the user could not be found
+     */
+    @GetMapping(value = "/order/all/{userID}/stream", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllOrders(@PathVariable("userID") UUID userID) {
+        try {
+            String userType = userRoleService.getUserType(userID);
+            if (!userType.equals("Admin")) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            return stream(orderExports.allOrders());
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Endpoint for streaming the delivered orders of a customer.
+     *
+     * @param customerID the id of the customer
+     * @return 200 OK - The orders are streamed, sorted on date and orderID
+     *         404 NOT FOUND - The customer does not exist
+     *         400 BAD REQUEST - Something else went wrong
+     */
+    @GetMapping(value = "/order/{customerID}/history/stream", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamCustomerOrderHistory(
+            @PathVariable("customerID") UUID customerID) {
+        try {
+            return stream(orderExports.pastOrdersOfCustomer(customerID));
+        } catch (CustomerNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Endpoint for streaming the orders from a customer at a vendor.
+     *
+     * @param vendorID the id of the vendor
+     * @param customerID the id of the customer
+     * @param from only include orders placed at or after this moment, in milliseconds since the epoch
+     * @param to only include orders placed before this moment, in milliseconds since the epoch
+     * @return 200 OK - The orders are streamed, sorted on date and orderID
+     *         404 NOT FOUND - Either the vendor or the customer does not exist, or both
+     *         400 BAD REQUEST - From is after to, or something else went wrong
+     */
+    @GetMapping(value = "/vendor/{vendorID}/analytics/history/{customerID}/stream", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamCustomerOrdersAtVendor(
+            @PathVariable("vendorID") UUID vendorID, @PathVariable("customerID") UUID customerID,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to) {
+        try {
+            return stream(orderExports.ordersOfCustomerAtVendor(vendorID, customerID, TimeWindow.of(from, to, null)));
+        } catch (VendorNotFoundException | CustomerNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static ResponseEntity<StreamingResponseBody> stream(OrderExports.Export export) {
+        return ResponseEntity.ok().contentType(NDJSON).body(export::writeTo);
+    }
+}
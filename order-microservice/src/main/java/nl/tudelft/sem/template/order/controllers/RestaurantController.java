@@ -2,14 +2,25 @@ package nl.tudelft.sem.template.order.controllers;
 
 import java.util.List;
 import java.util.UUID;
-import nl.tudelft.sem.template.api.RestaurantsApi;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import nl.tudelft.sem.template.order.domain.user.RestaurantService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 
+/**
+ * The restaurant search endpoints. They answer asynchronously: the request thread is released while the
+ * user microservice is asked for the location of the user and the vendors, and the response is written
+ * when both arrived. These endpoints do not implement the generated RestaurantsApi, because its interface
+ * fixes the return type to a ResponseEntity; the paths and responses are the ones of the api.
+ */
 @RestController
-public class RestaurantController implements RestaurantsApi {
+public class RestaurantController {
 
     private final transient RestaurantService restaurantService;
 
@@ -32,17 +43,12 @@ public class RestaurantController implements RestaurantsApi {
      *         400 BAD REQUEST - UserID is not valid
      *         404 NOT FOUND - Could not get restaurants around user
      */
-    @Override
-    public ResponseEntity<List<UUID>> getAllRestaurants(UUID userID) {
+    @GetMapping(value = "/restaurants/{userID}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<List<UUID>>> getAllRestaurants(@PathVariable("userID") UUID userID) {
         if (userID == null) {
-            return ResponseEntity.badRequest().build();
-        }
-        try {
-            List<UUID> list = restaurantService.getAllRestaurants(userID);
-            return ResponseEntity.ok(list);
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
+        return respond(() -> restaurantService.getAllRestaurantsAsync(userID));
     }
 
     /**
@@ -54,18 +60,25 @@ public class RestaurantController implements RestaurantsApi {
      *         400 BAD REQUEST - UserID is not valid or query is not valid
      *         404 NOT FOUND - Could not find restaurants around the user meeting the criteria
      */
-    @Override
-    public ResponseEntity<List<UUID>> getAllRestaurantsWithQuery(UUID userID, String query) {
+    @GetMapping(value = "/restaurants/{userID}/{searchQuery}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<List<UUID>>> getAllRestaurantsWithQuery(
+            @PathVariable("userID") UUID userID, @PathVariable("searchQuery") String query) {
         if (userID == null || query == null) {
-            return ResponseEntity.badRequest().build();
-        }
-        try {
-            List<UUID> list = restaurantService.getAllRestaurantsWithQuery(userID, query);
-            return ResponseEntity.ok(list);
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
+        return respond(() -> restaurantService.getAllRestaurantsWithQueryAsync(userID, query));
     }
 
-
+    /**
+     * Answers with the restaurants once they are found, or with 404 NOT FOUND if finding them fails.
+     *
+     * @param search starts the search for the restaurants
+     * @return the response
+     */
+    private static CompletableFuture<ResponseEntity<List<UUID>>> respond(Supplier<Mono<List<UUID>>> search) {
+        return Mono.defer(search)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build()))
+                .toFuture();
+    }
 }
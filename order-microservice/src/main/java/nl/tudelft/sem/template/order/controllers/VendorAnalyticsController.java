@@ -1,95 +1,58 @@
 package nl.tudelft.sem.template.order.controllers;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import nl.tudelft.sem.template.api.VendorApi;
-import nl.tudelft.sem.template.model.Dish;
+import nl.tudelft.sem.template.model.DailyVolume;
 import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.PopularItem;
+import nl.tudelft.sem.template.model.Revenue;
+import nl.tudelft.sem.template.model.TopDish;
+import nl.tudelft.sem.template.model.UniqueCustomers;
+import nl.tudelft.sem.template.model.VendorDashboard;
+import nl.tudelft.sem.template.order.domain.helpers.OrderCursor;
+import nl.tudelft.sem.template.order.domain.helpers.TimeWindow;
 import nl.tudelft.sem.template.order.domain.user.CustomerNotFoundException;
 import nl.tudelft.sem.template.order.domain.user.NoOrdersException;
 import nl.tudelft.sem.template.order.domain.user.OrderService;
+import nl.tudelft.sem.template.order.domain.user.RevenueBuckets;
+import nl.tudelft.sem.template.order.domain.user.VendorAnalyticsCache;
+import nl.tudelft.sem.template.order.domain.user.VendorDashboards;
 import nl.tudelft.sem.template.order.domain.user.VendorNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 
 
+/**
+ * The analytics of the orders of a vendor. The aggregated analytics are cached per vendor until one of its
+ * orders is written, see VendorAnalyticsCache, the order histories are always read from the database.
+ */
 @Controller
 public class VendorAnalyticsController implements VendorApi {
-    private final transient OrderController orderController;
-    private final transient DishController dishController;
+    public static final String SERVER_TIMING = "Server-Timing";
+
     private final transient OrderService orderService;
+    private final transient VendorAnalyticsCache analyticsCache;
+    private final transient VendorDashboards vendorDashboards;
 
     /**
      * Instantiates a new VendorAnalyticsController.
      *
-     * @param orderController   the OrderController
-     * @param dishController    the DishController
      * @param orderService      the OrderService
+     * @param analyticsCache    the cache of the aggregated analytics
+     * @param vendorDashboards  the dashboards, which compute several analytics at once
      */
     @Autowired
-    public VendorAnalyticsController(OrderController orderController,
-                                     DishController dishController, OrderService orderService) {
-        this.orderController = orderController;
-        this.dishController = dishController;
+    public VendorAnalyticsController(OrderService orderService, VendorAnalyticsCache analyticsCache,
+                                     VendorDashboards vendorDashboards) {
         this.orderService = orderService;
-    }
-
-    /**
-     * Calculates the total earnings of an order.
-     *
-     * @param orderId the UUID of the order to calculate the total earnings of
-     * @return 200 OK if the calculation is successful, including a float representing the total earnings
-     *         400 BAD REQUEST if the calculation was unsuccessful
-     */
-    public ResponseEntity<Float> getOrderEarnings(UUID orderId) {
-        try {
-            ResponseEntity<List<UUID>> listResponse = orderController.getListOfDishes(orderId);
-            if (listResponse.getStatusCode().equals(HttpStatus.OK)) {
-                List<UUID> listOfDishes = orderController.getListOfDishes(orderId).getBody();
-                if (listOfDishes != null) {
-                    Float earnings = 0.0f;
-                    for (UUID id : listOfDishes) {
-                        earnings = earningsCalculator(id, earnings);
-                    }
-                    return ResponseEntity.ok(earnings);
-                }
-            }
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
-        }
-    }
-
-    /** Function to calculate the earnings from the dishes in the database.
-     *
-     * @param id the id of the current dish
-     * @param earnings current order value
-     * @return total earnings including the current dish
-     */
-    private Float earningsCalculator(UUID id, Float earnings) {
-        ResponseEntity<Dish> dishResponse;
-        int t = 0;
-
-        while (t < 3) {
-            dishResponse = dishController.getDishByID(id);
-            HttpStatus dishResponseStatus = dishResponse.getStatusCode();
-            if (dishResponseStatus.equals(HttpStatus.OK)) {
-                Dish dish = dishController.getDishByID(id).getBody();
-                earnings += dish.getPrice();
-                break;
-            } else if (dishResponseStatus.equals(HttpStatus.INTERNAL_SERVER_ERROR)) {
-                //wait(1500);
-                t++;
-            } else {
-                break;
-            }
-        }
-        return earnings;
+        this.analyticsCache = analyticsCache;
+        this.vendorDashboards = vendorDashboards;
     }
 
     /**
@@ -97,14 +60,26 @@ public class VendorAnalyticsController implements VendorApi {
      *
      * @param vendorID the UUID of the vendor where the orders have been placed
      * @param customerID the UUID of the customer who placed the orders
-     * @return 200 OK with a list of orders from a customer at a certain vendor if they both exist
+     * @param from only include orders placed at or after this moment, in milliseconds since the epoch
+     * @param to only include orders placed before this moment, in milliseconds since the epoch
+     * @param limit the number of orders on a page, or null for all orders at once
+     * @param cursor the cursor of the page, or null for the first page
+     * @return 200 OK with a list of orders from a customer at a certain vendor if they both exist, with a limit
+     *         or cursor one page of them sorted on date and orderID, and the next cursor in X-Next-Cursor
      *         404 NOT FOUND if either the vendor or the customer does not exist, or both
-     *         400 BAD REQUEST if something else went wrong
+     *         400 BAD REQUEST if from is after to, the limit or cursor is malformed, or something else went wrong
      */
     @Override
-    public ResponseEntity<List<Order>> vendorVendorIDAnalyticsHistoryCustomerIDGet(UUID vendorID, UUID customerID) {
+    public ResponseEntity<List<Order>> vendorVendorIDAnalyticsHistoryCustomerIDGet(UUID vendorID, UUID customerID,
+                                                                                   Long from, Long to,
+                                                                                   Integer limit, String cursor) {
         try {
-            List<Order> orders = orderService.getOrdersFromCustomerAtVendor(vendorID, customerID);
+            if (OrderPages.isPaged(limit, cursor)) {
+                return OrderPages.ok(orderService.getOrdersFromCustomerAtVendor(vendorID, customerID,
+                        TimeWindow.of(from, to, null), OrderCursor.parse(cursor), limit));
+            }
+            List<Order> orders = orderService.getOrdersFromCustomerAtVendor(vendorID, customerID,
+                    TimeWindow.of(from, to, null));
             return ResponseEntity.ok(orders);
         } catch (VendorNotFoundException e) {
             return ResponseEntity.notFound().build();
@@ -121,14 +96,18 @@ public class VendorAnalyticsController implements VendorApi {
      * Getter for the total number of orders made at a vendor.
      *
      * @param vendorID the UUID of the vendor from whom the total number of orders is returned
+     * @param from only count orders placed at or after this moment, in milliseconds since the epoch
+     * @param to only count orders placed before this moment, in milliseconds since the epoch
      * @return 200 OK with the total number of orders made at a vendor
      *         404 NOT FOUND if the vendor could not be found
-     *         400 BAD REQUEST if something else went wrong
+     *         400 BAD REQUEST if from is after to, or something else went wrong
      */
     @Override
-    public ResponseEntity<Integer> vendorVendorIDAnalyticsOrderVolumesGet(UUID vendorID) {
+    public ResponseEntity<Integer> vendorVendorIDAnalyticsOrderVolumesGet(UUID vendorID, Long from, Long to) {
         try {
-            Integer volume = orderService.getOrderVolume(vendorID);
+            TimeWindow window = TimeWindow.of(from, to, null);
+            Integer volume = analyticsCache.get(vendorID, "orderVolumes",
+                    () -> orderService.getOrderVolume(vendorID, window), window);
             return ResponseEntity.ok(volume);
         } catch (VendorNotFoundException e) {
             return ResponseEntity.notFound().build();
@@ -143,15 +122,21 @@ public class VendorAnalyticsController implements VendorApi {
      * Getter for a list containing the volume of orders divided over each hour of the day.
      *
      * @param vendorID the UUID of the vendor from whom the volumes divided over the hours are retrieved
+     * @param from only count orders placed at or after this moment, in milliseconds since the epoch
+     * @param to only count orders placed before this moment, in milliseconds since the epoch
+     * @param zone the time zone of the hours, the time zone of the server if null
      * @return 200 OK with the volume of orders divided over each hour of the day, where index
      *             0 is for 00:00 till 01:00, 1 is for 01:00 till 02:00, ... 23 is for 23:00 till 00:00
      *         404 NOT FOUND if the vendor could not be found
-     *         400 BAD REQUEST if something else went wrong
+     *         400 BAD REQUEST if from is after to, the zone is unknown or something else went wrong
      */
     @Override
-    public ResponseEntity<List<Integer>> vendorVendorIDAnalyticsPeakTimesGet(UUID vendorID) {
+    public ResponseEntity<List<Integer>> vendorVendorIDAnalyticsPeakTimesGet(UUID vendorID, Long from, Long to,
+                                                                            String zone) {
         try {
-            List<Integer> volumes = orderService.getOrderVolumeByTime(vendorID);
+            TimeWindow window = TimeWindow.of(from, to, zone);
+            List<Integer> volumes = analyticsCache.get(vendorID, "peakTimes",
+                    () -> orderService.getOrderVolumeByTime(vendorID, window), window);
             return ResponseEntity.ok(volumes);
         } catch (VendorNotFoundException e) {
             return ResponseEntity.notFound().build();
@@ -163,19 +148,143 @@ public class VendorAnalyticsController implements VendorApi {
     }
 
     /**
-     * Getter for a list of dishes offered by a vendor ordered by how often they have been ordered.
-     * The list only contain dishes that have been ordered at least once
+     * Getter for a list containing the volume of orders divided over the days of the week.
+     *
+     * @param vendorID the UUID of the vendor from whom the volumes are retrieved
+     * @param from only count orders placed at or after this moment, in milliseconds since the epoch
+     * @param to only count orders placed before this moment, in milliseconds since the epoch
+     * @param zone the time zone of the days, the time zone of the server if null
+     * @return 200 OK with the volume of orders for each day of the week, where index 0 is for Monday,
+     *             ... 6 is for Sunday
+     *         404 NOT FOUND if the vendor could not be found
+     *         400 BAD REQUEST if from is after to, the zone is unknown or something else went wrong
+     */
+    @Override
+    public ResponseEntity<List<Integer>> vendorVendorIDAnalyticsWeekdaysGet(UUID vendorID, Long from, Long to,
+                                                                           String zone) {
+        try {
+            TimeWindow window = TimeWindow.of(from, to, zone);
+            return ResponseEntity.ok(analyticsCache.get(vendorID, "weekdays",
+                    () -> orderService.getOrderVolumeByWeekday(vendorID, window), window));
+        } catch (VendorNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Getter for the volume of orders of each day.
+     *
+     * @param vendorID the UUID of the vendor from whom the volumes are retrieved
+     * @param from only count orders placed at or after this moment, in milliseconds since the epoch
+     * @param to only count orders placed before this moment, in milliseconds since the epoch
+     * @param zone the time zone of the days, the time zone of the server if null
+     * @return 200 OK with the volume of orders of each day with orders, ordered by day
+     *         404 NOT FOUND if the vendor could not be found
+     *         400 BAD REQUEST if from is after to, the zone is unknown or something else went wrong
+     */
+    @Override
+    public ResponseEntity<List<DailyVolume>> vendorVendorIDAnalyticsDailyVolumesGet(UUID vendorID, Long from,
+                                                                                   Long to, String zone) {
+        try {
+            TimeWindow window = TimeWindow.of(from, to, zone);
+            return ResponseEntity.ok(analyticsCache.get(vendorID, "dailyVolumes",
+                    () -> orderService.getDailyOrderVolumes(vendorID, window), window));
+        } catch (VendorNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Getter for the revenue of the paid orders of a vendor, added up per day, week or month.
+     *
+     * @param vendorID the UUID of the vendor from whom the revenue is retrieved
+     * @param period day, week or month, day if null
+     * @param first the first day (UTC) to include, no lower bound if null
+     * @param last the last day (UTC) to include, no upper bound if null
+     * @return 200 OK with the revenue in cents of each period with revenue, ordered by the first day of the period
+     *         404 NOT FOUND if the vendor could not be found
+     *         400 BAD REQUEST if the period is unknown or something else went wrong
+     */
+    @Override
+    public ResponseEntity<List<Revenue>> vendorVendorIDAnalyticsRevenueGet(UUID vendorID, String period,
+                                                                          LocalDate first, LocalDate last) {
+        try {
+            RevenueBuckets.Period periodLength = RevenueBuckets.Period.parse(period);
+            return ResponseEntity.ok(analyticsCache.get(vendorID, "revenue",
+                    () -> orderService.getRevenue(vendorID, periodLength, first, last), periodLength, first, last));
+        } catch (VendorNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Getter for the estimated number of distinct customers of a vendor, from per day HyperLogLog sketches.
+     *
+     * @param vendorID the UUID of the vendor
+     * @param first the first day (UTC) to include, no lower bound if null
+     * @param last the last day (UTC) to include, no upper bound if null
+     * @return 200 OK with the estimate and its relative standard error
+     *         404 NOT FOUND if the vendor could not be found
+     *         400 BAD REQUEST if first is after last or something else went wrong
+     */
+    @Override
+    public ResponseEntity<UniqueCustomers> vendorVendorIDAnalyticsUniqueCustomersGet(UUID vendorID, LocalDate first,
+                                                                                     LocalDate last) {
+        try {
+            return ResponseEntity.ok(analyticsCache.get(vendorID, "uniqueCustomers",
+                    () -> orderService.getUniqueCustomers(vendorID, first, last), first, last));
+        } catch (VendorNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Getter for the estimated most ordered dishes of a vendor, from per day Space-Saving summaries.
+     *
+     * @param vendorID the UUID of the vendor
+     * @param first the first day (UTC) to include, no lower bound if null
+     * @param last the last day (UTC) to include, no upper bound if null
+     * @param limit the most dishes to return, 10 if null
+     * @return 200 OK with the dishes and their estimated counts, the highest first
+     *         404 NOT FOUND if the vendor could not be found
+     *         400 BAD REQUEST if first is after last, the limit is out of range or something else went wrong
+     */
+    @Override
+    public ResponseEntity<List<TopDish>> vendorVendorIDAnalyticsTopDishesGet(UUID vendorID, LocalDate first,
+                                                                             LocalDate last, Integer limit) {
+        try {
+            return ResponseEntity.ok(analyticsCache.get(vendorID, "topDishes",
+                    () -> orderService.getTopDishes(vendorID, first, last, limit), first, last, limit));
+        } catch (VendorNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Getter for the dishes offered by a vendor ordered by how often they have been ordered.
+     * The list only contains dishes that have been ordered at least once
      *
      * @param vendorID UUID of the vendor from which the popular dishes will be retrieved
-     * @return 200 OK with the dishes ordered by how often they have been ordered, only including dishes
-     *             that have been ordered before
+     * @param limit the maximum number of dishes to return, all ordered dishes if null
+     * @return 200 OK with the dishes and how often they have been ordered, the most ordered dish first
      *         404 NOT FOUND if the vendor could not be found
-     *         400 BAD REQUEST if something else went wrong
+     *         400 BAD REQUEST if the limit is less than 1 or something else went wrong
      */
     @Override
-    public ResponseEntity<List<Dish>> vendorVendorIDAnalyticsPopularItemsGet(UUID vendorID) {
+    public ResponseEntity<List<PopularItem>> vendorVendorIDAnalyticsPopularItemsGet(UUID vendorID, Integer limit) {
         try {
-            List<Dish> dishes = orderService.getDishesSortedByVolume(vendorID);
+            List<PopularItem> dishes = analyticsCache.get(vendorID, "popularItems",
+                    () -> orderService.getPopularItems(vendorID, limit), limit);
             return ResponseEntity.ok(dishes);
         } catch (VendorNotFoundException e) {
             return ResponseEntity.notFound().build();
@@ -183,4 +292,30 @@ public class VendorAnalyticsController implements VendorApi {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Getter for the dashboard of a vendor: its order volume, peak times and popular items, computed in parallel.
+     *
+     * @param vendorID the UUID of the vendor
+     * @param from only count orders placed at or after this moment, in milliseconds since the epoch
+     * @param to only count orders placed before this moment, in milliseconds since the epoch
+     * @param zone the time zone of the peak times, the time zone of the server if null
+     * @param limit the maximum number of popular items, all ordered dishes if null
+     * @return 200 OK with the dashboard, and the time spent on each section in the Server-Timing header
+     *         404 NOT FOUND if the vendor could not be found
+     *         400 BAD REQUEST if from is after to, the zone is unknown, the limit is less than 1
+     *                         or something else went wrong
+     */
+    @Override
+    public ResponseEntity<VendorDashboard> vendorVendorIDAnalyticsDashboardGet(UUID vendorID, Long from, Long to,
+                                                                              String zone, Integer limit) {
+        try {
+            VendorDashboards.Dashboard dashboard = vendorDashboards.getDashboard(vendorID, from, to, zone, limit);
+            return ResponseEntity.ok().header(SERVER_TIMING, dashboard.getServerTiming()).body(dashboard.getContent());
+        } catch (VendorNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package nl.tudelft.sem.template.order.domain.analytics;
+
+import java.util.UUID;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * The number of orders of a vendor that were placed in one hour of the day.
+ * Kept up to date when orders are created, edited and deleted, so the peak times of a vendor
+ * are read from at most 24 rows instead of from all of its orders.
+ */
+@Entity
+@Table(name = "order_volume_counters")
+@IdClass(OrderVolumeCounterId.class)
+@Getter
+@NoArgsConstructor
+public class OrderVolumeCounter implements Persistable<OrderVolumeCounterId> {
+
+    @Id
+    private UUID vendorID;
+
+    @Id
+    private int hourOfDay;
+
+    private int volume;
+
+    // counters are always created with a new key, this saves the select JPA would do to find out
+    @Transient
+    private boolean persisted;
+
+    /**
+     * Instantiates a new counter that is not yet stored.
+     *
+     * @param vendorID the vendor of the orders
+     * @param hourOfDay the hour of the day the orders were placed in, 0 is for 00:00 till 01:00
+     * @param volume the number of orders
+     */
+    public OrderVolumeCounter(UUID vendorID, int hourOfDay, int volume) {
+        this.vendorID = vendorID;
+        this.hourOfDay = hourOfDay;
+        this.volume = volume;
+    }
+
+    @Override
+    public OrderVolumeCounterId getId() {
+        return new OrderVolumeCounterId(vendorID, hourOfDay);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+}
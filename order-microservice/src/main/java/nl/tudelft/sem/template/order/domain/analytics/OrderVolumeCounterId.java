@@ -0,0 +1,22 @@
+package nl.tudelft.sem.template.order.domain.analytics;
+
+import java.io.Serializable;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The key of an OrderVolumeCounter: the vendor and the hour of the day.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderVolumeCounterId implements Serializable {
+
+    static final long serialVersionUID = 2817404631215460382L;
+
+    private UUID vendorID;
+
+    private int hourOfDay;
+}
@@ -0,0 +1,70 @@
+package nl.tudelft.sem.template.order.domain.analytics;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * The revenue of the paid orders of a vendor that were placed on one day (UTC), in cents.
+ * Kept up to date when orders are created, edited, paid and deleted and when dishes are added to or
+ * removed from them, so the revenue of a month is read from at most 31 rows instead of from all orders.
+ */
+@Entity
+@Table(name = "revenue_buckets")
+@IdClass(RevenueBucketId.class)
+@Getter
+@NoArgsConstructor
+public class RevenueBucket implements Persistable<RevenueBucketId> {
+
+    @Id
+    private UUID vendorID;
+
+    @Id
+    @Column(name = "bucket_day")
+    private LocalDate day;
+
+    private long revenueCents;
+
+    // buckets are always created with a new key, this saves the select JPA would do to find out
+    @Transient
+    private boolean persisted;
+
+    /**
+     * Instantiates a new bucket that is not yet stored.
+     *
+     * @param vendorID the vendor of the orders
+     * @param day the day the orders were placed on, in UTC
+     * @param revenueCents the revenue of the orders in cents
+     */
+    public RevenueBucket(UUID vendorID, LocalDate day, long revenueCents) {
+        this.vendorID = vendorID;
+        this.day = day;
+        this.revenueCents = revenueCents;
+    }
+
+    @Override
+    public RevenueBucketId getId() {
+        return new RevenueBucketId(vendorID, day);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+}
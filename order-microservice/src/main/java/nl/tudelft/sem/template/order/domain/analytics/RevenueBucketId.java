@@ -0,0 +1,23 @@
+package nl.tudelft.sem.template.order.domain.analytics;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The key of a RevenueBucket: the vendor and the day.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueBucketId implements Serializable {
+
+    static final long serialVersionUID = 6150743311402849521L;
+
+    private UUID vendorID;
+
+    private LocalDate day;
+}
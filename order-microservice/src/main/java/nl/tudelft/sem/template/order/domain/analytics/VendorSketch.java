@@ -0,0 +1,96 @@
+package nl.tudelft.sem.template.order.domain.analytics;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Lob;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import nl.tudelft.sem.template.order.domain.helpers.HyperLogLog;
+import nl.tudelft.sem.template.order.domain.helpers.SpaceSaving;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * The sketches of the orders of a vendor that were placed on one day (UTC): a HyperLogLog of the
+ * customers and a Space-Saving summary of the dishes, stored in their binary forms.
+ * The sketches of a time window are the merge of the sketches of its days, so the number of distinct
+ * customers and the most ordered dishes are estimated without reading the orders.
+ */
+@Entity
+@Table(name = "vendor_sketches")
+@IdClass(VendorSketchId.class)
+@Getter
+@NoArgsConstructor
+public class VendorSketch implements Persistable<VendorSketchId> {
+
+    @Id
+    private UUID vendorID;
+
+    @Id
+    @Column(name = "sketch_day")
+    private LocalDate day;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] customers;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] dishes;
+
+    // sketches are always created with a new key, this saves the select JPA would do to find out
+    @Transient
+    private boolean persisted;
+
+    /**
+     * Instantiates new, empty sketches that are not yet stored.
+     *
+     * @param vendorID the vendor of the orders
+     * @param day the day the orders were placed on, in UTC
+     */
+    public VendorSketch(UUID vendorID, LocalDate day) {
+        this.vendorID = vendorID;
+        this.day = day;
+        this.customers = new HyperLogLog().toBytes();
+        this.dishes = new SpaceSaving().toBytes();
+    }
+
+    public HyperLogLog customerSketch() {
+        return HyperLogLog.fromBytes(customers);
+    }
+
+    public void storeCustomerSketch(HyperLogLog sketch) {
+        this.customers = sketch.toBytes();
+    }
+
+    public SpaceSaving dishSketch() {
+        return SpaceSaving.fromBytes(dishes);
+    }
+
+    public void storeDishSketch(SpaceSaving sketch) {
+        this.dishes = sketch.toBytes();
+    }
+
+    @Override
+    public VendorSketchId getId() {
+        return new VendorSketchId(vendorID, day);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+}
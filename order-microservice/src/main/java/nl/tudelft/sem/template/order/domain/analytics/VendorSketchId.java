@@ -0,0 +1,23 @@
+package nl.tudelft.sem.template.order.domain.analytics;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The key of a VendorSketch: the vendor and the day.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VendorSketchId implements Serializable {
+
+    static final long serialVersionUID = -3822479127650731407L;
+
+    private UUID vendorID;
+
+    private LocalDate day;
+}
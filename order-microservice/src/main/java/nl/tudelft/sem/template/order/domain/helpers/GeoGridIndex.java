@@ -0,0 +1,236 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Spatial index of the locations of vendors, a uniform grid of cells of about cellSize by cellSize degrees.
+ * A radius search only looks at the cells that overlap the bounding box of the circle,
+ * and takes the vendors of a cell that lies entirely in the circle without checking their distance.
+ * The index is immutable, refresh creates a new index that shares the cells that did not change.
+ */
+public final class GeoGridIndex {
+
+    /**
+     * Size of a cell in degrees, about 5.5 km from north to south.
+     */
+    public static final double DEFAULT_CELL_SIZE = 0.05;
+
+    private static final double MAX_LATITUDE = 90;
+    private static final double MAX_LONGITUDE = 180;
+    // margin on the bounding box, so rounding never leaves out a cell
+    private static final double MARGIN = 1e-9;
+
+    private final transient double cellSize;
+    private final transient int rows;
+    private final transient double cellHeight;
+    private final transient double cellWidth;
+    private final transient int columns;
+    private final transient VendorLocations vendors;
+    private final transient Map<Long, VendorLocations> cells;
+
+    private GeoGridIndex(double cellSize, VendorLocations vendors, Map<Long, VendorLocations> cells) {
+        this.cellSize = cellSize;
+        this.rows = (int) Math.ceil(2 * MAX_LATITUDE / cellSize);
+        this.columns = (int) Math.ceil(2 * MAX_LONGITUDE / cellSize);
+        // round the size of the cells, so they exactly cover the earth
+        this.cellHeight = 2 * MAX_LATITUDE / rows;
+        this.cellWidth = 2 * MAX_LONGITUDE / columns;
+        this.vendors = vendors;
+        this.cells = cells;
+    }
+
+    /**
+     * Creates an index without vendors.
+     *
+     * @param cellSize the size of the cells in degrees
+     * @return the empty index
+     * @throws IllegalArgumentException if the cell size is not between 0 and 90 degrees
+     */
+    public static GeoGridIndex empty(double cellSize) {
+        if (!(cellSize > 0 && cellSize <= MAX_LATITUDE)) {
+            throw new IllegalArgumentException("Cell size must be between 0 and 90 degrees");
+        }
+        return new GeoGridIndex(cellSize, new VendorLocations(), new HashMap<>());
+    }
+
+    /**
+     * Creates an index of the vendors.
+     *
+     * @param vendors the vendors, which should not be changed anymore
+     * @param cellSize the size of the cells in degrees
+     * @return the index
+     */
+    public static GeoGridIndex build(VendorLocations vendors, double cellSize) {
+        return empty(cellSize).refresh(vendors);
+    }
+
+    /**
+     * Creates an index of a new list of vendors, reusing the cells of this index that did not change.
+     * The vendors are compared by id, a vendor changes when it was added, removed or moved to another
+     * location. Only the cells that such a vendor left or moved to are built again, so a vendor that is
+     * added at the start of the list does not change the cells of the vendors after it.
+     *
+     * @param newVendors the new list of vendors, which should not be changed anymore
+     * @return this index if no vendor changed, otherwise a new index
+     */
+    public GeoGridIndex refresh(VendorLocations newVendors) {
+        Set<Long> changed = changedCells(newVendors);
+        if (changed.isEmpty()) {
+            return this;
+        }
+        Map<Long, VendorLocations> newCells = new HashMap<>(cells);
+        newCells.keySet().removeAll(changed);
+        for (int i = 0; i < newVendors.size(); i++) {
+            addToChangedCell(newCells, changed, newVendors, i);
+        }
+        return new GeoGridIndex(cellSize, newVendors, newCells);
+    }
+
+    private Set<Long> changedCells(VendorLocations newVendors) {
+        Set<Long> changed = new HashSet<>();
+        for (int i = 0; i < newVendors.size(); i++) {
+            int previous = vendors.indexOf(newVendors.getId(i));
+            if (previous < 0) {
+                changed.add(cellKey(newVendors, i));
+            } else if (!vendors.sameLocation(previous, newVendors, i)) {
+                changed.add(cellKey(vendors, previous));
+                changed.add(cellKey(newVendors, i));
+            }
+        }
+        for (int i = 0; i < vendors.size(); i++) {
+            if (newVendors.indexOf(vendors.getId(i)) < 0) {
+                changed.add(cellKey(vendors, i));
+            }
+        }
+        return changed;
+    }
+
+    private void addToChangedCell(Map<Long, VendorLocations> newCells, Set<Long> changed,
+                                  VendorLocations newVendors, int index) {
+        long key = cellKey(newVendors, index);
+        if (changed.contains(key)) {
+            newCells.computeIfAbsent(key, k -> new VendorLocations(4)).addFrom(newVendors, index);
+        }
+    }
+
+    /**
+     * Finds the vendors closer than radius km to a location, using the Haversine formula.
+     *
+     * @param latitude the latitude of the location in degrees
+     * @param longitude the longitude of the location in degrees
+     * @param radius the radius in km
+     * @return the ids of the vendors within the radius, in no particular order
+     */
+    public List<UUID> withinRadius(double latitude, double longitude, double radius) {
+        List<UUID> result = new ArrayList<>();
+        RadiusFilter filter = new RadiusFilter(latitude, longitude, radius);
+        double latitudeDelta = Math.toDegrees(radius / VendorLocations.EARTH_RADIUS) + MARGIN;
+        if (latitude - latitudeDelta <= -MAX_LATITUDE || latitude + latitudeDelta >= MAX_LATITUDE) {
+            // the circle contains a pole, so it spans all longitudes
+            collectAllCells(filter, result);
+            return result;
+        }
+        // widest longitude difference on the circle, asin(sin(d / R) / cos(latitude))
+        double sinLongitudeDelta = Math.sin(radius / VendorLocations.EARTH_RADIUS)
+                / Math.cos(Math.toRadians(latitude));
+        double longitudeDelta = (sinLongitudeDelta >= 1)
+                ? MAX_LONGITUDE : Math.toDegrees(Math.asin(sinLongitudeDelta)) + MARGIN;
+        int firstRow = row(latitude - latitudeDelta);
+        int lastRow = row(latitude + latitudeDelta);
+        int firstColumn = column(longitude - longitudeDelta);
+        int lastColumn = column(longitude + longitudeDelta);
+        if (lastColumn - firstColumn + 1 >= columns || (long) (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1)
+                > cells.size()) {
+            // fewer cells with vendors than cells in the bounding box
+            collectAllCells(filter, result);
+            return result;
+        }
+        collectCells(filter, firstRow, lastRow, firstColumn, lastColumn, result);
+        return result;
+    }
+
+    private void collectCells(RadiusFilter filter, int firstRow, int lastRow, int firstColumn, int lastColumn,
+                              List<UUID> result) {
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                collectCell((long) row * columns + Math.floorMod(column, columns), filter, result);
+            }
+        }
+    }
+
+    private void collectAllCells(RadiusFilter filter, List<UUID> result) {
+        cells.keySet().forEach(key -> collectCell(key, filter, result));
+    }
+
+    /**
+     * Adds the vendors of a cell that are within the radius to result.
+     * If all corners of the cell are within the radius, so is the whole cell: along a parallel the distance grows
+     * with the difference in longitude, and along a meridian it is largest at one of the ends.
+     * This does not hold for the cell that contains the meridian opposite to the location, which is checked normally.
+     */
+    private void collectCell(long key, RadiusFilter filter, List<UUID> result) {
+        VendorLocations cell = cells.get(key);
+        if (cell == null) {
+            return;
+        }
+        double south = (key / columns) * cellHeight - MAX_LATITUDE;
+        double north = south + cellHeight;
+        double west = (key % columns) * cellWidth - MAX_LONGITUDE;
+        double east = west + cellWidth;
+        double centerDistance = Math.abs(
+                Math.IEEEremainder(west + cellWidth / 2 - filter.getLongitude(), 2 * MAX_LONGITUDE));
+        boolean inside = centerDistance + cellWidth / 2 < MAX_LONGITUDE
+                && filter.contains(south, west) && filter.contains(south, east)
+                && filter.contains(north, west) && filter.contains(north, east);
+        if (inside) {
+            cell.collectAll(result);
+        } else {
+            cell.collectWithinRadius(filter, result);
+        }
+    }
+
+    private int row(double latitude) {
+        int row = (int) Math.floor((latitude + MAX_LATITUDE) / cellHeight);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    /**
+     * Gets the column of a longitude, which is not wrapped around yet.
+     */
+    private int column(double longitude) {
+        return (int) Math.floor((longitude + MAX_LONGITUDE) / cellWidth);
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return (long) row(latitude) * columns + Math.floorMod(column(longitude), columns);
+    }
+
+    private long cellKey(VendorLocations locations, int index) {
+        return cellKey(locations.getLatitude(index), locations.getLongitude(index));
+    }
+
+    /**
+     * Gets the vendors in the cell of a location.
+     *
+     * @param latitude the latitude of the location in degrees
+     * @param longitude the longitude of the location in degrees
+     * @return the vendors in the cell, or null if it has none
+     */
+    VendorLocations cellOf(double latitude, double longitude) {
+        return cells.get(cellKey(latitude, longitude));
+    }
+
+    public int size() {
+        return vendors.size();
+    }
+
+    public int cellCount() {
+        return cells.size();
+    }
+}
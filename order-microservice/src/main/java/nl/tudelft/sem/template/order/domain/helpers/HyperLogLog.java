@@ -0,0 +1,140 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * A HyperLogLog sketch, which estimates the number of distinct ids added to it in a fixed 4 KiB.
+ * Each id is hashed to 64 bits; the first PRECISION bits choose a register, which keeps the highest
+ * position of the first one bit in the remaining bits. The relative standard error of the estimate
+ * is 1.04 / sqrt(REGISTERS), about 1.6%, and small counts are corrected with linear counting.
+ * Sketches merge by taking the maximum of each register, so the sketch of a time window is the merge
+ * of the sketches of its days, and an id added on several days is counted once.
+ */
+public final class HyperLogLog {
+    public static final int PRECISION = 12;
+    public static final int REGISTERS = 1 << PRECISION;
+    public static final double RELATIVE_STANDARD_ERROR = 1.04 / Math.sqrt(REGISTERS);
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+    // below this raw estimate the registers that are still zero give a better estimate
+    private static final double LINEAR_COUNTING_LIMIT = 2.5 * REGISTERS;
+
+    private final transient byte[] registers;
+
+    /**
+     * Creates an empty sketch.
+     */
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Reads a sketch stored with toBytes.
+     *
+     * @param bytes the registers of the sketch
+     * @return the sketch
+     * @throws IllegalArgumentException if the bytes are not the registers of a sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length != REGISTERS) {
+            throw new IllegalArgumentException("a sketch has " + REGISTERS + " registers, got " + bytes.length);
+        }
+        return new HyperLogLog(bytes.clone());
+    }
+
+    /**
+     * Gets the sketch in its binary form, one byte per register.
+     *
+     * @return the registers of the sketch
+     */
+    public byte[] toBytes() {
+        return registers.clone();
+    }
+
+    /**
+     * Adds an id to the sketch.
+     *
+     * @param id the id
+     */
+    public void add(UUID id) {
+        long hash = hash(id);
+        int register = (int) (hash >>> (Long.SIZE - PRECISION));
+        // the lowest bit set keeps the rank at most Long.SIZE - PRECISION + 1
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[register]) {
+            registers[register] = rank;
+        }
+    }
+
+    /**
+     * Adds all ids added to another sketch to this sketch.
+     *
+     * @param other the other sketch, which is not changed
+     */
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+        }
+    }
+
+    /**
+     * Estimates the number of distinct ids added to the sketch.
+     *
+     * @return the estimate
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte rank : registers) {
+            sum += Math.scalb(1.0, -rank);
+            zeros += (rank == 0) ? 1 : 0;
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= LINEAR_COUNTING_LIMIT && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Hashes an id to 64 bits that are spread evenly, with the finalizer of MurmurHash3.
+     * The bits of a random UUID are not random in the version and variant fields.
+     *
+     * @param id the id
+     * @return the hash
+     */
+    static long hash(UUID id) {
+        return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    }
+
+    private static long mix(long bits) {
+        long h = bits;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HyperLogLog)) {
+            return false;
+        }
+        return Arrays.equals(registers, ((HyperLogLog) o).registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+}
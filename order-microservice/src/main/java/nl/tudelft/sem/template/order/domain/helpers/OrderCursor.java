@@ -0,0 +1,127 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.UUID;
+import nl.tudelft.sem.template.model.Order;
+
+/**
+ * The position in a list of orders sorted on date and then orderID, with orders without a date first.
+ * A page of orders continues right after the order the cursor was taken from, so orders that are
+ * added or deleted while a client pages through the list do not shift the pages.
+ * Clients get the cursor as an opaque string.
+ */
+public final class OrderCursor {
+    private static final OrderCursor FIRST = new OrderCursor(null, null);
+    private static final char SEPARATOR = ':';
+
+    private final transient BigDecimal date;
+    private final transient UUID orderID;
+
+    private OrderCursor(BigDecimal date, UUID orderID) {
+        this.date = date;
+        this.orderID = orderID;
+    }
+
+    /**
+     * Gets the cursor before the first order.
+     *
+     * @return the cursor of the first page
+     */
+    public static OrderCursor start() {
+        return FIRST;
+    }
+
+    /**
+     * Gets the cursor right after an order.
+     *
+     * @param order the last order of a page
+     * @return the cursor of the next page
+     */
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getDate(), Objects.requireNonNull(order.getOrderID()));
+    }
+
+    /**
+     * Gets the cursor right after a moment, before all orders placed after it.
+     *
+     * @param date the moment, in milliseconds since the epoch
+     * @return the cursor of the first page of orders placed after the moment
+     */
+    public static OrderCursor since(BigDecimal date) {
+        return new OrderCursor(Objects.requireNonNull(date), null);
+    }
+
+    /**
+     * Parses a cursor that was given to a client.
+     *
+     * @param cursor the cursor as a string, or null for the first page
+     * @return the cursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static OrderCursor parse(String cursor) {
+        if (cursor == null) {
+            return FIRST;
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = decoded.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("malformed cursor " + cursor);
+        }
+        BigDecimal date = separator == 0 ? null : new BigDecimal(decoded.substring(0, separator));
+        UUID orderID = separator == decoded.length() - 1 ? null : UUID.fromString(decoded.substring(separator + 1));
+        return orderID == null && date == null ? FIRST : new OrderCursor(date, orderID);
+    }
+
+    /**
+     * Gets the cursor as the string given to clients.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        String decoded = (date == null ? "" : date.toPlainString()) + SEPARATOR + (orderID == null ? "" : orderID);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gets the date of the last order before the cursor.
+     *
+     * @return the date, or null at the start or if the order had no date
+     */
+    public BigDecimal getDate() {
+        return date;
+    }
+
+    /**
+     * Gets the id of the last order before the cursor.
+     *
+     * @return the id, or null at the start or for a cursor since a moment
+     */
+    public UUID getOrderID() {
+        return orderID;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OrderCursor)) {
+            return false;
+        }
+        OrderCursor other = (OrderCursor) o;
+        return Objects.equals(date, other.date) && Objects.equals(orderID, other.orderID);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, orderID);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderCursor[" + date + ", " + orderID + "]";
+    }
+}
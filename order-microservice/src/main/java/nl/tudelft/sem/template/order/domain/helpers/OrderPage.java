@@ -0,0 +1,61 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import java.util.List;
+import java.util.Optional;
+import nl.tudelft.sem.template.model.Order;
+
+/**
+ * One page of a list of orders, with the cursor of the next page if there is one.
+ */
+public final class OrderPage {
+    private final transient List<Order> orders;
+    private final transient OrderCursor next;
+
+    private OrderPage(List<Order> orders, OrderCursor next) {
+        this.orders = orders;
+        this.next = next;
+    }
+
+    /**
+     * Creates a page from the orders read for it.
+     * One order more than the size of the page is read, which tells whether there is a next page
+     * without counting all orders.
+     *
+     * @param read the orders read for the page, sorted like the cursor, at most limit + 1
+     * @param limit the number of orders on a page
+     * @return the page, with at most limit orders
+     */
+    public static OrderPage of(List<Order> read, int limit) {
+        if (read.size() <= limit) {
+            return new OrderPage(read, null);
+        }
+        List<Order> orders = read.subList(0, limit);
+        return new OrderPage(orders, OrderCursor.after(orders.get(limit - 1)));
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    /**
+     * Gets the cursor of the next page.
+     *
+     * @return the cursor right after the last order of this page, or empty if this is the last page
+     */
+    public Optional<OrderCursor> getNext() {
+        return Optional.ofNullable(next);
+    }
+
+    /**
+     * Gets the cursor to continue from, also on the last page, for clients that poll for new orders.
+     *
+     * @param after the cursor this page was read after
+     * @return the cursor of the next page, or right after the last order of this page, or after if it is empty
+     */
+    public OrderCursor getNextOrLast(OrderCursor after) {
+        if (next != null) {
+            return next;
+        }
+        return orders.isEmpty() ? after : OrderCursor.after(orders.get(orders.size() - 1));
+    }
+}
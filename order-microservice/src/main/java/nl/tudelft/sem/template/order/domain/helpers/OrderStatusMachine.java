@@ -0,0 +1,60 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import nl.tudelft.sem.template.model.Order.StatusEnum;
+
+/**
+ * The statuses an order can move to from its current status. An order is pending until the vendor accepts
+ * or rejects it, then it is prepared, given to a courier, on transit and finally delivered:
+ * pending, accepted, preparing, given to courier, on-transit, delivered.
+ * It can be rejected while it is pending or accepted. Rejected and delivered orders do not change anymore.
+ * An order without a status is treated as pending, and can also be given the status pending.
+ */
+public final class OrderStatusMachine {
+    private static final Map<StatusEnum, Set<StatusEnum>> NEXT = new EnumMap<>(StatusEnum.class);
+
+    static {
+        NEXT.put(StatusEnum.PENDING, EnumSet.of(StatusEnum.ACCEPTED, StatusEnum.REJECTED));
+        NEXT.put(StatusEnum.ACCEPTED, EnumSet.of(StatusEnum.PREPARING, StatusEnum.REJECTED));
+        NEXT.put(StatusEnum.PREPARING, EnumSet.of(StatusEnum.GIVEN_TO_COURIER));
+        NEXT.put(StatusEnum.GIVEN_TO_COURIER, EnumSet.of(StatusEnum.ON_TRANSIT));
+        NEXT.put(StatusEnum.ON_TRANSIT, EnumSet.of(StatusEnum.DELIVERED));
+        NEXT.put(StatusEnum.REJECTED, EnumSet.noneOf(StatusEnum.class));
+        NEXT.put(StatusEnum.DELIVERED, EnumSet.noneOf(StatusEnum.class));
+    }
+
+    private OrderStatusMachine() {
+    }
+
+    /**
+     * Checks whether an order can move from one status to another.
+     *
+     * @param from the current status of the order, null if it has none
+     * @param to the new status
+     * @return true if the order can move to the new status
+     */
+    public static boolean canMove(StatusEnum from, StatusEnum to) {
+        if (from == null) {
+            return to == StatusEnum.PENDING || NEXT.get(StatusEnum.PENDING).contains(to);
+        }
+        return NEXT.get(from).contains(to);
+    }
+
+    /**
+     * Parses a status as it is sent by clients, e.g. "given to courier", ignoring case.
+     * The names of the constants, like GIVEN_TO_COURIER, are accepted as well.
+     *
+     * @param status the status
+     * @return the status, or empty if it is not a status
+     */
+    public static Optional<StatusEnum> parse(String status) {
+        return Arrays.stream(StatusEnum.values())
+                .filter(s -> s.getValue().equalsIgnoreCase(status) || s.name().equalsIgnoreCase(status))
+                .findFirst();
+    }
+}
@@ -1,8 +1,8 @@
 package nl.tudelft.sem.template.order.domain.helpers;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
-import nl.tudelft.sem.template.model.Dish;
 import nl.tudelft.sem.template.order.controllers.DishController;
 import nl.tudelft.sem.template.order.controllers.OrderController;
 import org.springframework.http.HttpStatus;
@@ -18,7 +18,7 @@ public class OrderValidation {
     }
 
     /**
-     * Verifies if all dishes of the order are available.
+     * Verifies if all dishes of the order are available, looking them all up at once.
      *
      * @param orderId the id of the order from which the availability of dishes is verified
      * @return 200 OK if no problems appear during the verification, together with the boolean TRUE or FALSE
@@ -30,13 +30,9 @@ public class OrderValidation {
             ResponseEntity<List<UUID>> dishesResponse = orderController.getListOfDishes(orderId);
 
             if (notFoundHandler(dishesResponse)) {
-                for (UUID dishId : dishesResponse.getBody()) {
-                    ResponseEntity<Dish> dishResponseEntity = dishController.getDishByID(dishId);
-                    if (!dishResponseEntity.getStatusCode().equals(HttpStatus.OK)) {
-                        return ResponseEntity.ok(false);
-                    }
-                }
-                return ResponseEntity.ok(true);
+                ResponseEntity<Set<UUID>> missingDishes = dishController.getMissingDishes(dishesResponse.getBody());
+                return ResponseEntity.ok(missingDishes.getStatusCode().equals(HttpStatus.OK)
+                        && missingDishes.getBody() != null && missingDishes.getBody().isEmpty());
             }
 
             return ResponseEntity.notFound().build();
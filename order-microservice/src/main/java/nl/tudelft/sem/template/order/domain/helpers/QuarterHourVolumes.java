@@ -0,0 +1,79 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderRepository.QuarterHourVolume;
+
+/**
+ * Folds the number of orders per quarter of an hour, as counted by the database, into hours of the day,
+ * days of the week or days in a time zone.
+ * The database groups the orders on the quarter of an hour since the epoch (UTC) they were placed in.
+ * Every time zone differs from UTC by a multiple of 15 minutes, and changes its offset at the start of
+ * a quarter, so each quarter lies in exactly one hour and day of any time zone.
+ */
+public final class QuarterHourVolumes {
+    public static final long QUARTER_HOUR_MILLIS = 15 * 60 * 1000L;
+    public static final int HOURS_PER_DAY = 24;
+    public static final int DAYS_PER_WEEK = 7;
+
+    private QuarterHourVolumes() {
+    }
+
+    /**
+     * Adds up the volumes per hour of the day.
+     *
+     * @param volumes the number of orders per quarter of an hour
+     * @param zone the time zone of the hours
+     * @return list of length 24, where index 0 is for 00:00 till 01:00, ... 23 is for 23:00 till 00:00
+     */
+    public static List<Integer> byHourOfDay(List<QuarterHourVolume> volumes, ZoneId zone) {
+        List<Integer> result = new ArrayList<>(Collections.nCopies(HOURS_PER_DAY, 0));
+        for (QuarterHourVolume volume : volumes) {
+            int hour = start(volume, zone).getHour();
+            result.set(hour, result.get(hour) + Math.toIntExact(volume.getVolume()));
+        }
+        return result;
+    }
+
+    /**
+     * Adds up the volumes per day of the week.
+     *
+     * @param volumes the number of orders per quarter of an hour
+     * @param zone the time zone of the days
+     * @return list of length 7, where index 0 is for Monday, ... 6 is for Sunday
+     */
+    public static List<Integer> byDayOfWeek(List<QuarterHourVolume> volumes, ZoneId zone) {
+        List<Integer> result = new ArrayList<>(Collections.nCopies(DAYS_PER_WEEK, 0));
+        for (QuarterHourVolume volume : volumes) {
+            int day = start(volume, zone).getDayOfWeek().getValue() - 1;
+            result.set(day, result.get(day) + Math.toIntExact(volume.getVolume()));
+        }
+        return result;
+    }
+
+    /**
+     * Adds up the volumes per day.
+     *
+     * @param volumes the number of orders per quarter of an hour
+     * @param zone the time zone of the days
+     * @return the number of orders of each day with orders, ordered by day
+     */
+    public static SortedMap<LocalDate, Integer> byDay(List<QuarterHourVolume> volumes, ZoneId zone) {
+        SortedMap<LocalDate, Integer> result = new TreeMap<>();
+        for (QuarterHourVolume volume : volumes) {
+            result.merge(start(volume, zone).toLocalDate(), Math.toIntExact(volume.getVolume()), Integer::sum);
+        }
+        return result;
+    }
+
+    private static ZonedDateTime start(QuarterHourVolume volume, ZoneId zone) {
+        return Instant.ofEpochMilli(volume.getQuarterHour() * QUARTER_HOUR_MILLIS).atZone(zone);
+    }
+}
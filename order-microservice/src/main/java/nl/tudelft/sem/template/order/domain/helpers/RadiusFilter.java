@@ -0,0 +1,61 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+/**
+ * Checks whether locations are closer than a radius to a location, using the Haversine formula.
+ * Instead of computing the distance, the haversine of a location is compared to the haversine of the radius,
+ * so the cosine of the latitude and the haversine of the radius are computed once per search.
+ */
+class RadiusFilter {
+
+    static final double DEGREES_TO_RADIANS = Math.PI / 180;
+
+    private final transient double latitude;
+    private final transient double longitude;
+    private final transient double cosLatitude;
+    private final transient double maxHaversine;
+
+    /**
+     * Creates a filter for the locations within radius km of a location.
+     *
+     * @param latitude the latitude of the location in degrees
+     * @param longitude the longitude of the location in degrees
+     * @param radius the radius in km
+     */
+    RadiusFilter(double latitude, double longitude, double radius) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.cosLatitude = Math.cos(latitude * DEGREES_TO_RADIANS);
+        // distance = 2 * R * asin(sqrt(a)) < radius  <=>  a < sin(radius / (2 * R))^2
+        this.maxHaversine = Math.pow(Math.sin(Math.min(radius / (2 * VendorLocations.EARTH_RADIUS), Math.PI / 2)), 2);
+    }
+
+    double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Checks whether a location is within the radius.
+     *
+     * @param otherLatitude the latitude of the location in degrees
+     * @param cosOtherLatitude the cosine of that latitude
+     * @param otherLongitude the longitude of the location in degrees
+     * @return true if the location is closer than the radius
+     */
+    boolean contains(double otherLatitude, double cosOtherLatitude, double otherLongitude) {
+        double a = 0.5 - Math.cos((otherLatitude - latitude) * DEGREES_TO_RADIANS) / 2
+                + cosLatitude * cosOtherLatitude
+                * (1 - Math.cos((otherLongitude - longitude) * DEGREES_TO_RADIANS)) / 2;
+        return a < maxHaversine;
+    }
+
+    /**
+     * Checks whether a location is within the radius.
+     *
+     * @param otherLatitude the latitude of the location in degrees
+     * @param otherLongitude the longitude of the location in degrees
+     * @return true if the location is closer than the radius
+     */
+    boolean contains(double otherLatitude, double otherLongitude) {
+        return contains(otherLatitude, Math.cos(otherLatitude * DEGREES_TO_RADIANS), otherLongitude);
+    }
+}
@@ -0,0 +1,233 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A Space-Saving summary, which keeps the most frequent ids added to it in at most CAPACITY counters.
+ * When an id without a counter is added while all counters are in use, the smallest counter is taken over
+ * by the new id and keeps its count, which becomes the error of the new id. So every count is at least
+ * the true number of times the id was added and at most its error more, the error is at most
+ * total / CAPACITY, and every id added more than total / CAPACITY times has a counter.
+ * Summaries merge by adding up the counters, where an id without a counter in a full summary is given
+ * the smallest count of that summary, which keeps these bounds for the merged summary.
+ */
+public final class SpaceSaving {
+    public static final int CAPACITY = 64;
+
+    // total, number of counters, and the id, count and error of each counter
+    private static final int HEADER_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int COUNTER_BYTES = 4 * Long.BYTES;
+
+    private static final Comparator<Counter> MOST_FREQUENT_FIRST = Comparator.comparingLong(Counter::getCount)
+            .reversed().thenComparing(Counter::getId);
+
+    private final transient Map<UUID, Counter> counters;
+    private transient long total;
+
+    /**
+     * Creates an empty summary.
+     */
+    public SpaceSaving() {
+        this(new HashMap<>(), 0);
+    }
+
+    private SpaceSaving(Map<UUID, Counter> counters, long total) {
+        this.counters = counters;
+        this.total = total;
+    }
+
+    /**
+     * The estimated number of times an id was added.
+     */
+    public static final class Counter {
+        private final transient UUID id;
+        private final transient long count;
+        private final transient long error;
+
+        Counter(UUID id, long count, long error) {
+            this.id = id;
+            this.count = count;
+            this.error = error;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        /**
+         * Gets the estimated number of times the id was added.
+         *
+         * @return the count, which is at most getError() more than the true number
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the most the count can be more than the true number of times the id was added.
+         *
+         * @return the error of the count
+         */
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Counter)) {
+                return false;
+            }
+            Counter other = (Counter) o;
+            return id.equals(other.id) && count == other.count && error == other.error;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, count, error);
+        }
+
+        @Override
+        public String toString() {
+            return id + ": " + count + " (error " + error + ")";
+        }
+    }
+
+    /**
+     * Reads a summary stored with toBytes.
+     *
+     * @param bytes the summary in its binary form
+     * @return the summary
+     * @throws IllegalArgumentException if the bytes are not a summary
+     */
+    public static SpaceSaving fromBytes(byte[] bytes) {
+        if (bytes.length < HEADER_BYTES) {
+            throw new IllegalArgumentException("malformed summary of " + bytes.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, HEADER_BYTES, bytes.length - HEADER_BYTES);
+        int size = buffer.getInt(Long.BYTES);
+        if (size < 0 || size > CAPACITY || buffer.remaining() != size * COUNTER_BYTES) {
+            throw new IllegalArgumentException("malformed summary of " + bytes.length + " bytes");
+        }
+        Map<UUID, Counter> counters = IntStream.range(0, size)
+                .mapToObj(i -> new Counter(new UUID(buffer.getLong(), buffer.getLong()),
+                        buffer.getLong(), buffer.getLong()))
+                .collect(Collectors.toMap(Counter::getId, counter -> counter, (a, b) -> b, HashMap::new));
+        return new SpaceSaving(counters, buffer.getLong(0));
+    }
+
+    /**
+     * Gets the summary in its binary form: the total, the number of counters, and 32 bytes per counter.
+     *
+     * @return the summary as bytes, at most 2 KiB
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + counters.size() * COUNTER_BYTES);
+        buffer.putLong(total);
+        buffer.putInt(counters.size());
+        for (Counter counter : counters.values()) {
+            buffer.putLong(counter.getId().getMostSignificantBits());
+            buffer.putLong(counter.getId().getLeastSignificantBits());
+            buffer.putLong(counter.getCount());
+            buffer.putLong(counter.getError());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Adds one occurrence of an id.
+     *
+     * @param id the id
+     */
+    public void add(UUID id) {
+        total++;
+        Counter counter = counters.get(id);
+        if (counter != null) {
+            counters.put(id, new Counter(id, counter.getCount() + 1, counter.getError()));
+        } else if (counters.size() < CAPACITY) {
+            counters.put(id, new Counter(id, 1, 0));
+        } else {
+            Counter smallest = counters.values().stream().min(MOST_FREQUENT_FIRST.reversed()).orElseThrow();
+            counters.remove(smallest.getId());
+            counters.put(id, new Counter(id, smallest.getCount() + 1, smallest.getCount()));
+        }
+    }
+
+    /**
+     * Adds all occurrences added to another summary to this summary.
+     *
+     * @param other the other summary, which is not changed
+     */
+    public void merge(SpaceSaving other) {
+        Set<UUID> ids = new HashSet<>(counters.keySet());
+        ids.addAll(other.counters.keySet());
+        List<Counter> merged = new ArrayList<>();
+        for (UUID id : ids) {
+            Counter counter = counterOf(id);
+            Counter otherCounter = other.counterOf(id);
+            merged.add(new Counter(id, counter.getCount() + otherCounter.getCount(),
+                    counter.getError() + otherCounter.getError()));
+        }
+        counters.clear();
+        merged.stream().sorted(MOST_FREQUENT_FIRST).limit(CAPACITY).forEach(c -> counters.put(c.getId(), c));
+        total += other.total;
+    }
+
+    /**
+     * Gets the ids with the highest counts.
+     *
+     * @param limit the most ids to return
+     * @return the counters, the highest count first
+     */
+    public List<Counter> top(int limit) {
+        return counters.values().stream().sorted(MOST_FREQUENT_FIRST).limit(limit).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the number of occurrences added.
+     *
+     * @return the total of all occurrences, including those of ids without a counter
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the most any count can be more than the true number of times its id was added.
+     *
+     * @return the largest possible error, total / CAPACITY rounded down
+     */
+    public long getMaxError() {
+        return total / CAPACITY;
+    }
+
+    /**
+     * Gets the counter of an id, or for an id without a counter the most it may have been added:
+     * the smallest count if all counters are in use, otherwise 0.
+     *
+     * @param id the id
+     * @return the counter of the id
+     */
+    private Counter counterOf(UUID id) {
+        Counter counter = counters.get(id);
+        if (counter != null) {
+            return counter;
+        }
+        long smallest = (counters.size() < CAPACITY) ? 0
+                : counters.values().stream().mapToLong(Counter::getCount).min().orElse(0);
+        return new Counter(id, smallest, smallest);
+    }
+}
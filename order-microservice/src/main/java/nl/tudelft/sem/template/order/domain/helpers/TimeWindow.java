@@ -0,0 +1,95 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * The moments and the time zone analytics are computed over.
+ * Without from and to all orders are included, without a zone the time zone of the server is used.
+ */
+public final class TimeWindow {
+    private static final BigDecimal BEGINNING = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal END = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private final transient BigDecimal from;
+    private final transient BigDecimal to;
+    private final transient ZoneId zone;
+    private final transient boolean unbounded;
+
+    private TimeWindow(Long from, Long to, ZoneId zone) {
+        this.from = (from == null) ? BEGINNING : BigDecimal.valueOf(from);
+        this.to = (to == null) ? END : BigDecimal.valueOf(to);
+        this.zone = zone;
+        this.unbounded = from == null && to == null;
+    }
+
+    /**
+     * Creates a time window from the optional parameters of the analytics endpoints.
+     *
+     * @param from the first moment of the window in milliseconds since the epoch, or null for no lower bound
+     * @param to the end of the window (exclusive) in milliseconds since the epoch, or null for no upper bound
+     * @param zone the id of the time zone, for example Europe/Amsterdam, or null for the time zone of the server
+     * @return the time window
+     * @throws IllegalArgumentException if from is after to
+     * @throws java.time.DateTimeException if the zone is not a valid time zone id
+     */
+    public static TimeWindow of(Long from, Long to, String zone) {
+        if (from != null && to != null && from > to) {
+            throw new IllegalArgumentException("from " + from + " is after to " + to);
+        }
+        return new TimeWindow(from, to, (zone == null) ? ZoneId.systemDefault() : ZoneId.of(zone));
+    }
+
+    /**
+     * Creates a time window including all orders, in the time zone of the server.
+     *
+     * @return the time window
+     */
+    public static TimeWindow allTime() {
+        return of(null, null, null);
+    }
+
+    public BigDecimal getFrom() {
+        return from;
+    }
+
+    public BigDecimal getTo() {
+        return to;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Checks whether the window has no bounds, so all orders are included.
+     *
+     * @return true if neither from nor to was given
+     */
+    public boolean isAllTime() {
+        return unbounded;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TimeWindow)) {
+            return false;
+        }
+        TimeWindow other = (TimeWindow) o;
+        return from.equals(other.from) && to.equals(other.to) && zone.equals(other.zone);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, zone);
+    }
+
+    @Override
+    public String toString() {
+        return "TimeWindow[" + from + ", " + to + ") in " + zone;
+    }
+}
@@ -0,0 +1,189 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact store of the locations of vendors.
+ * The vendors are kept in parallel primitive arrays (UUID halves, latitude, longitude and the cosine of the latitude),
+ * so filtering on distance does not allocate anything per vendor.
+ * Every vendor is stored once: a vendor that is added again keeps its place and gets the new location.
+ */
+public class VendorLocations {
+
+    /**
+     * Radius of the earth in km.
+     */
+    public static final double EARTH_RADIUS = 6371D;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private transient long[] idMostSignificantBits;
+    private transient long[] idLeastSignificantBits;
+    private transient double[] latitudes;
+    private transient double[] longitudes;
+    private transient double[] cosLatitudes;
+    private transient int count;
+    // the index of every vendor, to find a vendor that is added again
+    private final transient Map<UUID, Integer> indexes = new HashMap<>();
+
+    /**
+     * Creates an empty store.
+     */
+    public VendorLocations() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty store with room for the given number of vendors.
+     *
+     * @param capacity the number of vendors that fit before the arrays have to grow
+     */
+    public VendorLocations(int capacity) {
+        int initial = Math.max(capacity, 1);
+        idMostSignificantBits = new long[initial];
+        idLeastSignificantBits = new long[initial];
+        latitudes = new double[initial];
+        longitudes = new double[initial];
+        cosLatitudes = new double[initial];
+    }
+
+    /**
+     * Adds a vendor. If the vendor was added before, it is moved to the new location instead.
+     *
+     * @param id the id of the vendor
+     * @param latitude the latitude of the vendor in degrees
+     * @param longitude the longitude of the vendor in degrees
+     */
+    public void add(UUID id, double latitude, double longitude) {
+        int index = indexes.computeIfAbsent(id, k -> count);
+        if (index == count) {
+            if (count == latitudes.length) {
+                grow();
+            }
+            idMostSignificantBits[count] = id.getMostSignificantBits();
+            idLeastSignificantBits[count] = id.getLeastSignificantBits();
+            count++;
+        }
+        latitudes[index] = latitude;
+        longitudes[index] = longitude;
+        cosLatitudes[index] = Math.cos(latitude * RadiusFilter.DEGREES_TO_RADIANS);
+    }
+
+    private void grow() {
+        int capacity = latitudes.length * 2;
+        idMostSignificantBits = Arrays.copyOf(idMostSignificantBits, capacity);
+        idLeastSignificantBits = Arrays.copyOf(idLeastSignificantBits, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        cosLatitudes = Arrays.copyOf(cosLatitudes, capacity);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public UUID getId(int index) {
+        return new UUID(idMostSignificantBits[index], idLeastSignificantBits[index]);
+    }
+
+    /**
+     * Finds the index of a vendor.
+     *
+     * @param id the id of the vendor
+     * @return the index of the vendor, or -1 if it was not added
+     */
+    public int indexOf(UUID id) {
+        return indexes.getOrDefault(id, -1);
+    }
+
+    public double getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    public double getLongitude(int index) {
+        return longitudes[index];
+    }
+
+    /**
+     * Finds the vendors closer than radius km to a location, using the Haversine formula.
+     * The cosines of the latitudes of the vendors are computed when they are added,
+     * see RadiusFilter for how the distance is compared to the radius.
+     *
+     * @param latitude the latitude of the location in degrees
+     * @param longitude the longitude of the location in degrees
+     * @param radius the radius in km
+     * @return the ids of the vendors within the radius, in the order they were added
+     */
+    public List<UUID> withinRadius(double latitude, double longitude, double radius) {
+        List<UUID> result = new ArrayList<>();
+        collectWithinRadius(new RadiusFilter(latitude, longitude, radius), result);
+        return result;
+    }
+
+    /**
+     * Adds the ids of the vendors that pass the filter to result, in the order they were added.
+     *
+     * @param filter the location and radius to search in
+     * @param result the list to add the ids to
+     */
+    void collectWithinRadius(RadiusFilter filter, List<UUID> result) {
+        for (int i = 0; i < count; i++) {
+            if (filter.contains(latitudes[i], cosLatitudes[i], longitudes[i])) {
+                result.add(getId(i));
+            }
+        }
+    }
+
+    /**
+     * Adds the ids of all vendors to result, in the order they were added.
+     *
+     * @param result the list to add the ids to
+     */
+    void collectAll(List<UUID> result) {
+        for (int i = 0; i < count; i++) {
+            result.add(getId(i));
+        }
+    }
+
+    /**
+     * Adds the vendor at the given index of another store, without computing its cosine again.
+     * The vendor should not be in this store yet.
+     *
+     * @param other the store to copy the vendor from
+     * @param index the index of the vendor in other
+     */
+    void addFrom(VendorLocations other, int index) {
+        if (count == latitudes.length) {
+            grow();
+        }
+        indexes.put(other.getId(index), count);
+        idMostSignificantBits[count] = other.idMostSignificantBits[index];
+        idLeastSignificantBits[count] = other.idLeastSignificantBits[index];
+        latitudes[count] = other.latitudes[index];
+        longitudes[count] = other.longitudes[index];
+        cosLatitudes[count] = other.cosLatitudes[index];
+        count++;
+    }
+
+    /**
+     * Checks whether the vendor at index is at the same location as the one at otherIndex of other.
+     *
+     * @param index the index of the vendor in this store
+     * @param other the other store
+     * @param otherIndex the index of the vendor in other
+     * @return true if the locations are equal
+     */
+    boolean sameLocation(int index, VendorLocations other, int otherIndex) {
+        return Double.compare(latitudes[index], other.latitudes[otherIndex]) == 0
+                && Double.compare(longitudes[index], other.longitudes[otherIndex]) == 0;
+    }
+}
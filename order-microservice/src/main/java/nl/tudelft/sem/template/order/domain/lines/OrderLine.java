@@ -0,0 +1,77 @@
+package nl.tudelft.sem.template.order.domain.lines;
+
+import java.util.UUID;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * A dish of an order and the number of times it was ordered. The list of dishes of an order is projected
+ * from its lines: each dish repeated quantity times, in the order the dishes were first added.
+ * Adding or removing a dish changes the quantity of one line instead of rewriting the whole list.
+ */
+@Entity
+@Table(name = "order_lines")
+@IdClass(OrderLineId.class)
+@Getter
+@NoArgsConstructor
+public class OrderLine implements Persistable<OrderLineId> {
+
+    @Id
+    private UUID orderID;
+
+    @Id
+    private UUID dishID;
+
+    private int quantity;
+
+    // the price of the dish when it was first added to the order, null if the dish had no price
+    private Float unitPrice;
+
+    // the number of lines the order had when this line was added, which orders the lines
+    private int lineNumber;
+
+    // lines are always created with a new key, this saves the select JPA would do to find out
+    @Transient
+    private boolean persisted;
+
+    /**
+     * Instantiates a new line that is not yet stored.
+     *
+     * @param orderID the order
+     * @param dishID the dish
+     * @param quantity the number of times the dish was ordered
+     * @param unitPrice the current price of the dish
+     * @param lineNumber the number of lines the order has before this one
+     */
+    public OrderLine(UUID orderID, UUID dishID, int quantity, Float unitPrice, int lineNumber) {
+        this.orderID = orderID;
+        this.dishID = dishID;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.lineNumber = lineNumber;
+    }
+
+    @Override
+    public OrderLineId getId() {
+        return new OrderLineId(orderID, dishID);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+}
@@ -0,0 +1,22 @@
+package nl.tudelft.sem.template.order.domain.lines;
+
+import java.io.Serializable;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The key of an OrderLine: the order and the dish.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLineId implements Serializable {
+
+    static final long serialVersionUID = -2291736451877409815L;
+
+    private UUID orderID;
+
+    private UUID dishID;
+}
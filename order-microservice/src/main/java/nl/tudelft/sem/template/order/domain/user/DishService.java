@@ -1,8 +1,11 @@
 package nl.tudelft.sem.template.order.domain.user;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import nl.tudelft.sem.template.model.Dish;
 import nl.tudelft.sem.template.order.domain.user.repositories.DishRepository;
@@ -68,6 +71,21 @@ public class DishService {
         return !dishRepository.existsByDishID(uuid);
     }
 
+    /**
+     * Finds the dishes that do not exist, with a single query over the distinct ids,
+     * without loading the dishes themselves.
+     *
+     * @param dishIds the ids of the dishes, which may contain duplicates
+     * @return the ids of the dishes that are not in the database, empty if all of them are
+     */
+    public Set<UUID> getMissingDishIDs(Collection<UUID> dishIds) {
+        Set<UUID> missing = new LinkedHashSet<>(dishIds);
+        if (!missing.isEmpty()) {
+            missing.removeAll(dishRepository.findExistingDishIDs(missing));
+        }
+        return missing;
+    }
+
     /**
      * retrieve a dish.
      *
@@ -0,0 +1,62 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Creates the rows the counts derived from the orders are added to: the order volume counters, the revenue
+ * buckets and the vendor sketches. They are created in the transaction that writes the order, so when two
+ * orders create the same row, the second waits for the first to commit and then fails on the duplicate key.
+ * That failure must not roll back the order, which it would if the row was saved through its repository,
+ * so the row is inserted on the connection of the transaction, past the persistence context, and only
+ * the insert is rolled back to a savepoint. The caller then adds to the row the other order created.
+ */
+@Component
+public class EmptyRows {
+
+    private final transient EntityManager entityManager;
+
+    /**
+     * Instantiates a new EmptyRows.
+     *
+     * @param entityManager the entity manager of the transaction the rows are inserted in
+     */
+    @Autowired
+    public EmptyRows(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Inserts an empty row in the current transaction, unless another transaction inserted it first.
+     *
+     * @param row the empty row, an entity with a new key
+     * @return true if the row was inserted, false if it already existed
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean create(Object row) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> insert(connection, row));
+    }
+
+    private boolean insert(Connection connection, Object row) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try (StatelessSession session = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+                .openStatelessSession(connection)) {
+            session.insert(row);
+        } catch (ConstraintViolationException e) {
+            connection.rollback(savepoint);
+            return false;
+        }
+        connection.releaseSavepoint(savepoint);
+        return true;
+    }
+}
@@ -0,0 +1,166 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.order.domain.helpers.TimeWindow;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderRepository;
+import nl.tudelft.sem.template.user.services.UserMicroServiceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes lists of orders as newline delimited JSON, one order per line, while they are read from the database.
+ * The orders are scrolled with a JDBC fetch size in a read only transaction and written in chunks of one fetch,
+ * the dishes of a chunk are read with a single query and its orders are detached once they are written, so
+ * the memory used does not grow with the number of orders.
+ * The customer and vendor are checked when the export is created, before anything is written.
+ */
+@Service
+public class OrderExports {
+    private static final int NEWLINE = '\n';
+    private static final int CHUNK_SIZE = Integer.parseInt(OrderRepository.STREAM_FETCH_SIZE);
+
+    private final transient OrderRepository orderRepository;
+    private final transient OrderLines orderLines;
+    private final transient UserMicroServiceService userMicroServiceService;
+    private final transient EntityManager entityManager;
+    private final transient ObjectWriter writer;
+    private final transient TransactionTemplate readOnly;
+
+    /**
+     * Instantiates a new OrderExports.
+     *
+     * @param orderRepository the order repository
+     * @param orderLines the dishes of the orders, read for each order before it is written
+     * @param userMicroServiceService the user microService, used to check that customers and vendors exist
+     * @param entityManager the entity manager the orders are detached from
+     * @param objectMapper the object mapper the orders are written with
+     * @param transactionManager the transaction manager of the database
+     */
+    @Autowired
+    public OrderExports(OrderRepository orderRepository, OrderLines orderLines,
+                        UserMicroServiceService userMicroServiceService,
+                        EntityManager entityManager, ObjectMapper objectMapper,
+                        PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.orderLines = orderLines;
+        this.userMicroServiceService = userMicroServiceService;
+        this.entityManager = entityManager;
+        this.writer = objectMapper.writerFor(Order.class);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Orders written to a stream.
+     */
+    @FunctionalInterface
+    public interface Export {
+        /**
+         * Writes the orders, one JSON object per line.
+         *
+         * @param out the stream to write to, which is not closed
+         * @throws IOException if writing fails
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Exports all orders, sorted on date and orderID.
+     *
+     * @return the export
+     */
+    public Export allOrders() {
+        return export(orderRepository::streamOrders);
+    }
+
+    /**
+     * Exports the delivered orders of a customer, sorted on date and orderID.
+     *
+     * @param customerID the id of the customer
+     * @return the export
+     * @throws CustomerNotFoundException if the customer does not exist
+     */
+    public Export pastOrdersOfCustomer(UUID customerID) throws CustomerNotFoundException {
+        if (!userMicroServiceService.checkUserExists(customerID)) {
+            throw new CustomerNotFoundException(customerID);
+        }
+        return export(() -> orderRepository.streamOrdersOfCustomerWithStatus(customerID, Order.StatusEnum.DELIVERED));
+    }
+
+    /**
+     * Exports the orders from a customer at a vendor placed in a time window, sorted on date and orderID.
+     *
+     * @param vendorID the id of the vendor
+     * @param customerID the id of the customer
+     * @param window the time window the orders were placed in
+     * @return the export
+     * @throws VendorNotFoundException if the vendor does not exist
+     * @throws CustomerNotFoundException if the customer does not exist
+     */
+    public Export ordersOfCustomerAtVendor(UUID vendorID, UUID customerID, TimeWindow window)
+            throws VendorNotFoundException, CustomerNotFoundException {
+        if (!userMicroServiceService.checkVendorExists(vendorID)) {
+            throw new VendorNotFoundException(vendorID);
+        }
+        if (!userMicroServiceService.checkUserExists(customerID)) {
+            throw new CustomerNotFoundException(customerID);
+        }
+        return export(() -> orderRepository.streamOrdersOfCustomerAtVendor(vendorID, customerID,
+                window.isAllTime(), window.getFrom(), window.getTo()));
+    }
+
+    private Export export(Supplier<Stream<Order>> query) {
+        return out -> {
+            try {
+                readOnly.executeWithoutResult(status -> {
+                    try (Stream<Order> orders = query.get()) {
+                        write(orders.iterator(), out);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private void write(Iterator<Order> orders, OutputStream out) {
+        while (orders.hasNext()) {
+            writeChunk(nextChunk(orders), out);
+        }
+    }
+
+    private static List<Order> nextChunk(Iterator<Order> orders) {
+        List<Order> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (chunk.size() < CHUNK_SIZE && orders.hasNext()) {
+            chunk.add(orders.next());
+        }
+        return chunk;
+    }
+
+    private void writeChunk(List<Order> chunk, OutputStream out) {
+        orderLines.project(chunk);
+        try {
+            for (Order order : chunk) {
+                out.write(writer.writeValueAsBytes(order));
+                out.write(NEWLINE);
+                entityManager.detach(order);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
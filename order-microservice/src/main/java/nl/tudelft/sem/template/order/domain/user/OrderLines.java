@@ -0,0 +1,171 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import nl.tudelft.sem.template.model.Dish;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.order.domain.lines.OrderLine;
+import nl.tudelft.sem.template.order.domain.user.repositories.DishRepository;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderLineRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The dishes of the orders, stored as one OrderLine per order and dish with the number of times the dish
+ * was ordered. Adding a dish to an order increments the quantity of its line, or inserts the line if the
+ * order did not have the dish yet, and removing a dish decrements it; the other lines are not touched.
+ * The listOfDishes of an order is not stored, it is projected from the lines when the order is read.
+ * The lines are written in the transaction that writes their order, so an order is never stored without its
+ * dishes. Lines are only written with single statements and are never kept in the persistence context, so
+ * the bulk updates always see and change the stored quantities.
+ */
+@Service
+public class OrderLines {
+    public static final int BATCH_SIZE = 1000;
+
+    private final transient OrderLineRepository lineRepository;
+    private final transient DishRepository dishRepository;
+    private final transient EntityManager entityManager;
+
+    /**
+     * Instantiates a new OrderLines.
+     *
+     * @param lineRepository the repository of the lines
+     * @param dishRepository the dish repository, used for the prices of the dishes
+     * @param entityManager the entity manager the inserted lines are detached from
+     */
+    @Autowired
+    public OrderLines(OrderLineRepository lineRepository, DishRepository dishRepository,
+                      EntityManager entityManager) {
+        this.lineRepository = lineRepository;
+        this.dishRepository = dishRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Sets the listOfDishes of an order to the dishes of its lines.
+     *
+     * @param order the order
+     */
+    public void project(Order order) {
+        project(List.of(order));
+    }
+
+    /**
+     * Sets the listOfDishes of orders to the dishes of their lines, with one query per BATCH_SIZE orders.
+     * Every dish is repeated as many times as it was ordered, in the order the dishes were first added.
+     *
+     * @param orders the orders
+     */
+    public void project(Collection<Order> orders) {
+        setDishes(orders, dishesOf(orders.stream().map(Order::getOrderID).distinct().collect(Collectors.toList())));
+    }
+
+    /**
+     * Replaces the lines of an order by the lines of a list of dishes, for an order that is created or edited.
+     * The prices of the dishes are read once, the lines of dishes that do not exist have no price.
+     *
+     * @param orderID the id of the order
+     * @param listOfDishes the dishes of the order, a dish that is ordered more than once is repeated,
+     *                     or null for no dishes
+     */
+    @Transactional
+    public void replace(UUID orderID, List<UUID> listOfDishes) {
+        List<OrderLine> lines = linesOf(orderID, listOfDishes);
+        lineRepository.deleteLinesOfOrder(orderID);
+        insert(lines);
+    }
+
+    /**
+     * Adds a dish to an order, changing a single line.
+     * The caller holds the lock of the order, so no other request inserts the line of the dish meanwhile.
+     *
+     * @param orderID the id of the order
+     * @param dishID the id of the dish
+     */
+    @Transactional
+    public void add(UUID orderID, UUID dishID) {
+        if (lineRepository.incrementQuantity(orderID, dishID) > 0) {
+            return;
+        }
+        insert(List.of(new OrderLine(orderID, dishID, 1, priceOf(dishID), lineRepository.countLinesOfOrder(orderID))));
+    }
+
+    /**
+     * Removes one of a dish from an order, changing or deleting a single line.
+     *
+     * @param orderID the id of the order
+     * @param dishID the id of the dish
+     * @return true if the order had the dish, false if nothing was removed
+     */
+    public boolean remove(UUID orderID, UUID dishID) {
+        return lineRepository.decrementQuantity(orderID, dishID) > 0
+                || lineRepository.deleteLastOfDish(orderID, dishID) > 0;
+    }
+
+    /**
+     * Deletes the lines of an order that was deleted.
+     *
+     * @param orderID the id of the order
+     */
+    public void delete(UUID orderID) {
+        lineRepository.deleteLinesOfOrder(orderID);
+    }
+
+    private Map<UUID, List<UUID>> dishesOf(List<UUID> orderIDs) {
+        Map<UUID, List<UUID>> dishes = new HashMap<>();
+        for (int start = 0; start < orderIDs.size(); start += BATCH_SIZE) {
+            lineRepository.findDishesOfOrders(orderIDs.subList(start, Math.min(start + BATCH_SIZE, orderIDs.size())))
+                    .forEach(line -> dishes.computeIfAbsent(line.getOrderID(), id -> new ArrayList<>())
+                            .addAll(Collections.nCopies(line.getQuantity(), line.getDishID())));
+        }
+        return dishes;
+    }
+
+    private static void setDishes(Collection<Order> orders, Map<UUID, List<UUID>> dishes) {
+        orders.forEach(order -> order.setListOfDishes(
+                new ArrayList<>(dishes.getOrDefault(order.getOrderID(), List.of()))));
+    }
+
+    private List<OrderLine> linesOf(UUID orderID, List<UUID> listOfDishes) {
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        if (listOfDishes != null) {
+            listOfDishes.forEach(dishID -> quantities.merge(dishID, 1, Integer::sum));
+        }
+        return linesOf(orderID, quantities, pricesOf(quantities.keySet()));
+    }
+
+    private static List<OrderLine> linesOf(UUID orderID, Map<UUID, Integer> quantities, Map<UUID, Float> prices) {
+        List<OrderLine> lines = new ArrayList<>();
+        quantities.forEach((dishID, quantity) ->
+                lines.add(new OrderLine(orderID, dishID, quantity, prices.get(dishID), lines.size())));
+        return lines;
+    }
+
+    private Map<UUID, Float> pricesOf(Collection<UUID> dishIDs) {
+        if (dishIDs.isEmpty()) {
+            return Map.of();
+        }
+        return dishRepository.findAllById(dishIDs).stream().filter(dish -> dish.getPrice() != null)
+                .collect(Collectors.toMap(Dish::getDishID, Dish::getPrice));
+    }
+
+    private Float priceOf(UUID dishID) {
+        return dishRepository.findDishByDishID(dishID).map(Dish::getPrice).orElse(null);
+    }
+
+    private void insert(List<OrderLine> lines) {
+        lineRepository.saveAll(lines);
+        lineRepository.flush();
+        lines.forEach(entityManager::detach);
+    }
+}
@@ -0,0 +1,62 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import nl.tudelft.sem.template.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * The payments of orders, deduplicated by the Idempotency-Key of the payment provider. The response of a
+ * payment is kept for payment.idempotency.ttlMs under the order and its key, so a retry of the provider is
+ * answered without reading or writing the order. Retries that arrive before the first payment finished, or
+ * after its response expired, pay the order again, which changes nothing since paying an order is idempotent.
+ */
+@Component
+public class OrderPayments {
+    private final transient OrderService orderService;
+    private final transient Cache<List<Object>, Order> responses;
+
+    /**
+     * Instantiates a new OrderPayments.
+     *
+     * @param orderService the service that marks the orders as paid
+     * @param environment the environment containing the payment.idempotency.* settings
+     */
+    @Autowired
+    public OrderPayments(OrderService orderService, Environment environment) {
+        this.orderService = orderService;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(environment.getProperty("payment.idempotency.maximumSize", Long.class, 100_000L))
+                .expireAfterWrite(Duration.ofMillis(environment.getProperty(
+                        "payment.idempotency.ttlMs", Long.class, 86_400_000L)))
+                .build();
+    }
+
+    /**
+     * Marks an order as paid, unless a payment with the same idempotency key was already made.
+     *
+     * @param orderID the id of the order that was paid
+     * @param idempotencyKey the key the payment provider sends with every attempt of this payment, or null
+     * @return the order, which is paid
+     * @throws OrderNotFoundException if the order does not exist
+     */
+    public Order pay(UUID orderID, String idempotencyKey) throws OrderNotFoundException {
+        if (idempotencyKey == null) {
+            return orderService.markOrderPaid(orderID);
+        }
+        // the key only identifies a payment of this order, the same key for another order is another payment
+        List<Object> key = List.of(orderID, idempotencyKey);
+        Order response = responses.getIfPresent(key);
+        if (response != null) {
+            return response;
+        }
+        response = orderService.markOrderPaid(orderID);
+        responses.put(key, response);
+        return response;
+    }
+}
@@ -0,0 +1,84 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.order.domain.helpers.OrderCursor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * The queries of a list of orders in the sort of OrderCursor. The orders without a date come first and are read
+ * apart from the orders with a date, with a query for every way a page can start, so that every query only
+ * compares the date and orderID to parameters that are set and the database seeks to the cursor in the index of
+ * the list, instead of reading all orders of the list before the cursor.
+ */
+interface OrderSegments {
+    /**
+     * Reads the first orders without a date.
+     *
+     * @param pageable the number of orders to read
+     * @return the orders, sorted on orderID
+     */
+    List<Order> withoutDate(Pageable pageable);
+
+    /**
+     * Reads the orders without a date after an order without a date.
+     *
+     * @param afterID the id of the order
+     * @param pageable the number of orders to read
+     * @return the orders, sorted on orderID
+     */
+    List<Order> withoutDateAfter(UUID afterID, Pageable pageable);
+
+    /**
+     * Reads the first orders with a date.
+     *
+     * @param pageable the number of orders to read
+     * @return the orders, sorted on date and orderID
+     */
+    List<Order> dated(Pageable pageable);
+
+    /**
+     * Reads the orders placed after a moment.
+     *
+     * @param since the moment, in milliseconds since the epoch
+     * @param pageable the number of orders to read
+     * @return the orders, sorted on date and orderID
+     */
+    List<Order> datedSince(BigDecimal since, Pageable pageable);
+
+    /**
+     * Reads the orders with a date after an order with a date.
+     *
+     * @param afterDate the date of the order
+     * @param afterID the id of the order
+     * @param pageable the number of orders to read
+     * @return the orders, sorted on date and orderID
+     */
+    List<Order> datedAfter(BigDecimal afterDate, UUID afterID, Pageable pageable);
+
+    /**
+     * Reads the orders after a cursor. A cursor among the orders with a date is a single query, a cursor among
+     * the orders without a date reads the rest of them and then, if the page is not full yet, the first orders
+     * with a date.
+     *
+     * @param after the cursor
+     * @param count the number of orders to read
+     * @return at most count orders after the cursor, in the sort of OrderCursor
+     */
+    default List<Order> read(OrderCursor after, int count) {
+        if (after.getDate() != null) {
+            return after.getOrderID() == null ? datedSince(after.getDate(), PageRequest.of(0, count))
+                    : datedAfter(after.getDate(), after.getOrderID(), PageRequest.of(0, count));
+        }
+        List<Order> read = new ArrayList<>(after.getOrderID() == null ? withoutDate(PageRequest.of(0, count))
+                : withoutDateAfter(after.getOrderID(), PageRequest.of(0, count)));
+        if (read.size() < count) {
+            read.addAll(dated(PageRequest.of(0, count - read.size())));
+        }
+        return read;
+    }
+}
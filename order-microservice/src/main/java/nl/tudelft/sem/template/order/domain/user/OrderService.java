@@ -1,28 +1,61 @@
 package nl.tudelft.sem.template.order.domain.user;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import nl.tudelft.sem.template.model.Dish;
+import nl.tudelft.sem.template.model.DailyVolume;
 import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.OrderTotal;
+import nl.tudelft.sem.template.model.PopularItem;
+import nl.tudelft.sem.template.model.Revenue;
+import nl.tudelft.sem.template.model.TopDish;
+import nl.tudelft.sem.template.model.UniqueCustomers;
 import nl.tudelft.sem.template.order.domain.helpers.FilteringParam;
+import nl.tudelft.sem.template.order.domain.helpers.OrderCursor;
+import nl.tudelft.sem.template.order.domain.helpers.OrderPage;
+import nl.tudelft.sem.template.order.domain.helpers.OrderStatusMachine;
+import nl.tudelft.sem.template.order.domain.helpers.QuarterHourVolumes;
+import nl.tudelft.sem.template.order.domain.helpers.TimeWindow;
 import nl.tudelft.sem.template.order.domain.user.repositories.DishRepository;
 import nl.tudelft.sem.template.order.domain.user.repositories.OrderRepository;
 import nl.tudelft.sem.template.user.services.UserMicroServiceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The orders and the queries about them. A method that writes an order writes its dishes in the same
+ * transaction, so an order is never seen, or left, without them. The customer and vendor of an order are
+ * checked with the user microservice before that transaction starts, so no database connection is held while
+ * waiting for it.
+ */
 @Service
 public class OrderService {
+    public static final int TOTALS_BATCH_SIZE = 1000;
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final transient OrderRepository orderRepository;
     private final transient DishRepository dishRepository;
     private final transient UserMicroServiceService userMicroServiceService;
+    private final transient OrderVolumeCounters orderVolumeCounters;
+    private final transient RevenueBuckets revenueBuckets;
+    private final transient VendorSketches vendorSketches;
+    private final transient VendorAnalyticsCache analyticsCache;
+    private final transient OrderLines orderLines;
+    private final transient TransactionTemplate transaction;
 
     /**
      * Instantiates a new OrderService.
@@ -30,13 +63,28 @@ public class OrderService {
      * @param orderRepository   the order repository
      * @param userMicroServiceService the user microService
      * @param dishRepository    the dish repository
+     * @param orderVolumeCounters the counters of the orders per vendor and hour of the day
+     * @param revenueBuckets the revenue of the paid orders per vendor and day
+     * @param vendorSketches the sketches of the customers and dishes of the orders per vendor and day
+     * @param analyticsCache the cache of the analytics per vendor, invalidated when an order is written
+     * @param orderLines the dishes of the orders, stored as one line per order and dish
+     * @param transactionManager the transaction manager an order is stored with, after it was checked
      */
     @Autowired
     public OrderService(OrderRepository orderRepository, UserMicroServiceService userMicroServiceService,
-                        DishRepository dishRepository) {
+                        DishRepository dishRepository, OrderVolumeCounters orderVolumeCounters,
+                        RevenueBuckets revenueBuckets, VendorSketches vendorSketches,
+                        VendorAnalyticsCache analyticsCache, OrderLines orderLines,
+                        PlatformTransactionManager transactionManager) {
         this.orderRepository = orderRepository;
         this.userMicroServiceService = userMicroServiceService;
         this.dishRepository = dishRepository;
+        this.orderVolumeCounters = orderVolumeCounters;
+        this.revenueBuckets = revenueBuckets;
+        this.vendorSketches = vendorSketches;
+        this.analyticsCache = analyticsCache;
+        this.orderLines = orderLines;
+        this.transaction = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -49,6 +97,18 @@ public class OrderService {
         return userMicroServiceService.checkVendorExists(vendorId);
     }
 
+    /**
+     * Verifies that a vendor exists, for callers that run several queries of a vendor and check it once.
+     *
+     * @param vendorID UUID of the vendor
+     * @throws VendorNotFoundException if the vendor does not exist
+     */
+    void verifyVendorExists(UUID vendorID) throws VendorNotFoundException {
+        if (!checkVendorExists(vendorID)) {
+            throw new VendorNotFoundException(vendorID);
+        }
+    }
+
     /**
      * Checks whether a certain user exists.
      *
@@ -84,7 +144,16 @@ public class OrderService {
         if (checkUUIDIsUnique(order.getOrderID())) {
             throw new OrderIdAlreadyInUseException(order.getOrderID());
         }
-        return saveOrder(order);
+        verifyCustomerAndVendor(order);
+        return transaction.execute(status -> {
+            Order saved = saveOrder(order);
+            orderVolumeCounters.add(saved);
+            revenueBuckets.replace(RevenueBuckets.Contribution.NONE,
+                    revenueBuckets.contributionOf(saved.getOrderID()));
+            vendorSketches.addOrder(saved);
+            analyticsCache.invalidate(saved.getVendorID());
+            return saved;
+        });
 
     }
 
@@ -101,13 +170,23 @@ public class OrderService {
             throw new NoOrdersException();
         }
 
-        for (Order o : orders) {
-            o.setListOfDishes(new ArrayList<>(o.getListOfDishes()));
-        }
-
+        orderLines.project(orders);
         return orders;
     }
 
+    /**
+     * Method for returning one page of all Orders stored in the database.
+     *
+     * @param after the cursor of the page
+     * @param limit the number of orders on the page, or null for DEFAULT_PAGE_SIZE
+     * @return the orders after the cursor, sorted on date and orderID
+     * @throws IllegalArgumentException if the limit is not between 1 and MAX_PAGE_SIZE
+     */
+    public OrderPage getAllOrders(OrderCursor after, Integer limit) {
+        int size = pageSize(limit);
+        return page(allOrders().read(after, size + 1), size);
+    }
+
     /**
      * Method for returning specific Order.
      *
@@ -123,13 +202,14 @@ public class OrderService {
         }
 
         Order orderToRet = o.get();
-        orderToRet.setListOfDishes(new ArrayList<>(orderToRet.getListOfDishes()));
+        orderLines.project(orderToRet);
         return orderToRet;
 
     }
 
     /**
-     * Method for editing an Order in the database.
+     * Method for editing an Order in the database. The status of the order is not edited, the stored status is
+     * kept whatever the edited order says, since it can only move as OrderStatusMachine allows.
      *
      * @param orderID ID specifying the Order to be deleted
      * @param order The edited Order to put into the database
@@ -145,20 +225,34 @@ public class OrderService {
         }
 
         verifyOrderIDExistence(orderID);
-
-        return saveOrder(order);
+        verifyCustomerAndVendor(order);
+
+        return transaction.execute(status -> {
+            // locked, so a status change cannot commit between reading the stored status and saving the order
+            Optional<Order> stored = orderRepository.findOrderForUpdate(order.getOrderID());
+            // the status only changes through updateStatusOfOrderById, which checks the transition
+            order.setStatus(stored.map(Order::getStatus).orElse(null));
+            // only the fields that are counted are kept, saving may change the stored order in place
+            Optional<Order> previous = stored.map(o -> new Order().vendorID(o.getVendorID()).date(o.getDate()));
+            RevenueBuckets.Contribution previousRevenue = revenueBuckets.contributionOf(order.getOrderID());
+            Order saved = saveOrder(order);
+            orderVolumeCounters.replace(previous.orElse(null), saved);
+            revenueBuckets.replace(previousRevenue, revenueBuckets.contributionOf(saved.getOrderID()));
+            previous.map(Order::getVendorID).ifPresent(analyticsCache::invalidate);
+            analyticsCache.invalidate(saved.getVendorID());
+            return saved;
+        });
 
     }
 
     /**
-     * Saves an order to the database.
+     * Verifies that the customer and the vendor of an order exist, before the order is stored.
      *
-     * @param order Order to be saved
-     * @return Saved order from the database
+     * @param order the order
      * @throws CustomerNotFoundException if the customer could not be found
      * @throws VendorNotFoundException if the vendor could not be found
      */
-    private Order saveOrder(Order order) throws CustomerNotFoundException, VendorNotFoundException {
+    private void verifyCustomerAndVendor(Order order) throws CustomerNotFoundException, VendorNotFoundException {
         if (!checkUserExists(order.getCustomerID())) {
             throw new CustomerNotFoundException(order.getOrderID());
         }
@@ -166,9 +260,19 @@ public class OrderService {
         if (!checkVendorExists(order.getVendorID())) {
             throw new VendorNotFoundException(order.getVendorID());
         }
+    }
 
+    /**
+     * Saves an order and its dishes to the database, in the transaction of the caller.
+     *
+     * @param order Order to be saved
+     * @return Saved order from the database
+     */
+    private Order saveOrder(Order order) {
+        List<UUID> listOfDishes = order.getListOfDishes();
         order = orderRepository.save(order);
-        order.setListOfDishes(new ArrayList<>(order.getListOfDishes()));
+        orderLines.replace(order.getOrderID(), listOfDishes);
+        orderLines.project(order);
 
         return order;
     }
@@ -179,9 +283,16 @@ public class OrderService {
      * @param orderID ID specifying the Order to be deleted
      * @throws OrderNotFoundException - thrown when the orderID isn't found
      */
+    @Transactional(rollbackFor = Exception.class)
     public void deleteOrderByID(UUID orderID) throws OrderNotFoundException {
         verifyOrderIDExistence(orderID);
+        Optional<Order> deleted = orderRepository.findOrderByOrderID(orderID);
+        RevenueBuckets.Contribution deletedRevenue = revenueBuckets.contributionOf(orderID);
         orderRepository.deleteById(orderID);
+        deleted.ifPresent(orderVolumeCounters::remove);
+        revenueBuckets.replace(deletedRevenue, RevenueBuckets.Contribution.NONE);
+        orderLines.delete(orderID);
+        deleted.map(Order::getVendorID).ifPresent(analyticsCache::invalidate);
     }
 
     /**
@@ -199,26 +310,10 @@ public class OrderService {
     }
 
     /**
-     * Getter of orders from a vendor.
-     *
-     * @param vendorID UUID of the vendor
-     * @return list of orders from the vendor
-     * @throws VendorNotFoundException if the vendor does not exist
-     * @throws NoOrdersException if no orders were found
-     */
-    private List<Order> getOrdersFromVendor(UUID vendorID) throws VendorNotFoundException, NoOrdersException {
-        if (!checkVendorExists(vendorID)) {
-            throw new VendorNotFoundException(vendorID);
-        }
-        Optional<List<Order>> orders = orderRepository.findOrdersByVendorID(vendorID);
-        return handleDatabaseOrders(orders);
-    }
-
-    /**
-     * Handles the orders retrieved from the database to ensure that the list of dishes is an arraylist.
+     * Handles the orders retrieved from the database, setting their list of dishes.
      *
      * @param orders Optional containing a list of orders
-     * @return List of orders with a list of dishes that is an arraylist
+     * @return List of orders with their list of dishes
      * @throws NoOrdersException if the optional is empty
      */
     private List<Order> handleDatabaseOrders(Optional<List<Order>> orders) throws NoOrdersException {
@@ -226,9 +321,7 @@ public class OrderService {
             throw new NoOrdersException();
         }
         List<Order> result = orders.get();
-        for (Order o : result) {
-            o.setListOfDishes(new ArrayList<>(o.getListOfDishes()));
-        }
+        orderLines.project(result);
         return result;
     }
 
@@ -244,16 +337,80 @@ public class OrderService {
      */
     public List<Order> getOrdersFromCustomerAtVendor(UUID vendorID, UUID customerID)
             throws VendorNotFoundException, CustomerNotFoundException, NoOrdersException {
+        return getOrdersFromCustomerAtVendor(vendorID, customerID, TimeWindow.allTime());
+    }
+
+    /**
+     * Getter for the orders from a customer at a specific vendor, placed in a time window.
+     *
+     * @param vendorID the UUID of the vendor where the orders have been placed
+     * @param customerID the UUID of the customer who placed the orders
+     * @param window the time window the orders were placed in
+     * @return list of orders from a customer at a certain vendor if they both exist
+     * @throws VendorNotFoundException if the vendor does not exist
+     * @throws CustomerNotFoundException if the customer does not exist
+     * @throws NoOrdersException if no orders were found
+     */
+    public List<Order> getOrdersFromCustomerAtVendor(UUID vendorID, UUID customerID, TimeWindow window)
+            throws VendorNotFoundException, CustomerNotFoundException, NoOrdersException {
         if (!checkVendorExists(vendorID)) {
             throw new VendorNotFoundException(vendorID);
         }
         if (!checkUserExists(customerID)) {
             throw new CustomerNotFoundException(vendorID);
         }
-        Optional<List<Order>> orders = orderRepository.findOrdersByVendorIDAndCustomerID(vendorID, customerID);
+        Optional<List<Order>> orders = window.isAllTime()
+                ? orderRepository.findOrdersByVendorIDAndCustomerID(vendorID, customerID)
+                : Optional.of(orderRepository.findOrdersOfCustomerAtVendorInWindow(vendorID, customerID,
+                        window.getFrom(), window.getTo()));
         return handleDatabaseOrders(orders);
     }
 
+    /**
+     * Getter for one page of the orders from a customer at a specific vendor, placed in a time window.
+     *
+     * @param vendorID the UUID of the vendor where the orders have been placed
+     * @param customerID the UUID of the customer who placed the orders
+     * @param window the time window the orders were placed in
+     * @param after the cursor of the page
+     * @param limit the number of orders on the page, or null for DEFAULT_PAGE_SIZE
+     * @return the orders after the cursor, sorted on date and orderID
+     * @throws VendorNotFoundException if the vendor does not exist
+     * @throws CustomerNotFoundException if the customer does not exist
+     * @throws IllegalArgumentException if the limit is not between 1 and MAX_PAGE_SIZE
+     */
+    public OrderPage getOrdersFromCustomerAtVendor(UUID vendorID, UUID customerID, TimeWindow window,
+                                                   OrderCursor after, Integer limit)
+            throws VendorNotFoundException, CustomerNotFoundException {
+        if (!checkVendorExists(vendorID)) {
+            throw new VendorNotFoundException(vendorID);
+        }
+        if (!checkUserExists(customerID)) {
+            throw new CustomerNotFoundException(customerID);
+        }
+        int size = pageSize(limit);
+        return page(ordersOfCustomerAtVendor(vendorID, customerID, window).read(after, size + 1), size);
+    }
+
+    /**
+     * Getter for one page of the feed of orders of a vendor, which a kitchen polls for new orders.
+     * The feed is not filtered on status: the cursor moves on in the order the orders were placed, so an
+     * order that only gets a status after the kitchen polled past it would never be returned.
+     *
+     * @param vendorID the UUID of the vendor
+     * @param after the cursor of the page
+     * @param limit the number of orders on the page, or null for DEFAULT_PAGE_SIZE
+     * @return the orders after the cursor, sorted on date and orderID
+     * @throws VendorNotFoundException if the vendor does not exist
+     * @throws IllegalArgumentException if the limit is not between 1 and MAX_PAGE_SIZE
+     */
+    public OrderPage getOrdersOfVendor(UUID vendorID, OrderCursor after, Integer limit)
+            throws VendorNotFoundException {
+        int size = pageSize(limit);
+        verifyVendorExists(vendorID);
+        return page(ordersOfVendor(vendorID).read(after, size + 1), size);
+    }
+
     /**
      * Getter for the total number of orders made at a vendor.
      *
@@ -263,10 +420,35 @@ public class OrderService {
      * @throws NoOrdersException if no orders were found
      */
     public Integer getOrderVolume(UUID vendorID) throws VendorNotFoundException, NoOrdersException {
-        if (!checkVendorExists(vendorID)) {
-            throw new VendorNotFoundException(vendorID);
-        }
-        Optional<Integer> res = orderRepository.countOrderByVendorID(vendorID);
+        return getOrderVolume(vendorID, TimeWindow.allTime());
+    }
+
+    /**
+     * Getter for the number of orders made at a vendor in a time window, counted by the database.
+     *
+     * @param vendorID the UUID of the vendor from whom the number of orders is returned
+     * @param window the time window the orders were placed in
+     * @return Integer of the number of orders made at a vendor
+     * @throws VendorNotFoundException if the vendor does not exist
+     * @throws NoOrdersException if no orders were found
+     */
+    public Integer getOrderVolume(UUID vendorID, TimeWindow window) throws VendorNotFoundException, NoOrdersException {
+        verifyVendorExists(vendorID);
+        return countOrders(vendorID, window);
+    }
+
+    /**
+     * Counts the orders made at a vendor in a time window, without checking that the vendor exists.
+     *
+     * @param vendorID the UUID of the vendor
+     * @param window the time window the orders were placed in
+     * @return the number of orders
+     * @throws NoOrdersException if no orders were found
+     */
+    Integer countOrders(UUID vendorID, TimeWindow window) throws NoOrdersException {
+        Optional<Integer> res = window.isAllTime() ? orderRepository.countOrderByVendorID(vendorID)
+                : Optional.of(Math.toIntExact(orderRepository.countOrdersInWindow(vendorID,
+                        window.getFrom(), window.getTo())));
         if (res.isEmpty()) {
             throw new NoOrdersException();
         }
@@ -275,6 +457,7 @@ public class OrderService {
 
     /**
      * Getter for a list containing the volume of orders divided over each hour of the day.
+     * The volumes are read from the counters that are kept up to date when orders are stored.
      *
      * @param vendorID the UUID of the vendor from whom the volumes divided over the hours are retrieved
      * @return List of integers that represent the volume of orders divided over each hour of the day, where index
@@ -283,56 +466,246 @@ public class OrderService {
      * @throws NoOrdersException if no orders were found
      */
     public List<Integer> getOrderVolumeByTime(UUID vendorID) throws VendorNotFoundException, NoOrdersException {
-        List<Order> orders = getOrdersFromVendor(vendorID);
-        int[] times = new int[24];
-        for (Order o : orders) {
-            long t = o.getDate().longValueExact();
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTimeInMillis(t);
-            int hours = calendar.get(Calendar.HOUR_OF_DAY);
-            times[hours] += 1;
+        return getOrderVolumeByTime(vendorID, TimeWindow.allTime());
+    }
+
+    /**
+     * Getter for the volume of orders placed in a time window divided over each hour of the day.
+     * For all orders in the time zone of the server the volumes are read from the counters, otherwise
+     * the database counts the orders per quarter of an hour and only those counts are added up.
+     *
+     * @param vendorID the UUID of the vendor from whom the volumes divided over the hours are retrieved
+     * @param window the time window the orders were placed in, and the time zone of the hours
+     * @return List of integers that represent the volume of orders divided over each hour of the day, where index
+     *             0 is for 00:00 till 01:00, 1 is for 01:00 till 02:00, ... 23 is for 23:00 till 00:00
+     * @throws VendorNotFoundException if the vendor does not exist
+     * @throws NoOrdersException if no orders were ever counted for the vendor
+     */
+    public List<Integer> getOrderVolumeByTime(UUID vendorID, TimeWindow window)
+            throws VendorNotFoundException, NoOrdersException {
+        verifyVendorExists(vendorID);
+        return countOrdersByHour(vendorID, window);
+    }
+
+    /**
+     * Counts the orders made at a vendor in a time window per hour of the day, without checking that the vendor
+     * exists.
+     *
+     * @param vendorID the UUID of the vendor
+     * @param window the time window the orders were placed in, and the time zone of the hours
+     * @return list of length 24 with the volume of orders of each hour of the day
+     * @throws NoOrdersException if no orders were ever counted for the vendor
+     */
+    List<Integer> countOrdersByHour(UUID vendorID, TimeWindow window) throws NoOrdersException {
+        if (window.isAllTime() && window.getZone().equals(ZoneId.systemDefault())) {
+            return orderVolumeCounters.getVolumes(vendorID).orElseThrow(NoOrdersException::new);
         }
-        return Arrays.stream(times).boxed().collect(Collectors.toList());
+        return QuarterHourVolumes.byHourOfDay(countOrdersPerQuarterHour(vendorID, window), window.getZone());
     }
 
+    /**
+     * Getter for the volume of orders placed in a time window divided over the days of the week.
+     *
+     * @param vendorID the UUID of the vendor from whom the volumes are retrieved
+     * @param window the time window the orders were placed in, and the time zone of the days
+     * @return list of length 7 with the volume of orders, where index 0 is for Monday, ... 6 is for Sunday
+     * @throws VendorNotFoundException if the vendor does not exist
+     */
+    public List<Integer> getOrderVolumeByWeekday(UUID vendorID, TimeWindow window) throws VendorNotFoundException {
+        if (!checkVendorExists(vendorID)) {
+            throw new VendorNotFoundException(vendorID);
+        }
+        return QuarterHourVolumes.byDayOfWeek(countOrdersPerQuarterHour(vendorID, window), window.getZone());
+    }
 
     /**
-     * Getter for a list of dishes offered by a vendor ordered by how often they have been ordered.
-     * The list only contain dishes that have been ordered at least once
+     * Getter for the volume of orders placed in a time window for each day.
+     *
+     * @param vendorID the UUID of the vendor from whom the volumes are retrieved
+     * @param window the time window the orders were placed in, and the time zone of the days
+     * @return the volume of orders of each day with orders, ordered by day
+     * @throws VendorNotFoundException if the vendor does not exist
+     */
+    public List<DailyVolume> getDailyOrderVolumes(UUID vendorID, TimeWindow window) throws VendorNotFoundException {
+        if (!checkVendorExists(vendorID)) {
+            throw new VendorNotFoundException(vendorID);
+        }
+        return QuarterHourVolumes.byDay(countOrdersPerQuarterHour(vendorID, window), window.getZone())
+                .entrySet().stream()
+                .map(day -> new DailyVolume().date(day.getKey().toString()).volume(day.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    private List<OrderRepository.QuarterHourVolume> countOrdersPerQuarterHour(UUID vendorID, TimeWindow window) {
+        return orderRepository.countOrdersPerQuarterHour(vendorID, window.getFrom(), window.getTo());
+    }
+
+
+    /**
+     * Getter for the dishes offered by a vendor ordered by how often they have been ordered.
+     * The list only contains dishes that have been ordered at least once. The database counts the
+     * dishes and only returns their id, name and price, the ingredients and allergies are not loaded.
      *
      * @param vendorID UUID of the vendor from which the popular dishes will be retrieved
-     * @return list with the dishes ordered by how often they have been ordered, only including dishes
-     *             that have been ordered before
+     * @param limit the maximum number of dishes to return, or null for all ordered dishes
+     * @return list with the dishes and how often they have been ordered, the most ordered dish first
      * @throws VendorNotFoundException if the vendor does not exist
+     * @throws IllegalArgumentException if the limit is less than 1
      */
-    public List<Dish> getDishesSortedByVolume(UUID vendorID) throws VendorNotFoundException {
+    public List<PopularItem> getPopularItems(UUID vendorID, Integer limit) throws VendorNotFoundException {
+        verifyPopularItemsLimit(limit);
+        verifyVendorExists(vendorID);
+        return countPopularItems(vendorID, limit);
+    }
+
+    /**
+     * Verifies the limit of the popular items.
+     *
+     * @param limit the maximum number of dishes to return, or null for all ordered dishes
+     * @throws IllegalArgumentException if the limit is less than 1
+     */
+    static void verifyPopularItemsLimit(Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1, got " + limit);
+        }
+    }
+
+    /**
+     * Counts how often the dishes of a vendor have been ordered, without checking that the vendor exists.
+     *
+     * @param vendorID UUID of the vendor
+     * @param limit the maximum number of dishes to return, or null for all ordered dishes
+     * @return the dishes and how often they have been ordered, the most ordered dish first
+     */
+    List<PopularItem> countPopularItems(UUID vendorID, Integer limit) {
+        Pageable pageable = (limit == null) ? Pageable.unpaged() : PageRequest.of(0, limit);
+        return orderRepository.countDishVolumesFromVendor(vendorID, pageable).stream()
+                .map(dish -> new PopularItem().dishID(dish.getDishID()).name(dish.getName())
+                        .price(dish.getPrice()).count(dish.getCount()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Getter for the revenue of the paid orders of a vendor, added up per period.
+     * The revenue is read from the per day buckets, so a month is at most 31 rows however many orders it has.
+     *
+     * @param vendorID the UUID of the vendor
+     * @param period the length of the periods
+     * @param first the first day (UTC) to include, or null for no lower bound
+     * @param last the last day (UTC) to include, or null for no upper bound
+     * @return the revenue in cents of each period with revenue, ordered by the first day of the period
+     * @throws VendorNotFoundException if the vendor does not exist
+     */
+    public List<Revenue> getRevenue(UUID vendorID, RevenueBuckets.Period period, LocalDate first, LocalDate last)
+            throws VendorNotFoundException {
         if (!checkVendorExists(vendorID)) {
             throw new VendorNotFoundException(vendorID);
         }
-        List<Dish> res = orderRepository.countDishesOccurrencesFromVendor(vendorID);
-        for (Dish d : res) {
-            d.setListOfIngredients(new ArrayList<>(d.getListOfIngredients()));
-            d.setListOfAllergies(new ArrayList<>(d.getListOfAllergies()));
+        return revenueBuckets.getRevenue(vendorID, first, last, period);
+    }
+
+    /**
+     * Getter for the estimated number of distinct customers of a vendor.
+     *
+     * @param vendorID the UUID of the vendor
+     * @param first the first day (UTC) to include, or null for no lower bound
+     * @param last the last day (UTC) to include, or null for no upper bound
+     * @return the estimate and its relative standard error
+     * @throws VendorNotFoundException if the vendor does not exist
+     * @throws IllegalArgumentException if first is after last
+     */
+    public UniqueCustomers getUniqueCustomers(UUID vendorID, LocalDate first, LocalDate last)
+            throws VendorNotFoundException {
+        if (!checkVendorExists(vendorID)) {
+            throw new VendorNotFoundException(vendorID);
         }
-        return res;
+        return vendorSketches.getUniqueCustomers(vendorID, first, last);
     }
 
     /**
-     * The implementation of the orderISPaid put method from the controllers.
+     * Getter for the estimated most ordered dishes of a vendor.
      *
-     * @param orderID the id of the order to flip the isPaid value
-     * @throws OrderNotFoundException when the method cannot find the order in the database
+     * @param vendorID the UUID of the vendor
+     * @param first the first day (UTC) to include, or null for no lower bound
+     * @param last the last day (UTC) to include, or null for no upper bound
+     * @param limit the most dishes to return, or null for VendorSketches.DEFAULT_TOP_DISHES
+     * @return the dishes with the highest estimated counts, the highest first
+     * @throws VendorNotFoundException if the vendor does not exist
+     * @throws IllegalArgumentException if first is after last or the limit is out of range
      */
-    public Order orderIsPaidUpdate(UUID orderID) throws OrderNotFoundException {
-        Optional<Order> currentOrder = orderRepository.findOrderByOrderID(orderID);
-        if (currentOrder.isEmpty()) {
+    public List<TopDish> getTopDishes(UUID vendorID, LocalDate first, LocalDate last, Integer limit)
+            throws VendorNotFoundException {
+        if (!checkVendorExists(vendorID)) {
+            throw new VendorNotFoundException(vendorID);
+        }
+        return vendorSketches.getTopDishes(vendorID, first, last, limit);
+    }
+
+    /**
+     * Computes the total cost of an order, the sum of the prices of its dishes, in a single query.
+     * A dish that occurs multiple times in the order is counted each time, at the price it had when it was
+     * added to the order, also when its price changed or it was deleted since.
+     *
+     * @param orderID the id of the order
+     * @return the total cost of the order
+     * @throws OrderNotFoundException if the order does not exist
+     */
+    public Float getOrderTotal(UUID orderID) throws OrderNotFoundException {
+        List<OrderRepository.OrderPriceSum> sums = orderRepository.sumDishPricesOfOrders(List.of(orderID));
+        if (sums.isEmpty()) {
             throw new OrderNotFoundException(orderID);
         }
-        orderRepository.updateOrderPayment(!currentOrder.get().getOrderPaid(), orderID);
+        return totalCostOf(sums.get(0));
+    }
+
+    /**
+     * Computes the total costs of many orders, with one query per TOTALS_BATCH_SIZE orders.
+     *
+     * @param orderIDs the ids of the orders
+     * @return the total cost of each order that exists, in the order of the given ids, without duplicates
+     */
+    public List<OrderTotal> getOrderTotals(List<UUID> orderIDs) {
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(orderIDs));
+        Map<UUID, Float> totals = new HashMap<>();
+        for (int start = 0; start < ids.size(); start += TOTALS_BATCH_SIZE) {
+            List<UUID> batch = ids.subList(start, Math.min(start + TOTALS_BATCH_SIZE, ids.size()));
+            for (OrderRepository.OrderPriceSum sum : orderRepository.sumDishPricesOfOrders(batch)) {
+                totals.put(sum.getOrderID(), totalCostOf(sum));
+            }
+        }
+        return ids.stream()
+                .filter(totals::containsKey)
+                .map(id -> new OrderTotal().orderID(id).totalCost(totals.get(id)))
+                .collect(Collectors.toList());
+    }
 
-        Order o = currentOrder.get();
-        o.setOrderPaid(!o.getOrderPaid());
-        return o;
+    private static Float totalCostOf(OrderRepository.OrderPriceSum sum) {
+        return (sum.getTotal() == null) ? 0.0f : sum.getTotal().floatValue();
+    }
+
+    /**
+     * Marks an order as paid. The order is only written if it was not paid yet, with a conditional update that
+     * takes no lock before it, so paying an order twice, also concurrently, adds its revenue once and leaves it
+     * paid. The revenue is added in the same transaction.
+     *
+     * @param orderID the id of the order that was paid
+     * @return the order, which is paid
+     * @throws OrderNotFoundException when the method cannot find the order in the database
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Order markOrderPaid(UUID orderID) throws OrderNotFoundException {
+        boolean paidNow = orderRepository.markOrderPaid(orderID) > 0;
+        // read after the update, which cleared the persistence context, so the order is read as it was paid and
+        // nothing is written back when the transaction commits
+        Order order = orderRepository.findOrderByOrderID(orderID)
+                .orElseThrow(() -> new OrderNotFoundException(orderID));
+        if (paidNow) {
+            // an unpaid order does not add revenue
+            revenueBuckets.replace(RevenueBuckets.Contribution.NONE, revenueBuckets.contributionOf(orderID));
+            analyticsCache.invalidate(order.getVendorID());
+        }
+        orderLines.project(order);
+        return order;
     }
 
     /**
@@ -361,9 +734,208 @@ public class OrderService {
         if (fromOptional.isEmpty()) {
             throw new NoOrdersException();
         }
+        orderLines.project(fromOptional);
         return fromOptional;
     }
 
+    /**
+     * Get one page of the delivered orders of a customer.
+     *
+     * @param customerID the id of the customer
+     * @param after the cursor of the page
+     * @param limit the number of orders on the page, or null for DEFAULT_PAGE_SIZE
+     * @return the delivered orders after the cursor, sorted on date and orderID
+     * @throws CustomerNotFoundException if the customer does not exist
+     * @throws IllegalArgumentException if the limit is not between 1 and MAX_PAGE_SIZE
+     */
+    public OrderPage getPastOrdersByCustomerID(UUID customerID, OrderCursor after, Integer limit)
+            throws CustomerNotFoundException {
+        if (!checkUserExists(customerID)) {
+            throw new CustomerNotFoundException(customerID);
+        }
+        int size = pageSize(limit);
+        return page(ordersOfCustomerWithStatus(customerID, Order.StatusEnum.DELIVERED).read(after, size + 1), size);
+    }
+
+    /**
+     * Checks the requested size of a page.
+     *
+     * @param limit the number of orders on a page, or null for DEFAULT_PAGE_SIZE
+     * @return the number of orders on the page
+     * @throws IllegalArgumentException if the limit is not between 1 and MAX_PAGE_SIZE
+     */
+    private static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE + ", got " + limit);
+        }
+        return limit;
+    }
+
+    /**
+     * Creates a page from the orders read for it, with their list of dishes read in one query.
+     *
+     * @param read the orders read for the page, at most size + 1
+     * @param size the number of orders on the page
+     * @return the page
+     */
+    private OrderPage page(List<Order> read, int size) {
+        OrderPage page = OrderPage.of(read, size);
+        orderLines.project(page.getOrders());
+        return page;
+    }
+
+    /**
+     * The queries of the pages of all orders.
+     *
+     * @return the queries
+     */
+    private OrderSegments allOrders() {
+        return new OrderSegments() {
+            @Override
+            public List<Order> withoutDate(Pageable pageable) {
+                return orderRepository.findOrdersWithoutDate(pageable);
+            }
+
+            @Override
+            public List<Order> withoutDateAfter(UUID afterID, Pageable pageable) {
+                return orderRepository.findOrdersWithoutDateAfter(afterID, pageable);
+            }
+
+            @Override
+            public List<Order> dated(Pageable pageable) {
+                return orderRepository.findDatedOrders(pageable);
+            }
+
+            @Override
+            public List<Order> datedSince(BigDecimal since, Pageable pageable) {
+                return orderRepository.findOrdersSince(since, pageable);
+            }
+
+            @Override
+            public List<Order> datedAfter(BigDecimal afterDate, UUID afterID, Pageable pageable) {
+                return orderRepository.findOrdersAfter(afterDate, afterID, pageable);
+            }
+        };
+    }
+
+    /**
+     * The queries of the pages of the orders of a customer with a status.
+     *
+     * @param customerID the id of the customer
+     * @param status the status of the orders
+     * @return the queries
+     */
+    private OrderSegments ordersOfCustomerWithStatus(UUID customerID, Order.StatusEnum status) {
+        return new OrderSegments() {
+            @Override
+            public List<Order> withoutDate(Pageable pageable) {
+                return orderRepository.findOrdersOfCustomerWithStatusWithoutDate(customerID, status, pageable);
+            }
+
+            @Override
+            public List<Order> withoutDateAfter(UUID afterID, Pageable pageable) {
+                return orderRepository.findOrdersOfCustomerWithStatusWithoutDateAfter(customerID, status, afterID,
+                        pageable);
+            }
+
+            @Override
+            public List<Order> dated(Pageable pageable) {
+                return orderRepository.findDatedOrdersOfCustomerWithStatus(customerID, status, pageable);
+            }
+
+            @Override
+            public List<Order> datedSince(BigDecimal since, Pageable pageable) {
+                return orderRepository.findOrdersOfCustomerWithStatusSince(customerID, status, since, pageable);
+            }
+
+            @Override
+            public List<Order> datedAfter(BigDecimal afterDate, UUID afterID, Pageable pageable) {
+                return orderRepository.findOrdersOfCustomerWithStatusAfter(customerID, status, afterDate, afterID,
+                        pageable);
+            }
+        };
+    }
+
+    /**
+     * The queries of the pages of the orders of a vendor.
+     *
+     * @param vendorID the id of the vendor
+     * @return the queries
+     */
+    private OrderSegments ordersOfVendor(UUID vendorID) {
+        return new OrderSegments() {
+            @Override
+            public List<Order> withoutDate(Pageable pageable) {
+                return orderRepository.findOrdersOfVendorWithoutDate(vendorID, pageable);
+            }
+
+            @Override
+            public List<Order> withoutDateAfter(UUID afterID, Pageable pageable) {
+                return orderRepository.findOrdersOfVendorWithoutDateAfter(vendorID, afterID, pageable);
+            }
+
+            @Override
+            public List<Order> dated(Pageable pageable) {
+                return orderRepository.findDatedOrdersOfVendor(vendorID, pageable);
+            }
+
+            @Override
+            public List<Order> datedSince(BigDecimal since, Pageable pageable) {
+                return orderRepository.findOrdersOfVendorSince(vendorID, since, pageable);
+            }
+
+            @Override
+            public List<Order> datedAfter(BigDecimal afterDate, UUID afterID, Pageable pageable) {
+                return orderRepository.findOrdersOfVendorAfter(vendorID, afterDate, afterID, pageable);
+            }
+        };
+    }
+
+    /**
+     * The queries of the pages of the orders of a customer at a vendor, placed in a time window.
+     *
+     * @param vendorID the id of the vendor
+     * @param customerID the id of the customer
+     * @param window the time window the orders were placed in
+     * @return the queries
+     */
+    private OrderSegments ordersOfCustomerAtVendor(UUID vendorID, UUID customerID, TimeWindow window) {
+        return new OrderSegments() {
+            @Override
+            public List<Order> withoutDate(Pageable pageable) {
+                return orderRepository.findOrdersOfCustomerAtVendorWithoutDate(vendorID, customerID,
+                        window.isAllTime(), window.getFrom(), window.getTo(), pageable);
+            }
+
+            @Override
+            public List<Order> withoutDateAfter(UUID afterID, Pageable pageable) {
+                return orderRepository.findOrdersOfCustomerAtVendorWithoutDateAfter(vendorID, customerID,
+                        window.isAllTime(), window.getFrom(), window.getTo(), afterID, pageable);
+            }
+
+            @Override
+            public List<Order> dated(Pageable pageable) {
+                return orderRepository.findDatedOrdersOfCustomerAtVendor(vendorID, customerID,
+                        window.isAllTime(), window.getFrom(), window.getTo(), pageable);
+            }
+
+            @Override
+            public List<Order> datedSince(BigDecimal since, Pageable pageable) {
+                return orderRepository.findOrdersOfCustomerAtVendorSince(vendorID, customerID,
+                        window.isAllTime(), window.getFrom(), window.getTo(), since, pageable);
+            }
+
+            @Override
+            public List<Order> datedAfter(BigDecimal afterDate, UUID afterID, Pageable pageable) {
+                return orderRepository.findOrdersOfCustomerAtVendorAfter(vendorID, customerID,
+                        window.isAllTime(), window.getFrom(), window.getTo(), afterDate, afterID, pageable);
+            }
+        };
+    }
+
     /**
      * Adds a dish to an order based on their IDs.
      *
@@ -374,6 +946,7 @@ public class OrderService {
      * @throws OrderNotFoundException when the orderID does not exist
      * @throws DishNotFoundException when the dishID does not exist
      */
+    @Transactional(rollbackFor = Exception.class)
     public Order addDishToOrder(UUID orderID, UUID dishID)
             throws NullFieldException, OrderNotFoundException, DishNotFoundException {
         verifyNullField(orderID);
@@ -382,13 +955,17 @@ public class OrderService {
         verifyOrderIDExistence(orderID);
         verifyDishIDExistence(dishID);
 
-        Optional<Order> order = orderRepository.findOrderByOrderID(orderID);
+        Optional<Order> order = orderRepository.findOrderForUpdate(orderID);
         if (order.isEmpty()) {
             throw new NullFieldException();
         }
-        order.get().addListOfDishesItem(dishID);
-        orderRepository.save(order.get());
+        RevenueBuckets.Contribution previousRevenue = revenueBuckets.contributionOf(orderID);
+        orderLines.add(orderID, dishID);
+        revenueBuckets.replace(previousRevenue, revenueBuckets.contributionOf(orderID));
+        vendorSketches.addDish(order.get(), dishID);
+        analyticsCache.invalidate(order.get().getVendorID());
 
+        orderLines.project(order.get());
         return order.get();
     }
 
@@ -402,6 +979,7 @@ public class OrderService {
      * @throws OrderNotFoundException when the orderID does not exist
      * @throws DishNotFoundException when the dishID does not exist
      */
+    @Transactional(rollbackFor = Exception.class)
     public Order removeDishFromOrder(UUID orderID, UUID dishID)
             throws NullFieldException, OrderNotFoundException, DishNotFoundException {
         verifyNullField(orderID);
@@ -410,14 +988,19 @@ public class OrderService {
         verifyOrderIDExistence(orderID);
         verifyDishIDExistence(dishID);
 
-        Optional<Order> order = orderRepository.findOrderByOrderID(orderID);
+        Optional<Order> order = orderRepository.findOrderForUpdate(orderID);
         if (order.isEmpty()) {
             throw new NullFieldException();
         }
 
-        order.get().getListOfDishes().remove(dishID);
-        orderRepository.save(order.get());
+        RevenueBuckets.Contribution previousRevenue = revenueBuckets.contributionOf(orderID);
+        boolean removed = orderLines.remove(orderID, dishID);
+        revenueBuckets.replace(previousRevenue, revenueBuckets.contributionOf(orderID));
+        if (removed) {
+            analyticsCache.invalidate(order.get().getVendorID());
+        }
 
+        orderLines.project(order.get());
         return order.get();
     }
 
@@ -475,23 +1058,45 @@ public class OrderService {
 
     /**
      * Method for editing the status of an Order in the database.
+     * The order can only move to the statuses OrderStatusMachine allows from its current status, and the
+     * status is changed with a conditional update: if another request changed the status after it was read,
+     * nothing is written and the transition fails, unless the other request moved the order to the same status.
+     * Moving an order to the status it already has changes nothing, and an order without a status already is
+     * pending, so moving it to pending only sets its status.
      *
      * @param orderID ID specifying the Order
      * @param status New status as String
      * @throws OrderNotFoundException - thrown when the orderID isn't found
+     * @throws InvalidOrderStatusException - thrown when the status is not a status
+     * @throws OrderStatusConflictException - thrown when the order cannot move to the status from its current
+     *                                        status, or its status was changed concurrently
      */
     public void updateStatusOfOrderById(UUID orderID, String status)
-            throws OrderNotFoundException, InvalidOrderStatusException {
-        verifyOrderIDExistence(orderID);
-
-        if (!isValidStatusEnumType(status)) {
-            throw new InvalidOrderStatusException(orderID);
+            throws OrderNotFoundException, InvalidOrderStatusException, OrderStatusConflictException {
+        Order.StatusEnum next = OrderStatusMachine.parse(status)
+                .orElseThrow(() -> new InvalidOrderStatusException(orderID));
+        Order order = orderRepository.findOrderByOrderID(orderID)
+                .orElseThrow(() -> new OrderNotFoundException(orderID));
+        Order.StatusEnum current = order.getStatus();
+        if (current == next) {
+            return;
         }
 
-        Order order = orderRepository.findOrderByOrderID(orderID).get();
-        order.setStatus(Order.StatusEnum.valueOf(status.toUpperCase(Locale.ENGLISH)));
-        orderRepository.save(order);
-
+        if (!OrderStatusMachine.canMove(current, next)) {
+            throw new OrderStatusConflictException(orderID, current, next);
+        }
+        int updated = current == null ? orderRepository.updateStatusIfUnset(orderID, next)
+                : orderRepository.updateStatusIfCurrent(orderID, current, next);
+        if (updated == 0) {
+            // another request changed the status first, which is only fine if it made the same change
+            Order.StatusEnum now = orderRepository.findOrderByOrderID(orderID)
+                    .orElseThrow(() -> new OrderNotFoundException(orderID)).getStatus();
+            if (now != next) {
+                throw new OrderStatusConflictException(orderID, now, next);
+            }
+            return;
+        }
+        analyticsCache.invalidate(order.getVendorID());
     }
 
     /**
@@ -550,6 +1155,7 @@ public class OrderService {
         Order order = orderRepository.findOrderByOrderID(orderID).get();
         order.setRating(rating);
         order = orderRepository.save(order);
+        orderLines.project(order);
 
         return order;
 
@@ -0,0 +1,14 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import java.util.UUID;
+import javax.validation.Valid;
+import nl.tudelft.sem.template.model.Order;
+
+public class OrderStatusConflictException extends Exception {
+
+    static final long serialVersionUID = -4437904386281542291L;
+
+    public OrderStatusConflictException(@Valid UUID orderID, Order.StatusEnum from, Order.StatusEnum to) {
+        super(orderID + " cannot move from " + from + " to " + to);
+    }
+}
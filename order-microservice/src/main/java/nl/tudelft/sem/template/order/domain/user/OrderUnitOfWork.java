@@ -0,0 +1,62 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import nl.tudelft.sem.template.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * The orders loaded while handling one request. An endpoint that validates an order and then returns it,
+ * like the vendor view of an order, asks for the same order several times; the first time it is loaded
+ * from the database and the other times it is taken from here.
+ * Only for requests that read orders: an order written during the request is not reloaded.
+ */
+@Component
+@RequestScope
+public class OrderUnitOfWork {
+    private final transient OrderService orderService;
+    private final transient Map<UUID, Order> orders = new HashMap<>();
+
+    /**
+     * Instantiates a new OrderUnitOfWork.
+     *
+     * @param orderService the service the orders are loaded with
+     */
+    @Autowired
+    public OrderUnitOfWork(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    /**
+     * Gets an order, loading it only if it was not loaded before in this request.
+     *
+     * @param orderID the id of the order
+     * @return the order
+     * @throws OrderNotFoundException if the order does not exist
+     * @throws NullFieldException if the orderID is null
+     */
+    public Order getOrder(UUID orderID) throws OrderNotFoundException, NullFieldException {
+        Order order = orders.get(orderID);
+        if (order == null) {
+            order = orderService.getOrderById(orderID);
+            orders.put(orderID, order);
+        }
+        return order;
+    }
+
+    /**
+     * Checks whether an order is paid.
+     *
+     * @param orderID the id of the order
+     * @return true if the order is paid
+     * @throws OrderNotFoundException if the order does not exist
+     * @throws NullFieldException if the orderID is null
+     * @throws NullPointerException if it is not known whether the order is paid
+     */
+    public boolean isPaid(UUID orderID) throws OrderNotFoundException, NullFieldException {
+        return getOrder(orderID).getOrderPaid();
+    }
+}
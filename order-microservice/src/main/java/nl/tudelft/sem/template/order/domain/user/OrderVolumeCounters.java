@@ -0,0 +1,194 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.order.domain.analytics.OrderVolumeCounter;
+import nl.tudelft.sem.template.order.domain.analytics.OrderVolumeCounterId;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderRepository;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderVolumeCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Per vendor counters of the orders placed in each hour of the day, used for the peak times of a vendor.
+ * The counters are changed in the transaction that stores or deletes an order, and are rebuilt from the
+ * orders every orderVolume.reconcileIntervalMs, which corrects them if they drifted, for example because
+ * the time zone of the server changed. The rebuild locks the counters of one vendor at a time, so orders
+ * stored meanwhile are not lost and orders of other vendors do not wait for it.
+ */
+@Service
+public class OrderVolumeCounters {
+    public static final int HOURS = 24;
+
+    private static final Comparator<OrderVolumeCounterId> KEY_ORDER = Comparator
+            .comparing(OrderVolumeCounterId::getVendorID).thenComparingInt(OrderVolumeCounterId::getHourOfDay);
+
+    private final transient OrderVolumeCounterRepository counterRepository;
+    private final transient OrderRepository orderRepository;
+    private final transient EmptyRows emptyRows;
+    private final transient TransactionTemplate transaction;
+
+    /**
+     * Instantiates a new OrderVolumeCounters.
+     *
+     * @param counterRepository the repository of the counters
+     * @param orderRepository the order repository, used to rebuild the counters
+     * @param emptyRows creates the missing counters
+     * @param transactionManager the transaction manager the counters of each vendor are rebuilt with
+     */
+    @Autowired
+    public OrderVolumeCounters(OrderVolumeCounterRepository counterRepository, OrderRepository orderRepository,
+                               EmptyRows emptyRows, PlatformTransactionManager transactionManager) {
+        this.counterRepository = counterRepository;
+        this.orderRepository = orderRepository;
+        this.emptyRows = emptyRows;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Counts an order that was stored.
+     * Orders without a vendor or date are not counted.
+     *
+     * @param order the stored order
+     */
+    public void add(Order order) {
+        replace(null, order);
+    }
+
+    /**
+     * Stops counting an order that was deleted.
+     *
+     * @param order the order as it was stored
+     */
+    public void remove(Order order) {
+        replace(order, null);
+    }
+
+    /**
+     * Replaces the count of an order as it was stored by the count of its edited version.
+     * The counters are changed in the order of their keys, so two transactions changing the same two
+     * counters do not wait for each other's locks. Nothing is changed if both lie in the same counter.
+     *
+     * @param previous the order as it was stored, or null if it was created
+     * @param current the order as it is stored now, or null if it was deleted
+     */
+    public void replace(Order previous, Order current) {
+        SortedMap<OrderVolumeCounterId, Integer> changes = new TreeMap<>(KEY_ORDER);
+        keyOf(previous).ifPresent(key -> changes.merge(key, -1, Integer::sum));
+        keyOf(current).ifPresent(key -> changes.merge(key, 1, Integer::sum));
+        changes.forEach(this::addToCounter);
+    }
+
+    private void addToCounter(OrderVolumeCounterId key, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        // a missing counter of a removed order is left to the reconcile
+        if (counterRepository.addToVolume(key.getVendorID(), key.getHourOfDay(), delta) == 0 && delta > 0) {
+            emptyRows.create(new OrderVolumeCounter(key.getVendorID(), key.getHourOfDay(), 0));
+            counterRepository.addToVolume(key.getVendorID(), key.getHourOfDay(), delta);
+        }
+    }
+
+    private static Optional<OrderVolumeCounterId> keyOf(Order order) {
+        if (order == null || order.getVendorID() == null || order.getDate() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new OrderVolumeCounterId(order.getVendorID(), hourOf(order.getDate())));
+    }
+
+    /**
+     * Gets the volume of orders of a vendor divided over each hour of the day.
+     *
+     * @param vendorID the UUID of the vendor
+     * @return the volume of orders for each hour, where index 0 is for 00:00 till 01:00, ... 23 is for
+     *         23:00 till 00:00, or empty if no orders were ever counted for the vendor
+     */
+    public Optional<List<Integer>> getVolumes(UUID vendorID) {
+        List<OrderVolumeCounterRepository.HourlyVolume> counters = counterRepository.findVolumesByVendorID(vendorID);
+        if (counters.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Integer> volumes = new ArrayList<>(Collections.nCopies(HOURS, 0));
+        for (OrderVolumeCounterRepository.HourlyVolume counter : counters) {
+            volumes.set(counter.getHourOfDay(), counter.getVolume());
+        }
+        return Optional.of(volumes);
+    }
+
+    /**
+     * Rebuilds the counters from the orders, vendor by vendor.
+     * Only the dates of the orders of one vendor are read at a time, streamed in a single query.
+     */
+    @Scheduled(fixedDelayString = "${orderVolume.reconcileIntervalMs:3600000}",
+            initialDelayString = "${orderVolume.reconcileIntervalMs:3600000}")
+    public void reconcile() {
+        Set<UUID> vendorIDs = new TreeSet<>(orderRepository.findVendorIDsOfDatedOrders());
+        vendorIDs.addAll(counterRepository.findVendorIDs());
+        for (UUID vendorID : vendorIDs) {
+            transaction.executeWithoutResult(status -> createMissingCounters(vendorID));
+            transaction.executeWithoutResult(status -> recount(vendorID));
+        }
+    }
+
+    // committed before the counters are locked, so creating them cannot wait for an order that waits for a lock
+    private void createMissingCounters(UUID vendorID) {
+        Set<Integer> hours = new TreeSet<>(countOrders(vendorID).keySet());
+        counterRepository.findVolumesByVendorID(vendorID).forEach(counter -> hours.remove(counter.getHourOfDay()));
+        hours.forEach(hour -> emptyRows.create(new OrderVolumeCounter(vendorID, hour, 0)));
+    }
+
+    /**
+     * Sets the counters of a vendor to the number of orders in each hour. The counters are locked before
+     * the orders are counted, so an order stored or deleted concurrently is either counted, or changes its
+     * counter after this transaction commits. A counter created after the lock is left alone.
+     */
+    private void recount(UUID vendorID) {
+        Set<Integer> locked = counterRepository.findForUpdateByVendorID(vendorID).stream()
+                .map(OrderVolumeCounter::getHourOfDay).collect(Collectors.toSet());
+        setVolumes(vendorID, locked, countOrders(vendorID));
+    }
+
+    private void setVolumes(UUID vendorID, Set<Integer> locked, Map<Integer, Long> volumes) {
+        for (OrderVolumeCounterRepository.HourlyVolume counter : counterRepository.findVolumesByVendorID(vendorID)) {
+            int volume = Math.toIntExact(volumes.getOrDefault(counter.getHourOfDay(), 0L));
+            if (locked.contains(counter.getHourOfDay()) && counter.getVolume() != volume) {
+                counterRepository.setVolume(vendorID, counter.getHourOfDay(), volume);
+            }
+        }
+    }
+
+    private Map<Integer, Long> countOrders(UUID vendorID) {
+        try (Stream<BigDecimal> dates = orderRepository.streamOrderDatesOfVendor(vendorID)) {
+            return dates.collect(Collectors.groupingBy(OrderVolumeCounters::hourOf, Collectors.counting()));
+        }
+    }
+
+    /**
+     * Gets the hour of the day an order was placed in, in the time zone of the server.
+     *
+     * @param date the date of the order in milliseconds since the epoch
+     * @return the hour of the day, from 0 till 23
+     */
+    static int hourOf(BigDecimal date) {
+        return Instant.ofEpochMilli(date.longValueExact()).atZone(ZoneId.systemDefault()).getHour();
+    }
+}
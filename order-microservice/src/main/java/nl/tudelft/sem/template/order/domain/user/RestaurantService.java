@@ -6,13 +6,16 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import nl.tudelft.sem.template.model.Address;
 import nl.tudelft.sem.template.order.domain.helpers.Coordinates;
-import nl.tudelft.sem.template.user.api.UserMicroServiceAPI;
+import nl.tudelft.sem.template.order.domain.helpers.GeoGridIndex;
+import nl.tudelft.sem.template.order.domain.helpers.VendorLocations;
+import nl.tudelft.sem.template.user.api.Geocoder;
+import nl.tudelft.sem.template.user.api.ReactiveUserMicroServiceAPI;
 import nl.tudelft.sem.template.user.services.JsonParserService;
-import nl.tudelft.sem.template.user.services.MockLocationService;
-import nl.tudelft.sem.template.user.services.UserMicroServiceService;
+import nl.tudelft.sem.template.user.services.ReactiveUserMicroServiceService;
 import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
 
 /**
  * The type Restaurant service.
@@ -20,26 +23,38 @@ import org.springframework.stereotype.Service;
 @Service
 public class RestaurantService {
 
-    private final transient UserMicroServiceAPI userMicroServiceService;
-    private final transient MockLocationService mockedLocationService;
+    /**
+     * Radius in km around the user in which restaurants are searched.
+     */
+    private static final double RADIUS = 5;
 
+    private final transient ReactiveUserMicroServiceAPI userMicroServiceService;
+    private final transient Geocoder geocoder;
+    private final transient JsonParserService jsonParserService;
+    private final transient VendorDirectory vendorDirectory;
 
     /**
      * Instantiates a new Restaurant service.
      *
      * @param userMicroServiceService the user microservice service
-     * @param mockedLocationService mocked location service
+     * @param geocoder the geocoder used to locate the address of the user
+     * @param jsonParserService the parser for the json returned by the user microservice
+     * @param vendorDirectory the snapshot of the locations of the vendors
      */
-    public RestaurantService(UserMicroServiceService userMicroServiceService, MockLocationService mockedLocationService) {
+    public RestaurantService(ReactiveUserMicroServiceService userMicroServiceService,
+                             Geocoder geocoder, JsonParserService jsonParserService,
+                             VendorDirectory vendorDirectory) {
         this.userMicroServiceService = userMicroServiceService;
-        this.mockedLocationService = mockedLocationService;
+        this.geocoder = geocoder;
+        this.jsonParserService = jsonParserService;
+        this.vendorDirectory = vendorDirectory;
     }
 
     /**
      *  Gets all restaurants.
      *  Algorithm:
      *  Get userLocation based on ID,
-     *  Get all the vendors,
+     *  Get all the vendors from the VendorDirectory,
      *  filter the vendors on distance from the user
      *
      * @param userID the user id of the customer
@@ -47,21 +62,21 @@ public class RestaurantService {
      * @throws RuntimeException in case of other exceptions, just throw RunTimeException
      */
     public List<UUID> getAllRestaurants(UUID userID) throws RuntimeException {
+        return getAllRestaurantsAsync(userID).block();
+    }
 
-        // get vendor location and UUID
-        try {
-            String jsonVendors = userMicroServiceService.getAllVendors();
-            HashMap<UUID, List<Double>> vendors = JsonParserService.parseVendorsLocation(jsonVendors);
-            // option: error thrown in the JsonParserService could be caught in this try catch
-            if (vendors == null || vendors.isEmpty()) {
-                throw new RuntimeException("Something went wrong parsing vendors");
-            }
-            // try to get the user address first
-            List<Double> userLocation = getUserLocation(userID);
-            return processVendors(userLocation, vendors);
-        } catch (Exception e) {
-            throw new RuntimeException("Could not get vendors");
-        }
+    /**
+     * Gets all restaurants without blocking.
+     * The vendors come from the snapshot of the VendorDirectory, only before the first snapshot
+     * they are fetched, at the same time as the location of the user.
+     *
+     * @param userID the user id of the customer
+     * @return mono of the list of UUID from the vendors in a specific radius,
+     *         failing with a RuntimeException if the vendors or the user location could not be retrieved
+     */
+    public Mono<List<UUID>> getAllRestaurantsAsync(UUID userID) {
+        return Mono.zip(getUserLocationAsync(userID), vendorDirectory.getIndex(), this::processVendors)
+                .onErrorMap(e -> new RuntimeException("Could not get vendors"));
     }
 
     /**
@@ -73,52 +88,57 @@ public class RestaurantService {
      */
     public List<Double> getUserLocation(UUID userID) throws UserIDNotFoundException {
         try {
-            Address userAddress = userMicroServiceService.getUserAddress(userID);
-            // this always returns the geo coordinates of TU Aula, unless we catch an error
-            return mockedLocationService.convertAddressToGeoCoords(userAddress);
-        } catch (Exception e) {
-
-            // if we catch an error, then get the user's current location
-            return userLocationHandler(userID);
+            return getUserLocationAsync(userID).block();
+        } catch (RuntimeException e) {
+            // block() wraps checked exceptions, so unwrap the UserIDNotFoundException again
+            Throwable cause = Exceptions.unwrap(e);
+            if (cause instanceof UserIDNotFoundException) {
+                throw (UserIDNotFoundException) cause;
+            }
+            throw e;
         }
     }
 
+    /**
+     * getter for the location of the user, without blocking.
+     * Uses the address of the user, or the current location of the user if the address can not be retrieved.
+     *
+     * @param userID UUID of the user
+     * @return mono of the latitude (index=0) and longitude (index=1),
+     *         failing with a UserIDNotFoundException if the user is not found
+     */
+    public Mono<List<Double>> getUserLocationAsync(UUID userID) {
+        return userMicroServiceService.getUserAddress(userID)
+                // this always returns the geo coordinates of TU Aula, unless we catch an error
+                .map(geocoder::convertAddressToGeoCoords)
+                // if we catch an error or the user has no address, then get the user's current location
+                .onErrorResume(e -> userLocationHandler(userID))
+                .switchIfEmpty(Mono.defer(() -> userLocationHandler(userID)));
+    }
+
     /** Handles the checking for user existence.
      *
      * @param userID the id of the checked user
-     * @return the checked userLocation
-     * @throws UserIDNotFoundException if the user does not exist
+     * @return mono of the checked userLocation, failing with a UserIDNotFoundException if the user does not exist
      */
-    private List<Double> userLocationHandler(UUID userID) throws UserIDNotFoundException {
-        try {
-            String jsonUser = userMicroServiceService.getUserLocation(userID);
-            if (jsonUser == null || jsonUser.isEmpty()) { // in case getUserLocation timed out.
-                throw new UserIDNotFoundException(userID);
-            }
-            List<Double> userLocation = JsonParserService.parseLocation(jsonUser);
-            // option: error thrown in the JsonParserService could be caught in this try catch
-            if (userLocation == null) {
-                throw new RuntimeException("Something went wrong parsing location");
-            }
-            return userLocation;
-        } catch (Exception ex) {
-            throw new UserIDNotFoundException(userID);
-        }
+    private Mono<List<Double>> userLocationHandler(UUID userID) {
+        return userMicroServiceService.getUserLocation(userID)
+                .filter(jsonUser -> !jsonUser.isEmpty())
+                .flatMap(jsonUser -> Mono.justOrEmpty(jsonParserService.parseLocation(jsonUser)))
+                // no location (or one that could not be parsed) means we could not find the user
+                .single()
+                .onErrorMap(e -> new UserIDNotFoundException(userID));
     }
 
     /**
      * Filters vendors based on their proximity to the customer's location within a specified radius.
      *
      * @param userLocation the location of the user
-     * @param vendors vendors that need to be filtered
+     * @param vendors index of the vendors that need to be filtered
      * @return a list of vendor UUIDs
      */
-    public List<UUID> processVendors(List<Double> userLocation, HashMap<UUID, List<Double>> vendors) {
-        return vendors.entrySet().stream()
-                .filter(entry -> calculateDistance(new Coordinates(userLocation.get(0), userLocation.get(1)),
-                        new Coordinates(entry.getValue().get(0), entry.getValue().get(1))) < 5)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+    public List<UUID> processVendors(List<Double> userLocation, GeoGridIndex vendors) {
+        return vendors.withinRadius(userLocation.get(0), userLocation.get(1), RADIUS);
     }
 
     /**
@@ -134,7 +154,7 @@ public class RestaurantService {
     public double calculateDistance(Coordinates user,
                                     Coordinates vendor) {
         // Calculate distance between two points using Haversine formula
-        final double r = 6371D; // radius of Earth in km
+        final double r = VendorLocations.EARTH_RADIUS;
         final double p = Math.PI / 180;
         double vendorLatitude = vendor.latitude;
         double vendorLongitude = vendor.longitude;
@@ -156,13 +176,23 @@ public class RestaurantService {
      * @throws RuntimeException could not get restaurants or userID
      */
     public List<UUID> getAllRestaurantsWithQuery(UUID userID, String query) throws RuntimeException {
-        List<UUID> restaurantsID = getAllRestaurants(userID); // may throw error
-        List<String> restaurantsJson = userMicroServiceService.getVendorsFromID(restaurantsID);
-        HashMap<UUID, String> restaurantsCuisines = JsonParserService.parseVendorCuisine(restaurantsJson);
-        if (restaurantsCuisines == null) {
-            throw new RuntimeException("No restaurants found");
-        }
-        return processVendorsByQuery(restaurantsCuisines, query);
+        return getAllRestaurantsWithQueryAsync(userID, query).block();
+    }
+
+    /**
+     * Gets all restaurants with query, without blocking.
+     *
+     * @param userID the user id of the customer
+     * @param query  the query of the customer
+     * @return mono of the list of UUID from the restaurants filtered by the query,
+     *         failing with a RuntimeException if the restaurants or the userID could not be retrieved
+     */
+    public Mono<List<UUID>> getAllRestaurantsWithQueryAsync(UUID userID, String query) {
+        return getAllRestaurantsAsync(userID)
+                .flatMap(restaurantsID -> userMicroServiceService.getVendorsFromID(restaurantsID).collectList())
+                .flatMap(restaurantsJson -> Mono.justOrEmpty(jsonParserService.parseVendorCuisine(restaurantsJson)))
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("No restaurants found")))
+                .map(restaurantsCuisines -> processVendorsByQuery(restaurantsCuisines, query));
     }
 
     /**
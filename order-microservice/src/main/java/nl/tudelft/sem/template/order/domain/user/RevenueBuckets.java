@@ -0,0 +1,282 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import nl.tudelft.sem.template.model.Revenue;
+import nl.tudelft.sem.template.order.domain.analytics.RevenueBucket;
+import nl.tudelft.sem.template.order.domain.analytics.RevenueBucketId;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderRepository;
+import nl.tudelft.sem.template.order.domain.user.repositories.RevenueBucketRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Per vendor revenue of the paid orders placed on each day (UTC), in cents.
+ * A dish is counted at the price it had when it was added to the order, which the order line keeps.
+ * The prices of dishes are floats, they are converted to whole cents once per dish so the buckets
+ * are added up exactly. The buckets are changed in the transaction that stores, pays, edits or deletes
+ * an order or adds a dish to or removes a dish from it, and are rebuilt from the orders every
+ * revenue.reconcileIntervalMs, which corrects them if they drifted, for example because an order was
+ * changed in the database directly. The rebuild locks the buckets of one vendor at a time,
+ * so revenue added meanwhile is not lost and orders of other vendors do not wait for it.
+ */
+@Service
+public class RevenueBuckets {
+    static final LocalDate FIRST_DAY = LocalDate.of(0, 1, 1);
+    static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+
+    private static final Comparator<RevenueBucketId> KEY_ORDER = Comparator
+            .comparing(RevenueBucketId::getVendorID).thenComparing(RevenueBucketId::getDay);
+
+    private final transient RevenueBucketRepository bucketRepository;
+    private final transient OrderRepository orderRepository;
+    private final transient EmptyRows emptyRows;
+    private final transient TransactionTemplate transaction;
+
+    /**
+     * The length of the periods the revenue is added up over.
+     */
+    public enum Period {
+        DAY, WEEK, MONTH;
+
+        /**
+         * Parses a period, ignoring case.
+         *
+         * @param period day, week or month, or null for day
+         * @return the period
+         * @throws IllegalArgumentException if the period is not day, week or month
+         */
+        public static Period parse(String period) {
+            return (period == null) ? DAY : valueOf(period.toUpperCase(Locale.ROOT));
+        }
+
+        /**
+         * Gets the first day of the period a day lies in. Weeks start on Monday.
+         *
+         * @param day the day
+         * @return the first day of the period
+         */
+        public LocalDate start(LocalDate day) {
+            switch (this) {
+                case WEEK:
+                    return day.with(DayOfWeek.MONDAY);
+                case MONTH:
+                    return day.withDayOfMonth(1);
+                default:
+                    return day;
+            }
+        }
+    }
+
+    /**
+     * Instantiates a new RevenueBuckets.
+     *
+     * @param bucketRepository the repository of the buckets
+     * @param orderRepository the order repository, used for the revenue of orders
+     * @param emptyRows creates the missing buckets
+     * @param transactionManager the transaction manager the buckets of each vendor are rebuilt with
+     */
+    @Autowired
+    public RevenueBuckets(RevenueBucketRepository bucketRepository, OrderRepository orderRepository,
+                          EmptyRows emptyRows, PlatformTransactionManager transactionManager) {
+        this.bucketRepository = bucketRepository;
+        this.orderRepository = orderRepository;
+        this.emptyRows = emptyRows;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * The revenue an order adds to a bucket: nothing for orders without a vendor or date and for orders
+     * that are not paid.
+     */
+    public static final class Contribution {
+        public static final Contribution NONE = new Contribution(null, 0);
+
+        private final transient RevenueBucketId bucket;
+        private final transient long cents;
+
+        Contribution(RevenueBucketId bucket, long cents) {
+            this.bucket = bucket;
+            this.cents = cents;
+        }
+
+        public RevenueBucketId getBucket() {
+            return bucket;
+        }
+
+        public long getCents() {
+            return cents;
+        }
+    }
+
+    /**
+     * Reads the revenue an order adds as it is stored now, in a single query that only reads the
+     * order's vendor, date and payment state and the prices of its dishes.
+     *
+     * @param orderID the id of the order
+     * @return the contribution of the order, NONE if it does not exist or is not counted
+     */
+    public Contribution contributionOf(UUID orderID) {
+        List<OrderRepository.OrderDishPrice> dishes = orderRepository.findDishPricesOfOrder(orderID);
+        if (dishes.isEmpty()) {
+            return Contribution.NONE;
+        }
+        OrderRepository.OrderDishPrice order = dishes.get(0);
+        if (order.getVendorID() == null || order.getDate() == null || !Boolean.TRUE.equals(order.getOrderPaid())) {
+            return Contribution.NONE;
+        }
+        long cents = dishes.stream().filter(dish -> dish.getPrice() != null)
+                .mapToLong(dish -> centsOf(dish.getPrice()) * dish.getQuantity()).sum();
+        return new Contribution(new RevenueBucketId(order.getVendorID(), dayOf(order.getDate())), cents);
+    }
+
+    /**
+     * Replaces the revenue an order added before it was changed by the revenue it adds now.
+     * If both lie in the same bucket only the difference is added, otherwise the buckets are changed in
+     * the order of their keys, so two transactions changing the same two buckets do not wait for each
+     * other's locks.
+     *
+     * @param previous the contribution of the order before it was changed, NONE if it was created
+     * @param current the contribution of the order after it was changed, NONE if it was deleted
+     */
+    public void replace(Contribution previous, Contribution current) {
+        if (Objects.equals(previous.getBucket(), current.getBucket())) {
+            addToBucket(current.getBucket(), current.getCents() - previous.getCents());
+            return;
+        }
+        if (previous.getBucket() != null && current.getBucket() != null
+                && KEY_ORDER.compare(current.getBucket(), previous.getBucket()) < 0) {
+            addToBucket(current.getBucket(), current.getCents());
+            addToBucket(previous.getBucket(), -previous.getCents());
+            return;
+        }
+        addToBucket(previous.getBucket(), -previous.getCents());
+        addToBucket(current.getBucket(), current.getCents());
+    }
+
+    private void addToBucket(RevenueBucketId key, long cents) {
+        if (key == null || cents == 0) {
+            return;
+        }
+        if (bucketRepository.addToRevenue(key.getVendorID(), key.getDay(), cents) == 0) {
+            emptyRows.create(new RevenueBucket(key.getVendorID(), key.getDay(), 0));
+            bucketRepository.addToRevenue(key.getVendorID(), key.getDay(), cents);
+        }
+    }
+
+    /**
+     * Gets the revenue of a vendor added up per period.
+     *
+     * @param vendorID the UUID of the vendor
+     * @param first the first day to include, or null for no lower bound
+     * @param last the last day to include, or null for no upper bound
+     * @param period the length of the periods
+     * @return the revenue of each period with revenue, ordered by the first day of the period
+     */
+    public List<Revenue> getRevenue(UUID vendorID, LocalDate first, LocalDate last, Period period) {
+        SortedMap<LocalDate, Long> revenue = new TreeMap<>();
+        for (RevenueBucketRepository.DailyRevenue day : bucketRepository.findRevenue(vendorID,
+                (first == null) ? FIRST_DAY : first, (last == null) ? LAST_DAY : last)) {
+            if (day.getRevenueCents() != 0) {
+                revenue.merge(period.start(day.getDay()), day.getRevenueCents(), Long::sum);
+            }
+        }
+        List<Revenue> result = new ArrayList<>();
+        revenue.forEach((start, cents) -> result.add(new Revenue().start(start.toString()).revenueCents(cents)));
+        return result;
+    }
+
+    /**
+     * Rebuilds the buckets from the paid orders, vendor by vendor.
+     * Only the dates and dish prices of the paid orders of one vendor are read at a time, streamed in a
+     * single query.
+     */
+    @Scheduled(fixedDelayString = "${revenue.reconcileIntervalMs:3600000}",
+            initialDelayString = "${revenue.reconcileIntervalMs:3600000}")
+    public void reconcile() {
+        Set<UUID> vendorIDs = new TreeSet<>(orderRepository.findVendorIDsOfPaidOrders());
+        vendorIDs.addAll(bucketRepository.findVendorIDs());
+        for (UUID vendorID : vendorIDs) {
+            transaction.executeWithoutResult(status -> createMissingBuckets(vendorID));
+            transaction.executeWithoutResult(status -> recount(vendorID));
+        }
+    }
+
+    // committed before the buckets are locked, so creating them cannot wait for an order that waits for a lock
+    private void createMissingBuckets(UUID vendorID) {
+        Set<LocalDate> days = new TreeSet<>(addUpRevenue(vendorID).keySet());
+        bucketRepository.findRevenue(vendorID, FIRST_DAY, LAST_DAY).forEach(bucket -> days.remove(bucket.getDay()));
+        days.forEach(day -> emptyRows.create(new RevenueBucket(vendorID, day, 0)));
+    }
+
+    /**
+     * Sets the buckets of a vendor to the revenue of each day. The buckets are locked before the revenue
+     * is added up, so an order paid, changed or deleted concurrently is either added, or changes its
+     * bucket after this transaction commits. A bucket created after the lock is left alone.
+     */
+    private void recount(UUID vendorID) {
+        Set<LocalDate> locked = bucketRepository.findForUpdateByVendorID(vendorID).stream()
+                .map(RevenueBucket::getDay).collect(Collectors.toSet());
+        setRevenue(vendorID, locked, addUpRevenue(vendorID));
+    }
+
+    private void setRevenue(UUID vendorID, Set<LocalDate> locked, Map<LocalDate, Long> revenue) {
+        for (RevenueBucketRepository.DailyRevenue bucket
+                : bucketRepository.findRevenue(vendorID, FIRST_DAY, LAST_DAY)) {
+            long cents = revenue.getOrDefault(bucket.getDay(), 0L);
+            if (locked.contains(bucket.getDay()) && bucket.getRevenueCents() != cents) {
+                bucketRepository.setRevenue(vendorID, bucket.getDay(), cents);
+            }
+        }
+    }
+
+    private Map<LocalDate, Long> addUpRevenue(UUID vendorID) {
+        try (Stream<OrderRepository.PaidDish> dishes = orderRepository.streamPaidDishesOfVendor(vendorID)) {
+            return dishes.filter(dish -> dish.getPrice() != null)
+                    .collect(Collectors.groupingBy(dish -> dayOf(dish.getDate()),
+                            Collectors.summingLong(dish -> centsOf(dish.getPrice()) * dish.getQuantity())));
+        }
+    }
+
+    /**
+     * Converts the price of a dish to whole cents, rounding half up.
+     * The shortest decimal representation of the float is used, so 3.15f is 315 cents.
+     *
+     * @param price the price in euros
+     * @return the price in cents
+     */
+    static long centsOf(Float price) {
+        return new BigDecimal(Float.toString(price)).movePointRight(2).setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    /**
+     * Gets the day (UTC) an order was placed on.
+     *
+     * @param date the date of the order in milliseconds since the epoch
+     * @return the day
+     */
+    static LocalDate dayOf(BigDecimal date) {
+        return Instant.ofEpochMilli(date.longValueExact()).atZone(ZoneOffset.UTC).toLocalDate();
+    }
+}
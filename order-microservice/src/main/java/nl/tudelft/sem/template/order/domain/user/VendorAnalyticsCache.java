@@ -0,0 +1,157 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Caches the results of the vendor analytics, so a dashboard that polls them does not query the database
+ * and the user microservice on every request. Every vendor has a generation that is replaced when one
+ * of its orders is written, and results are cached per generation: a write makes all cached results of
+ * that vendor unreachable, also those of queries that were still running, and leaves other vendors alone.
+ * Generations are drawn from one sequence and never reused, so the generation of a vendor that has not
+ * been asked for in a while can be forgotten; a vendor without one gets a new one.
+ * Changes that do not go through OrderService, like the reconcile jobs or another instance of this service,
+ * are seen at most analytics.cache.maxStalenessMs later.
+ */
+@Component
+public class VendorAnalyticsCache {
+
+    private final transient Cache<Key, Object> results;
+    private final transient Cache<UUID, Long> generations;
+    private final transient AtomicLong lastGeneration = new AtomicLong();
+
+    /**
+     * Instantiates a new VendorAnalyticsCache.
+     *
+     * @param environment the environment containing the analytics.cache.* settings
+     * @param meterRegistry the registry the hit/miss/eviction counters and the hit ratio of the cache
+     *                      are published to
+     */
+    @Autowired
+    public VendorAnalyticsCache(Environment environment, MeterRegistry meterRegistry) {
+        final long maximumSize = environment.getProperty("analytics.cache.maximumSize", Long.class, 10_000L);
+        final Duration maxStaleness = Duration.ofMillis(environment.getProperty(
+                "analytics.cache.maxStalenessMs", Long.class, 10_000L));
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(maxStaleness)
+                .recordStats()
+                .build();
+        // a generation outlives the results cached under it, forgetting it earlier only costs cache misses
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(maxStaleness.multipliedBy(2))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "vendorAnalytics");
+        Gauge.builder("cache.hitRatio", results, cache -> cache.stats().hitRate())
+                .tag("cache", "vendorAnalytics")
+                .register(meterRegistry);
+    }
+
+    /**
+     * An analytics query of a vendor.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface Query<T> {
+        T run() throws VendorNotFoundException, NoOrdersException;
+    }
+
+    /**
+     * Gets the cached result of a query, or runs the query and caches its result.
+     * Exceptions are not cached, the next request runs the query again.
+     *
+     * @param vendorID the UUID of the vendor the query is about
+     * @param name the name of the query
+     * @param query the query
+     * @param parameters the parameters of the query besides the vendor, which may be null
+     * @param <T> the type of the result
+     * @return the result of the query
+     * @throws VendorNotFoundException if the query throws it
+     * @throws NoOrdersException if the query throws it
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(UUID vendorID, String name, Query<T> query, Object... parameters)
+            throws VendorNotFoundException, NoOrdersException {
+        // the generation is read before the query runs, so a result that may miss a write is never found after it
+        Key key = new Key(vendorID, generations.get(vendorID, v -> lastGeneration.incrementAndGet()), name,
+                Arrays.asList(parameters));
+        T cached = (T) results.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        T result = query.run();
+        results.put(key, result);
+        return result;
+    }
+
+    /**
+     * Makes the cached results of a vendor unreachable, called when one of its orders is written.
+     * Inside a transaction this happens once it commits, so queries that ran before cannot cache what
+     * the transaction replaced under the new generation.
+     *
+     * @param vendorID the UUID of the vendor, nothing happens if null
+     */
+    public void invalidate(UUID vendorID) {
+        if (vendorID == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            generations.put(vendorID, lastGeneration.incrementAndGet());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                generations.put(vendorID, lastGeneration.incrementAndGet());
+            }
+        });
+    }
+
+    private static final class Key {
+        private final transient UUID vendorID;
+        private final transient long generation;
+        private final transient String name;
+        private final transient List<Object> parameters;
+
+        Key(UUID vendorID, long generation, String name, List<Object> parameters) {
+            this.vendorID = vendorID;
+            this.generation = generation;
+            this.name = name;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return generation == other.generation && vendorID.equals(other.vendorID) && name.equals(other.name)
+                    && parameters.equals(other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(vendorID, generation, name, parameters);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import nl.tudelft.sem.template.model.PopularItem;
+import nl.tudelft.sem.template.model.VendorDashboard;
+import nl.tudelft.sem.template.order.domain.helpers.TimeWindow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Computes the dashboard of a vendor: its order volume, peak times and popular items. The vendor is checked
+ * once, after which the sections are computed in parallel on a bounded pool of analytics.dashboard.threads
+ * threads, each with the query and the cache entry of its own endpoint. When all threads are busy and
+ * analytics.dashboard.queueSize sections are waiting, a section is computed by the request thread itself,
+ * so the number of concurrent dashboard queries stays bounded without rejecting requests.
+ */
+@Service
+public class VendorDashboards {
+    public static final String VENDOR = "vendor";
+    public static final String ORDER_VOLUME = "orderVolume";
+    public static final String PEAK_TIMES = "peakTimes";
+    public static final String POPULAR_ITEMS = "popularItems";
+    public static final String TOTAL = "total";
+
+    private static final List<Integer> NO_PEAK_TIMES = Arrays.stream(new int[24]).boxed().collect(Collectors.toList());
+
+    private final transient OrderService orderService;
+    private final transient VendorAnalyticsCache analyticsCache;
+    private final transient ExecutorService executor;
+
+    /**
+     * Instantiates a new VendorDashboards.
+     *
+     * @param orderService the service that runs the queries of the sections
+     * @param analyticsCache the cache of the analytics, shared with the endpoints of the sections
+     * @param environment the environment containing the analytics.dashboard.* settings
+     */
+    @Autowired
+    public VendorDashboards(OrderService orderService, VendorAnalyticsCache analyticsCache, Environment environment) {
+        this.orderService = orderService;
+        this.analyticsCache = analyticsCache;
+        int threads = environment.getProperty("analytics.dashboard.threads", Integer.class, 4);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(environment.getProperty("analytics.dashboard.queueSize", Integer.class, 64)),
+                new CustomizableThreadFactory("vendor-dashboard-"), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * A dashboard and the time it took to compute each of its sections.
+     */
+    public static final class Dashboard {
+        private final transient VendorDashboard content;
+        private final transient Map<String, Long> timings;
+
+        Dashboard(VendorDashboard content, Map<String, Long> timings) {
+            this.content = content;
+            this.timings = timings;
+        }
+
+        public VendorDashboard getContent() {
+            return content;
+        }
+
+        /**
+         * Gets the time it took to check the vendor, to compute each section, and to compute the whole dashboard.
+         *
+         * @return the nanoseconds per part, in the order VENDOR, ORDER_VOLUME, PEAK_TIMES, POPULAR_ITEMS, TOTAL
+         */
+        public Map<String, Long> getTimings() {
+            return timings;
+        }
+
+        /**
+         * Gets the timings as the value of a Server-Timing header.
+         *
+         * @return the timings in milliseconds, e.g. "vendor;dur=12.5, orderVolume;dur=3.1, ..."
+         */
+        public String getServerTiming() {
+            return timings.entrySet().stream()
+                    .map(timing -> String.format(Locale.ROOT, "%s;dur=%.1f", timing.getKey(), timing.getValue() / 1e6))
+                    .collect(Collectors.joining(", "));
+        }
+    }
+
+    /**
+     * Computes the dashboard of a vendor.
+     *
+     * @param vendorID the UUID of the vendor
+     * @param from only count orders placed at or after this moment, in milliseconds since the epoch, or null
+     * @param to only count orders placed before this moment, in milliseconds since the epoch, or null
+     * @param zone the time zone of the peak times, the time zone of the server if null
+     * @param limit the maximum number of popular items, or null for all ordered dishes
+     * @return the dashboard and its timings
+     * @throws VendorNotFoundException if the vendor does not exist
+     * @throws IllegalArgumentException if from is after to or the limit is less than 1
+     * @throws java.time.DateTimeException if the zone is not a valid time zone id
+     */
+    public Dashboard getDashboard(UUID vendorID, Long from, Long to, String zone, Integer limit)
+            throws VendorNotFoundException {
+        final long start = System.nanoTime();
+        OrderService.verifyPopularItemsLimit(limit);
+        return getDashboard(vendorID, TimeWindow.of(from, to, null), TimeWindow.of(from, to, zone), limit, start);
+    }
+
+    private Dashboard getDashboard(UUID vendorID, TimeWindow window, TimeWindow hoursWindow, Integer limit, long start)
+            throws VendorNotFoundException {
+        orderService.verifyVendorExists(vendorID);
+        Map<String, Long> timings = new ConcurrentHashMap<>();
+        timings.put(VENDOR, System.nanoTime() - start);
+
+        CompletableFuture<Integer> volume = section(ORDER_VOLUME, timings, 0, () -> analyticsCache.get(vendorID,
+                "orderVolumes", () -> orderService.countOrders(vendorID, window), window));
+        CompletableFuture<List<Integer>> peakTimes = section(PEAK_TIMES, timings, NO_PEAK_TIMES,
+                () -> analyticsCache.get(vendorID, "peakTimes",
+                        () -> orderService.countOrdersByHour(vendorID, hoursWindow), hoursWindow));
+        CompletableFuture<List<PopularItem>> popularItems = section(POPULAR_ITEMS, timings, List.of(),
+                () -> analyticsCache.get(vendorID, "popularItems",
+                        () -> orderService.countPopularItems(vendorID, limit), limit));
+        try {
+            CompletableFuture.allOf(volume, peakTimes, popularItems).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof VendorNotFoundException) {
+                throw (VendorNotFoundException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        VendorDashboard content = new VendorDashboard().orderVolume(volume.join())
+                .peakTimes(peakTimes.join()).popularItems(popularItems.join());
+        timings.put(TOTAL, System.nanoTime() - start);
+
+        Map<String, Long> ordered = new LinkedHashMap<>();
+        for (String part : List.of(VENDOR, ORDER_VOLUME, PEAK_TIMES, POPULAR_ITEMS, TOTAL)) {
+            ordered.put(part, timings.get(part));
+        }
+        return new Dashboard(content, ordered);
+    }
+
+    /**
+     * Computes a section on the pool and records how long it took.
+     *
+     * @param name the name of the section in the timings
+     * @param timings the timings to add the time of the section to
+     * @param whenNoOrders the section of a vendor without orders
+     * @param query the query of the section
+     * @param <T> the type of the section
+     * @return the section, completed when it is computed
+     */
+    private <T> CompletableFuture<T> section(String name, Map<String, Long> timings, T whenNoOrders,
+                                             VendorAnalyticsCache.Query<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return query.run();
+            } catch (NoOrdersException e) {
+                return whenNoOrders;
+            } catch (VendorNotFoundException e) {
+                throw new CompletionException(e);
+            } finally {
+                timings.put(name, System.nanoTime() - start);
+            }
+        }, executor);
+    }
+
+    /**
+     * Stops the threads of the pool when the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
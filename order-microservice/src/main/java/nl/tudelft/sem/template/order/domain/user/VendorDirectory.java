@@ -0,0 +1,179 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import nl.tudelft.sem.template.order.domain.helpers.GeoGridIndex;
+import nl.tudelft.sem.template.order.domain.helpers.VendorLocations;
+import nl.tudelft.sem.template.user.services.JsonParserService;
+import nl.tudelft.sem.template.user.services.ReactiveUserMicroServiceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Snapshot of the locations of all vendors, refreshed in the background.
+ * Searches read the current snapshot without calling the user microservice,
+ * only the searches before the first snapshot wait for the vendors to be fetched.
+ * Every userMicroService.vendorDirectory.refreshIntervalMs the vendors are fetched again,
+ * sending the ETag of the snapshot so the user microservice can answer 304 Not Modified.
+ * The age of the snapshot and the duration of the refreshes are published as metrics.
+ */
+@Service
+public class VendorDirectory {
+
+    private final transient ReactiveUserMicroServiceService userMicroServiceService;
+    private final transient JsonParserService jsonParserService;
+    private final transient Timer updatedTimer;
+    private final transient Timer unchangedTimer;
+    private final transient Timer failedTimer;
+    private final transient AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final transient Mono<Snapshot> coldStart;
+
+    /**
+     * Instantiates a new VendorDirectory.
+     *
+     * @param userMicroServiceService the service used to fetch the vendors
+     * @param jsonParserService the parser for the vendors
+     * @param meterRegistry the registry the age, size and refresh metrics are published to
+     */
+    @Autowired
+    public VendorDirectory(ReactiveUserMicroServiceService userMicroServiceService,
+                           JsonParserService jsonParserService, MeterRegistry meterRegistry) {
+        this.userMicroServiceService = userMicroServiceService;
+        this.jsonParserService = jsonParserService;
+        this.updatedTimer = refreshTimer(meterRegistry, "updated");
+        this.unchangedTimer = refreshTimer(meterRegistry, "unchanged");
+        this.failedTimer = refreshTimer(meterRegistry, "failed");
+        // concurrent searches on a cold start share one fetch, a failed fetch is tried again by the next search
+        this.coldStart = Mono.defer(this::refresh).cache(s -> Duration.ZERO, e -> Duration.ZERO, () -> Duration.ZERO);
+        TimeGauge.builder("userMicroService.vendorDirectory.age", this, TimeUnit.MILLISECONDS, VendorDirectory::ageMillis)
+                .description("Time since the vendors were last fetched")
+                .register(meterRegistry);
+        Gauge.builder("userMicroService.vendorDirectory.vendors", this, VendorDirectory::size)
+                .description("Number of vendors in the snapshot")
+                .register(meterRegistry);
+    }
+
+    private static Timer refreshTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("userMicroService.vendorDirectory.refresh")
+                .description("Duration of fetching the vendors")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gets the index of the vendors in the current snapshot.
+     * Fetches the vendors first if there is no snapshot yet.
+     *
+     * @return mono of the index, failing with a RuntimeException if there is no snapshot and the vendors
+     *         could not be fetched
+     */
+    public Mono<GeoGridIndex> getIndex() {
+        return Mono.defer(() -> {
+            Snapshot current = snapshot.get();
+            return (current == null) ? coldStart.map(Snapshot::getIndex) : Mono.just(current.getIndex());
+        });
+    }
+
+    /**
+     * Refreshes the snapshot in the background, a failed refresh keeps the current snapshot.
+     */
+    @Scheduled(fixedDelayString = "${userMicroService.vendorDirectory.refreshIntervalMs:30000}",
+            initialDelayString = "${userMicroService.vendorDirectory.refreshIntervalMs:30000}")
+    public void scheduledRefresh() {
+        refresh().onErrorResume(e -> Mono.empty()).block();
+    }
+
+    /**
+     * Fetches the vendors and swaps in the new snapshot.
+     * If the vendors did not change, the snapshot keeps its index and only its age is reset.
+     *
+     * @return mono of the new snapshot, failing with a RuntimeException if the vendors could not be fetched
+     *         or parsed, in which case the current snapshot is kept
+     */
+    public Mono<Snapshot> refresh() {
+        return Mono.defer(() -> {
+            Snapshot previous = snapshot.get();
+            long start = System.nanoTime();
+            String etag = Optional.ofNullable(previous).map(Snapshot::getEtag).orElse(null);
+            return userMicroServiceService.getAllVendors(etag)
+                    .switchIfEmpty(Mono.error(() -> new RuntimeException("Could not get vendors")))
+                    .map(response -> nextSnapshot(previous, response))
+                    .doOnNext(next -> {
+                        snapshot.set(next);
+                        boolean unchanged = previous != null && next.getIndex() == previous.getIndex();
+                        (unchanged ? unchangedTimer : updatedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    })
+                    .doOnError(e -> failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private Snapshot nextSnapshot(Snapshot previous, ResponseEntity<String> response) {
+        if (previous != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return new Snapshot(previous.getIndex(), previous.getEtag());
+        }
+        VendorLocations vendors = jsonParserService.parseVendorsLocation(response.getBody());
+        if (vendors == null || vendors.isEmpty()) {
+            throw new RuntimeException("Something went wrong parsing vendors");
+        }
+        GeoGridIndex index = (previous == null) ? GeoGridIndex.build(vendors, GeoGridIndex.DEFAULT_CELL_SIZE)
+                : previous.getIndex().refresh(vendors);
+        return new Snapshot(index, response.getHeaders().getETag());
+    }
+
+    private double ageMillis() {
+        Snapshot current = snapshot.get();
+        return (current == null) ? Double.NaN : (System.nanoTime() - current.getFetchedAt()) / 1e6;
+    }
+
+    private double size() {
+        Snapshot current = snapshot.get();
+        return (current == null) ? 0 : current.getIndex().size();
+    }
+
+    /**
+     * The vendors as they were fetched at one moment, never changed after it is created.
+     */
+    public static final class Snapshot {
+        private final transient GeoGridIndex index;
+        private final transient String etag;
+        private final transient long fetchedAt;
+
+        Snapshot(GeoGridIndex index, String etag) {
+            this.index = index;
+            this.etag = etag;
+            this.fetchedAt = System.nanoTime();
+        }
+
+        public GeoGridIndex getIndex() {
+            return index;
+        }
+
+        /**
+         * Gets the ETag the user microservice sent with the vendors.
+         *
+         * @return the ETag, or null if the user microservice does not send one
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Gets when the vendors were fetched, or found to be unchanged.
+         *
+         * @return the value of System.nanoTime() at that moment
+         */
+        public long getFetchedAt() {
+            return fetchedAt;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.TopDish;
+import nl.tudelft.sem.template.model.UniqueCustomers;
+import nl.tudelft.sem.template.order.domain.analytics.VendorSketch;
+import nl.tudelft.sem.template.order.domain.helpers.HyperLogLog;
+import nl.tudelft.sem.template.order.domain.helpers.SpaceSaving;
+import nl.tudelft.sem.template.order.domain.user.repositories.VendorSketchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Per vendor sketches of the customers and dishes of the orders placed on each day (UTC), used to estimate
+ * the number of distinct customers and the most ordered dishes of a vendor without reading its orders.
+ * A sketch is locked and updated in the transaction that stores an order or adds a dish to it. The sketches
+ * can only grow: customers of deleted orders and dishes removed from orders are still counted.
+ */
+@Service
+public class VendorSketches {
+    public static final int DEFAULT_TOP_DISHES = 10;
+
+    private final transient VendorSketchRepository sketchRepository;
+    private final transient EmptyRows emptyRows;
+
+    /**
+     * Instantiates a new VendorSketches.
+     *
+     * @param sketchRepository the repository of the sketches
+     * @param emptyRows creates the missing sketches
+     */
+    @Autowired
+    public VendorSketches(VendorSketchRepository sketchRepository, EmptyRows emptyRows) {
+        this.sketchRepository = sketchRepository;
+        this.emptyRows = emptyRows;
+    }
+
+    /**
+     * Adds the customer and the dishes of an order that was stored.
+     * Orders without a vendor or date are not counted.
+     *
+     * @param order the stored order
+     */
+    @Transactional
+    public void addOrder(Order order) {
+        if (order.getVendorID() == null || order.getDate() == null) {
+            return;
+        }
+        update(order, order.getCustomerID(), order.getListOfDishes());
+    }
+
+    /**
+     * Adds a dish that was added to an order.
+     *
+     * @param order the order
+     * @param dishID the dish added to it
+     */
+    @Transactional
+    public void addDish(Order order, UUID dishID) {
+        if (order.getVendorID() == null || order.getDate() == null) {
+            return;
+        }
+        update(order, null, List.of(dishID));
+    }
+
+    private void update(Order order, UUID customerID, Collection<UUID> dishes) {
+        LocalDate day = RevenueBuckets.dayOf(order.getDate());
+        VendorSketch sketch = sketchRepository.findForUpdate(order.getVendorID(), day)
+                .orElseGet(() -> createAndLock(order.getVendorID(), day));
+        if (customerID != null) {
+            HyperLogLog customers = sketch.customerSketch();
+            customers.add(customerID);
+            sketch.storeCustomerSketch(customers);
+        }
+        if (dishes != null && !dishes.isEmpty()) {
+            SpaceSaving dishSketch = sketch.dishSketch();
+            dishes.forEach(dishSketch::add);
+            sketch.storeDishSketch(dishSketch);
+        }
+        sketchRepository.saveAndFlush(sketch);
+    }
+
+    private VendorSketch createAndLock(UUID vendorID, LocalDate day) {
+        emptyRows.create(new VendorSketch(vendorID, day));
+        return sketchRepository.findForUpdate(vendorID, day).orElseThrow();
+    }
+
+    /**
+     * Estimates the number of distinct customers of a vendor, merging the sketches of the days.
+     *
+     * @param vendorID the UUID of the vendor
+     * @param first the first day (UTC) to include, or null for no lower bound
+     * @param last the last day (UTC) to include, or null for no upper bound
+     * @return the estimate and its relative standard error
+     * @throws IllegalArgumentException if first is after last
+     */
+    public UniqueCustomers getUniqueCustomers(UUID vendorID, LocalDate first, LocalDate last) {
+        HyperLogLog customers = new HyperLogLog();
+        for (VendorSketch sketch : findSketches(vendorID, first, last)) {
+            customers.merge(sketch.customerSketch());
+        }
+        return new UniqueCustomers().estimate(customers.estimate())
+                .relativeStandardError(HyperLogLog.RELATIVE_STANDARD_ERROR);
+    }
+
+    /**
+     * Estimates the most ordered dishes of a vendor, merging the summaries of the days.
+     *
+     * @param vendorID the UUID of the vendor
+     * @param first the first day (UTC) to include, or null for no lower bound
+     * @param last the last day (UTC) to include, or null for no upper bound
+     * @param limit the most dishes to return, or null for DEFAULT_TOP_DISHES
+     * @return the dishes with the highest counts, the highest first
+     * @throws IllegalArgumentException if first is after last, or the limit is not between 1 and
+     *                                  SpaceSaving.CAPACITY
+     */
+    public List<TopDish> getTopDishes(UUID vendorID, LocalDate first, LocalDate last, Integer limit) {
+        int size = (limit == null) ? DEFAULT_TOP_DISHES : limit;
+        if (size < 1 || size > SpaceSaving.CAPACITY) {
+            throw new IllegalArgumentException("limit must be between 1 and " + SpaceSaving.CAPACITY + ", got " + size);
+        }
+        SpaceSaving dishes = new SpaceSaving();
+        for (VendorSketch sketch : findSketches(vendorID, first, last)) {
+            dishes.merge(sketch.dishSketch());
+        }
+        return dishes.top(size).stream()
+                .map(dish -> new TopDish().dishID(dish.getId()).count(dish.getCount()).maxOverestimate(dish.getError()))
+                .collect(Collectors.toList());
+    }
+
+    private List<VendorSketch> findSketches(UUID vendorID, LocalDate first, LocalDate last) {
+        if (first != null && last != null && first.isAfter(last)) {
+            throw new IllegalArgumentException("first " + first + " is after last " + last);
+        }
+        return sketchRepository.findSketches(vendorID, (first == null) ? RevenueBuckets.FIRST_DAY : first,
+                (last == null) ? RevenueBuckets.LAST_DAY : last);
+    }
+}
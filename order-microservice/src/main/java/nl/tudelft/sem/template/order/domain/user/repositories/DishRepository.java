@@ -1,5 +1,6 @@
 package nl.tudelft.sem.template.order.domain.user.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,5 +26,8 @@ public interface DishRepository extends JpaRepository<Dish, UUID> {
 
     boolean existsByDishID(UUID dishId);
 
+    @Query("SELECT d.dishID FROM Dish d WHERE d.dishID IN :dishIds")
+    List<UUID> findExistingDishIDs(@Param("dishIds") Collection<UUID> dishIds);
+
     boolean existsByVendorID(UUID vendorID);
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package nl.tudelft.sem.template.order.domain.user.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import javax.transaction.Transactional;
+import nl.tudelft.sem.template.order.domain.lines.OrderLine;
+import nl.tudelft.sem.template.order.domain.lines.OrderLineId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+
+@Repository
+public interface OrderLineRepository extends JpaRepository<OrderLine, OrderLineId> {
+
+    /**
+     * A dish of an order and the number of times it was ordered, read as plain values so changes made
+     * with the update queries below in the same transaction are seen.
+     */
+    interface DishQuantity {
+        UUID getOrderID();
+
+        UUID getDishID();
+
+        int getQuantity();
+    }
+
+    @Query("select l.orderID as orderID, l.dishID as dishID, l.quantity as quantity from OrderLine l "
+            + "where l.orderID in ?1 order by l.orderID, l.lineNumber, l.dishID")
+    List<DishQuantity> findDishesOfOrders(Collection<UUID> orderIDs);
+
+    @Query("select count(l) from OrderLine l where l.orderID = ?1")
+    int countLinesOfOrder(UUID orderID);
+
+    @Modifying
+    @Transactional
+    @Query("update OrderLine l set l.quantity = l.quantity + 1 where l.orderID = ?1 and l.dishID = ?2")
+    int incrementQuantity(UUID orderID, UUID dishID);
+
+    // a line with a quantity of one is deleted instead, so of concurrent removals each removes one dish
+    @Modifying
+    @Transactional
+    @Query("update OrderLine l set l.quantity = l.quantity - 1 "
+            + "where l.orderID = ?1 and l.dishID = ?2 and l.quantity > 1")
+    int decrementQuantity(UUID orderID, UUID dishID);
+
+    @Modifying
+    @Transactional
+    @Query("delete from OrderLine l where l.orderID = ?1 and l.dishID = ?2 and l.quantity = 1")
+    int deleteLastOfDish(UUID orderID, UUID dishID);
+
+    @Modifying
+    @Transactional
+    @Query("delete from OrderLine l where l.orderID = ?1")
+    int deleteLinesOfOrder(UUID orderID);
+}
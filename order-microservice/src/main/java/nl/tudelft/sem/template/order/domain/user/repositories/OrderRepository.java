@@ -1,14 +1,21 @@
 package nl.tudelft.sem.template.order.domain.user.repositories;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import javax.transaction.Transactional;
-import nl.tudelft.sem.template.model.Dish;
 import nl.tudelft.sem.template.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -17,8 +24,59 @@ import org.springframework.stereotype.Repository;
 public interface OrderRepository extends JpaRepository<Order, UUID> {
     // additional query methods if needed
 
+    // the sort of OrderCursor: on date with orders without a date first, then on orderID
+    String CURSOR_ORDER = " order by o.date asc nulls first, o.orderID asc";
+
+    // a page in the sort of OrderCursor is read from two segments, the orders without a date and then the orders
+    // with a date, with a query for each way a page starts in a segment. The queries only compare the date and
+    // orderID to parameters that are set, so the database seeks to the cursor in the index of the list instead
+    // of reading all its orders. The lists are sorted on every column of their index, as H2 only reads an index
+    // in order, and stops at the end of the page, when the sort starts with the first column of the index
+    String WITHOUT_DATE = "o.date is null";
+    String WITHOUT_DATE_AFTER = "o.date is null and o.orderID > :afterID";
+    String DATED = "o.date is not null";
+    String DATED_SINCE = "o.date > :afterDate";
+    // the first bound follows from the second, but H2 only seeks on a bound that is not part of an or
+    String DATED_AFTER = "o.date >= :afterDate and (o.date > :afterDate or o.orderID > :afterID)";
+
+    // the names of the parameters of the paged queries
+    String AFTER_DATE = "afterDate";
+    String AFTER_ID = "afterID";
+    String VENDOR_ID = "vendorID";
+    String CUSTOMER_ID = "customerID";
+    String STATUS = "status";
+    String ALL_TIME = "allTime";
+    String WINDOW_FROM = "windowFrom";
+    String WINDOW_TO = "windowTo";
+
+    // all orders, served by the (date, orderID) index
+    String ALL_ORDERS = "select o from Order o where ";
+    String ALL_ORDERS_SORT = " order by o.date, o.orderID";
+
+    // served by the (customerID, status, date, orderID) index
+    String OF_CUSTOMER_WITH_STATUS = "select o from Order o where o.customerID = :customerID and o.status = :status and ";
+    String OF_CUSTOMER_WITH_STATUS_SORT = " order by o.customerID, o.status, o.date, o.orderID";
+
+    // served by the (vendorID, date, orderID) index
+    String OF_VENDOR = "select o from Order o where o.vendorID = :vendorID and ";
+    String OF_VENDOR_SORT = " order by o.vendorID, o.date, o.orderID";
+
+    // also served by the (vendorID, date, orderID) index, allTime is true for all time, which includes the
+    // orders without a date
+    String OF_CUSTOMER_AT_VENDOR = OF_VENDOR + "o.customerID = :customerID "
+            + "and (:allTime = true or (o.date >= :windowFrom and o.date < :windowTo)) and ";
+
+    // rows the JDBC driver fetches at once when streaming orders, instead of reading the whole result
+    String FETCH_SIZE_HINT = "org.hibernate.fetchSize";
+    String STREAM_FETCH_SIZE = "500";
+
     Optional<Order> findOrderByOrderID(UUID orderID);
 
+    // locks the row until the end of the transaction, so the dishes of an order are changed by one request at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.orderID = ?1")
+    Optional<Order> findOrderForUpdate(UUID orderID);
+
     boolean existsByOrderID(UUID orderID);
 
     boolean existsByVendorID(UUID vendorID);
@@ -31,19 +89,255 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     Optional<List<Order>> findOrdersByVendorID(UUID vendorID);
 
-    @Query(value = "SELECT d "
+    /**
+     * A dish with the number of times it has been ordered, without its ingredients and allergies.
+     */
+    interface DishVolume {
+        UUID getDishID();
+
+        String getName();
+
+        Float getPrice();
+
+        long getCount();
+    }
+
+    @Query(value = "SELECT d.dishID AS dishID, d.name AS name, d.price AS price, SUM(l.quantity) AS count "
             + "FROM Order o "
-            + "JOIN o.listOfDishes lod "
-            + "JOIN Dish d on d.dishID = lod "
+            + "JOIN OrderLine l on l.orderID = o.orderID "
+            + "JOIN Dish d on d.dishID = l.dishID "
             + "WHERE o.vendorID = :vendorID "
-            + "GROUP BY lod "
-            + "ORDER BY COUNT(lod) DESC")
-    List<Dish> countDishesOccurrencesFromVendor(@Param("vendorID") UUID vendorID);
+            + "GROUP BY d.dishID, d.name, d.price "
+            + "ORDER BY SUM(l.quantity) DESC, d.name")
+    List<DishVolume> countDishVolumesFromVendor(@Param("vendorID") UUID vendorID, Pageable pageable);
+
+    /**
+     * The sum of the prices of the dishes in an order.
+     */
+    interface OrderPriceSum {
+        UUID getOrderID();
 
-    @Modifying
+        Double getTotal();
+    }
+
+    // every line is a row of the join, the price the dish had when it was added to the order is counted
+    // as many times as the dish was ordered
+    @Query("SELECT o.orderID AS orderID, SUM(l.unitPrice * l.quantity) AS total "
+            + "FROM Order o "
+            + "LEFT JOIN OrderLine l on l.orderID = o.orderID "
+            + "WHERE o.orderID IN ?1 "
+            + "GROUP BY o.orderID")
+    List<OrderPriceSum> sumDishPricesOfOrders(Collection<UUID> orderIDs);
+
+    // only updates an order that is not paid yet, so of concurrent payments of one order exactly one updates it
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("update Order u set u.orderPaid = true where u.orderID = ?1 and (u.orderPaid = false or u.orderPaid is null)")
+    int markOrderPaid(UUID orderID);
+
+    // only changes the status if it is still the status the transition was checked against, so of two
+    // concurrent transitions from the same status one updates the order and the other updates nothing
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("update Order o set o.status = ?3 where o.orderID = ?1 and o.status = ?2")
+    int updateStatusIfCurrent(UUID orderID, Order.StatusEnum current, Order.StatusEnum status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Transactional
-    @Query("update Order u set u.orderPaid = ?1 where u.orderID = ?2")
-    void updateOrderPayment(Boolean orderPaid, UUID orderID);
+    @Query("update Order o set o.status = ?2 where o.orderID = ?1 and o.status is null")
+    int updateStatusIfUnset(UUID orderID, Order.StatusEnum status);
 
     Optional<List<Order>> findOrdersByCustomerID(UUID customerID);
-}
\ No newline at end of file
+
+    @Query("select distinct o.vendorID from Order o where o.vendorID is not null and o.date is not null")
+    List<UUID> findVendorIDsOfDatedOrders();
+
+    // only the dates of the orders are read, not the rest of the orders
+    @QueryHints(@QueryHint(name = FETCH_SIZE_HINT, value = STREAM_FETCH_SIZE))
+    @Query("select o.date from Order o where o.vendorID = ?1 and o.date is not null")
+    Stream<BigDecimal> streamOrderDatesOfVendor(UUID vendorID);
+
+    @Query("select distinct o.vendorID from Order o "
+            + "where o.orderPaid = true and o.vendorID is not null and o.date is not null")
+    List<UUID> findVendorIDsOfPaidOrders();
+
+    /**
+     * The price a dish had when it was added to a paid order and the number of times it was ordered, with the
+     * date of the order.
+     */
+    interface PaidDish {
+        BigDecimal getDate();
+
+        Float getPrice();
+
+        int getQuantity();
+    }
+
+    @QueryHints(@QueryHint(name = FETCH_SIZE_HINT, value = STREAM_FETCH_SIZE))
+    @Query("select o.date as date, l.unitPrice as price, l.quantity as quantity from Order o "
+            + "join OrderLine l on l.orderID = o.orderID "
+            + "where o.vendorID = ?1 and o.orderPaid = true and o.date is not null")
+    Stream<PaidDish> streamPaidDishesOfVendor(UUID vendorID);
+
+    /**
+     * The price a dish had when it was added to an order and the number of times it was ordered, with the fields
+     * of the order that decide its revenue bucket. An order without dishes has a single row with a null price and
+     * quantity.
+     */
+    interface OrderDishPrice {
+        UUID getVendorID();
+
+        BigDecimal getDate();
+
+        Boolean getOrderPaid();
+
+        Float getPrice();
+
+        Integer getQuantity();
+    }
+
+    @Query("select o.vendorID as vendorID, o.date as date, o.orderPaid as orderPaid, l.unitPrice as price, "
+            + "l.quantity as quantity from Order o "
+            + "left join OrderLine l on l.orderID = o.orderID "
+            + "where o.orderID = ?1")
+    List<OrderDishPrice> findDishPricesOfOrder(UUID orderID);
+
+    /**
+     * The number of orders placed in one quarter of an hour, numbered since the epoch.
+     */
+    interface QuarterHourVolume {
+        long getQuarterHour();
+
+        long getVolume();
+    }
+
+    // 900000 milliseconds is QuarterHourVolumes.QUARTER_HOUR_MILLIS
+    @Query("select floor(o.date / 900000) as quarterHour, count(o) as volume from Order o "
+            + "where o.vendorID = ?1 and o.date >= ?2 and o.date < ?3 "
+            + "group by floor(o.date / 900000)")
+    List<QuarterHourVolume> countOrdersPerQuarterHour(UUID vendorID, BigDecimal from, BigDecimal to);
+
+    @Query("select count(o) from Order o where o.vendorID = ?1 and o.date >= ?2 and o.date < ?3")
+    long countOrdersInWindow(UUID vendorID, BigDecimal from, BigDecimal to);
+
+    @Query("select o from Order o where o.vendorID = ?1 and o.customerID = ?2 and o.date >= ?3 and o.date < ?4")
+    List<Order> findOrdersOfCustomerAtVendorInWindow(UUID vendorID,
+                                                     UUID customerID,
+                                                     BigDecimal from,
+                                                     BigDecimal to);
+
+    @Query(ALL_ORDERS + WITHOUT_DATE + ALL_ORDERS_SORT)
+    List<Order> findOrdersWithoutDate(Pageable pageable);
+
+    @Query(ALL_ORDERS + WITHOUT_DATE_AFTER + ALL_ORDERS_SORT)
+    List<Order> findOrdersWithoutDateAfter(@Param(AFTER_ID) UUID afterID, Pageable pageable);
+
+    @Query(ALL_ORDERS + DATED + ALL_ORDERS_SORT)
+    List<Order> findDatedOrders(Pageable pageable);
+
+    @Query(ALL_ORDERS + DATED_SINCE + ALL_ORDERS_SORT)
+    List<Order> findOrdersSince(@Param(AFTER_DATE) BigDecimal afterDate, Pageable pageable);
+
+    @Query(ALL_ORDERS + DATED_AFTER + ALL_ORDERS_SORT)
+    List<Order> findOrdersAfter(@Param(AFTER_DATE) BigDecimal afterDate, @Param(AFTER_ID) UUID afterID, Pageable pageable);
+
+    @Query(OF_CUSTOMER_WITH_STATUS + WITHOUT_DATE + OF_CUSTOMER_WITH_STATUS_SORT)
+    List<Order> findOrdersOfCustomerWithStatusWithoutDate(@Param(CUSTOMER_ID) UUID customerID,
+                                                          @Param(STATUS) Order.StatusEnum status, Pageable pageable);
+
+    @Query(OF_CUSTOMER_WITH_STATUS + WITHOUT_DATE_AFTER + OF_CUSTOMER_WITH_STATUS_SORT)
+    List<Order> findOrdersOfCustomerWithStatusWithoutDateAfter(@Param(CUSTOMER_ID) UUID customerID,
+                                                               @Param(STATUS) Order.StatusEnum status,
+                                                               @Param(AFTER_ID) UUID afterID, Pageable pageable);
+
+    @Query(OF_CUSTOMER_WITH_STATUS + DATED + OF_CUSTOMER_WITH_STATUS_SORT)
+    List<Order> findDatedOrdersOfCustomerWithStatus(@Param(CUSTOMER_ID) UUID customerID,
+                                                    @Param(STATUS) Order.StatusEnum status, Pageable pageable);
+
+    @Query(OF_CUSTOMER_WITH_STATUS + DATED_SINCE + OF_CUSTOMER_WITH_STATUS_SORT)
+    List<Order> findOrdersOfCustomerWithStatusSince(@Param(CUSTOMER_ID) UUID customerID,
+                                                    @Param(STATUS) Order.StatusEnum status,
+                                                    @Param(AFTER_DATE) BigDecimal afterDate, Pageable pageable);
+
+    @Query(OF_CUSTOMER_WITH_STATUS + DATED_AFTER + OF_CUSTOMER_WITH_STATUS_SORT)
+    List<Order> findOrdersOfCustomerWithStatusAfter(@Param(CUSTOMER_ID) UUID customerID,
+                                                    @Param(STATUS) Order.StatusEnum status,
+                                                    @Param(AFTER_DATE) BigDecimal afterDate, @Param(AFTER_ID) UUID afterID,
+                                                    Pageable pageable);
+
+    @Query(OF_VENDOR + WITHOUT_DATE + OF_VENDOR_SORT)
+    List<Order> findOrdersOfVendorWithoutDate(@Param(VENDOR_ID) UUID vendorID, Pageable pageable);
+
+    @Query(OF_VENDOR + WITHOUT_DATE_AFTER + OF_VENDOR_SORT)
+    List<Order> findOrdersOfVendorWithoutDateAfter(@Param(VENDOR_ID) UUID vendorID, @Param(AFTER_ID) UUID afterID,
+                                                   Pageable pageable);
+
+    @Query(OF_VENDOR + DATED + OF_VENDOR_SORT)
+    List<Order> findDatedOrdersOfVendor(@Param(VENDOR_ID) UUID vendorID, Pageable pageable);
+
+    @Query(OF_VENDOR + DATED_SINCE + OF_VENDOR_SORT)
+    List<Order> findOrdersOfVendorSince(@Param(VENDOR_ID) UUID vendorID, @Param(AFTER_DATE) BigDecimal afterDate,
+                                        Pageable pageable);
+
+    @Query(OF_VENDOR + DATED_AFTER + OF_VENDOR_SORT)
+    List<Order> findOrdersOfVendorAfter(@Param(VENDOR_ID) UUID vendorID, @Param(AFTER_DATE) BigDecimal afterDate,
+                                        @Param(AFTER_ID) UUID afterID, Pageable pageable);
+
+    @Query(OF_CUSTOMER_AT_VENDOR + WITHOUT_DATE + OF_VENDOR_SORT)
+    List<Order> findOrdersOfCustomerAtVendorWithoutDate(@Param(VENDOR_ID) UUID vendorID,
+                                                        @Param(CUSTOMER_ID) UUID customerID,
+                                                        @Param(ALL_TIME) boolean allTime,
+                                                        @Param(WINDOW_FROM) BigDecimal from,
+                                                        @Param(WINDOW_TO) BigDecimal to,
+                                                        Pageable pageable);
+
+    @Query(OF_CUSTOMER_AT_VENDOR + WITHOUT_DATE_AFTER + OF_VENDOR_SORT)
+    List<Order> findOrdersOfCustomerAtVendorWithoutDateAfter(@Param(VENDOR_ID) UUID vendorID,
+                                                             @Param(CUSTOMER_ID) UUID customerID,
+                                                             @Param(ALL_TIME) boolean allTime,
+                                                             @Param(WINDOW_FROM) BigDecimal from,
+                                                             @Param(WINDOW_TO) BigDecimal to,
+                                                             @Param(AFTER_ID) UUID afterID,
+                                                             Pageable pageable);
+
+    @Query(OF_CUSTOMER_AT_VENDOR + DATED + OF_VENDOR_SORT)
+    List<Order> findDatedOrdersOfCustomerAtVendor(@Param(VENDOR_ID) UUID vendorID,
+                                                  @Param(CUSTOMER_ID) UUID customerID,
+                                                  @Param(ALL_TIME) boolean allTime,
+                                                  @Param(WINDOW_FROM) BigDecimal from,
+                                                  @Param(WINDOW_TO) BigDecimal to,
+                                                  Pageable pageable);
+
+    @Query(OF_CUSTOMER_AT_VENDOR + DATED_SINCE + OF_VENDOR_SORT)
+    List<Order> findOrdersOfCustomerAtVendorSince(@Param(VENDOR_ID) UUID vendorID,
+                                                  @Param(CUSTOMER_ID) UUID customerID,
+                                                  @Param(ALL_TIME) boolean allTime,
+                                                  @Param(WINDOW_FROM) BigDecimal from,
+                                                  @Param(WINDOW_TO) BigDecimal to,
+                                                  @Param(AFTER_DATE) BigDecimal afterDate,
+                                                  Pageable pageable);
+
+    @Query(OF_CUSTOMER_AT_VENDOR + DATED_AFTER + OF_VENDOR_SORT)
+    List<Order> findOrdersOfCustomerAtVendorAfter(@Param(VENDOR_ID) UUID vendorID,
+                                                  @Param(CUSTOMER_ID) UUID customerID,
+                                                  @Param(ALL_TIME) boolean allTime,
+                                                  @Param(WINDOW_FROM) BigDecimal from,
+                                                  @Param(WINDOW_TO) BigDecimal to,
+                                                  @Param(AFTER_DATE) BigDecimal afterDate,
+                                                  @Param(AFTER_ID) UUID afterID,
+                                                  Pageable pageable);
+
+    @QueryHints(@QueryHint(name = FETCH_SIZE_HINT, value = STREAM_FETCH_SIZE))
+    @Query("select o from Order o" + CURSOR_ORDER)
+    Stream<Order> streamOrders();
+
+    @QueryHints(@QueryHint(name = FETCH_SIZE_HINT, value = STREAM_FETCH_SIZE))
+    @Query("select o from Order o where o.customerID = ?1 and o.status = ?2" + CURSOR_ORDER)
+    Stream<Order> streamOrdersOfCustomerWithStatus(UUID customerID, Order.StatusEnum status);
+
+    @QueryHints(@QueryHint(name = FETCH_SIZE_HINT, value = STREAM_FETCH_SIZE))
+    @Query("select o from Order o where o.vendorID = ?1 and o.customerID = ?2 "
+            + "and (?3 = true or (o.date >= ?4 and o.date < ?5))" + CURSOR_ORDER)
+    Stream<Order> streamOrdersOfCustomerAtVendor(UUID vendorID, UUID customerID,
+                                                 boolean allTime, BigDecimal from, BigDecimal to);
+}
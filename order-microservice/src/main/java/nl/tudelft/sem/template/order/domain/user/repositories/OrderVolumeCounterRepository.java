@@ -0,0 +1,52 @@
+package nl.tudelft.sem.template.order.domain.user.repositories;
+
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.LockModeType;
+import javax.transaction.Transactional;
+import nl.tudelft.sem.template.order.domain.analytics.OrderVolumeCounter;
+import nl.tudelft.sem.template.order.domain.analytics.OrderVolumeCounterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+
+@Repository
+public interface OrderVolumeCounterRepository extends JpaRepository<OrderVolumeCounter, OrderVolumeCounterId> {
+
+    /**
+     * The volume of one hour, read as plain values so updates made with addToVolume in the same
+     * transaction are seen.
+     */
+    interface HourlyVolume {
+        int getHourOfDay();
+
+        int getVolume();
+    }
+
+    @Query("select c.hourOfDay as hourOfDay, c.volume as volume "
+            + "from OrderVolumeCounter c where c.vendorID = :vendorID")
+    List<HourlyVolume> findVolumesByVendorID(@Param("vendorID") UUID vendorID);
+
+    @Modifying
+    @Transactional
+    @Query("update OrderVolumeCounter c set c.volume = c.volume + :delta "
+            + "where c.vendorID = :vendorID and c.hourOfDay = :hourOfDay")
+    int addToVolume(@Param("vendorID") UUID vendorID, @Param("hourOfDay") int hourOfDay, @Param("delta") int delta);
+
+    @Query("select distinct c.vendorID from OrderVolumeCounter c")
+    List<UUID> findVendorIDs();
+
+    // in the order of the key, like the counters are changed when orders are stored
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from OrderVolumeCounter c where c.vendorID = ?1 order by c.hourOfDay")
+    List<OrderVolumeCounter> findForUpdateByVendorID(UUID vendorID);
+
+    @Modifying
+    @Transactional
+    @Query("update OrderVolumeCounter c set c.volume = ?3 where c.vendorID = ?1 and c.hourOfDay = ?2")
+    int setVolume(UUID vendorID, int hourOfDay, int volume);
+}
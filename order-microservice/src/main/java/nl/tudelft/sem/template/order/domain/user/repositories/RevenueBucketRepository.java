@@ -0,0 +1,55 @@
+package nl.tudelft.sem.template.order.domain.user.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.LockModeType;
+import javax.transaction.Transactional;
+import nl.tudelft.sem.template.order.domain.analytics.RevenueBucket;
+import nl.tudelft.sem.template.order.domain.analytics.RevenueBucketId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+
+@Repository
+public interface RevenueBucketRepository extends JpaRepository<RevenueBucket, RevenueBucketId> {
+
+    /**
+     * The revenue of one day, read as plain values so updates made with addToRevenue in the same
+     * transaction are seen.
+     */
+    interface DailyRevenue {
+        LocalDate getDay();
+
+        long getRevenueCents();
+    }
+
+    // a range of the primary key, so the number of rows read is at most the number of days
+    @Query("select b.day as day, b.revenueCents as revenueCents from RevenueBucket b "
+            + "where b.vendorID = :vendorID and b.day >= :first and b.day <= :last order by b.day")
+    List<DailyRevenue> findRevenue(@Param("vendorID") UUID vendorID,
+                                   @Param("first") LocalDate first, @Param("last") LocalDate last);
+
+    @Modifying
+    @Transactional
+    @Query("update RevenueBucket b set b.revenueCents = b.revenueCents + :delta "
+            + "where b.vendorID = :vendorID and b.day = :day")
+    int addToRevenue(@Param("vendorID") UUID vendorID, @Param("day") LocalDate day, @Param("delta") long delta);
+
+    @Query("select distinct b.vendorID from RevenueBucket b")
+    List<UUID> findVendorIDs();
+
+    // in the order of the key, like the buckets are changed when orders are stored
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from RevenueBucket b where b.vendorID = ?1 order by b.day")
+    List<RevenueBucket> findForUpdateByVendorID(UUID vendorID);
+
+    @Modifying
+    @Transactional
+    @Query("update RevenueBucket b set b.revenueCents = ?3 where b.vendorID = ?1 and b.day = ?2")
+    int setRevenue(UUID vendorID, LocalDate day, long cents);
+}
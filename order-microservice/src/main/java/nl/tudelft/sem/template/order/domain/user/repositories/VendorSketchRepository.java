@@ -0,0 +1,27 @@
+package nl.tudelft.sem.template.order.domain.user.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import javax.persistence.LockModeType;
+import nl.tudelft.sem.template.order.domain.analytics.VendorSketch;
+import nl.tudelft.sem.template.order.domain.analytics.VendorSketchId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+
+@Repository
+public interface VendorSketchRepository extends JpaRepository<VendorSketch, VendorSketchId> {
+
+    // locks the row until the end of the transaction, so concurrent orders do not overwrite each other's updates
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from VendorSketch s where s.vendorID = ?1 and s.day = ?2")
+    Optional<VendorSketch> findForUpdate(UUID vendorID, LocalDate day);
+
+    // a range of the primary key, so the number of rows read is at most the number of days
+    @Query("select s from VendorSketch s where s.vendorID = ?1 and s.day >= ?2 and s.day <= ?3")
+    List<VendorSketch> findSketches(UUID vendorID, LocalDate first, LocalDate last);
+}
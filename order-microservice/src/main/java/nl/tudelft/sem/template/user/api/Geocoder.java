@@ -0,0 +1,19 @@
+package nl.tudelft.sem.template.user.api;
+
+import java.util.List;
+import nl.tudelft.sem.template.model.Address;
+
+/**
+ * Resolves addresses to geo coordinates.
+ * MockLocationService is the local stand-in, CachingGeocoder can be put in front of any implementation.
+ */
+public interface Geocoder {
+
+    /**
+     * Convert address to geo coords list.
+     *
+     * @param address the address
+     * @return the latitude (index=0) and longitude (index=1), or null if the address could not be resolved
+     */
+    List<Double> convertAddressToGeoCoords(Address address);
+}
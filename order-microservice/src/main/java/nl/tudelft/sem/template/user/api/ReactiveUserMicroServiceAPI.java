@@ -0,0 +1,39 @@
+package nl.tudelft.sem.template.user.api;
+
+import java.util.List;
+import java.util.UUID;
+import nl.tudelft.sem.template.model.Address;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link UserMicroServiceAPI}.
+ * Nothing is sent to the user microservice until the returned publisher is subscribed to.
+ */
+public interface ReactiveUserMicroServiceAPI {
+
+    Mono<Address> getUserAddress(UUID userID);
+
+    Mono<String> getUserLocation(UUID userID);
+
+    Mono<String> getAllVendors();
+
+    /**
+     * Gets all vendors, unless they did not change since the response with the given ETag.
+     *
+     * @param etag the ETag of the vendors that are already known, or null to always get the vendors
+     * @return mono of the response, which has status 304 and no body if the vendors did not change
+     */
+    Mono<ResponseEntity<String>> getAllVendors(String etag);
+
+    Mono<String> getUserInformation(UUID userID);
+
+    Mono<Boolean> checkVendorExists(UUID vendorId);
+
+    Mono<Boolean> checkUserExists(UUID userId);
+
+    Mono<String> getUserName(UUID userID);
+
+    Flux<String> getVendorsFromID(List<UUID> restaurantsID);
+}
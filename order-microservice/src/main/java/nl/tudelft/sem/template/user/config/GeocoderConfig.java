@@ -0,0 +1,28 @@
+package nl.tudelft.sem.template.user.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import nl.tudelft.sem.template.user.api.Geocoder;
+import nl.tudelft.sem.template.user.services.CachingGeocoder;
+import nl.tudelft.sem.template.user.services.MockLocationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class GeocoderConfig {
+    /**
+     * The geocoder used by the services, caching the locations resolved by the mocked location service.
+     *
+     * @param mockLocationService the geocoder for the addresses that are not cached
+     * @param environment the environment containing the geocoder.cache.* settings
+     * @param meterRegistry the registry the cache metrics are published to
+     * @return Geocoder
+     */
+    @Bean
+    @Primary
+    public Geocoder geocoder(MockLocationService mockLocationService, Environment environment,
+                             MeterRegistry meterRegistry) {
+        return new CachingGeocoder(mockLocationService, environment, meterRegistry);
+    }
+}
@@ -0,0 +1,168 @@
+package nl.tudelft.sem.template.user.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import javax.annotation.PreDestroy;
+import nl.tudelft.sem.template.model.Address;
+import nl.tudelft.sem.template.user.api.Geocoder;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Geocoder that remembers the coordinates of the addresses it resolved.
+ * Addresses are looked up by their normalised text, so differences in case and whitespace share an entry.
+ * The cache is bounded (geocoder.cache.maximumSize) and can be kept in a file (geocoder.cache.file),
+ * which is read on startup and written in the background, so a restart does not start with an empty cache.
+ */
+public class CachingGeocoder implements Geocoder {
+
+    private static final int COORDINATES = 2;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final TypeReference<Map<String, List<Double>>> ENTRIES = new TypeReference<>() {};
+
+    private final transient Geocoder delegate;
+    private final transient Cache<String, List<Double>> coordinates;
+    private final transient Optional<Path> cacheFile;
+    private final transient ObjectMapper objectMapper = new ObjectMapper();
+    private final transient AtomicBoolean dirty = new AtomicBoolean();
+
+    /**
+     * Instantiates a new CachingGeocoder and loads the cache file if there is one.
+     * A cache file that can not be read is ignored, the cache then starts empty.
+     *
+     * @param delegate the geocoder used for the addresses that are not cached
+     * @param environment the environment containing the geocoder.cache.* settings
+     * @param meterRegistry the registry the hit/miss/eviction counters of the cache are published to
+     */
+    public CachingGeocoder(Geocoder delegate, Environment environment, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.coordinates = Caffeine.newBuilder()
+                .maximumSize(environment.getProperty("geocoder.cache.maximumSize", Long.class, 10_000L))
+                .recordStats()
+                .build();
+        this.cacheFile = Optional.ofNullable(environment.getProperty("geocoder.cache.file"))
+                .filter(file -> !file.isBlank())
+                .map(Path::of);
+        CaffeineCacheMetrics.monitor(meterRegistry, coordinates, "geocoder");
+        cacheFile.ifPresent(this::load);
+    }
+
+    /**
+     * Convert address to geo coords list, resolving it with the delegate if it is not cached.
+     *
+     * @param address the address
+     * @return the latitude (index=0) and longitude (index=1), or null if the delegate could not resolve it
+     */
+    @Override
+    public List<Double> convertAddressToGeoCoords(Address address) {
+        if (address == null) {
+            return delegate.convertAddressToGeoCoords(null);
+        }
+        // the cache resolves an address at most once at a time, other callers wait for its answer
+        return coordinates.get(normalize(address), key -> resolve(address));
+    }
+
+    /**
+     * Writes the cache to the cache file if it changed since it was last written.
+     * The file is replaced atomically, a failed write is tried again on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${geocoder.cache.flushIntervalMs:60000}",
+            initialDelayString = "${geocoder.cache.flushIntervalMs:60000}")
+    public void flush() {
+        if (cacheFile.isEmpty() || !dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            write(cacheFile.get());
+        } catch (IOException e) {
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * Writes the entries that are not in the cache file yet when the application stops.
+     */
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Gets the key of an address: the lowercase street, zip, city and country without
+     * repeated whitespace, the zip without any whitespace.
+     *
+     * @param address the address
+     * @return the key of the address
+     */
+    static String normalize(Address address) {
+        return String.join("|", normalizePart(address.getStreet()),
+                WHITESPACE.matcher(normalizePart(address.getZip())).replaceAll(""),
+                normalizePart(address.getCity()), normalizePart(address.getCountry()));
+    }
+
+    private static String normalizePart(String part) {
+        if (part == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(part.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Resolves an address with the delegate.
+     * Returns null when the delegate could not resolve the address, which is not cached.
+     */
+    private List<Double> resolve(Address address) {
+        List<Double> resolved = delegate.convertAddressToGeoCoords(address);
+        if (resolved == null) {
+            return null;
+        }
+        dirty.set(true);
+        return List.copyOf(resolved);
+    }
+
+    private void load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            Optional.ofNullable(objectMapper.readValue(file.toFile(), ENTRIES))
+                    .ifPresent(entries -> entries.forEach(this::putLoaded));
+        } catch (IOException e) {
+            // a corrupt cache file only means a cold cache, it is replaced on the next flush
+            coordinates.invalidateAll();
+        }
+    }
+
+    private void putLoaded(String key, List<Double> value) {
+        if (key != null && value != null && value.size() == COORDINATES && !value.contains(null)) {
+            coordinates.put(key, List.copyOf(value));
+        }
+    }
+
+    private void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            objectMapper.writeValue(temporary.toFile(), new HashMap<>(coordinates.asMap()));
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
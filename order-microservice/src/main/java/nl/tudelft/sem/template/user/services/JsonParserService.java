@@ -1,93 +1,214 @@
 package nl.tudelft.sem.template.user.services;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.UUID;
+import nl.tudelft.sem.template.order.domain.helpers.VendorLocations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
 
 /**
  * Helper class to parse Json.
+ * The mapper and readers are created once and shared, they are thread-safe.
  */
+@Component
 public class JsonParserService {
 
+    private static final List<String> COORDINATES = List.of("latitude", "longitude");
+
+    private final transient ObjectReader treeReader;
+    private final transient JsonFactory jsonFactory;
+
+    /**
+     * Instantiates a new JsonParser service.
+     */
+    @Autowired
+    public JsonParserService() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        this.treeReader = objectMapper.readerFor(JsonNode.class);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
     /**
      * parse for location from json.
      *
      * @param json String representing a Location
      * @return List containing the latitude and longitude
      */
-    public static List<Double> parseLocation(String json) {
+    public List<Double> parseLocation(String json) {
         if (json == null || json.isEmpty()) {
             return null;
         }
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode jsonNode = objectMapper.readTree(json);
-            Double latitude = (jsonNode.get("latitude").isDouble()) ? jsonNode.get("latitude").asDouble() : null;
-            Double longitude = (jsonNode.get("longitude").isDouble()) ? jsonNode.get("longitude").asDouble() : null;
-            if (latitude == null || longitude == null) {
+            JsonNode jsonNode = treeReader.readTree(json);
+            JsonNode latitude = jsonNode.get("latitude");
+            JsonNode longitude = jsonNode.get("longitude");
+            if (latitude == null || !latitude.isDouble() || longitude == null || !longitude.isDouble()) {
                 return null;
             }
-            return new ArrayList<>(List.of(latitude, longitude));
-        } catch (JsonProcessingException e) {
+            return new ArrayList<>(List.of(latitude.asDouble(), longitude.asDouble()));
+        } catch (IOException e) {
             return null;
         }
     }
 
     /**
      * parser for the location of all vendors.
+     * The vendors are read token by token, only the userID and location of each vendor are kept.
+     * Parsing stops at the first vendor without a valid userID or location.
+     * A vendor that is listed more than once gets the last location it is listed with.
      *
      * @param jsonVendors List of all the vendors
-     * @return Map with the UUID of each vendor mapping to their location
+     * @return the UUID and location of each vendor, null if the json is invalid
      */
-    public static HashMap<UUID, List<Double>> parseVendorsLocation(String jsonVendors) {
+    public VendorLocations parseVendorsLocation(String jsonVendors) {
         if (jsonVendors == null || jsonVendors.isEmpty()) {
             return null;
         }
-        try {
-            HashMap<UUID, List<Double>> result = new HashMap<>();
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode jsonArray = objectMapper.readTree(jsonVendors);
-            for (JsonNode jsonVendor : jsonArray) { // loop over each jsonNode containing a vendor
-                JsonNode locationNode = jsonVendor.get("location");
-                String loc = (locationNode == null) ? null : locationNode.toString();
-                List<Double> location = parseLocation(loc);
-                if (location == null) {
-                    break;
-                }
-                try {
-                    UUID uuid = UUID.fromString(jsonVendor.get("userID").asText());
-                    result.put(uuid, location);
-                } catch (IllegalArgumentException e) {
+        VendorLocations result = new VendorLocations();
+        try (JsonParser parser = jsonFactory.createParser(jsonVendors)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                // not a list of vendors, but still check that it is valid json
+                parser.skipChildren();
+                return result;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                VendorLocation vendor = readVendorLocation(parser);
+                if (!vendor.isValid()) {
+                    skipRemainingElements(parser);
                     break;
                 }
+                result.add(vendor.id, vendor.coordinates[0], vendor.coordinates[1]);
             }
             return result;
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the userID and location of the vendor the parser is at, skipping all other fields.
+     *
+     * @param parser parser positioned at the start of a vendor
+     * @return the vendor, which is not valid if it has no valid userID or location
+     * @throws IOException if the json is invalid
+     */
+    private VendorLocation readVendorLocation(JsonParser parser) throws IOException {
+        VendorLocation vendor = new VendorLocation();
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return vendor;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("userID".equals(field)) {
+                vendor.id = readUuid(parser);
+            } else if ("location".equals(field)) {
+                readLocation(parser, vendor.coordinates);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return vendor;
+    }
+
+    /**
+     * Reads the location object the parser is at.
+     * A coordinate that is missing or not a decimal number is read as NaN, json itself has no NaN.
+     *
+     * @param parser parser positioned at the value of a location field
+     * @param coordinates array to read the latitude (index=0) and longitude (index=1) into
+     * @throws IOException if the json is invalid
+     */
+    private void readLocation(JsonParser parser, double[] coordinates) throws IOException {
+        Arrays.fill(coordinates, Double.NaN);
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            readCoordinate(parser, coordinates);
+        }
+    }
+
+    /**
+     * Reads the field of a location object the parser is at, keeping it if it is the latitude or longitude.
+     *
+     * @param parser parser positioned at a field name
+     * @param coordinates the latitude and longitude read so far
+     * @throws IOException if the json is invalid
+     */
+    private static void readCoordinate(JsonParser parser, double[] coordinates) throws IOException {
+        int index = COORDINATES.indexOf(parser.currentName());
+        if (parser.nextToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+            storeCoordinate(coordinates, index, parser.getDoubleValue());
+        } else {
+            storeCoordinate(coordinates, index, Double.NaN);
+            parser.skipChildren();
+        }
+    }
+
+    private static void storeCoordinate(double[] coordinates, int index, double value) {
+        if (index >= 0) {
+            coordinates[index] = value;
+        }
+    }
+
+    /**
+     * Reads the UUID the parser is at.
+     *
+     * @param parser parser positioned at the value of a userID field
+     * @return the UUID, or null if the value is not a UUID
+     * @throws IOException if the json is invalid
+     */
+    private static UUID readUuid(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return null;
+        }
+        try {
+            return UUID.fromString(parser.getText());
+        } catch (IllegalArgumentException e) {
             return null;
         }
     }
 
+    /**
+     * Skips the remaining elements of the array the parser is in, which still checks that they are valid json.
+     *
+     * @param parser parser positioned inside an array
+     * @throws IOException if the json is invalid
+     */
+    private static void skipRemainingElements(JsonParser parser) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+    }
+
     /**
      * Parses the userType for a given user.
      *
      * @param json json file in String format
      * @return a String that describes the userType
      */
-    public static String parseUserType(String json) {
+    public String parseUserType(String json) {
         if (json == null || json.isEmpty()) {
             return null;
         }
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode jsonNode = objectMapper.readTree(json);
-            String result = (jsonNode.get("userType") == null) ? null : jsonNode.get("userType").toString();
-            result = result.replaceAll("\"", "");
-            return result;
-        } catch (JsonProcessingException e) {
+            JsonNode userType = treeReader.readTree(json).get("userType");
+            return (userType == null) ? null : userType.toString().replaceAll("\"", "");
+        } catch (IOException e) {
             return null;
         }
     }
@@ -98,15 +219,14 @@ public class JsonParserService {
      * @param restaurantsJson the restaurants json (vendor)
      * @return hashmap of UUID of vendor and their cuisineType
      */
-    public static HashMap<UUID, String> parseVendorCuisine(List<String> restaurantsJson) {
+    public HashMap<UUID, String> parseVendorCuisine(List<String> restaurantsJson) {
         if (restaurantsJson.isEmpty()) {
             return null;
         }
         HashMap<UUID, String> result = new HashMap<>();
         for (String json : restaurantsJson) {
-            ObjectMapper objectMapper = new ObjectMapper();
             try {
-                JsonNode jsonNode = objectMapper.readTree(json);
+                JsonNode jsonNode = treeReader.readTree(json);
                 UUID restaurantID = UUID.fromString(jsonNode.get("userID").asText());
                 String cuisine = jsonNode.get("cuisineType").asText();
                 result.put(restaurantID, cuisine);
@@ -121,4 +241,15 @@ public class JsonParserService {
         return result;
     }
 
+    /**
+     * The userID and location of a vendor, filled in while reading it.
+     */
+    private static class VendorLocation {
+        private transient UUID id;
+        private final transient double[] coordinates = {Double.NaN, Double.NaN};
+
+        boolean isValid() {
+            return id != null && !Double.isNaN(coordinates[0]) && !Double.isNaN(coordinates[1]);
+        }
+    }
 }
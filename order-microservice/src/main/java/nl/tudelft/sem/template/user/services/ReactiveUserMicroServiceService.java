@@ -0,0 +1,323 @@
+package nl.tudelft.sem.template.user.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import nl.tudelft.sem.template.model.Address;
+import nl.tudelft.sem.template.order.domain.user.UserIDNotFoundException;
+import nl.tudelft.sem.template.order.domain.user.VendorNotFoundException;
+import nl.tudelft.sem.template.user.api.ReactiveUserMicroServiceAPI;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * class that implements the interface ReactiveUserMicroServiceAPI.
+ * Is used for making external API calls without blocking the calling thread.
+ * Every call gives up after 3 seconds, instead of the default 30.
+ * The answers of checkVendorExists and checkUserExists are cached, see userMicroService.existenceCache.*
+ */
+@Component
+public class ReactiveUserMicroServiceService implements ReactiveUserMicroServiceAPI {
+
+    private final transient Duration requestTimeout = Duration.ofSeconds(3);
+    private final transient WebClient userMicroServiceWebClient;
+    private final transient int vendorLookupMaxInFlight;
+    private final transient Duration vendorLookupDeadline;
+    private final transient Duration vendorBulkTimeout;
+    private final transient String vendorBulkPath;
+    private final transient AtomicBoolean vendorBulkSupported;
+    private final transient Cache<UUID, Boolean> vendorExistsCache;
+    private final transient Cache<UUID, Boolean> userExistsCache;
+
+    /**
+     * Instantiates a new ReactiveUserMicroService service.
+     *
+     * @param userMicroServiceWebClient the userMicroService webClient, used for making calls to API endpoints
+     * @param environment the environment containing the userMicroService.vendorLookup.* and
+     *                    userMicroService.existenceCache.* settings
+     * @param meterRegistry the registry the hit/miss/eviction counters of the existence caches are published to
+     */
+    @Autowired
+    public ReactiveUserMicroServiceService(WebClient userMicroServiceWebClient, Environment environment,
+                                           MeterRegistry meterRegistry) {
+        this.userMicroServiceWebClient = userMicroServiceWebClient;
+        this.vendorLookupMaxInFlight = environment.getProperty(
+                "userMicroService.vendorLookup.maxInFlight", Integer.class, 16);
+        this.vendorLookupDeadline = Duration.ofMillis(environment.getProperty(
+                "userMicroService.vendorLookup.deadlineMs", Long.class, requestTimeout.toMillis()));
+        // the bulk request gets half of the deadline, so a failed or slow one leaves time for the fallback
+        this.vendorBulkTimeout = vendorLookupDeadline.dividedBy(2).compareTo(requestTimeout) < 0
+                ? vendorLookupDeadline.dividedBy(2) : requestTimeout;
+        this.vendorBulkPath = environment.getProperty("userMicroService.vendorLookup.bulkPath", "");
+        this.vendorBulkSupported = new AtomicBoolean(!vendorBulkPath.isBlank());
+        this.vendorExistsCache = existenceCache(environment);
+        this.userExistsCache = existenceCache(environment);
+        CaffeineCacheMetrics.monitor(meterRegistry, vendorExistsCache, "userMicroService.vendorExists");
+        CaffeineCacheMetrics.monitor(meterRegistry, userExistsCache, "userMicroService.userExists");
+    }
+
+    /**
+     * Creates a size-bounded cache for the answers of an existence check.
+     * Positive and negative answers expire after their own TTL, so a user or vendor that gets created
+     * shows up quickly, while one that exists is not asked for again for a long time.
+     *
+     * @param environment the environment containing the userMicroService.existenceCache.* settings
+     * @return the cache
+     */
+    private static Cache<UUID, Boolean> existenceCache(Environment environment) {
+        Duration positiveTtl = Duration.ofMillis(environment.getProperty(
+                "userMicroService.existenceCache.positiveTtlMs", Long.class, 600_000L));
+        Duration negativeTtl = Duration.ofMillis(environment.getProperty(
+                "userMicroService.existenceCache.negativeTtlMs", Long.class, 30_000L));
+        return Caffeine.newBuilder()
+                .maximumSize(environment.getProperty("userMicroService.existenceCache.maximumSize", Long.class, 10_000L))
+                .expireAfter(new ExistenceExpiry(positiveTtl, negativeTtl))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Answers an existence check from the cache, or does the lookup and caches its answer.
+     * Only the answers of the user microservice are cached: when it could not be reached,
+     * the check answers false without remembering it.
+     *
+     * @param cache the cache for this kind of check
+     * @param id the id to check
+     * @param lookup the lookup, answering false on a 4xx and failing when the user microservice could not be reached
+     * @return mono of whether the id exists
+     */
+    private static Mono<Boolean> cachedExistenceCheck(Cache<UUID, Boolean> cache, UUID id, Mono<Boolean> lookup) {
+        return Mono.defer(() -> {
+            Boolean cached = cache.getIfPresent(id);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return lookup.doOnNext(exists -> cache.put(id, exists))
+                    .onErrorReturn(false);
+        });
+    }
+
+    @Override
+    public Mono<Address> getUserAddress(UUID userID) {
+        return userMicroServiceWebClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/customer/address/{userID}").build(userID))
+                .retrieve()
+                .onStatus(HttpStatus::is4xxClientError, response -> Mono.error(new UserIDNotFoundException(userID)))
+                .onStatus(HttpStatus::is5xxServerError, response -> Mono.error(new UserIDNotFoundException(userID)))
+                .bodyToMono(Address.class)
+                .timeout(requestTimeout);
+    }
+
+    /**
+     * Gets the location of a customer from the endpoint /customer/location/{userID}.
+     * When the http status is 5xx or 4xx, the mono fails with a UserIDNotFoundException.
+     *
+     * @param userID of the customer we want the location of.
+     * @return mono of the location json
+     */
+    @Override
+    public Mono<String> getUserLocation(UUID userID) {
+        return userMicroServiceWebClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/customer/location/{userID}").build(userID))
+                .retrieve()
+                .onStatus(HttpStatus::is4xxClientError, response -> Mono.error(new UserIDNotFoundException(userID)))
+                .onStatus(HttpStatus::is5xxServerError, response -> Mono.error(new UserIDNotFoundException(userID)))
+                .bodyToMono(String.class)
+                .timeout(requestTimeout);
+    }
+
+    @Override
+    public Mono<String> getAllVendors() {
+        return getAllVendors(null).flatMap(response -> Mono.justOrEmpty(response.getBody()));
+    }
+
+    /**
+     * Gets all vendors from the endpoint /vendor, sending If-None-Match when an ETag is given.
+     * A 304 Not Modified is not an error, the response then has no body.
+     *
+     * @param etag the ETag of the vendors that are already known, or null to always get the vendors
+     * @return mono of the response, failing if the status is 4xx or 5xx
+     */
+    @Override
+    public Mono<ResponseEntity<String>> getAllVendors(String etag) {
+        return userMicroServiceWebClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/vendor").build())
+                .headers(headers -> {
+                    if (etag != null) {
+                        headers.setIfNoneMatch(etag);
+                    }
+                })
+                .retrieve()
+                .onStatus(HttpStatus::is4xxClientError,
+                        response -> Mono.error(new RuntimeException("no vendors in database")))
+                .toEntity(String.class)
+                .timeout(requestTimeout);
+    }
+
+    @Override
+    public Mono<String> getUserInformation(UUID userID) {
+        return userMicroServiceWebClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/user/{userID}").build(userID))
+                .retrieve()
+                .onStatus(HttpStatus::is4xxClientError, response -> Mono.error(new UserIDNotFoundException(userID)))
+                .onStatus(HttpStatus::is5xxServerError, response -> Mono.error(new UserIDNotFoundException(userID)))
+                .bodyToMono(String.class)
+                .timeout(requestTimeout);
+    }
+
+    /**
+     * Check with user microservice whether a certain vendor exists.
+     *
+     * @param vendorId id of the vendor
+     * @return mono of whether a vendor exists or not, false if the user microservice could not be reached
+     */
+    @Override
+    public Mono<Boolean> checkVendorExists(UUID vendorId) {
+        return cachedExistenceCheck(vendorExistsCache, vendorId, userMicroServiceWebClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/vendor/{userID}").build(vendorId))
+                .retrieve()
+                .onStatus(HttpStatus::is4xxClientError, response -> Mono.error(new VendorNotFoundException(vendorId)))
+                .toBodilessEntity()
+                .timeout(requestTimeout)
+                .map(response -> true)
+                .onErrorReturn(VendorNotFoundException.class, false));
+    }
+
+    /**
+     * Check with user microservice whether a certain user exists.
+     *
+     * @param userId id of the user
+     * @return mono of whether a user exists or not, false if the user microservice could not be reached
+     */
+    @Override
+    public Mono<Boolean> checkUserExists(UUID userId) {
+        return cachedExistenceCheck(userExistsCache, userId, userMicroServiceWebClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/user/{userID}").build(userId))
+                .retrieve()
+                .onStatus(HttpStatus::is4xxClientError, response -> Mono.error(new UserIDNotFoundException(userId)))
+                .toBodilessEntity()
+                .timeout(requestTimeout)
+                .map(response -> true)
+                .onErrorReturn(UserIDNotFoundException.class, false));
+    }
+
+    @Override
+    public Mono<String> getUserName(UUID userID) {
+        return userMicroServiceWebClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/customer/name/{userID}").build(userID))
+                .retrieve()
+                .onStatus(HttpStatus::is4xxClientError, response -> Mono.error(new UserIDNotFoundException(userID)))
+                .onStatus(HttpStatus::is5xxServerError, response -> Mono.error(new UserIDNotFoundException(userID)))
+                .bodyToMono(String.class)
+                .timeout(requestTimeout);
+    }
+
+    /**
+     * Retrieves the json of every vendor in the list.
+     * When the user microservice exposes a bulk endpoint (userMicroService.vendorLookup.bulkPath), all vendors
+     * are fetched with a single request. Otherwise, or when the bulk request fails, the vendors are fetched
+     * concurrently with at most userMicroService.vendorLookup.maxInFlight requests in flight. The bulk request
+     * may take half of the deadline, so the fallback still has the other half to fetch the vendors.
+     * A vendor that cannot be fetched is skipped, and the whole lookup is bounded by a single deadline
+     * (userMicroService.vendorLookup.deadlineMs): the flux completes when it passes, leaving out the vendors
+     * that did not arrive in time.
+     *
+     * @param restaurantsID the UUIDs of the vendors
+     * @return flux of the json of the vendors that could be retrieved, in the order they arrived
+     */
+    @Override
+    public Flux<String> getVendorsFromID(List<UUID> restaurantsID) {
+        if (restaurantsID.isEmpty()) {
+            return Flux.empty();
+        }
+        Flux<String> vendors = vendorBulkSupported.get()
+                ? getVendorsInBulk(restaurantsID).onErrorResume(e -> getVendorsOneByOne(restaurantsID))
+                : getVendorsOneByOne(restaurantsID);
+        return vendors.take(vendorLookupDeadline);
+    }
+
+    /**
+     * Fetches the vendors with one request per vendor, with a bounded number of requests in flight.
+     *
+     * @param restaurantsID the UUIDs of the vendors
+     * @return flux of vendor json, vendors that could not be fetched are skipped
+     */
+    private Flux<String> getVendorsOneByOne(List<UUID> restaurantsID) {
+        return Flux.fromIterable(restaurantsID)
+                .flatMap(id -> userMicroServiceWebClient.get()
+                        .uri(uriBuilder -> uriBuilder.path("/vendor/{userID}").build(id))
+                        .retrieve()
+                        .bodyToMono(String.class)
+                        .timeout(requestTimeout)
+                        .onErrorResume(e -> Mono.empty()), vendorLookupMaxInFlight);
+    }
+
+    /**
+     * Fetches all vendors with a single request to the bulk endpoint of the user microservice.
+     * If the user microservice does not know the endpoint, the bulk lookup is switched off.
+     *
+     * @param restaurantsID the UUIDs of the vendors
+     * @return flux of vendor json, failing if the bulk request failed
+     */
+    private Flux<String> getVendorsInBulk(List<UUID> restaurantsID) {
+        return userMicroServiceWebClient.post()
+                .uri(uriBuilder -> uriBuilder.path(vendorBulkPath).build())
+                .bodyValue(restaurantsID)
+                .retrieve()
+                .bodyToFlux(JsonNode.class)
+                .map(JsonNode::toString)
+                .collectList()
+                .timeout(vendorBulkTimeout)
+                .doOnError(WebClientResponseException.class, e -> {
+                    if (e.getStatusCode() == HttpStatus.NOT_FOUND || e.getStatusCode() == HttpStatus.METHOD_NOT_ALLOWED
+                            || e.getStatusCode() == HttpStatus.NOT_IMPLEMENTED) {
+                        vendorBulkSupported.set(false);
+                    }
+                })
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    /**
+     * Expires cached existence answers after the TTL belonging to the answer.
+     * Reading an entry does not extend its lifetime.
+     */
+    private static class ExistenceExpiry implements Expiry<UUID, Boolean> {
+
+        private final transient long positiveTtlNanos;
+        private final transient long negativeTtlNanos;
+
+        ExistenceExpiry(Duration positiveTtl, Duration negativeTtl) {
+            this.positiveTtlNanos = positiveTtl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(UUID id, Boolean exists, long currentTime) {
+            return exists ? positiveTtlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID id, Boolean exists, long currentTime, long currentDuration) {
+            return exists ? positiveTtlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(UUID id, Boolean exists, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
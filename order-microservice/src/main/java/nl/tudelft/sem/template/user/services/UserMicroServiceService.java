@@ -1,48 +1,38 @@
 package nl.tudelft.sem.template.user.services;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import nl.tudelft.sem.template.model.Address;
 import nl.tudelft.sem.template.order.domain.user.UserIDNotFoundException;
-import nl.tudelft.sem.template.order.domain.user.VendorNotFoundException;
 import nl.tudelft.sem.template.user.api.UserMicroServiceAPI;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
 /**
  * class that implements the interface UserMicroServiceAPI.
- * Is used for making external API calls
+ * Is used for making external API calls from code that needs the result right away.
+ * Every call blocks on the corresponding call of the ReactiveUserMicroServiceService,
+ * which already gives up after 3 seconds.
  */
 @Component
 public class UserMicroServiceService implements UserMicroServiceAPI {
 
-    private final transient Duration requestTimeout = Duration.ofSeconds(3);
-    private final transient WebClient userMicroServiceWebClient;
+    private final transient ReactiveUserMicroServiceService reactiveUserMicroServiceService;
 
     /**
      * Instantiates a new UserMicroService service.
      *
-     * @param userMicroServiceWebClient the userMicroService webClient, used for making calls to API endpoints
+     * @param reactiveUserMicroServiceService the non-blocking service that makes the calls to the API endpoints
      */
     @Autowired
-    public UserMicroServiceService(WebClient userMicroServiceWebClient) {
-        this.userMicroServiceWebClient = userMicroServiceWebClient;
+    public UserMicroServiceService(ReactiveUserMicroServiceService reactiveUserMicroServiceService) {
+        this.reactiveUserMicroServiceService = reactiveUserMicroServiceService;
     }
 
     @Override
     public Address getUserAddress(UUID userID) throws UserIDNotFoundException {
-        return userMicroServiceWebClient.get()
-                .uri(uriBuilder -> uriBuilder.path("/customer/address/{userID}").build(userID))
-                .retrieve()
-                .onStatus(HttpStatus::is4xxClientError, response -> Mono.error(new UserIDNotFoundException(userID)))
-                .onStatus(HttpStatus::is5xxServerError, response -> Mono.error(new UserIDNotFoundException(userID)))
-                .bodyToMono(Address.class)
-                .block(requestTimeout);
+        return reactiveUserMicroServiceService.getUserAddress(userID).block();
     }
 
     /**
@@ -50,42 +40,23 @@ public class UserMicroServiceService implements UserMicroServiceAPI {
      * Given a userID, it makes the API call to the user microservice to get its location.
      * When the http status is 5xx or 4xx, it will just throw a UserIDNotFoundException
      * Otherwise the API call succeeded, and we convert the responseBody into a string
-     * Block(REQUEST_TIMEOUT) is necessary, since making external calls takes time. This is a blocking request
-     * In the future, we may change this into a reactive call instead of a blocking one.
+     * This is a blocking request, use ReactiveUserMicroServiceService to compose it with other calls instead.
      *
      * @param userID of the customer we want the location of.
      */
     @Override
     public String getUserLocation(UUID userID) throws UserIDNotFoundException {
-        return userMicroServiceWebClient.get()
-                .uri(uriBuilder -> uriBuilder.path("/customer/location/{userID}").build(userID))
-                .retrieve()
-                .onStatus(HttpStatus::is4xxClientError, response -> Mono.error(new UserIDNotFoundException(userID)))
-                .onStatus(HttpStatus::is5xxServerError, response -> Mono.error(new UserIDNotFoundException(userID)))
-                .bodyToMono(String.class)
-                .block(requestTimeout); // wait only 3 seconds, instead of default 30
+        return reactiveUserMicroServiceService.getUserLocation(userID).block();
     }
 
     @Override
     public String getAllVendors() {
-        return userMicroServiceWebClient.get()
-                .uri(uriBuilder -> uriBuilder.path("/vendor").build())
-                .retrieve()
-                .onStatus(HttpStatus::is4xxClientError,
-                        response -> Mono.error(new RuntimeException("no vendors in database")))
-                .bodyToMono(String.class)
-                .block(requestTimeout); // wait only 3 seconds, instead of default 30
+        return reactiveUserMicroServiceService.getAllVendors().block();
     }
 
     @Override
     public String getUserInformation(UUID userID) {
-        return userMicroServiceWebClient.get()
-                .uri(uriBuilder -> uriBuilder.path("/user/{userID}").build(userID))
-                .retrieve()
-                .onStatus(HttpStatus::is4xxClientError, response -> Mono.error(new UserIDNotFoundException(userID)))
-                .onStatus(HttpStatus::is5xxServerError, response -> Mono.error(new UserIDNotFoundException(userID)))
-                .bodyToMono(String.class)
-                .block(requestTimeout); // wait only 3 seconds, instead of default 30
+        return reactiveUserMicroServiceService.getUserInformation(userID).block();
     }
 
     /**
@@ -95,17 +66,7 @@ public class UserMicroServiceService implements UserMicroServiceAPI {
      * @return Boolean for whether a vendor exists or not
      */
     public boolean checkVendorExists(UUID vendorId) {
-        try {
-            userMicroServiceWebClient.get()
-                    .uri(uriBuilder -> uriBuilder.path("/vendor/{userID}").build(vendorId))
-                    .retrieve()
-                    .onStatus(HttpStatus::is4xxClientError, response -> Mono.error(new VendorNotFoundException(vendorId)))
-                    .bodyToMono(String.class)
-                    .block(requestTimeout);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return Boolean.TRUE.equals(reactiveUserMicroServiceService.checkVendorExists(vendorId).block());
     }
 
     /**
@@ -115,49 +76,24 @@ public class UserMicroServiceService implements UserMicroServiceAPI {
      * @return Boolean for whether a user exists or not
      */
     public boolean checkUserExists(UUID userId) {
-        try {
-            userMicroServiceWebClient.get()
-                    .uri(uriBuilder -> uriBuilder.path("/user/{userID}").build(userId))
-                    .retrieve()
-                    .onStatus(HttpStatus::is4xxClientError, response -> Mono.error(new UserIDNotFoundException(userId)))
-                    .bodyToMono(String.class)
-                    .block(requestTimeout);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return Boolean.TRUE.equals(reactiveUserMicroServiceService.checkUserExists(userId).block());
     }
 
     @Override
     public String getUserName(UUID userID) throws UserIDNotFoundException {
-        return userMicroServiceWebClient.get()
-                .uri(uriBuilder -> uriBuilder.path("/customer/name/{userID}").build(userID))
-                .retrieve()
-                .onStatus(HttpStatus::is4xxClientError, response -> Mono.error(new UserIDNotFoundException(userID)))
-                .onStatus(HttpStatus::is5xxServerError, response -> Mono.error(new UserIDNotFoundException(userID)))
-                .bodyToMono(String.class)
-                .block(requestTimeout);
+        return reactiveUserMicroServiceService.getUserName(userID).block();
     }
 
+    /**
+     * Retrieves the json of every vendor in the list.
+     * See ReactiveUserMicroServiceService#getVendorsFromID for how the vendors are fetched.
+     *
+     * @param restaurantsID the UUIDs of the vendors
+     * @return the json of the vendors that could be retrieved, in the order they arrived
+     */
     @Override
     public List<String> getVendorsFromID(List<UUID> restaurantsID) {
-        List<String> result = new ArrayList<>(restaurantsID.size());
-        for (UUID id : restaurantsID) {
-            try {
-                String restaurant = userMicroServiceWebClient.get()
-                        .uri(uriBuilder -> uriBuilder.path("/vendor/{userID}").build(id))
-                        .retrieve()
-                        .onStatus(HttpStatus::is4xxClientError, response -> null)
-                        .bodyToMono(String.class)
-                        .block(requestTimeout);
-                if (restaurant != null) {
-                    result.add(restaurant);
-                }
-            } catch (RuntimeException e) { // in case of TIMEOUT, catch error and do nothing
-                break;
-            }
-
-        }
-        return result;
+        List<String> result = reactiveUserMicroServiceService.getVendorsFromID(restaurantsID).collectList().block();
+        return (result == null) ? new ArrayList<>() : result;
     }
 }
@@ -0,0 +1,86 @@
+package nl.tudelft.sem.template.user.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.UUID;
+import nl.tudelft.sem.template.order.domain.user.UserIDNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the userType (Admin, Customer, Vendor, ...) of a user.
+ * The parsed userType is cached per user for a short time (userMicroService.roleCache.*),
+ * and concurrent lookups for the same user share a single call to the user microservice.
+ */
+@Component
+public class UserRoleService {
+
+    private final transient UserMicroServiceService userMicroServiceService;
+    private final transient JsonParserService jsonParserService;
+    private final transient Cache<UUID, String> userTypes;
+
+    /**
+     * Instantiates a new UserRole service.
+     *
+     * @param userMicroServiceService the service used to get the information of a user
+     * @param jsonParserService the parser for the information of a user
+     * @param environment the environment containing the userMicroService.roleCache.* settings
+     * @param meterRegistry the registry the hit/miss/eviction counters of the cache are published to
+     */
+    @Autowired
+    public UserRoleService(UserMicroServiceService userMicroServiceService, JsonParserService jsonParserService,
+                           Environment environment, MeterRegistry meterRegistry) {
+        this.userMicroServiceService = userMicroServiceService;
+        this.jsonParserService = jsonParserService;
+        this.userTypes = Caffeine.newBuilder()
+                .maximumSize(environment.getProperty("userMicroService.roleCache.maximumSize", Long.class, 1000L))
+                .expireAfterWrite(Duration.ofMillis(environment.getProperty(
+                        "userMicroService.roleCache.ttlMs", Long.class, 30_000L)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userTypes, "userMicroService.userRoles");
+    }
+
+    /**
+     * Gets the userType of a user.
+     *
+     * @param userID the id of the user
+     * @return the userType of the user
+     * @throws UserIDNotFoundException if the user does not exist or has no userType
+     */
+    public String getUserType(UUID userID) throws UserIDNotFoundException {
+        // the cache runs the lookup at most once at a time per user, other callers wait for its answer
+        String userType = userTypes.get(userID, this::fetchUserType);
+        if (userType == null) {
+            throw new UserIDNotFoundException(userID);
+        }
+        return userType;
+    }
+
+    /**
+     * Checks whether a user is an admin.
+     *
+     * @param userID the id of the user
+     * @return true if the userType of the user is Admin
+     * @throws UserIDNotFoundException if the user does not exist or has no userType
+     */
+    public boolean isAdmin(UUID userID) throws UserIDNotFoundException {
+        return "Admin".equals(getUserType(userID));
+    }
+
+    /**
+     * Gets the userType of a user from the user microservice.
+     * Returns null when the user microservice does not know the user, which is not cached.
+     *
+     * @param userID the id of the user
+     * @return the userType, or null if the user could not be found
+     */
+    private String fetchUserType(UUID userID) {
+        String jsonUser = userMicroServiceService.getUserInformation(userID);
+        return jsonParserService.parseUserType(jsonUser);
+    }
+}
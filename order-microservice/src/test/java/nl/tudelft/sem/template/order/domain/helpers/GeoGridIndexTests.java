@@ -0,0 +1,182 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+public class GeoGridIndexTests {
+
+    private static final double DELFT_LATITUDE = 52.0;
+    private static final double DELFT_LONGITUDE = 4.37;
+
+    @Test
+    public void testEmpty() {
+        GeoGridIndex index = GeoGridIndex.empty(GeoGridIndex.DEFAULT_CELL_SIZE);
+
+        assertThat(index.size()).isZero();
+        assertThat(index.cellCount()).isZero();
+        assertThat(index.withinRadius(DELFT_LATITUDE, DELFT_LONGITUDE, 5)).isEmpty();
+    }
+
+    @Test
+    public void testInvalidCellSize() {
+        assertThrows(IllegalArgumentException.class, () -> GeoGridIndex.empty(0));
+        assertThrows(IllegalArgumentException.class, () -> GeoGridIndex.empty(-1));
+        assertThrows(IllegalArgumentException.class, () -> GeoGridIndex.empty(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> GeoGridIndex.empty(91));
+    }
+
+    @Test
+    public void testWithinRadiusMatchesLinearScan() {
+        VendorLocations vendors = around(new Random(1), 10_000, DELFT_LATITUDE, DELFT_LONGITUDE, 0.2);
+        GeoGridIndex index = GeoGridIndex.build(vendors, GeoGridIndex.DEFAULT_CELL_SIZE);
+
+        assertThat(index.size()).isEqualTo(10_000);
+        assertThat(index.withinRadius(DELFT_LATITUDE, DELFT_LONGITUDE, 5))
+                .isNotEmpty()
+                .containsExactlyInAnyOrderElementsOf(vendors.withinRadius(DELFT_LATITUDE, DELFT_LONGITUDE, 5));
+        assertThat(index.withinRadius(52.1, 4.2, 0.5))
+                .containsExactlyInAnyOrderElementsOf(vendors.withinRadius(52.1, 4.2, 0.5));
+        assertThat(index.withinRadius(DELFT_LATITUDE, DELFT_LONGITUDE, 50))
+                .containsExactlyInAnyOrderElementsOf(vendors.withinRadius(DELFT_LATITUDE, DELFT_LONGITUDE, 50));
+    }
+
+    @Test
+    public void testWithinRadiusAcrossAntimeridian() {
+        VendorLocations vendors = around(new Random(2), 2_000, -16.5, 179.95, 0.3);
+        GeoGridIndex index = GeoGridIndex.build(vendors, GeoGridIndex.DEFAULT_CELL_SIZE);
+
+        assertThat(index.withinRadius(-16.5, -179.98, 20))
+                .isNotEmpty()
+                .containsExactlyInAnyOrderElementsOf(vendors.withinRadius(-16.5, -179.98, 20));
+    }
+
+    @Test
+    public void testWithinRadiusAroundPole() {
+        VendorLocations vendors = around(new Random(3), 2_000, 89.8, 0, 0.2);
+        GeoGridIndex index = GeoGridIndex.build(vendors, GeoGridIndex.DEFAULT_CELL_SIZE);
+
+        assertThat(index.withinRadius(89.9, 120, 30))
+                .isNotEmpty()
+                .containsExactlyInAnyOrderElementsOf(vendors.withinRadius(89.9, 120, 30));
+    }
+
+    @Test
+    public void testWithinRadiusLargerThanEarth() {
+        VendorLocations vendors = around(new Random(4), 1_000, 0, 0, 90);
+        GeoGridIndex index = GeoGridIndex.build(vendors, 1);
+
+        assertThat(index.withinRadius(DELFT_LATITUDE, DELFT_LONGITUDE, 15_000))
+                .containsExactlyInAnyOrderElementsOf(vendors.withinRadius(DELFT_LATITUDE, DELFT_LONGITUDE, 15_000));
+    }
+
+    @Test
+    public void testCellSizeNotDividingTheEarth() {
+        VendorLocations vendors = around(new Random(5), 2_000, 0, 179.5, 1);
+        GeoGridIndex index = GeoGridIndex.build(vendors, 0.7);
+
+        assertThat(index.withinRadius(0.2, -179.8, 100))
+                .isNotEmpty()
+                .containsExactlyInAnyOrderElementsOf(vendors.withinRadius(0.2, -179.8, 100));
+    }
+
+    @Test
+    public void testRefreshWithSameVendors() {
+        VendorLocations vendors = around(new Random(6), 100, DELFT_LATITUDE, DELFT_LONGITUDE, 0.2);
+        GeoGridIndex index = GeoGridIndex.build(vendors, GeoGridIndex.DEFAULT_CELL_SIZE);
+
+        assertThat(index.refresh(around(new Random(6), 100, DELFT_LATITUDE, DELFT_LONGITUDE, 0.2))).isSameAs(index);
+    }
+
+    @Test
+    public void testRefreshOnlyRebuildsChangedCells() {
+        VendorLocations vendors = new VendorLocations();
+        vendors.add(new UUID(0, 1), 52.01, 4.36);
+        vendors.add(new UUID(0, 2), 51.91, 4.46);
+        vendors.add(new UUID(0, 3), 52.36, 4.89);
+        GeoGridIndex index = GeoGridIndex.build(vendors, GeoGridIndex.DEFAULT_CELL_SIZE);
+        VendorLocations moved = new VendorLocations();
+        moved.add(new UUID(0, 1), 52.01, 4.36);
+        moved.add(new UUID(0, 2), 52.011, 4.361);
+        moved.add(new UUID(0, 3), 52.36, 4.89);
+        moved.add(new UUID(0, 4), 53.21, 6.56);
+
+        GeoGridIndex refreshed = index.refresh(moved);
+
+        assertThat(refreshed.size()).isEqualTo(4);
+        assertThat(refreshed.cellCount()).isEqualTo(3);
+        // Amsterdam did not change, Delft got a new vendor and Rotterdam lost one
+        assertThat(refreshed.cellOf(52.36, 4.89)).isSameAs(index.cellOf(52.36, 4.89));
+        assertThat(refreshed.cellOf(52.01, 4.36)).isNotSameAs(index.cellOf(52.01, 4.36));
+        assertThat(refreshed.cellOf(51.91, 4.46)).isNull();
+        assertThat(refreshed.withinRadius(52.01, 4.36, 1)).containsExactlyInAnyOrder(new UUID(0, 1), new UUID(0, 2));
+        // the old index is not changed
+        assertThat(index.withinRadius(52.01, 4.36, 1)).containsExactly(new UUID(0, 1));
+    }
+
+    @Test
+    public void testRefreshComparesVendorsById() {
+        VendorLocations vendors = new VendorLocations();
+        vendors.add(new UUID(0, 1), 52.01, 4.36);
+        vendors.add(new UUID(0, 2), 51.91, 4.46);
+        vendors.add(new UUID(0, 3), 52.36, 4.89);
+        GeoGridIndex index = GeoGridIndex.build(vendors, GeoGridIndex.DEFAULT_CELL_SIZE);
+        VendorLocations shifted = new VendorLocations();
+        shifted.add(new UUID(0, 4), 53.21, 6.56);
+        shifted.add(new UUID(0, 3), 52.36, 4.89);
+        shifted.add(new UUID(0, 1), 52.01, 4.36);
+
+        GeoGridIndex refreshed = index.refresh(shifted);
+
+        // only Groningen got a vendor and Rotterdam lost one, the vendors that changed place did not move
+        assertThat(refreshed.cellOf(52.36, 4.89)).isSameAs(index.cellOf(52.36, 4.89));
+        assertThat(refreshed.cellOf(52.01, 4.36)).isSameAs(index.cellOf(52.01, 4.36));
+        assertThat(refreshed.cellOf(51.91, 4.46)).isNull();
+        assertThat(refreshed.withinRadius(53.21, 6.56, 1)).containsExactly(new UUID(0, 4));
+    }
+
+    @Test
+    public void testRefreshWithReorderedVendors() {
+        VendorLocations vendors = new VendorLocations();
+        vendors.add(new UUID(0, 1), 52.01, 4.36);
+        vendors.add(new UUID(0, 2), 51.91, 4.46);
+        GeoGridIndex index = GeoGridIndex.build(vendors, GeoGridIndex.DEFAULT_CELL_SIZE);
+        VendorLocations reordered = new VendorLocations();
+        reordered.add(new UUID(0, 2), 51.91, 4.46);
+        reordered.add(new UUID(0, 1), 52.01, 4.36);
+
+        assertThat(index.refresh(reordered)).isSameAs(index);
+    }
+
+    @Test
+    public void testRefreshWithFewerVendors() {
+        VendorLocations vendors = around(new Random(7), 1_000, DELFT_LATITUDE, DELFT_LONGITUDE, 0.2);
+        VendorLocations fewer = around(new Random(7), 500, DELFT_LATITUDE, DELFT_LONGITUDE, 0.2);
+
+        GeoGridIndex refreshed = GeoGridIndex.build(vendors, GeoGridIndex.DEFAULT_CELL_SIZE).refresh(fewer);
+
+        assertThat(refreshed.size()).isEqualTo(500);
+        assertThat(refreshed.withinRadius(DELFT_LATITUDE, DELFT_LONGITUDE, 10))
+                .containsExactlyInAnyOrderElementsOf(fewer.withinRadius(DELFT_LATITUDE, DELFT_LONGITUDE, 10));
+    }
+
+    /**
+     * Creates vendors spread uniformly in a square around a location.
+     */
+    private static VendorLocations around(Random random, int count, double latitude, double longitude, double spread) {
+        VendorLocations vendors = new VendorLocations();
+        for (int i = 0; i < count; i++) {
+            vendors.add(new UUID(random.nextLong(), random.nextLong()),
+                    Math.max(-90, Math.min(90, latitude + (random.nextDouble() * 2 - 1) * spread)),
+                    normalizeLongitude(longitude + (random.nextDouble() * 2 - 1) * spread));
+        }
+        return vendors;
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        return longitude - 360 * Math.floor((longitude + 180) / 360);
+    }
+}
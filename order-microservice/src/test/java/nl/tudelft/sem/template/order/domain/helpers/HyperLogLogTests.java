@@ -0,0 +1,80 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+public class HyperLogLogTests {
+
+    // the ids are hashed before they are counted, so consecutive ids are as good as random ones
+    private static List<UUID> ids(long seed, int count) {
+        return LongStream.range(0, count).mapToObj(i -> new UUID(seed, i)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testEmpty() {
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+
+    @Test
+    public void testSmallCountsAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        ids(1, 100).forEach(sketch::add);
+
+        assertThat(sketch.estimate()).isCloseTo(100L, within(2L));
+    }
+
+    @Test
+    public void testRepeatedIdsAreCountedOnce() {
+        HyperLogLog sketch = new HyperLogLog();
+        List<UUID> ids = ids(2, 50);
+        ids.forEach(sketch::add);
+        ids.forEach(sketch::add);
+
+        assertThat(sketch.estimate()).isCloseTo(50L, within(1L));
+    }
+
+    @Test
+    public void testLargeCountsAreWithinTheErrorBound() {
+        HyperLogLog sketch = new HyperLogLog();
+        ids(3, 100_000).forEach(sketch::add);
+
+        // three standard errors
+        long bound = Math.round(100_000 * 3 * HyperLogLog.RELATIVE_STANDARD_ERROR);
+        assertThat(sketch.estimate()).isCloseTo(100_000L, within(bound));
+    }
+
+    @Test
+    public void testMergeCountsTheUnion() {
+        List<UUID> ids = ids(4, 30_000);
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        HyperLogLog all = new HyperLogLog();
+        ids.subList(0, 20_000).forEach(monday::add);
+        ids.subList(10_000, 30_000).forEach(tuesday::add);
+        ids.forEach(all::add);
+
+        monday.merge(tuesday);
+
+        assertThat(monday).isEqualTo(all);
+        assertThat(monday.estimate()).isEqualTo(all.estimate());
+    }
+
+    @Test
+    public void testBytes() {
+        HyperLogLog sketch = new HyperLogLog();
+        ids(5, 1000).forEach(sketch::add);
+
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes).hasSize(HyperLogLog.REGISTERS);
+        assertThat(HyperLogLog.fromBytes(bytes)).isEqualTo(sketch);
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[10]));
+    }
+}
@@ -0,0 +1,66 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import nl.tudelft.sem.template.model.Order;
+import org.junit.jupiter.api.Test;
+
+public class OrderCursorTests {
+
+    private static final UUID ORDER_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+    private static final BigDecimal DATE = new BigDecimal("1700006405000");
+
+    @Test
+    public void testParseNullIsStart() {
+        OrderCursor cursor = OrderCursor.parse(null);
+
+        assertThat(cursor).isEqualTo(OrderCursor.start());
+        assertThat(cursor.getDate()).isNull();
+        assertThat(cursor.getOrderID()).isNull();
+    }
+
+    @Test
+    public void testEncodeAndParse() {
+        OrderCursor cursor = OrderCursor.after(new Order().orderID(ORDER_ID).date(DATE));
+
+        OrderCursor parsed = OrderCursor.parse(cursor.encode());
+
+        assertThat(parsed).isEqualTo(cursor);
+        assertThat(parsed.getDate()).isEqualTo(DATE);
+        assertThat(parsed.getOrderID()).isEqualTo(ORDER_ID);
+        assertThat(cursor.encode()).doesNotContain("=", "+", "/");
+    }
+
+    @Test
+    public void testEncodeAndParseWithoutDate() {
+        OrderCursor cursor = OrderCursor.after(new Order().orderID(ORDER_ID));
+
+        OrderCursor parsed = OrderCursor.parse(cursor.encode());
+
+        assertThat(parsed).isEqualTo(cursor);
+        assertThat(parsed.getDate()).isNull();
+        assertThat(parsed.getOrderID()).isEqualTo(ORDER_ID);
+    }
+
+    @Test
+    public void testEncodeAndParseSince() {
+        OrderCursor cursor = OrderCursor.since(DATE);
+
+        OrderCursor parsed = OrderCursor.parse(cursor.encode());
+
+        assertThat(parsed).isEqualTo(cursor);
+        assertThat(parsed.getDate()).isEqualTo(DATE);
+        assertThat(parsed.getOrderID()).isNull();
+        assertThat(OrderCursor.parse(OrderCursor.start().encode())).isSameAs(OrderCursor.start());
+    }
+
+    @Test
+    public void testParseMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.parse("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.parse("bm8gc2VwYXJhdG9y"));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.parse("MTIzOm5vdC1hLXV1aWQ"));
+    }
+}
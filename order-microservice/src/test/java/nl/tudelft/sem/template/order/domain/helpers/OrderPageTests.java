@@ -0,0 +1,45 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import nl.tudelft.sem.template.model.Order;
+import org.junit.jupiter.api.Test;
+
+public class OrderPageTests {
+
+    @Test
+    public void testPageWithNextPage() {
+        Order first = new Order().orderID(UUID.randomUUID()).date(BigDecimal.ONE);
+        Order second = new Order().orderID(UUID.randomUUID()).date(BigDecimal.TEN);
+        Order third = new Order().orderID(UUID.randomUUID()).date(BigDecimal.TEN);
+
+        OrderPage page = OrderPage.of(List.of(first, second, third), 2);
+
+        assertThat(page.getOrders()).containsExactly(first, second);
+        assertThat(page.getNext()).contains(OrderCursor.after(second));
+    }
+
+    @Test
+    public void testLastPage() {
+        Order first = new Order().orderID(UUID.randomUUID());
+
+        OrderPage page = OrderPage.of(List.of(first), 2);
+
+        assertThat(page.getOrders()).containsExactly(first);
+        assertThat(page.getNext()).isEmpty();
+    }
+
+    @Test
+    public void testNextOrLast() {
+        Order first = new Order().orderID(UUID.randomUUID()).date(BigDecimal.ONE);
+        Order second = new Order().orderID(UUID.randomUUID()).date(BigDecimal.TEN);
+        OrderCursor after = OrderCursor.since(BigDecimal.ZERO);
+
+        assertThat(OrderPage.of(List.of(first, second), 1).getNextOrLast(after)).isEqualTo(OrderCursor.after(first));
+        assertThat(OrderPage.of(List.of(first, second), 2).getNextOrLast(after)).isEqualTo(OrderCursor.after(second));
+        assertThat(OrderPage.of(List.of(), 2).getNextOrLast(after)).isSameAs(after);
+    }
+}
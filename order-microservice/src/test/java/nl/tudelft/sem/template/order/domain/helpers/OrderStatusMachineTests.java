@@ -0,0 +1,61 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import nl.tudelft.sem.template.model.Order.StatusEnum;
+import org.junit.jupiter.api.Test;
+
+public class OrderStatusMachineTests {
+
+    @Test
+    public void testHappyPath() {
+        assertThat(OrderStatusMachine.canMove(StatusEnum.PENDING, StatusEnum.ACCEPTED)).isTrue();
+        assertThat(OrderStatusMachine.canMove(StatusEnum.ACCEPTED, StatusEnum.PREPARING)).isTrue();
+        assertThat(OrderStatusMachine.canMove(StatusEnum.PREPARING, StatusEnum.GIVEN_TO_COURIER)).isTrue();
+        assertThat(OrderStatusMachine.canMove(StatusEnum.GIVEN_TO_COURIER, StatusEnum.ON_TRANSIT)).isTrue();
+        assertThat(OrderStatusMachine.canMove(StatusEnum.ON_TRANSIT, StatusEnum.DELIVERED)).isTrue();
+    }
+
+    @Test
+    public void testRejectBeforePreparing() {
+        assertThat(OrderStatusMachine.canMove(StatusEnum.PENDING, StatusEnum.REJECTED)).isTrue();
+        assertThat(OrderStatusMachine.canMove(StatusEnum.ACCEPTED, StatusEnum.REJECTED)).isTrue();
+        assertThat(OrderStatusMachine.canMove(StatusEnum.PREPARING, StatusEnum.REJECTED)).isFalse();
+    }
+
+    @Test
+    public void testNoSkippingOrGoingBack() {
+        assertThat(OrderStatusMachine.canMove(StatusEnum.PENDING, StatusEnum.DELIVERED)).isFalse();
+        assertThat(OrderStatusMachine.canMove(StatusEnum.ON_TRANSIT, StatusEnum.PREPARING)).isFalse();
+        assertThat(OrderStatusMachine.canMove(StatusEnum.ACCEPTED, StatusEnum.ACCEPTED)).isFalse();
+    }
+
+    @Test
+    public void testFinalStatuses() {
+        for (StatusEnum to : StatusEnum.values()) {
+            assertThat(OrderStatusMachine.canMove(StatusEnum.DELIVERED, to)).isFalse();
+            assertThat(OrderStatusMachine.canMove(StatusEnum.REJECTED, to)).isFalse();
+        }
+    }
+
+    @Test
+    public void testNoStatusIsPending() {
+        assertThat(OrderStatusMachine.canMove(null, StatusEnum.ACCEPTED)).isTrue();
+        assertThat(OrderStatusMachine.canMove(null, StatusEnum.PREPARING)).isFalse();
+        assertThat(OrderStatusMachine.canMove(null, StatusEnum.PENDING)).isTrue();
+    }
+
+    @Test
+    public void testParse() {
+        assertThat(OrderStatusMachine.parse("Given to courier")).contains(StatusEnum.GIVEN_TO_COURIER);
+        assertThat(OrderStatusMachine.parse("GIVEN_TO_COURIER")).contains(StatusEnum.GIVEN_TO_COURIER);
+        assertThat(OrderStatusMachine.parse("on-transit")).contains(StatusEnum.ON_TRANSIT);
+        assertThat(OrderStatusMachine.parse("pending")).contains(StatusEnum.PENDING);
+    }
+
+    @Test
+    public void testParseNotAStatus() {
+        assertThat(OrderStatusMachine.parse("green")).isEmpty();
+        assertThat(OrderStatusMachine.parse(null)).isEmpty();
+    }
+}
@@ -6,6 +6,7 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import nl.tudelft.sem.template.model.Address;
 import nl.tudelft.sem.template.model.Dish;
@@ -99,12 +100,9 @@ public class OrderValidationTests {
 
         ResponseEntity<List<UUID>> responseDishes =
                 new ResponseEntity<>(listOfDishes, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish1 = new ResponseEntity<>(d1, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish2 = new ResponseEntity<>(d2, HttpStatus.OK);
 
         when(orderController.getListOfDishes(orderId)).thenReturn(responseDishes);
-        when(dishController.getDishByID(listOfDishes.get(0))).thenReturn(responseDish1);
-        when(dishController.getDishByID(listOfDishes.get(1))).thenReturn(responseDish2);
+        when(dishController.getMissingDishes(listOfDishes)).thenReturn(ResponseEntity.ok(Set.of()));
 
         ResponseEntity<Boolean> response = orderValidation.areAllDishesAvailable(orderId);
 
@@ -117,12 +115,24 @@ public class OrderValidationTests {
         UUID orderId = UUID.randomUUID();
 
         ResponseEntity<List<UUID>> responseDishes = new ResponseEntity<>(listOfDishes, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish1 = new ResponseEntity<>(d1, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish2 = new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
         when(orderController.getListOfDishes(orderId)).thenReturn(responseDishes);
-        when(dishController.getDishByID(listOfDishes.get(0))).thenReturn(responseDish1);
-        when(dishController.getDishByID(listOfDishes.get(1))).thenReturn(responseDish2);
+        when(dishController.getMissingDishes(listOfDishes)).thenReturn(ResponseEntity.ok(Set.of(listOfDishes.get(1))));
+
+        ResponseEntity<Boolean> response = orderValidation.areAllDishesAvailable(orderId);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(false, response.getBody());
+    }
+
+    @Test
+    void testAreAllDishesAvailable_lookupFailed() {
+        UUID orderId = UUID.randomUUID();
+
+        ResponseEntity<List<UUID>> responseDishes = new ResponseEntity<>(listOfDishes, HttpStatus.OK);
+
+        when(orderController.getListOfDishes(orderId)).thenReturn(responseDishes);
+        when(dishController.getMissingDishes(listOfDishes)).thenReturn(ResponseEntity.badRequest().build());
 
         ResponseEntity<Boolean> response = orderValidation.areAllDishesAvailable(orderId);
 
@@ -171,11 +181,9 @@ public class OrderValidationTests {
 
         ResponseEntity<List<UUID>> responseDishes =
                 new ResponseEntity<>(listOfDishes, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish1 = new ResponseEntity<>(d1, HttpStatus.OK);
 
         when(orderController.getListOfDishes(orderId)).thenReturn(responseDishes);
-        when(dishController.getDishByID(listOfDishes.get(0))).thenReturn(responseDish1);
-        when(dishController.getDishByID(listOfDishes.get(1))).thenThrow(NullPointerException.class);
+        when(dishController.getMissingDishes(listOfDishes)).thenThrow(NullPointerException.class);
 
         ResponseEntity<Boolean> response = orderValidation.areAllDishesAvailable(orderId);
 
@@ -188,12 +196,9 @@ public class OrderValidationTests {
 
         ResponseEntity<Void> responseIsOrderPaid = new ResponseEntity<>(HttpStatus.OK);
         ResponseEntity<List<UUID>> responseDishes = new ResponseEntity<>(listOfDishes, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish1 = new ResponseEntity<>(d1, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish2 = new ResponseEntity<>(d2, HttpStatus.OK);
 
         when(orderController.getListOfDishes(orderId)).thenReturn(responseDishes);
-        when(dishController.getDishByID(listOfDishes.get(0))).thenReturn(responseDish1);
-        when(dishController.getDishByID(listOfDishes.get(1))).thenReturn(responseDish2);
+        when(dishController.getMissingDishes(listOfDishes)).thenReturn(ResponseEntity.ok(Set.of()));
         when(orderController.orderOrderIDIsPaidGet(orderId)).thenReturn(responseIsOrderPaid);
 
         ResponseEntity<Boolean> response = orderValidation.isOrderValid(orderId);
@@ -208,12 +213,9 @@ public class OrderValidationTests {
 
         ResponseEntity<Void> responseIsOrderPaid = new ResponseEntity<>(HttpStatus.PAYMENT_REQUIRED);
         ResponseEntity<List<UUID>> responseDishes = new ResponseEntity<>(listOfDishes, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish1 = new ResponseEntity<>(d1, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish2 = new ResponseEntity<>(d2, HttpStatus.OK);
 
         when(orderController.getListOfDishes(orderId)).thenReturn(responseDishes);
-        when(dishController.getDishByID(listOfDishes.get(0))).thenReturn(responseDish1);
-        when(dishController.getDishByID(listOfDishes.get(1))).thenReturn(responseDish2);
+        when(dishController.getMissingDishes(listOfDishes)).thenReturn(ResponseEntity.ok(Set.of()));
         when(orderController.orderOrderIDIsPaidGet(orderId)).thenReturn(responseIsOrderPaid);
 
         ResponseEntity<Boolean> response = orderValidation.isOrderValid(orderId);
@@ -244,12 +246,9 @@ public class OrderValidationTests {
 
         ResponseEntity<Void> responseIsOrderPaid = new ResponseEntity<>(HttpStatus.OK);
         ResponseEntity<List<UUID>> responseDishes = new ResponseEntity<>(listOfDishes, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish1 = new ResponseEntity<>(d1, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish2 = new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
         when(orderController.getListOfDishes(orderId)).thenReturn(responseDishes);
-        when(dishController.getDishByID(listOfDishes.get(0))).thenReturn(responseDish1);
-        when(dishController.getDishByID(listOfDishes.get(1))).thenReturn(responseDish2);
+        when(dishController.getMissingDishes(listOfDishes)).thenReturn(ResponseEntity.ok(Set.of(listOfDishes.get(1))));
         when(orderController.orderOrderIDIsPaidGet(orderId)).thenReturn(responseIsOrderPaid);
 
         ResponseEntity<Boolean> response = orderValidation.isOrderValid(orderId);
@@ -0,0 +1,104 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.SortedMap;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderRepository.QuarterHourVolume;
+import org.junit.jupiter.api.Test;
+
+public class QuarterHourVolumesTests {
+
+    private static final ZoneId AMSTERDAM = ZoneId.of("Europe/Amsterdam");
+    private static final ZoneId KATHMANDU = ZoneId.of("Asia/Kathmandu");
+
+    @Test
+    public void testByHourOfDay() {
+        // 2023-11-15 is a Wednesday, Amsterdam is at UTC+1 and Kathmandu at UTC+5:45
+        List<QuarterHourVolume> volumes = List.of(
+                volume(ZonedDateTime.of(2023, 11, 15, 8, 0, 0, 0, AMSTERDAM), 2),
+                volume(ZonedDateTime.of(2023, 11, 15, 8, 45, 0, 0, AMSTERDAM), 3),
+                volume(ZonedDateTime.of(2023, 11, 15, 23, 15, 0, 0, AMSTERDAM), 1));
+
+        List<Integer> amsterdam = QuarterHourVolumes.byHourOfDay(volumes, AMSTERDAM);
+        List<Integer> kathmandu = QuarterHourVolumes.byHourOfDay(volumes, KATHMANDU);
+
+        assertThat(amsterdam).hasSize(24);
+        assertThat(amsterdam.get(8)).isEqualTo(5);
+        assertThat(amsterdam.get(23)).isEqualTo(1);
+        // 08:00 and 08:45 in Amsterdam are 12:45 and 13:30 in Kathmandu, 23:15 is 04:00 the next day
+        assertThat(kathmandu.get(12)).isEqualTo(2);
+        assertThat(kathmandu.get(13)).isEqualTo(3);
+        assertThat(kathmandu.get(4)).isEqualTo(1);
+        assertThat(kathmandu.stream().mapToInt(Integer::intValue).sum()).isEqualTo(6);
+    }
+
+    @Test
+    public void testByHourOfDayAcrossDaylightSavingTime() {
+        // summer time ended at 2023-10-29 03:00, so 02:30 happened twice
+        List<QuarterHourVolume> volumes = List.of(
+                volume(ZonedDateTime.of(2023, 10, 29, 2, 30, 0, 0, AMSTERDAM).withEarlierOffsetAtOverlap(), 1),
+                volume(ZonedDateTime.of(2023, 10, 29, 2, 30, 0, 0, AMSTERDAM).withLaterOffsetAtOverlap(), 1),
+                volume(ZonedDateTime.of(2023, 7, 1, 12, 0, 0, 0, AMSTERDAM), 4));
+
+        List<Integer> hours = QuarterHourVolumes.byHourOfDay(volumes, AMSTERDAM);
+
+        assertThat(hours.get(2)).isEqualTo(2);
+        assertThat(hours.get(12)).isEqualTo(4);
+    }
+
+    @Test
+    public void testByDayOfWeek() {
+        List<QuarterHourVolume> volumes = List.of(
+                volume(ZonedDateTime.of(2023, 11, 13, 12, 0, 0, 0, AMSTERDAM), 2),
+                volume(ZonedDateTime.of(2023, 11, 19, 23, 45, 0, 0, AMSTERDAM), 7));
+
+        List<Integer> amsterdam = QuarterHourVolumes.byDayOfWeek(volumes, AMSTERDAM);
+        List<Integer> utc = QuarterHourVolumes.byDayOfWeek(volumes, ZoneId.of("UTC"));
+
+        assertThat(amsterdam).containsExactly(2, 0, 0, 0, 0, 0, 7);
+        assertThat(utc).containsExactly(2, 0, 0, 0, 0, 0, 7);
+        assertThat(QuarterHourVolumes.byDayOfWeek(volumes, KATHMANDU)).containsExactly(9, 0, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void testByDay() {
+        List<QuarterHourVolume> volumes = List.of(
+                volume(ZonedDateTime.of(2023, 11, 16, 0, 30, 0, 0, AMSTERDAM), 1),
+                volume(ZonedDateTime.of(2023, 11, 15, 12, 0, 0, 0, AMSTERDAM), 2),
+                volume(ZonedDateTime.of(2023, 11, 15, 23, 30, 0, 0, AMSTERDAM), 3));
+
+        SortedMap<LocalDate, Integer> amsterdam = QuarterHourVolumes.byDay(volumes, AMSTERDAM);
+        SortedMap<LocalDate, Integer> utc = QuarterHourVolumes.byDay(volumes, ZoneId.of("UTC"));
+
+        assertThat(amsterdam).containsExactly(
+                entry(LocalDate.of(2023, 11, 15), 5),
+                entry(LocalDate.of(2023, 11, 16), 1));
+        assertThat(utc).containsExactly(
+                entry(LocalDate.of(2023, 11, 15), 6));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertThat(QuarterHourVolumes.byHourOfDay(List.of(), AMSTERDAM)).containsOnly(0).hasSize(24);
+        assertThat(QuarterHourVolumes.byDay(List.of(), AMSTERDAM)).isEmpty();
+    }
+
+    private static QuarterHourVolume volume(ZonedDateTime start, long volume) {
+        return new QuarterHourVolume() {
+            @Override
+            public long getQuarterHour() {
+                return start.toInstant().toEpochMilli() / QuarterHourVolumes.QUARTER_HOUR_MILLIS;
+            }
+
+            @Override
+            public long getVolume() {
+                return volume;
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class SpaceSavingTests {
+
+    private static final UUID PIZZA = UUID.randomUUID();
+    private static final UUID LASAGNA = UUID.randomUUID();
+
+    // a few dishes ordered often and many ordered rarely, the same in every run
+    private static List<UUID> orders(long seed, List<UUID> popular, int rare) {
+        return IntStream.range(0, rare)
+                .mapToObj(i -> List.of(new UUID(seed, i), popular.get(i % popular.size())))
+                .flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    private static void assertWithinBounds(SpaceSaving summary, List<UUID> added) {
+        Map<UUID, Long> exact = added.stream().collect(Collectors.groupingBy(id -> id, Collectors.counting()));
+        summary.top(SpaceSaving.CAPACITY).forEach(counter -> {
+            long count = exact.getOrDefault(counter.getId(), 0L);
+            assertThat(counter.getCount()).isBetween(count, count + counter.getError());
+            assertThat(counter.getError()).isLessThanOrEqualTo(summary.getMaxError());
+        });
+    }
+
+    @Test
+    public void testExactBelowCapacity() {
+        SpaceSaving summary = new SpaceSaving();
+        List.of(PIZZA, LASAGNA, PIZZA).forEach(summary::add);
+
+        assertThat(summary.top(10)).containsExactly(
+                new SpaceSaving.Counter(PIZZA, 2, 0), new SpaceSaving.Counter(LASAGNA, 1, 0));
+        assertThat(summary.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    public void testHeavyHittersAreKept() {
+        List<UUID> added = orders(1, List.of(PIZZA, LASAGNA), 10_000);
+        SpaceSaving summary = new SpaceSaving();
+        added.forEach(summary::add);
+
+        List<SpaceSaving.Counter> top = summary.top(2);
+
+        assertThat(top).extracting(SpaceSaving.Counter::getId).containsExactlyInAnyOrder(PIZZA, LASAGNA);
+        assertThat(summary.getTotal()).isEqualTo(20_000);
+        assertWithinBounds(summary, added);
+    }
+
+    @Test
+    public void testMergeKeepsTheBounds() {
+        List<UUID> monday = orders(2, List.of(PIZZA), 5_000);
+        List<UUID> tuesday = orders(3, List.of(LASAGNA, PIZZA), 3_000);
+        SpaceSaving merged = new SpaceSaving();
+        SpaceSaving other = new SpaceSaving();
+        monday.forEach(merged::add);
+        tuesday.forEach(other::add);
+
+        merged.merge(other);
+
+        List<UUID> added = new ArrayList<>(monday);
+        added.addAll(tuesday);
+        assertThat(merged.getTotal()).isEqualTo(added.size());
+        assertThat(merged.top(1)).extracting(SpaceSaving.Counter::getId).containsExactly(PIZZA);
+        assertThat(merged.top(SpaceSaving.CAPACITY + 1)).hasSize(SpaceSaving.CAPACITY);
+        assertWithinBounds(merged, added);
+    }
+
+    @Test
+    public void testMergeBelowCapacityIsExact() {
+        SpaceSaving monday = new SpaceSaving();
+        SpaceSaving tuesday = new SpaceSaving();
+        List.of(PIZZA, LASAGNA).forEach(monday::add);
+        List.of(PIZZA).forEach(tuesday::add);
+
+        monday.merge(tuesday);
+
+        assertThat(monday.top(10)).containsExactly(
+                new SpaceSaving.Counter(PIZZA, 2, 0), new SpaceSaving.Counter(LASAGNA, 1, 0));
+    }
+
+    @Test
+    public void testBytes() {
+        SpaceSaving summary = new SpaceSaving();
+        orders(4, List.of(PIZZA), 1000).forEach(summary::add);
+
+        SpaceSaving read = SpaceSaving.fromBytes(summary.toBytes());
+
+        assertThat(summary.toBytes()).hasSizeLessThanOrEqualTo(12 + 32 * SpaceSaving.CAPACITY);
+        assertThat(read.top(SpaceSaving.CAPACITY)).isEqualTo(summary.top(SpaceSaving.CAPACITY));
+        assertThat(read.getTotal()).isEqualTo(summary.getTotal());
+        assertThrows(IllegalArgumentException.class, () -> SpaceSaving.fromBytes(new byte[5]));
+        assertThrows(IllegalArgumentException.class, () -> SpaceSaving.fromBytes(new byte[20]));
+    }
+}
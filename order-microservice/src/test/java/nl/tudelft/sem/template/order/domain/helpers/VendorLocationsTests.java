@@ -0,0 +1,106 @@
+package nl.tudelft.sem.template.order.domain.helpers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+public class VendorLocationsTests {
+
+    private static final double RADIUS = 5;
+
+    @Test
+    public void testEmpty() {
+        VendorLocations vendors = new VendorLocations();
+
+        assertThat(vendors.isEmpty()).isTrue();
+        assertThat(vendors.size()).isZero();
+        assertThat(vendors.withinRadius(52.0, 4.3, 5)).isEmpty();
+    }
+
+    @Test
+    public void testAddGrowsAndKeepsOrder() {
+        VendorLocations vendors = new VendorLocations(1);
+        for (int i = 0; i < 100; i++) {
+            vendors.add(new UUID(0, i), i, -i);
+        }
+
+        assertThat(vendors.size()).isEqualTo(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(vendors.getId(i)).isEqualTo(new UUID(0, i));
+            assertThat(vendors.getLatitude(i)).isEqualTo(i);
+            assertThat(vendors.getLongitude(i)).isEqualTo(-i);
+        }
+    }
+
+    @Test
+    public void testAddingAVendorAgainMovesIt() {
+        UUID moved = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        VendorLocations vendors = new VendorLocations();
+        vendors.add(moved, 52.1583, 4.4931);
+        vendors.add(other, 52.011665, 4.373281);
+        vendors.add(moved, 52.001665, 4.373281);
+
+        assertThat(vendors.size()).isEqualTo(2);
+        assertThat(vendors.indexOf(moved)).isZero();
+        assertThat(vendors.getLatitude(0)).isEqualTo(52.001665);
+        assertThat(vendors.indexOf(UUID.randomUUID())).isEqualTo(-1);
+        assertThat(vendors.withinRadius(52.001665, 4.373281, RADIUS)).containsExactly(moved, other);
+    }
+
+    @Test
+    public void testWithinRadius() {
+        UUID close = UUID.randomUUID();
+        UUID far = UUID.randomUUID();
+        UUID same = UUID.randomUUID();
+        VendorLocations vendors = new VendorLocations();
+        vendors.add(close, 52.011665, 4.373281);
+        vendors.add(far, 52.1583, 4.4931);
+        vendors.add(same, 52.001665, 4.373281);
+
+        assertThat(vendors.withinRadius(52.001665, 4.373281, 5)).containsExactly(close, same);
+    }
+
+    @Test
+    public void testWithinRadiusMatchesHaversineDistance() {
+        // a grid of 100x100 vendors around Delft, 0.002 degrees apart
+        VendorLocations vendors = new VendorLocations();
+        List<UUID> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            double latitude = 52 + (i % 100 - 50) * 0.002;
+            double longitude = 4.37 + (i / 100 - 50) * 0.002;
+            vendors.add(new UUID(0, i), latitude, longitude);
+            addIfClose(expected, new UUID(0, i), distance(52, 4.37, latitude, longitude));
+        }
+
+        assertThat(expected).isNotEmpty().hasSizeLessThan(10_000);
+        assertThat(vendors.withinRadius(52, 4.37, RADIUS)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testWithinRadiusLargerThanEarth() {
+        VendorLocations vendors = new VendorLocations();
+        vendors.add(UUID.randomUUID(), -52, -175.6);
+
+        assertThat(vendors.withinRadius(52, 4.37, 1e6)).hasSize(1);
+    }
+
+    private static void addIfClose(List<UUID> ids, UUID id, double distance) {
+        if (distance < RADIUS) {
+            ids.add(id);
+        }
+    }
+
+    /**
+     * The distance as computed by RestaurantService before the vendors were kept in a VendorLocations.
+     */
+    private static double distance(double lat1, double lon1, double lat2, double lon2) {
+        double p = Math.PI / 180;
+        double a = 0.5 - Math.cos((lat2 - lat1) * p) / 2
+                + Math.cos(lat1 * p) * Math.cos(lat2 * p) * (1 - Math.cos((lon2 - lon1) * p)) / 2;
+        return 2 * VendorLocations.EARTH_RADIUS * Math.asin(Math.sqrt(a));
+    }
+}
@@ -6,6 +6,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import nl.tudelft.sem.template.model.Dish;
 import nl.tudelft.sem.template.order.controllers.DishController;
@@ -106,6 +107,25 @@ public class DishControllerTests {
         assertThat(res.getBody()).isEqualTo(d1);
     }
 
+    @Test
+    public void get_missing_dishes() {
+        UUID missing = UUID.randomUUID();
+        List<UUID> dishIds = List.of(d1.getDishID(), missing);
+        when(dishService.getMissingDishIDs(dishIds)).thenReturn(Set.of(missing));
+
+        ResponseEntity<Set<UUID>> res = dishController.getMissingDishes(dishIds);
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(res.getBody()).containsExactly(missing);
+    }
+
+    @Test
+    public void get_missing_dishes_bad_request() {
+        when(dishService.getMissingDishIDs(null)).thenThrow(NullPointerException.class);
+
+        assertThat(dishController.getMissingDishes(null).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     public void get_dish_not_exists() throws DishNotFoundException {
         when(dishService.getDishById(d1.getDishID())).thenThrow(DishNotFoundException.class);
@@ -1,6 +1,7 @@
 package nl.tudelft.sem.template.order.domain.user;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -9,6 +10,7 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import nl.tudelft.sem.template.model.Dish;
 import nl.tudelft.sem.template.order.PersistentBagMock;
@@ -126,6 +128,23 @@ public class DishServiceTests {
         });
     }
 
+    @Test
+    public void get_missing_dishes_one_query() {
+        UUID missing = UUID.randomUUID();
+        List<UUID> dishIds = List.of(d1.getDishID(), missing, d1.getDishID(), d2.getDishID());
+        when(dishRepository.findExistingDishIDs(Set.of(d1.getDishID(), missing, d2.getDishID())))
+                .thenReturn(List.of(d1.getDishID(), d2.getDishID()));
+
+        assertThat(dishService.getMissingDishIDs(dishIds)).containsExactly(missing);
+        verify(dishRepository, times(1)).findExistingDishIDs(any());
+    }
+
+    @Test
+    public void get_missing_dishes_empty() {
+        assertThat(dishService.getMissingDishIDs(List.of())).isEmpty();
+        verify(dishRepository, never()).findExistingDishIDs(any());
+    }
+
     @Test
     public void get_dish_successful() throws DishNotFoundException {
         when(dishRepository.findDishByDishID(d1.getDishID())).thenReturn(Optional.ofNullable(d1));
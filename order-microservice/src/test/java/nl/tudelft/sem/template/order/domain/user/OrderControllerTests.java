@@ -7,33 +7,42 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import nl.tudelft.sem.template.model.Address;
 import nl.tudelft.sem.template.model.Dish;
 import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.OrderTotal;
 import nl.tudelft.sem.template.order.controllers.DishController;
 import nl.tudelft.sem.template.order.controllers.OrderController;
 import nl.tudelft.sem.template.order.domain.helpers.FilteringByStatus;
+import nl.tudelft.sem.template.order.domain.helpers.OrderCursor;
+import nl.tudelft.sem.template.order.domain.helpers.OrderPage;
+import nl.tudelft.sem.template.user.services.JsonParserService;
 import nl.tudelft.sem.template.user.services.UserMicroServiceService;
+import nl.tudelft.sem.template.user.services.UserRoleService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
 
 @ExtendWith(MockitoExtension.class)
 class OrderControllerTests {
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
 
     @Mock
     private transient OrderService orderService;
@@ -42,7 +51,6 @@ class OrderControllerTests {
     @Mock
     private transient DishController dishController;
 
-    @InjectMocks
     private transient OrderController orderController;
 
     transient List<UUID> listOfDishes;
@@ -59,6 +67,11 @@ class OrderControllerTests {
 
     @BeforeEach
     void setUp() {
+        UserRoleService userRoleService = new UserRoleService(userMicroServiceService, new JsonParserService(),
+                new MockEnvironment(), new SimpleMeterRegistry());
+        orderController = new OrderController(orderService, userMicroServiceService, userRoleService, dishController,
+                new OrderUnitOfWork(orderService), new OrderPayments(orderService, new MockEnvironment()));
+
         date = "1700006405000";
         a1 = new Address();
         a1.setStreet("Mekelweg 5");
@@ -209,30 +222,22 @@ class OrderControllerTests {
     void testOrderOrderIDVendorGet_successful() throws OrderNotFoundException, NullFieldException {
         UUID orderId = UUID.randomUUID();
 
-        ResponseEntity<Dish> responseDish1 = new ResponseEntity<>(d1, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish2 = new ResponseEntity<>(d2, HttpStatus.OK);
-
-        when(orderService.orderIsPaid(orderId)).thenReturn(true);
-        when(dishController.getDishByID(listOfDishes.get(0))).thenReturn(responseDish1);
-        when(dishController.getDishByID(listOfDishes.get(1))).thenReturn(responseDish2);
+        when(dishController.getMissingDishes(listOfDishes)).thenReturn(ResponseEntity.ok(Set.of()));
         when(orderService.getOrderById(orderId)).thenReturn(order1);
 
         ResponseEntity<Order> response = orderController.orderOrderIDVendorGet(orderId);
 
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
         Assertions.assertEquals(order1, response.getBody());
+        verify(orderService, times(1)).getOrderById(orderId);
     }
 
     @Test
     void testOrderOrderIDVendorGet_orderNotValid() throws OrderNotFoundException, NullFieldException {
         UUID orderId = UUID.randomUUID();
 
-        ResponseEntity<Dish> responseDish1 = new ResponseEntity<>(d1, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish2 = new ResponseEntity<>(d2, HttpStatus.OK);
-
-        when(orderService.orderIsPaid(orderId)).thenReturn(false);
-        when(dishController.getDishByID(listOfDishes.get(0))).thenReturn(responseDish1);
-        when(dishController.getDishByID(listOfDishes.get(1))).thenReturn(responseDish2);
+        order1.setOrderPaid(false);
+        when(dishController.getMissingDishes(listOfDishes)).thenReturn(ResponseEntity.ok(Set.of()));
         when(orderService.getOrderById(orderId)).thenReturn(order1);
 
         ResponseEntity<Order> response = orderController.orderOrderIDVendorGet(orderId);
@@ -241,11 +246,9 @@ class OrderControllerTests {
     }
 
     @Test
-    void testOrderOrderIDVendorGet_orderValidationBodyIsNull() throws OrderNotFoundException {
+    void testOrderOrderIDVendorGet_orderValidationBodyIsNull() {
         UUID orderId = UUID.randomUUID();
 
-        when(orderService.orderIsPaid(orderId)).thenReturn(true);
-
         ResponseEntity<Order> response = orderController.orderOrderIDVendorGet(orderId);
 
         Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -255,12 +258,7 @@ class OrderControllerTests {
     void testOrderOrderIDVendorGet_orderValidationBodyIsFalse() throws OrderNotFoundException, NullFieldException {
         UUID orderId = UUID.randomUUID();
 
-        ResponseEntity<Dish> responseDish1 = new ResponseEntity<>(d1, HttpStatus.OK);
-        ResponseEntity<Dish> responseDish2 = new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-        when(orderService.orderIsPaid(orderId)).thenReturn(true);
-        when(dishController.getDishByID(listOfDishes.get(0))).thenReturn(responseDish1);
-        when(dishController.getDishByID(listOfDishes.get(1))).thenReturn(responseDish2);
+        when(dishController.getMissingDishes(listOfDishes)).thenReturn(ResponseEntity.ok(Set.of(listOfDishes.get(1))));
         when(orderService.getOrderById(orderId)).thenReturn(order1);
 
         ResponseEntity<Order> response = orderController.orderOrderIDVendorGet(orderId);
@@ -414,7 +412,8 @@ class OrderControllerTests {
                   "userType": "Customer"
                 }""");
 
-        Assertions.assertEquals(HttpStatus.UNAUTHORIZED, orderController.getAllOrders(customerID).getStatusCode());
+        Assertions.assertEquals(HttpStatus.UNAUTHORIZED,
+                orderController.getAllOrders(customerID, null, null).getStatusCode());
         verify(userMicroServiceService, times(1)).getUserInformation(customerID);
     }
 
@@ -424,10 +423,33 @@ class OrderControllerTests {
 
         when(userMicroServiceService.getUserInformation(adminID)).thenReturn(adminJson);
 
-        Assertions.assertEquals(HttpStatus.OK, orderController.getAllOrders(adminID).getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK, orderController.getAllOrders(adminID, null, null).getStatusCode());
         verify(userMicroServiceService, times(1)).getUserInformation(adminID);
     }
 
+    @Test
+    void testGetAllOrdersPageWhenAdmin() {
+        UUID adminID = UUID.randomUUID();
+        OrderCursor cursor = OrderCursor.after(order1);
+        when(userMicroServiceService.getUserInformation(adminID)).thenReturn(adminJson);
+        when(orderService.getAllOrders(cursor, 2)).thenReturn(OrderPage.of(List.of(order2), 2));
+
+        ResponseEntity<List<Order>> response = orderController.getAllOrders(adminID, 2, cursor.encode());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(order2), response.getBody());
+        assertNull(response.getHeaders().getFirst(NEXT_CURSOR));
+    }
+
+    @Test
+    void testGetAllOrdersPageLimitTooLarge() {
+        UUID adminID = UUID.randomUUID();
+        when(userMicroServiceService.getUserInformation(adminID)).thenReturn(adminJson);
+        when(orderService.getAllOrders(OrderCursor.start(), 5000)).thenThrow(IllegalArgumentException.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, orderController.getAllOrders(adminID, 5000, null).getStatusCode());
+    }
+
     @Test
     void testGetAllOrdersCheekyUser() {
         UUID customerID = UUID.randomUUID();
@@ -444,7 +466,8 @@ class OrderControllerTests {
                   "userType": "Customer"
                 }""");
 
-        Assertions.assertEquals(HttpStatus.UNAUTHORIZED, orderController.getAllOrders(customerID).getStatusCode());
+        Assertions.assertEquals(HttpStatus.UNAUTHORIZED,
+                orderController.getAllOrders(customerID, null, null).getStatusCode());
         verify(userMicroServiceService, times(1)).getUserInformation(customerID);
     }
 
@@ -612,9 +635,22 @@ class OrderControllerTests {
     }
 
     @Test
-    void testOrderOrderIDIsPaidGet_OrderIsPaid() throws OrderNotFoundException {
+    void testFieldGettersLoadTheOrderOnce() throws OrderNotFoundException, NullFieldException, UserIDNotFoundException {
+        UUID orderId = UUID.randomUUID();
+        when(orderService.getOrderById(orderId)).thenReturn(order1);
+        when(userMicroServiceService.getUserName(order1.getCustomerID())).thenReturn("Hermione Granger");
+
+        assertEquals(order1.getSpecialRequirements(), orderController.getSpecialRequirements(orderId).getBody());
+        assertEquals(order1.getAddress(), orderController.getOrderAddress(orderId).getBody());
+        assertEquals(order1.getDate(), orderController.getOrderDate(orderId).getBody());
+        assertEquals("Hermione Granger", orderController.getCustomerName(orderId).getBody());
+        verify(orderService, times(1)).getOrderById(orderId);
+    }
+
+    @Test
+    void testOrderOrderIDIsPaidGet_OrderIsPaid() throws OrderNotFoundException, NullFieldException {
         UUID orderID = UUID.randomUUID();
-        when(orderService.orderIsPaid(orderID)).thenReturn(true);
+        when(orderService.getOrderById(orderID)).thenReturn(order1);
 
         ResponseEntity<Void> response = orderController.orderOrderIDIsPaidGet(orderID);
 
@@ -622,9 +658,9 @@ class OrderControllerTests {
     }
 
     @Test
-    void testOrderOrderIDIsPaidGet_OrderIsNotPaid() throws OrderNotFoundException {
+    void testOrderOrderIDIsPaidGet_OrderIsNotPaid() throws OrderNotFoundException, NullFieldException {
         UUID orderID = UUID.randomUUID();
-        when(orderService.orderIsPaid(orderID)).thenReturn(false);
+        when(orderService.getOrderById(orderID)).thenReturn(order1.orderPaid(false));
 
         ResponseEntity<Void> response = orderController.orderOrderIDIsPaidGet(orderID);
 
@@ -632,9 +668,9 @@ class OrderControllerTests {
     }
 
     @Test
-    void testOrderOrderIDIsPaidGet_BadRequest() throws OrderNotFoundException {
+    void testOrderOrderIDIsPaidGet_BadRequest() throws OrderNotFoundException, NullFieldException {
         UUID orderID = UUID.randomUUID();
-        when(orderService.orderIsPaid(orderID)).thenThrow(NullPointerException.class);
+        when(orderService.getOrderById(orderID)).thenReturn(order1.orderPaid(null));
 
         ResponseEntity<Void> response = orderController.orderOrderIDIsPaidGet(orderID);
 
@@ -642,9 +678,9 @@ class OrderControllerTests {
     }
 
     @Test
-    void testOrderOrderIDIsPaidGet_OrderNotFoundException() throws OrderNotFoundException {
+    void testOrderOrderIDIsPaidGet_OrderNotFoundException() throws OrderNotFoundException, NullFieldException {
         UUID orderID = UUID.randomUUID();
-        doThrow(OrderNotFoundException.class).when(orderService).orderIsPaid(orderID);
+        doThrow(OrderNotFoundException.class).when(orderService).getOrderById(orderID);
 
         ResponseEntity<Void> response = orderController.orderOrderIDIsPaidGet(orderID);
 
@@ -656,10 +692,10 @@ class OrderControllerTests {
         UUID orderID = UUID.randomUUID();
         Order order = new Order();
         order.setOrderID(orderID);
-        order.setOrderPaid(false);
-        when(orderService.orderIsPaidUpdate(orderID)).thenReturn(order);
+        order.setOrderPaid(true);
+        when(orderService.markOrderPaid(orderID)).thenReturn(order);
 
-        ResponseEntity<Order> response = orderController.updateOrderPaid(orderID);
+        ResponseEntity<Order> response = orderController.updateOrderPaid(orderID, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(order, response.getBody());
@@ -668,9 +704,9 @@ class OrderControllerTests {
     @Test
     void testPaymentWhenNotExists() throws OrderNotFoundException {
         UUID orderIDFake = UUID.randomUUID();
-        when(orderService.orderIsPaidUpdate(orderIDFake)).thenThrow(OrderNotFoundException.class);
+        when(orderService.markOrderPaid(orderIDFake)).thenThrow(OrderNotFoundException.class);
 
-        ResponseEntity<Order> response = orderController.updateOrderPaid(orderIDFake);
+        ResponseEntity<Order> response = orderController.updateOrderPaid(orderIDFake, "payment-1");
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
@@ -678,13 +714,27 @@ class OrderControllerTests {
     @Test
     void testPaymentBadRequest() throws OrderNotFoundException {
         UUID orderID = UUID.randomUUID();
-        when(orderService.orderIsPaidUpdate(orderID)).thenThrow(NullPointerException.class);
+        when(orderService.markOrderPaid(orderID)).thenThrow(NullPointerException.class);
 
-        ResponseEntity<Order> response = orderController.updateOrderPaid(orderID);
+        ResponseEntity<Order> response = orderController.updateOrderPaid(orderID, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
+    @Test
+    void testPaymentRetryWithSameKey() throws OrderNotFoundException {
+        UUID orderID = UUID.randomUUID();
+        Order order = new Order().orderID(orderID).orderPaid(true);
+        when(orderService.markOrderPaid(orderID)).thenReturn(order);
+
+        ResponseEntity<Order> first = orderController.updateOrderPaid(orderID, "payment-2");
+        ResponseEntity<Order> retry = orderController.updateOrderPaid(orderID, "payment-2");
+
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals(first.getBody(), retry.getBody());
+        verify(orderService, times(1)).markOrderPaid(orderID);
+    }
+
     @Test
     void testGetCustomerOrderHistory_NoOrdersFound() throws NoOrdersException, CustomerNotFoundException {
         UUID customerId = UUID.randomUUID();
@@ -692,7 +742,7 @@ class OrderControllerTests {
         when(orderService.getPastOrdersByCustomerID(eq(customerId),  any(FilteringByStatus.class)))
                 .thenThrow(new NoOrdersException());
 
-        var response = orderController.getCustomerOrderHistory(customerId);
+        var response = orderController.getCustomerOrderHistory(customerId, null, null);
 
         assertEquals(404, response.getStatusCodeValue());
         assertNull(response.getBody());
@@ -709,7 +759,7 @@ class OrderControllerTests {
         when(orderService.getPastOrdersByCustomerID(eq(customerId), any(FilteringByStatus.class)))
                 .thenReturn(orders);
 
-        var response = orderController.getCustomerOrderHistory(customerId);
+        var response = orderController.getCustomerOrderHistory(customerId, null, null);
 
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(orders, response.getBody());
@@ -726,12 +776,70 @@ class OrderControllerTests {
         when(orderService.getPastOrdersByCustomerID(eq(customerId), any(FilteringByStatus.class)))
                 .thenThrow(CustomerNotFoundException.class);
 
-        var response = orderController.getCustomerOrderHistory(customerId);
+        var response = orderController.getCustomerOrderHistory(customerId, null, null);
 
         assertEquals(404, response.getStatusCodeValue());
         assertNull(response.getBody());
     }
 
+    @Test
+    void testGetCustomerOrderHistory_page() throws CustomerNotFoundException {
+        UUID customerId = UUID.randomUUID();
+        when(orderService.getPastOrdersByCustomerID(customerId, OrderCursor.start(), 1))
+                .thenReturn(OrderPage.of(List.of(order1, order2), 1));
+
+        var response = orderController.getCustomerOrderHistory(customerId, 1, null);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(List.of(order1), response.getBody());
+        assertEquals(OrderCursor.after(order1).encode(), response.getHeaders().getFirst(NEXT_CURSOR));
+    }
+
+    @Test
+    void testGetVendorOrderFeed() throws VendorNotFoundException {
+        UUID vendorId = UUID.randomUUID();
+        OrderCursor since = OrderCursor.since(BigDecimal.TEN);
+        when(orderService.getOrdersOfVendor(vendorId, since, null))
+                .thenReturn(OrderPage.of(List.of(order1), 100));
+
+        var response = orderController.getVendorOrderFeed(vendorId, 10L, null, null);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(List.of(order1), response.getBody());
+        assertEquals(OrderCursor.after(order1).encode(), response.getHeaders().getFirst(NEXT_CURSOR));
+    }
+
+    @Test
+    void testGetVendorOrderFeed_noNewOrders() throws VendorNotFoundException {
+        UUID vendorId = UUID.randomUUID();
+        OrderCursor cursor = OrderCursor.after(order1);
+        when(orderService.getOrdersOfVendor(vendorId, cursor, 5)).thenReturn(OrderPage.of(List.of(), 5));
+
+        var response = orderController.getVendorOrderFeed(vendorId, 10L, 5, cursor.encode());
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(List.of(), response.getBody());
+        assertEquals(cursor.encode(), response.getHeaders().getFirst(NEXT_CURSOR));
+    }
+
+    @Test
+    void testGetVendorOrderFeed_vendorNotFound() throws VendorNotFoundException {
+        UUID vendorId = UUID.randomUUID();
+        when(orderService.getOrdersOfVendor(vendorId, OrderCursor.start(), null))
+                .thenThrow(VendorNotFoundException.class);
+
+        var response = orderController.getVendorOrderFeed(vendorId, null, null, null);
+
+        assertEquals(404, response.getStatusCodeValue());
+    }
+
+    @Test
+    void testGetVendorOrderFeed_badRequest() {
+        assertEquals(400, orderController.getVendorOrderFeed(UUID.randomUUID(), null, null, "not a cursor!")
+                .getStatusCodeValue());
+        verifyNoInteractions(orderService);
+    }
+
     @Test
     void testGetCustomerOrderHistory_badRequest() throws NoOrdersException, CustomerNotFoundException {
         UUID customerId = UUID.randomUUID();
@@ -743,7 +851,7 @@ class OrderControllerTests {
         when(orderService.getPastOrdersByCustomerID(eq(customerId), any(FilteringByStatus.class)))
                 .thenThrow(NullPointerException.class);
 
-        var response = orderController.getCustomerOrderHistory(customerId);
+        var response = orderController.getCustomerOrderHistory(customerId, null, null);
 
         assertEquals(400, response.getStatusCodeValue());
         assertNull(response.getBody());
@@ -755,6 +863,44 @@ class OrderControllerTests {
         Assertions.assertNotNull(orderController.orderOrderIDTotalCostGet(randomID));
     }
 
+    @Test
+    void testTotalCost() throws OrderNotFoundException {
+        UUID orderID = UUID.randomUUID();
+        when(orderService.getOrderTotal(orderID)).thenReturn(15.0f);
+
+        ResponseEntity<Float> response = orderController.orderOrderIDTotalCostGet(orderID);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(15.0f, response.getBody());
+    }
+
+    @Test
+    void testTotalCostOrderNotFound() throws OrderNotFoundException {
+        UUID orderID = UUID.randomUUID();
+        when(orderService.getOrderTotal(orderID)).thenThrow(new OrderNotFoundException(orderID));
+
+        assertEquals(HttpStatus.NOT_FOUND, orderController.orderOrderIDTotalCostGet(orderID).getStatusCode());
+    }
+
+    @Test
+    void testTotalCosts() {
+        List<UUID> orderIDs = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<OrderTotal> totals = List.of(new OrderTotal().orderID(orderIDs.get(0)).totalCost(3.5f));
+        when(orderService.getOrderTotals(orderIDs)).thenReturn(totals);
+
+        ResponseEntity<List<OrderTotal>> response = orderController.orderTotalCostsPost(orderIDs);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(totals, response.getBody());
+    }
+
+    @Test
+    void testTotalCostsUnexpectedException() {
+        when(orderService.getOrderTotals(null)).thenThrow(NullPointerException.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, orderController.orderTotalCostsPost(null).getStatusCode());
+    }
+
     @Test
     void deleteOrderByIdByCustomer() {
         UUID customerID = UUID.randomUUID();
@@ -1017,7 +1163,7 @@ class OrderControllerTests {
     }
 
     @Test
-    void updateStatusOfOrderSuccessful() throws OrderNotFoundException, InvalidOrderStatusException {
+    void updateStatusOfOrderSuccessful() throws Exception {
 
         ResponseEntity<Void> response = orderController.updateStatusOfOrderById(order1.getOrderID(), testStatus);
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -1025,7 +1171,7 @@ class OrderControllerTests {
     }
 
     @Test
-    void updateStatusOfOrderNotFound() throws OrderNotFoundException, InvalidOrderStatusException {
+    void updateStatusOfOrderNotFound() throws Exception {
 
         doThrow(OrderNotFoundException.class).when(orderService)
                 .updateStatusOfOrderById(order1.getOrderID(), testStatus);
@@ -1035,7 +1181,7 @@ class OrderControllerTests {
     }
 
     @Test
-    void updateStatusOfOrderInvalidStatus() throws OrderNotFoundException, InvalidOrderStatusException {
+    void updateStatusOfOrderInvalidStatus() throws Exception {
 
         doThrow(InvalidOrderStatusException.class).when(orderService)
                 .updateStatusOfOrderById(order1.getOrderID(), testStatus);
@@ -1045,7 +1191,17 @@ class OrderControllerTests {
     }
 
     @Test
-    void updateStatusOfOrderException() throws OrderNotFoundException, InvalidOrderStatusException {
+    void updateStatusOfOrderConflict() throws Exception {
+
+        doThrow(OrderStatusConflictException.class).when(orderService)
+                .updateStatusOfOrderById(order1.getOrderID(), testStatus);
+        ResponseEntity<Void> response = orderController.updateStatusOfOrderById(order1.getOrderID(), testStatus);
+        Assertions.assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+
+    }
+
+    @Test
+    void updateStatusOfOrderException() throws Exception {
 
         doThrow(RuntimeException.class).when(orderService)
                 .updateStatusOfOrderById(order1.getOrderID(), testStatus);
@@ -0,0 +1,72 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+import nl.tudelft.sem.template.model.Order;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPaymentsTest {
+    private static final String KEY = "payment-1";
+
+    @Mock
+    transient OrderService orderService;
+
+    transient OrderPayments payments;
+    transient Order order;
+
+    @BeforeEach
+    void setup() {
+        payments = new OrderPayments(orderService, new MockEnvironment());
+        order = new Order().orderID(UUID.randomUUID()).orderPaid(true);
+    }
+
+    @Test
+    void payWithoutKeyPaysEveryTime() throws Exception {
+        when(orderService.markOrderPaid(order.getOrderID())).thenReturn(order);
+
+        assertThat(payments.pay(order.getOrderID(), null)).isEqualTo(order);
+        assertThat(payments.pay(order.getOrderID(), null)).isEqualTo(order);
+
+        verify(orderService, times(2)).markOrderPaid(order.getOrderID());
+    }
+
+    @Test
+    void retryWithSameKeyIsAnsweredFromMemory() throws Exception {
+        when(orderService.markOrderPaid(order.getOrderID())).thenReturn(order);
+
+        payments.pay(order.getOrderID(), KEY);
+        assertThat(payments.pay(order.getOrderID(), KEY)).isEqualTo(order);
+
+        verify(orderService, times(1)).markOrderPaid(order.getOrderID());
+    }
+
+    @Test
+    void keysArePerOrder() throws Exception {
+        Order other = new Order().orderID(UUID.randomUUID()).orderPaid(true);
+        when(orderService.markOrderPaid(order.getOrderID())).thenReturn(order);
+        when(orderService.markOrderPaid(other.getOrderID())).thenReturn(other);
+
+        assertThat(payments.pay(order.getOrderID(), KEY)).isEqualTo(order);
+        assertThat(payments.pay(other.getOrderID(), KEY)).isEqualTo(other);
+    }
+
+    @Test
+    void failedPaymentIsNotRemembered() throws Exception {
+        when(orderService.markOrderPaid(order.getOrderID()))
+                .thenThrow(new OrderNotFoundException(order.getOrderID())).thenReturn(order);
+
+        Assertions.assertThrows(OrderNotFoundException.class, () -> payments.pay(order.getOrderID(), KEY));
+        assertThat(payments.pay(order.getOrderID(), KEY)).isEqualTo(order);
+    }
+}
@@ -0,0 +1,112 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.order.domain.helpers.OrderCursor;
+import nl.tudelft.sem.template.order.domain.helpers.OrderPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+public class OrderSegmentsTest {
+    private transient List<Order> orders;
+    private transient List<String> queries;
+    private transient OrderSegments segments;
+
+    /**
+     * Stores two orders without a date and three with a date, two of which have the same date, and answers the
+     * queries of the segments from them like the database would.
+     */
+    @BeforeEach
+    public void setup() {
+        orders = List.of(new Order().orderID(UUID.randomUUID()), new Order().orderID(UUID.randomUUID()),
+                new Order().orderID(UUID.randomUUID()).date(BigDecimal.ONE),
+                new Order().orderID(UUID.randomUUID()).date(BigDecimal.TEN),
+                new Order().orderID(UUID.randomUUID()).date(BigDecimal.TEN));
+        queries = new ArrayList<>();
+        segments = new OrderSegments() {
+            @Override
+            public List<Order> withoutDate(Pageable pageable) {
+                return query("withoutDate", o -> o.getDate() == null, pageable);
+            }
+
+            @Override
+            public List<Order> withoutDateAfter(UUID afterID, Pageable pageable) {
+                return query("withoutDateAfter", o -> o.getDate() == null && o.getOrderID().compareTo(afterID) > 0,
+                        pageable);
+            }
+
+            @Override
+            public List<Order> dated(Pageable pageable) {
+                return query("dated", o -> o.getDate() != null, pageable);
+            }
+
+            @Override
+            public List<Order> datedSince(BigDecimal since, Pageable pageable) {
+                return query("datedSince", o -> o.getDate() != null && o.getDate().compareTo(since) > 0, pageable);
+            }
+
+            @Override
+            public List<Order> datedAfter(BigDecimal afterDate, UUID afterID, Pageable pageable) {
+                return query("datedAfter", o -> o.getDate() != null && (o.getDate().compareTo(afterDate) > 0
+                        || o.getDate().equals(afterDate) && o.getOrderID().compareTo(afterID) > 0), pageable);
+            }
+        };
+    }
+
+    private List<Order> query(String name, Predicate<Order> after, Pageable pageable) {
+        queries.add(name);
+        return sorted().stream().filter(after).limit(pageable.getPageSize()).collect(Collectors.toList());
+    }
+
+    private List<Order> sorted() {
+        return orders.stream()
+                .sorted(Comparator.comparing(Order::getDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(Order::getOrderID))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testPagesReadEveryOrderOnce() {
+        OrderPage page = OrderPage.of(segments.read(OrderCursor.start(), 2), 1);
+        List<Order> read = new ArrayList<>(page.getOrders());
+        while (page.getNext().isPresent()) {
+            page = OrderPage.of(segments.read(page.getNext().get(), 2), 1);
+            read.addAll(page.getOrders());
+        }
+
+        assertThat(read).containsExactlyElementsOf(sorted());
+    }
+
+    @Test
+    public void testFirstPageContinuesWithTheDatedOrders() {
+        assertThat(segments.read(OrderCursor.start(), 3)).containsExactlyElementsOf(sorted().subList(0, 3));
+        assertThat(queries).containsExactly("withoutDate", "dated");
+    }
+
+    @Test
+    public void testFullPageWithoutDate() {
+        assertThat(segments.read(OrderCursor.start(), 2)).containsExactlyElementsOf(sorted().subList(0, 2));
+        assertThat(queries).containsExactly("withoutDate");
+    }
+
+    @Test
+    public void testAfterDatedOrderIsOneQuery() {
+        assertThat(segments.read(OrderCursor.after(sorted().get(3)), 2)).containsExactly(sorted().get(4));
+        assertThat(queries).containsExactly("datedAfter");
+    }
+
+    @Test
+    public void testSinceIsOneQuery() {
+        assertThat(segments.read(OrderCursor.since(BigDecimal.ONE), 5)).containsExactlyElementsOf(sorted().subList(3, 5));
+        assertThat(queries).containsExactly("datedSince");
+    }
+}
@@ -1,23 +1,33 @@
 package nl.tudelft.sem.template.order.domain.user;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.Random;
 import java.util.UUID;
 import nl.tudelft.sem.template.model.Address;
 import nl.tudelft.sem.template.model.Dish;
 import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.OrderTotal;
+import nl.tudelft.sem.template.model.PopularItem;
+import nl.tudelft.sem.template.model.Revenue;
+import nl.tudelft.sem.template.model.UniqueCustomers;
 import nl.tudelft.sem.template.order.PersistentBagMock;
+import nl.tudelft.sem.template.order.domain.analytics.RevenueBucketId;
 import nl.tudelft.sem.template.order.domain.helpers.FilteringParam;
+import nl.tudelft.sem.template.order.domain.helpers.OrderCursor;
+import nl.tudelft.sem.template.order.domain.helpers.OrderPage;
+import nl.tudelft.sem.template.order.domain.helpers.TimeWindow;
 import nl.tudelft.sem.template.order.domain.user.repositories.DishRepository;
 import nl.tudelft.sem.template.order.domain.user.repositories.OrderRepository;
 import nl.tudelft.sem.template.user.services.UserMicroServiceService;
@@ -26,16 +36,19 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 class OrderServiceTests {
 
     transient Dish d1;
-    transient Dish d1CopyResult;
     transient Dish d2;
     transient Address a1;
     transient Address a2;
@@ -51,6 +64,18 @@ class OrderServiceTests {
     private transient DishRepository dishRepository;
     @Mock
     private transient UserMicroServiceService userMicroServiceService;
+    @Mock
+    private transient OrderVolumeCounters orderVolumeCounters;
+    @Mock
+    private transient RevenueBuckets revenueBuckets;
+    @Mock
+    private transient VendorSketches vendorSketches;
+    @Mock
+    private transient VendorAnalyticsCache analyticsCache;
+    @Mock
+    private transient OrderLines orderLines;
+    @Mock
+    private transient PlatformTransactionManager transactionManager;
     @InjectMocks
     private transient OrderService orderService;
 
@@ -76,20 +101,6 @@ class OrderServiceTests {
         d1.setListOfIngredients(pbIngredients);
         d1.setVendorID(UUID.randomUUID());
 
-        d1CopyResult = new Dish();
-        d1CopyResult.setDishID(d1.getDishID());
-        d1CopyResult.setDescription("very tasty");
-        d1CopyResult.setImage("img");
-        d1CopyResult.setName("Pizza");
-        d1CopyResult.setPrice(5.0f);
-        d1CopyResult.setListOfAllergies(allergies);
-        ingredients = new ArrayList<>();
-        ingredients.add("Cheese");
-        ingredients.add("Salami");
-        ingredients.add("Tomato Sauce");
-        d1CopyResult.setListOfIngredients(ingredients);
-        d1CopyResult.setVendorID(d1.getVendorID());
-
         d2 = new Dish();
         d2.setDishID(d1.getVendorID());
         d2.setDescription("very tasty");
@@ -113,9 +124,7 @@ class OrderServiceTests {
         a1.setCountry("Netherlands");
         a1.setZip("2628CC");
 
-        List<UUID> listOfDishes1 = List.of(d1.getDishID(), d2.getDishID());
-        PersistentBag pbDishes = new PersistentBagMock();
-        pbDishes.addAll(listOfDishes1);
+        final List<UUID> listOfDishes1 = List.of(d1.getDishID(), d2.getDishID());
 
         order1 = new Order();
         order1.setOrderID(UUID.randomUUID());
@@ -123,7 +132,7 @@ class OrderServiceTests {
         order1.setCustomerID(UUID.randomUUID());
         order1.setAddress(a1);
         order1.setDate(new BigDecimal("1700007405000"));
-        order1.setListOfDishes(pbDishes);
+        order1.setListOfDishes(new ArrayList<>(listOfDishes1));
         order1.setSpecialRequirements("Knock on the door");
         order1.setOrderPaid(true);
         order1.setStatus(Order.StatusEnum.DELIVERED);
@@ -204,6 +213,15 @@ class OrderServiceTests {
         Order savedOrder = orderService.createOrder(order1);
 
         Assertions.assertEquals(savedOrder, order1CopyResult);
+        Mockito.verify(orderVolumeCounters).add(order1);
+        Mockito.verify(vendorSketches).addOrder(order1);
+        Mockito.verify(analyticsCache).invalidate(order1.getVendorID());
+        // the user microservice is asked before a connection is taken for the transaction
+        InOrder inOrder = Mockito.inOrder(userMicroServiceService, transactionManager, orderRepository);
+        inOrder.verify(userMicroServiceService).checkVendorExists(order1.getVendorID());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(orderRepository).save(order1);
+        inOrder.verify(transactionManager).commit(any());
 
     }
 
@@ -226,6 +244,7 @@ class OrderServiceTests {
 
         Assertions.assertThrows(VendorNotFoundException.class,
                 () -> orderService.createOrder(order1));
+        verifyNoInteractions(transactionManager);
     }
 
     @Test
@@ -269,6 +288,7 @@ class OrderServiceTests {
         Assertions.assertTrue(orderList.contains(order1CopyResult));
         Assertions.assertTrue(orderList.contains(order2));
         Assertions.assertEquals(2, orderList.size());
+        Mockito.verify(orderLines).project(orderList);
 
     }
 
@@ -280,6 +300,109 @@ class OrderServiceTests {
         Assertions.assertThrows(NoOrdersException.class, () -> orderService.getAllOrders());
     }
 
+    @Test
+    void testGetAllOrdersPage() {
+        OrderCursor cursor = OrderCursor.after(order2);
+        when(orderRepository.findOrdersAfter(order2.getDate(), order2.getOrderID(), PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(order1, order2));
+
+        OrderPage page = orderService.getAllOrders(cursor, 1);
+
+        assertThat(page.getOrders()).containsExactly(order1CopyResult);
+        Mockito.verify(orderLines).project(page.getOrders());
+        assertThat(page.getNext()).contains(OrderCursor.after(order1));
+    }
+
+    @Test
+    void testGetAllOrdersPageDefaultSize() {
+        when(orderRepository.findDatedOrders(PageRequest.of(0, OrderService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(List.of(order2));
+
+        OrderPage page = orderService.getAllOrders(OrderCursor.start(), null);
+
+        assertThat(page.getOrders()).containsExactly(order2);
+        Mockito.verify(orderLines).project(page.getOrders());
+        assertThat(page.getNext()).isEmpty();
+    }
+
+    @Test
+    void testGetAllOrdersPageInvalidLimit() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> orderService.getAllOrders(OrderCursor.start(), 0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> orderService.getAllOrders(OrderCursor.start(), OrderService.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void testGetPastOrdersPage() throws CustomerNotFoundException {
+        when(userMicroServiceService.checkUserExists(order2.getCustomerID())).thenReturn(true);
+        when(orderRepository.findDatedOrdersOfCustomerWithStatus(order2.getCustomerID(), Order.StatusEnum.DELIVERED,
+                PageRequest.of(0, 11))).thenReturn(List.of(order2));
+
+        OrderPage page = orderService.getPastOrdersByCustomerID(order2.getCustomerID(), OrderCursor.start(), 10);
+
+        assertThat(page.getOrders()).containsExactly(order2);
+        Mockito.verify(orderLines).project(page.getOrders());
+    }
+
+    @Test
+    void testGetPastOrdersPageCustomerNotFound() {
+        Assertions.assertThrows(CustomerNotFoundException.class,
+                () -> orderService.getPastOrdersByCustomerID(order2.getCustomerID(), OrderCursor.start(), 10));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void testGetOrdersFromCustomerAtVendorPage() throws Exception {
+        TimeWindow window = TimeWindow.of(0L, 1800000000000L, null);
+        when(userMicroServiceService.checkVendorExists(order2.getVendorID())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(order2.getCustomerID())).thenReturn(true);
+        when(orderRepository.findDatedOrdersOfCustomerAtVendor(order2.getVendorID(), order2.getCustomerID(), false,
+                window.getFrom(), window.getTo(), PageRequest.of(0, 11))).thenReturn(List.of(order2));
+
+        OrderPage page = orderService.getOrdersFromCustomerAtVendor(order2.getVendorID(), order2.getCustomerID(),
+                window, OrderCursor.start(), 10);
+
+        assertThat(page.getOrders()).containsExactly(order2);
+        Mockito.verify(orderLines).project(page.getOrders());
+    }
+
+    @Test
+    void testGetOrdersOfVendorPage() throws VendorNotFoundException {
+        OrderCursor cursor = OrderCursor.since(BigDecimal.ONE);
+        when(userMicroServiceService.checkVendorExists(order2.getVendorID())).thenReturn(true);
+        when(orderRepository.findOrdersOfVendorSince(order2.getVendorID(), BigDecimal.ONE, PageRequest.of(0, 11)))
+                .thenReturn(List.of(order2));
+
+        OrderPage page = orderService.getOrdersOfVendor(order2.getVendorID(), cursor, 10);
+
+        assertThat(page.getOrders()).containsExactly(order2);
+        assertThat(page.getNextOrLast(cursor)).isEqualTo(OrderCursor.after(order2));
+        Mockito.verify(orderLines).project(page.getOrders());
+    }
+
+    @Test
+    void testGetOrdersOfVendorPageDefaultSize() throws VendorNotFoundException {
+        when(userMicroServiceService.checkVendorExists(order2.getVendorID())).thenReturn(true);
+        when(orderRepository.findDatedOrdersOfVendor(order2.getVendorID(),
+                PageRequest.of(0, OrderService.DEFAULT_PAGE_SIZE + 1))).thenReturn(List.of(order2));
+
+        OrderPage page = orderService.getOrdersOfVendor(order2.getVendorID(), OrderCursor.start(), null);
+
+        assertThat(page.getOrders()).containsExactly(order2);
+        Mockito.verify(orderLines).project(page.getOrders());
+    }
+
+    @Test
+    void testGetOrdersOfVendorPageVendorNotFound() {
+        Assertions.assertThrows(VendorNotFoundException.class,
+                () -> orderService.getOrdersOfVendor(order2.getVendorID(), OrderCursor.start(), null));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> orderService.getOrdersOfVendor(order2.getVendorID(), OrderCursor.start(), 0));
+        verifyNoInteractions(orderRepository);
+    }
+
     @Test
     void testGetOrderByIdSuccessful() throws OrderNotFoundException, NullFieldException {
 
@@ -318,12 +441,71 @@ class OrderServiceTests {
         order1.setRating(2);
 
         when(orderService.checkUUIDIsUnique(order1.getOrderID())).thenReturn(true);
+        when(orderRepository.findOrderForUpdate(order1.getOrderID()))
+                .thenReturn(Optional.of(new Order().status(order1.getStatus())));
         when(orderRepository.save(order1)).thenReturn(order1);
 
         Order edited = orderService.editOrderByID(order1.getOrderID(), order1);
         order1CopyResult.setRating(2);
         Assertions.assertEquals(edited, order1CopyResult);
+        Mockito.verify(orderVolumeCounters).replace(new Order(), order1);
+    }
+
+    @Test
+    void testEditOrderByIDMovesCountedOrder() throws OrderNotFoundException, NullFieldException,
+            VendorNotFoundException, CustomerNotFoundException {
+        when(userMicroServiceService.checkVendorExists(order1.getVendorID())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(order1.getCustomerID())).thenReturn(true);
+        when(orderService.checkUUIDIsUnique(order1.getOrderID())).thenReturn(true);
+        when(orderRepository.findOrderForUpdate(order1.getOrderID())).thenReturn(Optional.of(order1));
+        BigDecimal previousDate = order1.getDate();
+        Order edited = new Order().orderID(order1.getOrderID()).vendorID(order1.getVendorID())
+                .customerID(order1.getCustomerID()).date(previousDate.add(BigDecimal.valueOf(3_600_000)))
+                .listOfDishes(new ArrayList<>());
+        when(orderRepository.save(edited)).thenReturn(edited);
+
+        orderService.editOrderByID(order1.getOrderID(), edited);
+
+        Mockito.verify(orderVolumeCounters)
+                .replace(new Order().vendorID(order1.getVendorID()).date(previousDate), edited);
+        Mockito.verify(analyticsCache, Mockito.times(2)).invalidate(order1.getVendorID());
+
+    }
+
+    @Test
+    void testEditOrderByIDInvalidatesBothVendors() throws OrderNotFoundException, NullFieldException,
+            VendorNotFoundException, CustomerNotFoundException {
+        UUID newVendor = UUID.randomUUID();
+        when(userMicroServiceService.checkVendorExists(newVendor)).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(order1.getCustomerID())).thenReturn(true);
+        when(orderService.checkUUIDIsUnique(order1.getOrderID())).thenReturn(true);
+        when(orderRepository.findOrderForUpdate(order1.getOrderID())).thenReturn(Optional.of(order1));
+        Order edited = new Order().orderID(order1.getOrderID()).vendorID(newVendor)
+                .customerID(order1.getCustomerID()).listOfDishes(new ArrayList<>());
+        when(orderRepository.save(edited)).thenReturn(edited);
+
+        orderService.editOrderByID(order1.getOrderID(), edited);
 
+        Mockito.verify(analyticsCache).invalidate(order1.getVendorID());
+        Mockito.verify(analyticsCache).invalidate(newVendor);
+    }
+
+    @Test
+    void testEditOrderByIDKeepsStoredStatus() throws OrderNotFoundException, NullFieldException,
+            VendorNotFoundException, CustomerNotFoundException {
+        when(userMicroServiceService.checkVendorExists(order1.getVendorID())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(order1.getCustomerID())).thenReturn(true);
+        when(orderService.checkUUIDIsUnique(order1.getOrderID())).thenReturn(true);
+        Order stored = new Order().orderID(order1.getOrderID()).vendorID(order1.getVendorID())
+                .status(Order.StatusEnum.PENDING);
+        when(orderRepository.findOrderForUpdate(order1.getOrderID())).thenReturn(Optional.of(stored));
+        Order edited = new Order().orderID(order1.getOrderID()).vendorID(order1.getVendorID())
+                .customerID(order1.getCustomerID()).status(Order.StatusEnum.DELIVERED).listOfDishes(new ArrayList<>());
+        when(orderRepository.save(edited)).thenReturn(edited);
+
+        assertThat(orderService.editOrderByID(order1.getOrderID(), edited).getStatus())
+                .isEqualTo(Order.StatusEnum.PENDING);
+        Mockito.verify(orderRepository).save(argThat(o -> o.getStatus() == Order.StatusEnum.PENDING));
     }
 
     @Test
@@ -375,10 +557,15 @@ class OrderServiceTests {
     void testDeleteOrderByIDSuccessful() throws OrderNotFoundException {
 
         when(orderService.checkUUIDIsUnique(order1.getOrderID())).thenReturn(true);
+        when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.of(order1));
 
         orderService.deleteOrderByID(order1.getOrderID());
 
         Mockito.verify(orderRepository, Mockito.times(1)).deleteById(order1.getOrderID());
+        Mockito.verify(orderVolumeCounters).remove(order1);
+        Mockito.verify(revenueBuckets).contributionOf(order1.getOrderID());
+        Mockito.verify(revenueBuckets).replace(Mockito.any(), Mockito.eq(RevenueBuckets.Contribution.NONE));
+        Mockito.verify(analyticsCache).invalidate(order1.getVendorID());
 
     }
 
@@ -474,6 +661,7 @@ class OrderServiceTests {
         List<Order> result = orderService.getOrdersFromCustomerAtVendor(order1.getVendorID(), order1.getCustomerID());
 
         assertThat(result).isEqualTo(List.of(order1CopyResult, order2));
+        Mockito.verify(orderLines).project(result);
     }
 
     @Test
@@ -502,24 +690,128 @@ class OrderServiceTests {
     }
 
     @Test
-    void getDishesSortedByVolume_VendorDoesNotExist() {
+    void getOrderTotal() throws OrderNotFoundException {
+        when(orderRepository.sumDishPricesOfOrders(List.of(order1.getOrderID())))
+                .thenReturn(List.of(priceSum(order1.getOrderID(), 15.0)));
+
+        assertThat(orderService.getOrderTotal(order1.getOrderID())).isEqualTo(15.0f);
+    }
+
+    @Test
+    void getOrderTotal_NoDishes() throws OrderNotFoundException {
+        when(orderRepository.sumDishPricesOfOrders(List.of(order1.getOrderID())))
+                .thenReturn(List.of(priceSum(order1.getOrderID(), null)));
+
+        assertThat(orderService.getOrderTotal(order1.getOrderID())).isZero();
+    }
+
+    @Test
+    void getOrderTotal_OrderNotFound() {
+        when(orderRepository.sumDishPricesOfOrders(List.of(order1.getOrderID()))).thenReturn(List.of());
+
+        Assertions.assertThrows(OrderNotFoundException.class, () -> orderService.getOrderTotal(order1.getOrderID()));
+    }
+
+    @Test
+    void getOrderTotals_KeepsRequestOrderAndSkipsUnknownOrders() {
+        UUID unknown = UUID.randomUUID();
+        when(orderRepository.sumDishPricesOfOrders(List.of(order2.getOrderID(), unknown, order1.getOrderID())))
+                .thenReturn(List.of(priceSum(order1.getOrderID(), 5.0), priceSum(order2.getOrderID(), 7.5)));
+
+        List<OrderTotal> totals = orderService.getOrderTotals(
+                List.of(order2.getOrderID(), unknown, order1.getOrderID(), order2.getOrderID()));
+
+        assertThat(totals).containsExactly(
+                new OrderTotal().orderID(order2.getOrderID()).totalCost(7.5f),
+                new OrderTotal().orderID(order1.getOrderID()).totalCost(5.0f));
+    }
+
+    @Test
+    void getOrderTotals_QueriesInBatches() {
+        List<UUID> orderIDs = new ArrayList<>();
+        for (int i = 0; i < OrderService.TOTALS_BATCH_SIZE + 1; i++) {
+            orderIDs.add(UUID.randomUUID());
+        }
+
+        assertThat(orderService.getOrderTotals(orderIDs)).isEmpty();
+        verify(orderRepository).sumDishPricesOfOrders(orderIDs.subList(0, OrderService.TOTALS_BATCH_SIZE));
+        verify(orderRepository).sumDishPricesOfOrders(List.of(orderIDs.get(OrderService.TOTALS_BATCH_SIZE)));
+    }
+
+    private static OrderRepository.OrderPriceSum priceSum(UUID orderID, Double total) {
+        return new OrderRepository.OrderPriceSum() {
+            @Override
+            public UUID getOrderID() {
+                return orderID;
+            }
+
+            @Override
+            public Double getTotal() {
+                return total;
+            }
+        };
+    }
+
+    @Test
+    void getPopularItems_VendorDoesNotExist() {
         UUID nonExistingVendorID = UUID.randomUUID();
 
         when(userMicroServiceService.checkVendorExists(nonExistingVendorID)).thenReturn(false);
 
         Assertions.assertThrows(VendorNotFoundException.class,
-                () -> orderService.getDishesSortedByVolume(nonExistingVendorID));
+                () -> orderService.getPopularItems(nonExistingVendorID, null));
     }
 
     @Test
-    void getDishesSortedByVolume_DishesFound() throws VendorNotFoundException, DishNotFoundException {
+    void getPopularItems_LimitTooSmall() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> orderService.getPopularItems(order1.getVendorID(), 0));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void getPopularItems_DishesFound() throws VendorNotFoundException {
         when(userMicroServiceService.checkVendorExists(order1.getVendorID())).thenReturn(true);
-        when(orderRepository.countDishesOccurrencesFromVendor(order1.getVendorID())).thenReturn(List.of(d2, d1));
+        when(orderRepository.countDishVolumesFromVendor(order1.getVendorID(), PageRequest.of(0, 2)))
+                .thenReturn(List.of(dishVolume(d2, 3), dishVolume(d1, 1)));
+
+        List<PopularItem> res = orderService.getPopularItems(order1.getVendorID(), 2);
+        assertThat(res).containsExactly(
+                new PopularItem().dishID(d2.getDishID()).name(d2.getName()).price(d2.getPrice()).count(3L),
+                new PopularItem().dishID(d1.getDishID()).name(d1.getName()).price(d1.getPrice()).count(1L));
+    }
+
+    @Test
+    void getPopularItems_WithoutLimit() throws VendorNotFoundException {
+        when(userMicroServiceService.checkVendorExists(order1.getVendorID())).thenReturn(true);
+        when(orderRepository.countDishVolumesFromVendor(order1.getVendorID(), Pageable.unpaged()))
+                .thenReturn(List.of(dishVolume(d1, 1)));
+
+        assertThat(orderService.getPopularItems(order1.getVendorID(), null)).hasSize(1);
+    }
+
+    private static OrderRepository.DishVolume dishVolume(Dish dish, long count) {
+        return new OrderRepository.DishVolume() {
+            @Override
+            public UUID getDishID() {
+                return dish.getDishID();
+            }
+
+            @Override
+            public String getName() {
+                return dish.getName();
+            }
+
+            @Override
+            public Float getPrice() {
+                return dish.getPrice();
+            }
 
-        List<Dish> res = orderService.getDishesSortedByVolume(order1.getVendorID());
-        assertThat(res.size()).isEqualTo(2);
-        assertThat(res.get(0)).isEqualTo(d2);
-        assertThat(res.get(1)).isEqualTo(d1CopyResult);
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
     }
 
     @Test
@@ -533,37 +825,20 @@ class OrderServiceTests {
     @Test
     void getOrderVolumeByTime_NoOrders() throws VendorNotFoundException, NoOrdersException {
         when(userMicroServiceService.checkVendorExists(order1.getVendorID())).thenReturn(true);
-        when(orderRepository.findOrdersByVendorID(order1.getVendorID())).thenReturn(Optional.empty());
+        when(orderVolumeCounters.getVolumes(order1.getVendorID())).thenReturn(Optional.empty());
 
         Assertions.assertThrows(NoOrdersException.class, () -> orderService.getOrderVolumeByTime(order1.getVendorID()));
     }
 
     @Test
-    void getOrderVolumeByTime_LargeTest() throws VendorNotFoundException, NoOrdersException {
-        int[] time = new int[24];
-        List<Order> orders = new ArrayList<>();
-        for (int i = 0; i < 1000; i++) {
-            Random r = new Random();
-            long cur = r.nextInt();
-            Order o = new Order();
-            o.setDate(BigDecimal.valueOf(cur));
-            o.setListOfDishes(new ArrayList<>());
-            orders.add(o);
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTimeInMillis(cur);
-            int hours = calendar.get(Calendar.HOUR_OF_DAY);
-            time[hours] += 1;
-        }
-        List<Integer> correctTime = new ArrayList<>();
-        for (int j : time) {
-            correctTime.add(j);
-        }
-
+    void getOrderVolumeByTime_ReadsCounters() throws VendorNotFoundException, NoOrdersException {
+        List<Integer> volumes = new ArrayList<>(Collections.nCopies(24, 0));
+        volumes.set(13, 7);
         when(userMicroServiceService.checkVendorExists(order1.getVendorID())).thenReturn(true);
-        when(orderRepository.findOrdersByVendorID(order1.getVendorID())).thenReturn(Optional.of(orders));
+        when(orderVolumeCounters.getVolumes(order1.getVendorID())).thenReturn(Optional.of(volumes));
 
-        List<Integer> volume = orderService.getOrderVolumeByTime(order1.getVendorID());
-        assertThat(volume).isEqualTo(correctTime);
+        assertThat(orderService.getOrderVolumeByTime(order1.getVendorID())).isEqualTo(volumes);
+        Mockito.verify(orderRepository, Mockito.never()).findOrdersByVendorID(order1.getVendorID());
     }
 
     @Test
@@ -590,6 +865,7 @@ class OrderServiceTests {
         List<Order> assertion = orderService.getPastOrdersByCustomerID(order1.getCustomerID(), filteringParam);
         Assertions.assertEquals(assertion.get(0), order3);
         Assertions.assertEquals(assertion.size(), 1);
+        Mockito.verify(orderLines).project(assertion);
 
     }
 
@@ -627,27 +903,96 @@ class OrderServiceTests {
     }
 
     @Test
-    void testOrderIsPaidUpdateIdNotFound() {
+    void testMarkOrderPaidIdNotFound() {
         UUID randomId = UUID.randomUUID();
         when(orderRepository.findOrderByOrderID(randomId)).thenReturn(Optional.empty());
-        Assertions.assertThrows(OrderNotFoundException.class, () -> orderService.orderIsPaidUpdate(randomId));
+        Assertions.assertThrows(OrderNotFoundException.class, () -> orderService.markOrderPaid(randomId));
+        verifyNoInteractions(revenueBuckets, analyticsCache);
     }
 
     @Test
-    void testOrderIsPaidUpdateTrueToFalseCase() throws OrderNotFoundException {
+    void testMarkOrderPaidAlreadyPaid() throws OrderNotFoundException {
+        when(orderRepository.markOrderPaid(order1.getOrderID())).thenReturn(0);
         when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.of(order1));
-        Order o1 = orderService.orderIsPaidUpdate(order1.getOrderID());
-        Assertions.assertFalse(o1.getOrderPaid());
-        Mockito.verify(orderRepository, Mockito.times(1)).updateOrderPayment(false, order1.getOrderID());
+        Order o1 = orderService.markOrderPaid(order1.getOrderID());
+        Assertions.assertTrue(o1.getOrderPaid());
+        Mockito.verify(orderRepository, Mockito.never()).findOrderForUpdate(any());
+        verifyNoInteractions(revenueBuckets, analyticsCache);
     }
 
     @Test
-    void testOrderIsPaidUpdateFalseToTrueCase() throws OrderNotFoundException {
-        order1.setOrderPaid(false);
+    void testMarkOrderPaidNotPaid() throws OrderNotFoundException {
+        when(orderRepository.markOrderPaid(order1.getOrderID())).thenReturn(1);
         when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.of(order1));
-        Order o1 = orderService.orderIsPaidUpdate(order1.getOrderID());
+        Order o1 = orderService.markOrderPaid(order1.getOrderID());
         Assertions.assertTrue(o1.getOrderPaid());
-        Mockito.verify(orderRepository, Mockito.times(1)).updateOrderPayment(true, order1.getOrderID());
+        Mockito.verify(orderLines).project(o1);
+        Mockito.verify(orderRepository, Mockito.never()).findOrderForUpdate(any());
+        Mockito.verify(analyticsCache).invalidate(order1.getVendorID());
+    }
+
+    @Test
+    void testMarkOrderPaidUpdatesBeforeReading() throws OrderNotFoundException {
+        when(orderRepository.markOrderPaid(order1.getOrderID())).thenReturn(1);
+        when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.of(order1));
+
+        orderService.markOrderPaid(order1.getOrderID());
+
+        InOrder inOrder = Mockito.inOrder(orderRepository);
+        inOrder.verify(orderRepository).markOrderPaid(order1.getOrderID());
+        inOrder.verify(orderRepository).findOrderByOrderID(order1.getOrderID());
+    }
+
+    @Test
+    void testMarkOrderPaidAddsRevenue() throws OrderNotFoundException {
+        final RevenueBuckets.Contribution paid = new RevenueBuckets.Contribution(
+                new RevenueBucketId(order1.getVendorID(), LocalDate.of(2023, 11, 15)), 1500);
+        when(orderRepository.markOrderPaid(order1.getOrderID())).thenReturn(1);
+        when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.of(order1));
+        when(revenueBuckets.contributionOf(order1.getOrderID())).thenReturn(paid);
+
+        orderService.markOrderPaid(order1.getOrderID());
+
+        Mockito.verify(revenueBuckets).replace(RevenueBuckets.Contribution.NONE, paid);
+    }
+
+    @Test
+    void testGetRevenue() throws VendorNotFoundException {
+        List<Revenue> revenue = List.of(new Revenue().start("2023-11-01").revenueCents(1500L));
+        when(userMicroServiceService.checkVendorExists(order1.getVendorID())).thenReturn(true);
+        when(revenueBuckets.getRevenue(order1.getVendorID(), null, null, RevenueBuckets.Period.MONTH))
+                .thenReturn(revenue);
+
+        assertThat(orderService.getRevenue(order1.getVendorID(), RevenueBuckets.Period.MONTH, null, null))
+                .isEqualTo(revenue);
+    }
+
+    @Test
+    void testGetRevenueVendorNotFound() {
+        when(userMicroServiceService.checkVendorExists(order1.getVendorID())).thenReturn(false);
+
+        Assertions.assertThrows(VendorNotFoundException.class,
+                () -> orderService.getRevenue(order1.getVendorID(), RevenueBuckets.Period.DAY, null, null));
+        verifyNoInteractions(revenueBuckets);
+    }
+
+    @Test
+    void testGetUniqueCustomers() throws VendorNotFoundException {
+        UniqueCustomers customers = new UniqueCustomers().estimate(12L).relativeStandardError(0.01625);
+        LocalDate first = LocalDate.of(2023, 11, 13);
+        when(userMicroServiceService.checkVendorExists(order1.getVendorID())).thenReturn(true);
+        when(vendorSketches.getUniqueCustomers(order1.getVendorID(), first, null)).thenReturn(customers);
+
+        assertThat(orderService.getUniqueCustomers(order1.getVendorID(), first, null)).isEqualTo(customers);
+    }
+
+    @Test
+    void testGetTopDishesVendorNotFound() {
+        when(userMicroServiceService.checkVendorExists(order1.getVendorID())).thenReturn(false);
+
+        Assertions.assertThrows(VendorNotFoundException.class,
+                () -> orderService.getTopDishes(order1.getVendorID(), null, null, 5));
+        verifyNoInteractions(vendorSketches);
     }
 
     @Test
@@ -656,16 +1001,16 @@ class OrderServiceTests {
         UUID orderID = order1.getOrderID();
         UUID dishID = d1.getDishID();
 
-        order1.setListOfDishes(new ArrayList<>());
-        List<UUID> result = new ArrayList<>();
-        result.add(dishID);
-
         when(orderRepository.existsByOrderID(orderID)).thenReturn(true);
         when(dishRepository.existsByDishID(dishID)).thenReturn(true);
-        when(orderRepository.findOrderByOrderID(orderID)).thenReturn(Optional.of(order1));
+        when(orderRepository.findOrderForUpdate(orderID)).thenReturn(Optional.of(order1));
 
         Order order = orderService.addDishToOrder(orderID, dishID);
-        Assertions.assertEquals(order.getListOfDishes(), result);
+        Assertions.assertEquals(order1, order);
+        Mockito.verify(orderLines).add(orderID, dishID);
+        Mockito.verify(orderLines).project(order1);
+        Mockito.verify(orderRepository, Mockito.never()).save(Mockito.any());
+        Mockito.verify(vendorSketches).addDish(order1, dishID);
 
     }
 
@@ -710,7 +1055,7 @@ class OrderServiceTests {
 
         when(orderRepository.existsByOrderID(orderID)).thenReturn(true);
         when(dishRepository.existsByDishID(dishID)).thenReturn(true);
-        when(orderRepository.findOrderByOrderID(orderID)).thenReturn(Optional.empty());
+        when(orderRepository.findOrderForUpdate(orderID)).thenReturn(Optional.empty());
 
         Assertions.assertThrows(NullFieldException.class, () -> orderService.addDishToOrder(orderID, dishID));
 
@@ -723,15 +1068,33 @@ class OrderServiceTests {
         UUID orderID = order1.getOrderID();
         UUID dishID = d1.getDishID();
 
-        order1.setListOfDishes(new ArrayList<>(Collections.singletonList(dishID)));
-
         when(orderRepository.existsByOrderID(orderID)).thenReturn(true);
         when(dishRepository.existsByDishID(dishID)).thenReturn(true);
-        when(orderRepository.findOrderByOrderID(orderID)).thenReturn(Optional.of(order1));
+        when(orderRepository.findOrderForUpdate(orderID)).thenReturn(Optional.of(order1));
+        when(orderLines.remove(orderID, dishID)).thenReturn(true);
 
         Order order = orderService.removeDishFromOrder(orderID, dishID);
-        List<UUID> result = new ArrayList<>();
-        Assertions.assertEquals(order.getListOfDishes(), result);
+        Assertions.assertEquals(order1, order);
+        Mockito.verify(orderLines).project(order1);
+        Mockito.verify(orderRepository, Mockito.never()).save(Mockito.any());
+        Mockito.verify(analyticsCache).invalidate(order1.getVendorID());
+
+    }
+
+    @Test
+    void testRemoveDishFromOrder_orderWithoutTheDish()
+            throws OrderNotFoundException, NullFieldException, DishNotFoundException {
+
+        UUID orderID = order1.getOrderID();
+        UUID dishID = d1.getDishID();
+
+        when(orderRepository.existsByOrderID(orderID)).thenReturn(true);
+        when(dishRepository.existsByDishID(dishID)).thenReturn(true);
+        when(orderRepository.findOrderForUpdate(orderID)).thenReturn(Optional.of(order1));
+        when(orderLines.remove(orderID, dishID)).thenReturn(false);
+
+        Assertions.assertEquals(order1, orderService.removeDishFromOrder(orderID, dishID));
+        verifyNoInteractions(analyticsCache);
 
     }
 
@@ -786,7 +1149,7 @@ class OrderServiceTests {
 
         when(orderRepository.existsByOrderID(orderID)).thenReturn(true);
         when(dishRepository.existsByDishID(dishID)).thenReturn(true);
-        when(orderRepository.findOrderByOrderID(orderID)).thenReturn(Optional.empty());
+        when(orderRepository.findOrderForUpdate(orderID)).thenReturn(Optional.empty());
 
         Assertions.assertThrows(NullFieldException.class, () -> orderService.removeDishFromOrder(orderID, dishID));
 
@@ -810,50 +1173,121 @@ class OrderServiceTests {
     }
 
     @Test
-    public void updateStatusOfOrderSuccessful() throws OrderNotFoundException, InvalidOrderStatusException {
+    public void updateStatusOfOrderSuccessful() throws Exception {
 
-        Order mockOrder = Mockito.mock(Order.class);
+        order1.setStatus(Order.StatusEnum.PENDING);
+        when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.of(order1));
+        when(orderRepository.updateStatusIfCurrent(order1.getOrderID(), Order.StatusEnum.PENDING,
+                Order.StatusEnum.ACCEPTED)).thenReturn(1);
+        orderService.updateStatusOfOrderById(order1.getOrderID(), "ACCEPTED");
+
+        Mockito.verify(orderRepository, Mockito.never()).save(order1);
+        Mockito.verify(analyticsCache).invalidate(order1.getVendorID());
+    }
 
-        when(orderRepository.existsByOrderID(mockOrder.getOrderID())).thenReturn(true);
-        when(orderRepository.findOrderByOrderID(mockOrder.getOrderID())).thenReturn(Optional.of(mockOrder));
-        orderService.updateStatusOfOrderById(mockOrder.getOrderID(), "ACCEPTED");
+    @Test
+    public void updateStatusOfOrderSuccessfulLowerCase() throws Exception {
+
+        order1.setStatus(Order.StatusEnum.ACCEPTED);
+        when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.of(order1));
+        when(orderRepository.updateStatusIfCurrent(order1.getOrderID(), Order.StatusEnum.ACCEPTED,
+                Order.StatusEnum.REJECTED)).thenReturn(1);
+        orderService.updateStatusOfOrderById(order1.getOrderID(), "rejected");
 
-        Mockito.verify(mockOrder, Mockito.times(1)).setStatus(Order.StatusEnum.ACCEPTED);
-        Mockito.verify(orderRepository, Mockito.times(1)).save(mockOrder);
+        Mockito.verify(orderRepository).updateStatusIfCurrent(order1.getOrderID(), Order.StatusEnum.ACCEPTED,
+                Order.StatusEnum.REJECTED);
     }
 
     @Test
-    public void updateStatusOfOrderSuccessfulLowerCase() throws OrderNotFoundException, InvalidOrderStatusException {
+    public void updateStatusOfOrderSuccessfulMixedCase() throws Exception {
 
-        Order mockOrder = Mockito.mock(Order.class);
+        order1.setStatus(Order.StatusEnum.PREPARING);
+        when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.of(order1));
+        when(orderRepository.updateStatusIfCurrent(order1.getOrderID(), Order.StatusEnum.PREPARING,
+                Order.StatusEnum.GIVEN_TO_COURIER)).thenReturn(1);
+        orderService.updateStatusOfOrderById(order1.getOrderID(), "Given To Courier");
+
+        Mockito.verify(orderRepository).updateStatusIfCurrent(order1.getOrderID(), Order.StatusEnum.PREPARING,
+                Order.StatusEnum.GIVEN_TO_COURIER);
+    }
 
-        when(orderRepository.existsByOrderID(mockOrder.getOrderID())).thenReturn(true);
-        when(orderRepository.findOrderByOrderID(mockOrder.getOrderID())).thenReturn(Optional.of(mockOrder));
-        orderService.updateStatusOfOrderById(mockOrder.getOrderID(), "rejected");
+    @Test
+    public void updateStatusOfOrderWithoutStatus() throws Exception {
+
+        order1.setStatus(null);
+        when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.of(order1));
+        when(orderRepository.updateStatusIfUnset(order1.getOrderID(), Order.StatusEnum.ACCEPTED)).thenReturn(1);
+        orderService.updateStatusOfOrderById(order1.getOrderID(), "accepted");
 
-        Mockito.verify(mockOrder, Mockito.times(1)).setStatus(Order.StatusEnum.REJECTED);
-        Mockito.verify(orderRepository, Mockito.times(1)).save(mockOrder);
+        Mockito.verify(orderRepository).updateStatusIfUnset(order1.getOrderID(), Order.StatusEnum.ACCEPTED);
     }
 
     @Test
-    public void updateStatusOfOrderSuccessfulMixedCase() throws OrderNotFoundException, InvalidOrderStatusException {
+    public void updateStatusOfOrderWithoutStatusToPending() throws Exception {
 
-        Order mockOrder = Mockito.mock(Order.class);
+        order1.setStatus(null);
+        when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.of(order1));
+        when(orderRepository.updateStatusIfUnset(order1.getOrderID(), Order.StatusEnum.PENDING)).thenReturn(1);
+        orderService.updateStatusOfOrderById(order1.getOrderID(), "pending");
 
-        when(orderRepository.existsByOrderID(mockOrder.getOrderID())).thenReturn(true);
-        when(orderRepository.findOrderByOrderID(mockOrder.getOrderID())).thenReturn(Optional.of(mockOrder));
-        orderService.updateStatusOfOrderById(mockOrder.getOrderID(), "PendinG");
+        Mockito.verify(orderRepository).updateStatusIfUnset(order1.getOrderID(), Order.StatusEnum.PENDING);
+    }
 
-        Mockito.verify(mockOrder, Mockito.times(1)).setStatus(Order.StatusEnum.PENDING);
-        Mockito.verify(orderRepository, Mockito.times(1)).save(mockOrder);
+    @Test
+    public void updateStatusOfOrderToSameStatus() throws Exception {
 
+        when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.of(order1));
+        orderService.updateStatusOfOrderById(order1.getOrderID(), "DELIVERED");
+
+        Mockito.verify(orderRepository).findOrderByOrderID(order1.getOrderID());
+        Mockito.verifyNoMoreInteractions(orderRepository);
+        verifyNoInteractions(analyticsCache);
     }
 
+    @Test
+    public void updateStatusOfOrderNotAllowed() {
+
+        when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.of(order1));
+        Assertions.assertThrows(OrderStatusConflictException.class,
+                () -> orderService.updateStatusOfOrderById(order1.getOrderID(), "pending"));
+
+        Mockito.verify(orderRepository).findOrderByOrderID(order1.getOrderID());
+        Mockito.verifyNoMoreInteractions(orderRepository);
+    }
+
+    @Test
+    public void updateStatusOfOrderChangedConcurrently() {
+
+        order1.setStatus(Order.StatusEnum.ON_TRANSIT);
+        when(orderRepository.updateStatusIfCurrent(order1.getOrderID(), Order.StatusEnum.ON_TRANSIT,
+                Order.StatusEnum.DELIVERED)).thenReturn(0);
+        Order rejected = new Order().orderID(order1.getOrderID()).status(Order.StatusEnum.REJECTED);
+        when(orderRepository.findOrderByOrderID(order1.getOrderID()))
+                .thenReturn(Optional.of(order1), Optional.of(rejected));
+        Assertions.assertThrows(OrderStatusConflictException.class,
+                () -> orderService.updateStatusOfOrderById(order1.getOrderID(), "delivered"));
+
+        verifyNoInteractions(analyticsCache);
+    }
+
+    @Test
+    public void updateStatusOfOrderChangedConcurrentlyToSameStatus() throws Exception {
+
+        order1.setStatus(Order.StatusEnum.ON_TRANSIT);
+        Order delivered = new Order().orderID(order1.getOrderID()).status(Order.StatusEnum.DELIVERED);
+        when(orderRepository.findOrderByOrderID(order1.getOrderID()))
+                .thenReturn(Optional.of(order1), Optional.of(delivered));
+        when(orderRepository.updateStatusIfCurrent(order1.getOrderID(), Order.StatusEnum.ON_TRANSIT,
+                Order.StatusEnum.DELIVERED)).thenReturn(0);
+        orderService.updateStatusOfOrderById(order1.getOrderID(), "Delivered");
+
+        verifyNoInteractions(analyticsCache);
+    }
 
     @Test
     public void updateStatusOfOrderNotFound() {
 
-        when(orderRepository.existsByOrderID(order1.getOrderID())).thenReturn(false);
+        when(orderRepository.findOrderByOrderID(order1.getOrderID())).thenReturn(Optional.empty());
         Assertions.assertThrows(OrderNotFoundException.class,
                 () -> orderService.updateStatusOfOrderById(order1.getOrderID(), "REJECTED"));
 
@@ -862,9 +1296,9 @@ class OrderServiceTests {
     @Test
     public void updateStatusOfOrderInvalidStatus() {
 
-        when(orderRepository.existsByOrderID(order1.getOrderID())).thenReturn(true);
         Assertions.assertThrows(InvalidOrderStatusException.class,
                 () -> orderService.updateStatusOfOrderById(order1.getOrderID(), "GREEN"));
+        verifyNoInteractions(orderRepository);
 
     }
 
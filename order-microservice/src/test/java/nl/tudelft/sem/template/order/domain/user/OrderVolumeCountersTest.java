@@ -0,0 +1,225 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.order.domain.analytics.OrderVolumeCounter;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderRepository;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderVolumeCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class OrderVolumeCountersTest {
+
+    @Mock
+    transient OrderVolumeCounterRepository counterRepository;
+
+    @Mock
+    transient OrderRepository orderRepository;
+
+    @Mock
+    transient EmptyRows emptyRows;
+
+    @Mock
+    transient PlatformTransactionManager transactionManager;
+
+    transient OrderVolumeCounters orderVolumeCounters;
+    transient UUID vendor;
+
+    @BeforeEach
+    void setup() {
+        orderVolumeCounters = new OrderVolumeCounters(counterRepository, orderRepository, emptyRows,
+                transactionManager);
+        vendor = UUID.randomUUID();
+    }
+
+    private static BigDecimal at(int hour, int minute) {
+        return BigDecimal.valueOf(LocalDateTime.of(2023, 11, 15, hour, minute)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private Order order(int hour) {
+        return new Order().orderID(UUID.randomUUID()).vendorID(vendor).date(at(hour, 30));
+    }
+
+    @Test
+    void hourOfUsesServerTimeZone() {
+        assertThat(OrderVolumeCounters.hourOf(at(0, 0))).isZero();
+        assertThat(OrderVolumeCounters.hourOf(at(13, 59))).isEqualTo(13);
+        assertThat(OrderVolumeCounters.hourOf(at(23, 1))).isEqualTo(23);
+    }
+
+    @Test
+    void addIncrementsExistingCounter() {
+        when(counterRepository.addToVolume(vendor, 13, 1)).thenReturn(1);
+
+        orderVolumeCounters.add(order(13));
+
+        verify(emptyRows, never()).create(any());
+    }
+
+    @Test
+    void addCreatesMissingCounter() {
+        when(counterRepository.addToVolume(vendor, 13, 1)).thenReturn(0).thenReturn(1);
+        when(emptyRows.create(any())).thenReturn(true);
+        ArgumentCaptor<OrderVolumeCounter> created = ArgumentCaptor.forClass(OrderVolumeCounter.class);
+
+        orderVolumeCounters.add(order(13));
+
+        verify(emptyRows).create(created.capture());
+        assertThat(created.getValue().getVendorID()).isEqualTo(vendor);
+        assertThat(created.getValue().getHourOfDay()).isEqualTo(13);
+        assertThat(created.getValue().getVolume()).isZero();
+        assertThat(created.getValue().isNew()).isTrue();
+        verify(counterRepository, times(2)).addToVolume(vendor, 13, 1);
+    }
+
+    @Test
+    void addIncrementsCounterCreatedConcurrently() {
+        when(counterRepository.addToVolume(vendor, 13, 1)).thenReturn(0).thenReturn(1);
+        when(emptyRows.create(any())).thenReturn(false);
+
+        orderVolumeCounters.add(order(13));
+
+        verify(counterRepository, times(2)).addToVolume(vendor, 13, 1);
+    }
+
+    @Test
+    void ordersWithoutDateAreNotCounted() {
+        Order order = order(13).date(null);
+
+        orderVolumeCounters.add(order);
+        orderVolumeCounters.remove(order);
+
+        verifyNoInteractions(counterRepository);
+    }
+
+    @Test
+    void removeDecrementsCounter() {
+        orderVolumeCounters.remove(order(8));
+
+        verify(counterRepository).addToVolume(vendor, 8, -1);
+        verify(emptyRows, never()).create(any());
+    }
+
+    @Test
+    void replaceChangesCountersInKeyOrder() {
+        when(counterRepository.addToVolume(vendor, 8, 1)).thenReturn(1);
+
+        orderVolumeCounters.replace(order(13), order(8));
+
+        InOrder inOrder = inOrder(counterRepository);
+        inOrder.verify(counterRepository).addToVolume(vendor, 8, 1);
+        inOrder.verify(counterRepository).addToVolume(vendor, 13, -1);
+    }
+
+    @Test
+    void replaceWithinTheSameHourDoesNothing() {
+        orderVolumeCounters.replace(order(13), order(13));
+
+        verifyNoInteractions(counterRepository);
+    }
+
+    @Test
+    void getVolumesFillsEveryHour() {
+        when(counterRepository.findVolumesByVendorID(vendor)).thenReturn(List.of(volume(8, 3), volume(13, 7)));
+
+        List<Integer> volumes = orderVolumeCounters.getVolumes(vendor).orElseThrow();
+
+        assertThat(volumes).hasSize(24);
+        assertThat(volumes.get(8)).isEqualTo(3);
+        assertThat(volumes.get(13)).isEqualTo(7);
+        assertThat(volumes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(10);
+    }
+
+    @Test
+    void getVolumesWithoutCounters() {
+        when(counterRepository.findVolumesByVendorID(vendor)).thenReturn(List.of());
+
+        assertThat(orderVolumeCounters.getVolumes(vendor)).isEmpty();
+    }
+
+    @Test
+    void reconcileCreatesMissingCountersAndSetsTheWrongOnes() {
+        UUID otherVendor = UUID.randomUUID();
+        when(orderRepository.findVendorIDsOfDatedOrders()).thenReturn(List.of(vendor));
+        when(counterRepository.findVendorIDs()).thenReturn(List.of(vendor, otherVendor));
+        when(orderRepository.streamOrderDatesOfVendor(vendor))
+                .thenAnswer(invocation -> Stream.of(at(13, 0), at(13, 30), at(20, 0)));
+        when(orderRepository.streamOrderDatesOfVendor(otherVendor)).thenAnswer(invocation -> Stream.empty());
+        when(counterRepository.findVolumesByVendorID(vendor)).thenReturn(List.of(volume(13, 1)))
+                .thenReturn(List.of(volume(13, 1), volume(20, 0)));
+        when(counterRepository.findForUpdateByVendorID(vendor))
+                .thenReturn(List.of(new OrderVolumeCounter(vendor, 13, 1), new OrderVolumeCounter(vendor, 20, 0)));
+        when(counterRepository.findVolumesByVendorID(otherVendor)).thenReturn(List.of(volume(8, 3)));
+        when(counterRepository.findForUpdateByVendorID(otherVendor))
+                .thenReturn(List.of(new OrderVolumeCounter(otherVendor, 8, 3)));
+        ArgumentCaptor<OrderVolumeCounter> created = ArgumentCaptor.forClass(OrderVolumeCounter.class);
+
+        orderVolumeCounters.reconcile();
+
+        verify(emptyRows).create(created.capture());
+        assertThat(created.getValue()).extracting(OrderVolumeCounter::getVendorID, OrderVolumeCounter::getHourOfDay,
+                OrderVolumeCounter::getVolume).containsExactly(vendor, 20, 0);
+        verify(counterRepository).setVolume(vendor, 13, 2);
+        verify(counterRepository).setVolume(vendor, 20, 1);
+        verify(counterRepository).setVolume(otherVendor, 8, 0);
+        verify(counterRepository, never()).deleteAllInBatch();
+        verify(counterRepository, never()).addToVolume(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void reconcileCountsTheOrdersAfterLockingTheCounters() {
+        when(orderRepository.findVendorIDsOfDatedOrders()).thenReturn(List.of(vendor));
+        when(counterRepository.findVendorIDs()).thenReturn(List.of(vendor));
+        when(orderRepository.streamOrderDatesOfVendor(vendor)).thenAnswer(invocation -> Stream.of(at(13, 0)));
+        when(counterRepository.findVolumesByVendorID(vendor)).thenReturn(List.of(volume(13, 1)))
+                .thenReturn(List.of(volume(13, 1), volume(20, 1)));
+        when(counterRepository.findForUpdateByVendorID(vendor))
+                .thenReturn(List.of(new OrderVolumeCounter(vendor, 13, 1)));
+
+        orderVolumeCounters.reconcile();
+
+        InOrder inOrder = inOrder(counterRepository, orderRepository);
+        inOrder.verify(counterRepository).findForUpdateByVendorID(vendor);
+        inOrder.verify(orderRepository).streamOrderDatesOfVendor(vendor);
+        // the counter of 20:00 was created by an order stored after the lock, which is not counted yet
+        verify(counterRepository, never()).setVolume(any(), anyInt(), anyInt());
+        verify(emptyRows, never()).create(any());
+    }
+
+    private static OrderVolumeCounterRepository.HourlyVolume volume(int hourOfDay, int volume) {
+        return new OrderVolumeCounterRepository.HourlyVolume() {
+            @Override
+            public int getHourOfDay() {
+                return hourOfDay;
+            }
+
+            @Override
+            public int getVolume() {
+                return volume;
+            }
+        };
+    }
+}
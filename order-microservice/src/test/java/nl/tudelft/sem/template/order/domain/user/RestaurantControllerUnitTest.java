@@ -17,6 +17,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
 
 @ExtendWith(MockitoExtension.class)
 class RestaurantControllerUnitTest {
@@ -42,16 +43,16 @@ class RestaurantControllerUnitTest {
 
     @Test
     void getAllRestaurantsNull() {
-        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurants(null);
+        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurants(null).join();
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
     @Test
     void getAllRestaurantsValid() {
-        when(mockRestaurantService.getAllRestaurants(user)).thenReturn(list);
-        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurants(user);
+        when(mockRestaurantService.getAllRestaurantsAsync(user)).thenReturn(Mono.just(list));
+        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurants(user).join();
 
-        verify(mockRestaurantService, times(1)).getAllRestaurants(user);
+        verify(mockRestaurantService, times(1)).getAllRestaurantsAsync(user);
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(result.getBody()).isEqualTo(list);
 
@@ -59,20 +60,20 @@ class RestaurantControllerUnitTest {
 
     @Test
     void getAllRestaurantsError() {
-        when(mockRestaurantService.getAllRestaurants(user)).thenThrow(RuntimeException.class);
-        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurants(user);
+        when(mockRestaurantService.getAllRestaurantsAsync(user)).thenReturn(Mono.error(new RuntimeException()));
+        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurants(user).join();
 
-        verify(mockRestaurantService, times(1)).getAllRestaurants(user);
+        verify(mockRestaurantService, times(1)).getAllRestaurantsAsync(user);
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
 
     }
 
     @Test
     void getAllRestaurantsNotFound() {
-        when(mockRestaurantService.getAllRestaurants(user)).thenThrow(RuntimeException.class);
-        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurants(user);
+        when(mockRestaurantService.getAllRestaurantsAsync(user)).thenThrow(RuntimeException.class);
+        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurants(user).join();
 
-        verify(mockRestaurantService, times(1)).getAllRestaurants(user);
+        verify(mockRestaurantService, times(1)).getAllRestaurantsAsync(user);
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
 
     }
@@ -80,41 +81,42 @@ class RestaurantControllerUnitTest {
 
     @Test
     void getAllRestaurantsWithQueryNullUser() {
-        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurantsWithQuery(null, "query");
+        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurantsWithQuery(null, "query").join();
 
         verify(mockRestaurantService, times(0))
-                .getAllRestaurantsWithQuery(null, "query");
+                .getAllRestaurantsWithQueryAsync(null, "query");
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
     @Test
     void getAllRestaurantsWithQueryNullQuery() {
-        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurantsWithQuery(user, null);
+        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurantsWithQuery(user, null).join();
 
         verify(mockRestaurantService, times(0))
-                .getAllRestaurantsWithQuery(user, null);
+                .getAllRestaurantsWithQueryAsync(user, null);
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
     @Test
     void getAllRestaurantsWithQueryValid() {
-        when(mockRestaurantService.getAllRestaurantsWithQuery(user, asian)).thenReturn(list);
-        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurantsWithQuery(user, asian);
+        when(mockRestaurantService.getAllRestaurantsWithQueryAsync(user, asian)).thenReturn(Mono.just(list));
+        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurantsWithQuery(user, asian).join();
 
         verify(mockRestaurantService, times(1))
-                .getAllRestaurantsWithQuery(user, asian);
+                .getAllRestaurantsWithQueryAsync(user, asian);
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(result.getBody()).isEqualTo(list);
     }
 
     @Test
     void getAllRestaurantsWithQueryError() throws UserIDNotFoundException {
-        when(mockRestaurantService.getAllRestaurantsWithQuery(user, asian)).thenThrow(RuntimeException.class);
+        when(mockRestaurantService.getAllRestaurantsWithQueryAsync(user, asian))
+                .thenReturn(Mono.error(new RuntimeException()));
 
-        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurantsWithQuery(user, asian);
+        ResponseEntity<List<UUID>> result = restaurantController.getAllRestaurantsWithQuery(user, asian).join();
 
         verify(mockRestaurantService, times(1))
-                .getAllRestaurantsWithQuery(user, asian);
+                .getAllRestaurantsWithQueryAsync(user, asian);
         assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 }
\ No newline at end of file
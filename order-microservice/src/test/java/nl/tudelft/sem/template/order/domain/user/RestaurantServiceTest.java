@@ -8,6 +8,8 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -17,22 +19,29 @@ import java.util.Set;
 import java.util.UUID;
 import nl.tudelft.sem.template.model.Address;
 import nl.tudelft.sem.template.order.domain.helpers.Coordinates;
+import nl.tudelft.sem.template.order.domain.helpers.GeoGridIndex;
+import nl.tudelft.sem.template.order.domain.helpers.VendorLocations;
+import nl.tudelft.sem.template.user.services.JsonParserService;
 import nl.tudelft.sem.template.user.services.MockLocationService;
-import nl.tudelft.sem.template.user.services.UserMicroServiceService;
+import nl.tudelft.sem.template.user.services.ReactiveUserMicroServiceService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @ExtendWith(MockitoExtension.class)
 class RestaurantServiceTest {
     @Mock
-    transient UserMicroServiceService mockUserService;
+    transient ReactiveUserMicroServiceService mockUserService;
     @Mock
     transient MockLocationService mockLocationService;
-    @InjectMocks
+    @Spy
+    transient JsonParserService jsonParserService;
     transient RestaurantService restaurantService;
 
     transient String location;
@@ -47,6 +56,8 @@ class RestaurantServiceTest {
 
     @BeforeEach
     void setup() {
+        VendorDirectory vendorDirectory = new VendorDirectory(mockUserService, jsonParserService, new SimpleMeterRegistry());
+        restaurantService = new RestaurantService(mockUserService, mockLocationService, jsonParserService, vendorDirectory);
         user = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
         user11 = UUID.fromString("110e8400-e29b-41d4-a716-446655440000");
         address = new Address();
@@ -141,31 +152,43 @@ class RestaurantServiceTest {
         asianUpper = "Asian";
     }
 
+    private static Mono<ResponseEntity<String>> vendorsResponse(String json) {
+        return Mono.just(ResponseEntity.ok(json));
+    }
+
+    private void stubUserAddress() {
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.just(address));
+        when(mockLocationService.convertAddressToGeoCoords(address)).thenReturn(List.of(51.990013, 4.37127));
+    }
+
     @Test
     void getAllRestaurantsVendorsNull() {
-        when(mockUserService.getAllVendors()).thenReturn(null);
+        stubUserAddress();
+        when(mockUserService.getAllVendors(null)).thenReturn(Mono.empty());
 
         assertThrows(RuntimeException.class, () -> restaurantService.getAllRestaurants(user));
 
-        verify(mockUserService, times(1)).getAllVendors();
+        verify(mockUserService, times(1)).getAllVendors(null);
     }
 
     @Test
     void getAllRestaurantsVendorsEmpty() {
-        when(mockUserService.getAllVendors()).thenReturn("");
+        stubUserAddress();
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(""));
 
         assertThrows(RuntimeException.class, () -> restaurantService.getAllRestaurants(user));
 
-        verify(mockUserService, times(1)).getAllVendors();
+        verify(mockUserService, times(1)).getAllVendors(null);
     }
 
     @Test
     void getAllRestaurantsNoVendors() {
-        when(mockUserService.getAllVendors()).thenThrow(RuntimeException.class);
+        stubUserAddress();
+        when(mockUserService.getAllVendors(null)).thenReturn(Mono.error(new RuntimeException("no vendors in database")));
 
         assertThrows(RuntimeException.class, () -> restaurantService.getAllRestaurants(user));
 
-        verify(mockUserService, times(1)).getAllVendors();
+        verify(mockUserService, times(1)).getAllVendors(null);
     }
 
     @Test
@@ -187,19 +210,20 @@ class RestaurantServiceTest {
                         "cuisineType": "italian"
                     }
                 ]""";
-        when(mockUserService.getAllVendors()).thenReturn(v1);
+        stubUserAddress();
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(v1));
 
         assertThrows(RuntimeException.class, () -> restaurantService.getAllRestaurants(user));
-        verify(mockUserService, times(1)).getAllVendors();
+        verify(mockUserService, times(1)).getAllVendors(null);
     }
 
     @Test
     void getAllRestaurantsPartialVendors() throws UserIDNotFoundException {
         // userLocation setup
-        when(mockUserService.getUserAddress(user)).thenReturn(address);
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.just(address));
         when(mockLocationService.convertAddressToGeoCoords(address)).thenReturn(List.of(51.990013, 4.37127));
 
-        when(mockUserService.getAllVendors()).thenReturn(vendors);
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(vendors));
 
         List<UUID> result = restaurantService.getAllRestaurants(user);
         List<UUID> expected = List.of(user);
@@ -208,14 +232,14 @@ class RestaurantServiceTest {
         Set<UUID> setExpected = new HashSet<>(expected);
 
 
-        verify(mockUserService, times(1)).getAllVendors();
+        verify(mockUserService, times(1)).getAllVendors(null);
         assertThat(setResult).isEqualTo(setExpected);
     }
 
     @Test
     void getAllRestaurantsAllVendors() throws UserIDNotFoundException {
         // userLocation setup
-        when(mockUserService.getUserAddress(user)).thenReturn(address);
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.just(address));
         when(mockLocationService.convertAddressToGeoCoords(address)).thenReturn(List.of(51.990013, 4.37127));
         String vendorsAll = """
                 [
@@ -255,7 +279,7 @@ class RestaurantServiceTest {
                     }
                 ]""";
 
-        when(mockUserService.getAllVendors()).thenReturn(vendorsAll);
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(vendorsAll));
 
         List<UUID> result = restaurantService.getAllRestaurants(user);
         List<UUID> expected = List.of(user,
@@ -265,30 +289,30 @@ class RestaurantServiceTest {
         Set<UUID> setExpected = new HashSet<>(expected);
 
 
-        verify(mockUserService, times(1)).getAllVendors();
+        verify(mockUserService, times(1)).getAllVendors(null);
         assertThat(setResult).isEqualTo(setExpected);
     }
 
     @Test
     void getAllRestaurantsNoVendorsMatch() throws UserIDNotFoundException {
         // userLocation setup
-        when(mockUserService.getUserAddress(user)).thenReturn(address);
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.just(address));
         when(mockLocationService.convertAddressToGeoCoords(address)).thenReturn(List.of(49.990013, 4.37127));
 
-        when(mockUserService.getAllVendors()).thenReturn(vendors);
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(vendors));
 
         List<UUID> result = restaurantService.getAllRestaurants(user);
 
         // convert list to sets, because processVendors does not return list in an order
         Set<UUID> setResult = new HashSet<>(result);
 
-        verify(mockUserService, times(1)).getAllVendors();
+        verify(mockUserService, times(1)).getAllVendors(null);
         assertThat(setResult).isEmpty();
     }
 
     @Test
     void getUserAddressValid() throws UserIDNotFoundException {
-        when(mockUserService.getUserAddress(user)).thenReturn(address);
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.just(address));
         when(mockLocationService.convertAddressToGeoCoords(address)).thenReturn(List.of(51.998513, 4.37127));
         List<Double> expected = List.of(51.998513, 4.37127);
         List<Double> result = restaurantService.getUserLocation(user);
@@ -301,8 +325,8 @@ class RestaurantServiceTest {
 
     @Test
     void getUserLocationValid() throws UserIDNotFoundException {
-        when(mockUserService.getUserAddress(user)).thenThrow(UserIDNotFoundException.class);
-        when(mockUserService.getUserLocation(user)).thenReturn(location);
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.error(new UserIDNotFoundException(user)));
+        when(mockUserService.getUserLocation(user)).thenReturn(Mono.just(location));
 
         List<Double> expected = List.of(51.998513, 4.37127);
         List<Double> result = restaurantService.getUserLocation(user);
@@ -314,8 +338,8 @@ class RestaurantServiceTest {
 
     @Test
     void getUserLocationJsonNull() throws UserIDNotFoundException {
-        when(mockUserService.getUserAddress(user)).thenThrow(UserIDNotFoundException.class);
-        when(mockUserService.getUserLocation(user)).thenReturn(null);
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.error(new UserIDNotFoundException(user)));
+        when(mockUserService.getUserLocation(user)).thenReturn(Mono.empty());
 
         assertThrows(UserIDNotFoundException.class, () -> restaurantService.getUserLocation(user));
 
@@ -324,8 +348,8 @@ class RestaurantServiceTest {
 
     @Test
     void getUserLocationJsonEmpty() throws UserIDNotFoundException {
-        when(mockUserService.getUserAddress(user)).thenThrow(UserIDNotFoundException.class);
-        when(mockUserService.getUserLocation(user)).thenReturn("");
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.error(new UserIDNotFoundException(user)));
+        when(mockUserService.getUserLocation(user)).thenReturn(Mono.just(""));
 
         assertThrows(UserIDNotFoundException.class, () -> restaurantService.getUserLocation(user));
 
@@ -334,8 +358,8 @@ class RestaurantServiceTest {
 
     @Test
     void getUserLocationJsonParserFail() throws UserIDNotFoundException {
-        when(mockUserService.getUserAddress(user)).thenThrow(UserIDNotFoundException.class);
-        when(mockUserService.getUserLocation(user)).thenReturn("oh hi");
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.error(new UserIDNotFoundException(user)));
+        when(mockUserService.getUserLocation(user)).thenReturn(Mono.just("oh hi"));
 
         assertThrows(UserIDNotFoundException.class, () -> restaurantService.getUserLocation(user));
 
@@ -348,11 +372,12 @@ class RestaurantServiceTest {
         UUID uuid1 = UUID.randomUUID();
         UUID uuid2 = UUID.randomUUID();
         UUID uuid3 = UUID.randomUUID();
-        HashMap<UUID, List<Double>> map = new HashMap<>();
-        map.put(uuid1, List.of(52.001665, 4.373281));
-        map.put(uuid2, List.of(52.1583, 4.4931));
-        map.put(uuid3, List.of(52.011665, 4.373281));
-        List<UUID> result  = restaurantService.processVendors(userLocation, map);
+        VendorLocations vendors = new VendorLocations();
+        vendors.add(uuid1, 52.001665, 4.373281);
+        vendors.add(uuid2, 52.1583, 4.4931);
+        vendors.add(uuid3, 52.011665, 4.373281);
+        List<UUID> result  = restaurantService.processVendors(userLocation,
+                GeoGridIndex.build(vendors, GeoGridIndex.DEFAULT_CELL_SIZE));
         List<UUID> expected = List.of(uuid1, uuid3);
 
         // convert to set for comparison, because stream doesn't process things in order
@@ -367,15 +392,27 @@ class RestaurantServiceTest {
         UUID uuid1 = UUID.randomUUID();
         UUID uuid2 = UUID.randomUUID();
         UUID uuid3 = UUID.randomUUID();
-        HashMap<UUID, List<Double>> map = new HashMap<>();
-        map.put(uuid1, List.of(50.001665, 4.373281));
-        map.put(uuid2, List.of(54.1583, 4.4931));
-        map.put(uuid3, List.of(53.011665, 4.373281));
-        List<UUID> result  = restaurantService.processVendors(userLocation, map);
+        VendorLocations vendors = new VendorLocations();
+        vendors.add(uuid1, 50.001665, 4.373281);
+        vendors.add(uuid2, 54.1583, 4.4931);
+        vendors.add(uuid3, 53.011665, 4.373281);
+        List<UUID> result  = restaurantService.processVendors(userLocation,
+                GeoGridIndex.build(vendors, GeoGridIndex.DEFAULT_CELL_SIZE));
 
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void getAllRestaurantsUsesVendorSnapshot() {
+        stubUserAddress();
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(vendors));
+
+        assertThat(restaurantService.getAllRestaurants(user)).containsExactly(user);
+        assertThat(restaurantService.getAllRestaurants(user)).containsExactly(user);
+
+        verify(mockUserService, times(1)).getAllVendors(null);
+    }
+
     @Test
     void calculateDistanceWithin100m() {
         double result = restaurantService.calculateDistance(new Coordinates(52.001665, 4.373281),
@@ -427,11 +464,11 @@ class RestaurantServiceTest {
     @Test
     void getAllRestaurantsWithQueryEmptyVendorsError() throws UserIDNotFoundException {
         // userLocation setup
-        when(mockUserService.getUserAddress(user)).thenReturn(address);
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.just(address));
         when(mockLocationService.convertAddressToGeoCoords(address)).thenReturn(List.of(51.990013, 4.37127));
 
-        when(mockUserService.getAllVendors()).thenReturn(vendors);
-        when(mockUserService.getVendorsFromID(anyList())).thenReturn(List.of());
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(vendors));
+        when(mockUserService.getVendorsFromID(anyList())).thenReturn(Flux.empty());
 
         assertThrows(RuntimeException.class, () -> restaurantService.getAllRestaurantsWithQuery(user,  "query"));
         verify(mockUserService, times(1)).getVendorsFromID(anyList());
@@ -439,13 +476,13 @@ class RestaurantServiceTest {
 
     @Test
     void getAllRestaurantsWithQueryUserError() throws UserIDNotFoundException {
-        when(mockUserService.getAllVendors()).thenReturn(vendors);
-        when(mockUserService.getUserAddress(user)).thenThrow(UserIDNotFoundException.class);
-        when(mockUserService.getUserLocation(user)).thenReturn(null);
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(vendors));
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.error(new UserIDNotFoundException(user)));
+        when(mockUserService.getUserLocation(user)).thenReturn(Mono.empty());
 
 
         assertThrows(RuntimeException.class, () -> restaurantService.getAllRestaurantsWithQuery(user, "query"));
-        verify(mockUserService, times(1)).getAllVendors();
+        verify(mockUserService, times(1)).getAllVendors(null);
         verify(mockUserService, times(1)).getUserAddress(user);
         verify(mockUserService, times(1)).getUserLocation(user);
         verify(mockUserService, times(0)).getVendorsFromID(anyList());
@@ -456,11 +493,11 @@ class RestaurantServiceTest {
         UUID v1 = user11;
 
         // userLocation setup
-        when(mockUserService.getUserAddress(user)).thenReturn(address);
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.just(address));
         when(mockLocationService.convertAddressToGeoCoords(address)).thenReturn(List.of(51.990013, 4.37127));
 
-        when(mockUserService.getAllVendors()).thenReturn(vendors);
-        when(mockUserService.getVendorsFromID(anyList())).thenReturn(vendorsList);
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(vendors));
+        when(mockUserService.getVendorsFromID(anyList())).thenReturn(Flux.fromIterable(vendorsList));
 
         List<UUID> result = restaurantService.getAllRestaurantsWithQuery(user, asian);
         List<UUID> expected = List.of(v1);
@@ -471,4 +508,39 @@ class RestaurantServiceTest {
         verify(mockUserService, times(1)).getVendorsFromID(anyList());
         assertThat(setResult).isEqualTo(setExpected);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllRestaurantsRequestsLocationAndVendorsConcurrently() {
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.just(address).delayElement(Duration.ofMillis(400)));
+        when(mockLocationService.convertAddressToGeoCoords(address)).thenReturn(List.of(51.990013, 4.37127));
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(vendors).delayElement(Duration.ofMillis(400)));
+
+        long start = System.nanoTime();
+        List<UUID> result = restaurantService.getAllRestaurants(user);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(result).containsExactly(user);
+        // one after the other this takes 800ms
+        assertThat(elapsedMs).isLessThan(750);
+    }
+
+    @Test
+    void getAllRestaurantsAsyncDoesNotCallUntilSubscribed() {
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.just(address));
+
+        Mono<List<UUID>> result = restaurantService.getAllRestaurantsAsync(user);
+
+        verify(mockLocationService, times(0)).convertAddressToGeoCoords(address);
+        verify(mockUserService, times(0)).getAllVendors(null);
+        assertThat(result).isNotNull();
+    }
+
+    @Test
+    void getUserLocationAddressEmpty() throws UserIDNotFoundException {
+        when(mockUserService.getUserAddress(user)).thenReturn(Mono.empty());
+        when(mockUserService.getUserLocation(user)).thenReturn(Mono.just(location));
+
+        assertThat(restaurantService.getUserLocation(user)).isEqualTo(List.of(51.998513, 4.37127));
+        verify(mockUserService, times(1)).getUserLocation(user);
+    }
+}
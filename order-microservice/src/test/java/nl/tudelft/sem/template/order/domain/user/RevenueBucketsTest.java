@@ -0,0 +1,317 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import nl.tudelft.sem.template.model.Revenue;
+import nl.tudelft.sem.template.order.domain.analytics.RevenueBucket;
+import nl.tudelft.sem.template.order.domain.analytics.RevenueBucketId;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderRepository;
+import nl.tudelft.sem.template.order.domain.user.repositories.RevenueBucketRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class RevenueBucketsTest {
+
+    static final LocalDate DAY = LocalDate.of(2023, 11, 15);
+
+    @Mock
+    transient RevenueBucketRepository bucketRepository;
+
+    @Mock
+    transient OrderRepository orderRepository;
+
+    @Mock
+    transient EmptyRows emptyRows;
+
+    @Mock
+    transient PlatformTransactionManager transactionManager;
+
+    transient RevenueBuckets revenueBuckets;
+    transient UUID vendor;
+    transient UUID orderID;
+
+    @BeforeEach
+    void setup() {
+        revenueBuckets = new RevenueBuckets(bucketRepository, orderRepository, emptyRows, transactionManager);
+        vendor = UUID.randomUUID();
+        orderID = UUID.randomUUID();
+    }
+
+    private static BigDecimal at(LocalDate day, int hour) {
+        return BigDecimal.valueOf(day.atTime(hour, 30).toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    @Test
+    void centsOfIsExact() {
+        assertThat(RevenueBuckets.centsOf(3.15f)).isEqualTo(315);
+        assertThat(RevenueBuckets.centsOf(0.1f)).isEqualTo(10);
+        assertThat(RevenueBuckets.centsOf(19.99f)).isEqualTo(1999);
+        assertThat(RevenueBuckets.centsOf(2.345f)).isEqualTo(235);
+    }
+
+    @Test
+    void dayOfUsesUtc() {
+        assertThat(RevenueBuckets.dayOf(at(DAY, 0))).isEqualTo(DAY);
+        assertThat(RevenueBuckets.dayOf(at(DAY, 23))).isEqualTo(DAY);
+    }
+
+    @Test
+    void contributionOfPaidOrderAddsUpRepeatedDishes() {
+        when(orderRepository.findDishPricesOfOrder(orderID)).thenReturn(List.of(
+                dishPrice(at(DAY, 12), true, 0.1f, 2), dishPrice(at(DAY, 12), true, 0.2f, 1),
+                dishPrice(at(DAY, 12), true, null, 3)));
+
+        RevenueBuckets.Contribution contribution = revenueBuckets.contributionOf(orderID);
+
+        assertThat(contribution.getBucket()).isEqualTo(new RevenueBucketId(vendor, DAY));
+        assertThat(contribution.getCents()).isEqualTo(40);
+    }
+
+    @Test
+    void contributionOfUnpaidOrMissingOrderIsNone() {
+        UUID missing = UUID.randomUUID();
+        when(orderRepository.findDishPricesOfOrder(orderID)).thenReturn(List.of(dishPrice(at(DAY, 12), false, 5f, 1)));
+        when(orderRepository.findDishPricesOfOrder(missing)).thenReturn(List.of());
+
+        assertThat(revenueBuckets.contributionOf(orderID)).isSameAs(RevenueBuckets.Contribution.NONE);
+        assertThat(revenueBuckets.contributionOf(missing)).isSameAs(RevenueBuckets.Contribution.NONE);
+    }
+
+    @Test
+    void replaceInSameBucketAddsDifference() {
+        when(bucketRepository.addToRevenue(vendor, DAY, 250)).thenReturn(1);
+
+        revenueBuckets.replace(contribution(DAY, 500), contribution(DAY, 750));
+
+        verify(bucketRepository).addToRevenue(vendor, DAY, 250);
+        verify(emptyRows, never()).create(any());
+    }
+
+    @Test
+    void replaceInOtherBucketMovesRevenue() {
+        LocalDate nextDay = DAY.plusDays(1);
+        when(bucketRepository.addToRevenue(vendor, DAY, -500)).thenReturn(1);
+        when(bucketRepository.addToRevenue(vendor, nextDay, 500)).thenReturn(1);
+
+        revenueBuckets.replace(contribution(DAY, 500), contribution(nextDay, 500));
+
+        verify(bucketRepository).addToRevenue(vendor, DAY, -500);
+        verify(bucketRepository).addToRevenue(vendor, nextDay, 500);
+    }
+
+    @Test
+    void replaceChangesBucketsInKeyOrder() {
+        LocalDate previousDay = DAY.minusDays(1);
+        when(bucketRepository.addToRevenue(vendor, previousDay, 500)).thenReturn(1);
+        when(bucketRepository.addToRevenue(vendor, DAY, -500)).thenReturn(1);
+
+        revenueBuckets.replace(contribution(DAY, 500), contribution(previousDay, 500));
+
+        InOrder inOrder = inOrder(bucketRepository);
+        inOrder.verify(bucketRepository).addToRevenue(vendor, previousDay, 500);
+        inOrder.verify(bucketRepository).addToRevenue(vendor, DAY, -500);
+    }
+
+    @Test
+    void replaceWithoutChangeDoesNothing() {
+        revenueBuckets.replace(contribution(DAY, 500), contribution(DAY, 500));
+        revenueBuckets.replace(RevenueBuckets.Contribution.NONE, RevenueBuckets.Contribution.NONE);
+
+        verifyNoInteractions(bucketRepository);
+    }
+
+    @Test
+    void replaceCreatesMissingBucket() {
+        when(bucketRepository.addToRevenue(vendor, DAY, 500)).thenReturn(0).thenReturn(1);
+        when(emptyRows.create(any())).thenReturn(true);
+        ArgumentCaptor<RevenueBucket> created = ArgumentCaptor.forClass(RevenueBucket.class);
+
+        revenueBuckets.replace(RevenueBuckets.Contribution.NONE, contribution(DAY, 500));
+
+        verify(emptyRows).create(created.capture());
+        assertThat(created.getValue().getId()).isEqualTo(new RevenueBucketId(vendor, DAY));
+        assertThat(created.getValue().getRevenueCents()).isZero();
+        assertThat(created.getValue().isNew()).isTrue();
+        verify(bucketRepository, times(2)).addToRevenue(vendor, DAY, 500);
+    }
+
+    @Test
+    void replaceAddsToBucketCreatedConcurrently() {
+        when(bucketRepository.addToRevenue(vendor, DAY, 500)).thenReturn(0).thenReturn(1);
+        when(emptyRows.create(any())).thenReturn(false);
+
+        revenueBuckets.replace(RevenueBuckets.Contribution.NONE, contribution(DAY, 500));
+
+        verify(bucketRepository, times(2)).addToRevenue(vendor, DAY, 500);
+    }
+
+    @Test
+    void getRevenuePerWeekAndMonth() {
+        // 2023-11-15 is a Wednesday, 2023-11-20 the Monday after it
+        when(bucketRepository.findRevenue(vendor, RevenueBuckets.FIRST_DAY, RevenueBuckets.LAST_DAY)).thenReturn(
+                List.of(revenue(DAY, 100), revenue(DAY.plusDays(4), 0), revenue(DAY.plusDays(5), 200),
+                        revenue(DAY.plusDays(16), 400)));
+
+        List<Revenue> weeks = revenueBuckets.getRevenue(vendor, null, null, RevenueBuckets.Period.WEEK);
+        List<Revenue> months = revenueBuckets.getRevenue(vendor, null, null, RevenueBuckets.Period.MONTH);
+
+        assertThat(weeks).extracting(Revenue::getStart, Revenue::getRevenueCents).containsExactly(
+                tuple("2023-11-13", 100L), tuple("2023-11-20", 200L), tuple("2023-11-27", 400L));
+        assertThat(months).extracting(Revenue::getStart, Revenue::getRevenueCents).containsExactly(
+                tuple("2023-11-01", 300L), tuple("2023-12-01", 400L));
+    }
+
+    @Test
+    void getRevenueOfDays() {
+        when(bucketRepository.findRevenue(vendor, DAY, DAY)).thenReturn(List.of(revenue(DAY, 100)));
+
+        assertThat(revenueBuckets.getRevenue(vendor, DAY, DAY, RevenueBuckets.Period.DAY))
+                .containsExactly(new Revenue().start("2023-11-15").revenueCents(100L));
+    }
+
+    @Test
+    void parsePeriod() {
+        assertThat(RevenueBuckets.Period.parse(null)).isEqualTo(RevenueBuckets.Period.DAY);
+        assertThat(RevenueBuckets.Period.parse("Month")).isEqualTo(RevenueBuckets.Period.MONTH);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RevenueBuckets.Period.parse("year"));
+    }
+
+    @Test
+    void reconcileCreatesMissingBucketsAndSetsTheWrongOnes() {
+        UUID otherVendor = UUID.randomUUID();
+        when(orderRepository.findVendorIDsOfPaidOrders()).thenReturn(List.of(vendor));
+        when(bucketRepository.findVendorIDs()).thenReturn(List.of(vendor, otherVendor));
+        when(orderRepository.streamPaidDishesOfVendor(vendor)).thenAnswer(invocation -> Stream.of(
+                paidDish(DAY, 1.1f, 1), paidDish(DAY, 2.2f, 1), paidDish(DAY.plusDays(1), 1.1f, 3),
+                paidDish(DAY, null, 2)));
+        when(orderRepository.streamPaidDishesOfVendor(otherVendor)).thenAnswer(invocation -> Stream.empty());
+        when(bucketRepository.findRevenue(vendor, RevenueBuckets.FIRST_DAY, RevenueBuckets.LAST_DAY))
+                .thenReturn(List.of(revenue(DAY, 110))).thenReturn(List.of(revenue(DAY, 110), revenue(DAY.plusDays(1), 0)));
+        when(bucketRepository.findForUpdateByVendorID(vendor)).thenReturn(List.of(new RevenueBucket(vendor, DAY, 110),
+                new RevenueBucket(vendor, DAY.plusDays(1), 0)));
+        when(bucketRepository.findRevenue(otherVendor, RevenueBuckets.FIRST_DAY, RevenueBuckets.LAST_DAY))
+                .thenReturn(List.of(revenue(DAY, 440)));
+        when(bucketRepository.findForUpdateByVendorID(otherVendor))
+                .thenReturn(List.of(new RevenueBucket(otherVendor, DAY, 440)));
+        ArgumentCaptor<RevenueBucket> created = ArgumentCaptor.forClass(RevenueBucket.class);
+
+        revenueBuckets.reconcile();
+
+        verify(emptyRows).create(created.capture());
+        assertThat(created.getValue()).extracting(RevenueBucket::getVendorID, RevenueBucket::getDay,
+                RevenueBucket::getRevenueCents).containsExactly(vendor, DAY.plusDays(1), 0L);
+        verify(bucketRepository).setRevenue(vendor, DAY, 330);
+        verify(bucketRepository).setRevenue(vendor, DAY.plusDays(1), 330);
+        verify(bucketRepository).setRevenue(otherVendor, DAY, 0);
+        verify(bucketRepository, never()).deleteAllInBatch();
+    }
+
+    @Test
+    void reconcileAddsUpTheRevenueAfterLockingTheBuckets() {
+        when(orderRepository.findVendorIDsOfPaidOrders()).thenReturn(List.of(vendor));
+        when(bucketRepository.findVendorIDs()).thenReturn(List.of(vendor));
+        when(orderRepository.streamPaidDishesOfVendor(vendor)).thenAnswer(invocation -> Stream.of(paidDish(DAY, 1.1f, 1)));
+        when(bucketRepository.findRevenue(vendor, RevenueBuckets.FIRST_DAY, RevenueBuckets.LAST_DAY))
+                .thenReturn(List.of(revenue(DAY, 110)))
+                .thenReturn(List.of(revenue(DAY, 110), revenue(DAY.plusDays(1), 220)));
+        when(bucketRepository.findForUpdateByVendorID(vendor)).thenReturn(List.of(new RevenueBucket(vendor, DAY, 110)));
+
+        revenueBuckets.reconcile();
+
+        InOrder inOrder = inOrder(bucketRepository, orderRepository);
+        inOrder.verify(bucketRepository).findForUpdateByVendorID(vendor);
+        inOrder.verify(orderRepository).streamPaidDishesOfVendor(vendor);
+        // the bucket of the next day was created by an order paid after the lock, which is not added yet
+        verify(bucketRepository, never()).setRevenue(any(), any(), anyLong());
+        verify(emptyRows, never()).create(any());
+    }
+
+    private RevenueBuckets.Contribution contribution(LocalDate day, long cents) {
+        return new RevenueBuckets.Contribution(new RevenueBucketId(vendor, day), cents);
+    }
+
+    private OrderRepository.OrderDishPrice dishPrice(BigDecimal date, boolean paid, Float price, int quantity) {
+        return new OrderRepository.OrderDishPrice() {
+            @Override
+            public UUID getVendorID() {
+                return vendor;
+            }
+
+            @Override
+            public BigDecimal getDate() {
+                return date;
+            }
+
+            @Override
+            public Boolean getOrderPaid() {
+                return paid;
+            }
+
+            @Override
+            public Float getPrice() {
+                return price;
+            }
+
+            @Override
+            public Integer getQuantity() {
+                return quantity;
+            }
+        };
+    }
+
+    private static OrderRepository.PaidDish paidDish(LocalDate day, Float price, int quantity) {
+        return new OrderRepository.PaidDish() {
+            @Override
+            public BigDecimal getDate() {
+                return at(day, 12);
+            }
+
+            @Override
+            public Float getPrice() {
+                return price;
+            }
+
+            @Override
+            public int getQuantity() {
+                return quantity;
+            }
+        };
+    }
+
+    private static RevenueBucketRepository.DailyRevenue revenue(LocalDate day, long cents) {
+        return new RevenueBucketRepository.DailyRevenue() {
+            @Override
+            public LocalDate getDay() {
+                return day;
+            }
+
+            @Override
+            public long getRevenueCents() {
+                return cents;
+            }
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class VendorAnalyticsCacheTest {
+
+    transient MeterRegistry meterRegistry;
+    transient VendorAnalyticsCache analyticsCache;
+    transient AtomicInteger runs;
+    transient UUID vendor;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        analyticsCache = new VendorAnalyticsCache(new MockEnvironment(), meterRegistry);
+        runs = new AtomicInteger();
+        vendor = UUID.randomUUID();
+    }
+
+    private Integer volume(UUID vendorID, Long from) throws VendorNotFoundException, NoOrdersException {
+        return analyticsCache.get(vendorID, "orderVolumes", runs::incrementAndGet, from, null);
+    }
+
+    @Test
+    void repeatedQueriesAreServedFromTheCache() throws VendorNotFoundException, NoOrdersException {
+        assertThat(volume(vendor, null)).isEqualTo(1);
+        assertThat(volume(vendor, null)).isEqualTo(1);
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.hitRatio").tag("cache", "vendorAnalytics").gauge().value())
+                .isEqualTo(0.5);
+    }
+
+    @Test
+    void parametersAreCachedSeparately() throws VendorNotFoundException, NoOrdersException {
+        volume(vendor, null);
+        volume(vendor, 1L);
+        volume(vendor, 1L);
+
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateOnlyAffectsThatVendor() throws VendorNotFoundException, NoOrdersException {
+        UUID other = UUID.randomUUID();
+        volume(vendor, null);
+        volume(other, null);
+
+        analyticsCache.invalidate(vendor);
+        analyticsCache.invalidate(null);
+
+        assertThat(volume(vendor, null)).isEqualTo(3);
+        assertThat(volume(other, null)).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateInATransactionWaitsForTheCommit() throws VendorNotFoundException, NoOrdersException {
+        volume(vendor, null);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            analyticsCache.invalidate(vendor);
+
+            assertThat(volume(vendor, null)).isEqualTo(1);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(volume(vendor, null)).isEqualTo(2);
+    }
+
+    @Test
+    void exceptionsAreNotCached() throws VendorNotFoundException, NoOrdersException {
+        Assertions.assertThrows(VendorNotFoundException.class, () -> analyticsCache.get(vendor, "peakTimes", () -> {
+            runs.incrementAndGet();
+            throw new VendorNotFoundException(vendor);
+        }));
+
+        List<Integer> volumes = analyticsCache.get(vendor, "peakTimes", () -> List.of(runs.incrementAndGet()));
+
+        assertThat(volumes).containsExactly(2);
+    }
+
+    @Test
+    void resultsExpireAfterTheMaximumStaleness() throws VendorNotFoundException, NoOrdersException {
+        analyticsCache = new VendorAnalyticsCache(new MockEnvironment()
+                .withProperty("analytics.cache.maxStalenessMs", "0"), new SimpleMeterRegistry());
+
+        volume(vendor, null);
+        volume(vendor, null);
+
+        assertThat(runs.get()).isEqualTo(2);
+    }
+}
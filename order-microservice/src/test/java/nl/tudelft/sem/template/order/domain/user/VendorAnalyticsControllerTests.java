@@ -1,41 +1,51 @@
 package nl.tudelft.sem.template.order.domain.user;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import nl.tudelft.sem.template.model.Address;
+import nl.tudelft.sem.template.model.DailyVolume;
 import nl.tudelft.sem.template.model.Dish;
 import nl.tudelft.sem.template.model.Order;
-import nl.tudelft.sem.template.order.controllers.DishController;
-import nl.tudelft.sem.template.order.controllers.OrderController;
+import nl.tudelft.sem.template.model.PopularItem;
+import nl.tudelft.sem.template.model.TopDish;
+import nl.tudelft.sem.template.model.UniqueCustomers;
+import nl.tudelft.sem.template.model.VendorDashboard;
 import nl.tudelft.sem.template.order.controllers.VendorAnalyticsController;
+import nl.tudelft.sem.template.order.domain.helpers.OrderCursor;
+import nl.tudelft.sem.template.order.domain.helpers.OrderPage;
+import nl.tudelft.sem.template.order.domain.helpers.TimeWindow;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
 
 @ExtendWith(MockitoExtension.class)
 public class VendorAnalyticsControllerTests {
 
-    @Mock
-    private transient OrderController orderController;
-
     @Mock
     private transient OrderService orderService;
+
     @Mock
-    private transient DishController dishController;
+    private transient VendorDashboards vendorDashboards;
 
-    @InjectMocks
     private transient VendorAnalyticsController vendorAnalyticsController;
 
     transient Order order1;
@@ -46,6 +56,9 @@ public class VendorAnalyticsControllerTests {
 
     @BeforeEach
     void setUp() {
+        vendorAnalyticsController = new VendorAnalyticsController(orderService,
+                new VendorAnalyticsCache(new MockEnvironment(), new SimpleMeterRegistry()), vendorDashboards);
+
         a1 = new Address();
         a1.setStreet("Mekelweg 5");
         a1.setCity("Delft");
@@ -101,155 +114,154 @@ public class VendorAnalyticsControllerTests {
     }
 
     @Test
-    void testGetOrderEarnings() {
-        UUID orderID = UUID.randomUUID();
-        ResponseEntity<List<UUID>> respList = new ResponseEntity<>(listOfDishes, HttpStatus.OK);
-
-        when(orderController.getListOfDishes(orderID)).thenReturn(respList);
-
-        when(dishController.getDishByID(listOfDishes.get(0))).thenReturn(new ResponseEntity<>(dish1, HttpStatus.OK));
-        when(dishController.getDishByID(listOfDishes.get(1))).thenReturn(new ResponseEntity<>(dish2, HttpStatus.OK));
+    void get_customer_history_vendor_not_found() throws Exception, CustomerNotFoundException {
+        when(orderService.getOrdersFromCustomerAtVendor(order1.getVendorID(),
+                order1.getCustomerID(), TimeWindow.allTime())).thenThrow(VendorNotFoundException.class);
 
-        ResponseEntity<Float> response = vendorAnalyticsController.getOrderEarnings(orderID);
+        ResponseEntity<List<Order>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsHistoryCustomerIDGet(order1.getVendorID(), order1.getCustomerID(),
+                        null, null, null, null);
 
-        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
-        Assertions.assertEquals(15.0f, response.getBody());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
     @Test
-    void testGetOrderEarnings_oneDishNotFound() {
-        UUID orderID = UUID.randomUUID();
-        ResponseEntity<List<UUID>> respList = new ResponseEntity<>(listOfDishes, HttpStatus.OK);
-
-        when(orderController.getListOfDishes(orderID)).thenReturn(respList);
-
-        when(dishController.getDishByID(listOfDishes.get(0))).thenReturn(new ResponseEntity<>(dish1, HttpStatus.NOT_FOUND));
-        when(dishController.getDishByID(listOfDishes.get(1))).thenReturn(new ResponseEntity<>(dish2, HttpStatus.OK));
+    void get_customer_history_customer_not_found() throws Exception, CustomerNotFoundException {
+        when(orderService.getOrdersFromCustomerAtVendor(order1.getVendorID(),
+                order1.getCustomerID(), TimeWindow.allTime())).thenThrow(CustomerNotFoundException.class);
 
-        ResponseEntity<Float> response = vendorAnalyticsController.getOrderEarnings(orderID);
+        ResponseEntity<List<Order>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsHistoryCustomerIDGet(order1.getVendorID(), order1.getCustomerID(),
+                        null, null, null, null);
 
-        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
-        Assertions.assertEquals(10.0f, response.getBody());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
     @Test
-    void testGetOrderEarnings_listDishesNotFound() {
-        UUID orderID = UUID.randomUUID();
-        ResponseEntity<List<UUID>> respList = new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-        when(orderController.getListOfDishes(orderID)).thenReturn(respList);
+    void get_customer_history_no_order() throws Exception, CustomerNotFoundException {
+        when(orderService.getOrdersFromCustomerAtVendor(order1.getVendorID(),
+                order1.getCustomerID(), TimeWindow.allTime())).thenThrow(NoOrdersException.class);
 
-        ResponseEntity<Float> response = vendorAnalyticsController.getOrderEarnings(orderID);
+        ResponseEntity<List<Order>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsHistoryCustomerIDGet(order1.getVendorID(), order1.getCustomerID(),
+                        null, null, null, null);
 
-        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertThat(response.getBody()).isEqualTo(new ArrayList<>());
     }
 
     @Test
-    void testGetOrderEarnings_throwsException() throws NullPointerException {
-        UUID orderID = UUID.randomUUID();
-
-        when(orderController.getListOfDishes(orderID)).thenThrow(NullPointerException.class);
+    void get_customer_history_unexpected_exception() throws Exception, CustomerNotFoundException {
+        when(orderService.getOrdersFromCustomerAtVendor(order1.getVendorID(),
+                order1.getCustomerID(), TimeWindow.allTime())).thenThrow(NullPointerException.class);
 
-        ResponseEntity<Float> response = vendorAnalyticsController.getOrderEarnings(orderID);
+        ResponseEntity<List<Order>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsHistoryCustomerIDGet(order1.getVendorID(), order1.getCustomerID(),
+                        null, null, null, null);
 
         Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
     @Test
-    void testGetOrderEarnings_serverErrorWhenRetrievingOneDish() {
-        UUID orderID = UUID.randomUUID();
-        ResponseEntity<List<UUID>> respList = new ResponseEntity<>(listOfDishes, HttpStatus.OK);
+    void get_customer_history_proper_request() throws Exception, CustomerNotFoundException {
+        when(orderService.getOrdersFromCustomerAtVendor(order1.getVendorID(),
+                order1.getCustomerID(), TimeWindow.allTime())).thenReturn(List.of(order1));
+
+        ResponseEntity<List<Order>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsHistoryCustomerIDGet(order1.getVendorID(), order1.getCustomerID(),
+                        null, null, null, null);
 
-        when(orderController.getListOfDishes(orderID)).thenReturn(respList);
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertThat(response.getBody()).isEqualTo(List.of(order1));
+    }
 
-        when(dishController.getDishByID(listOfDishes.get(0)))
-                .thenReturn(new ResponseEntity<>(dish1, HttpStatus.INTERNAL_SERVER_ERROR));
-        when(dishController.getDishByID(listOfDishes.get(0)))
-                .thenReturn(new ResponseEntity<>(dish1, HttpStatus.OK));
-        when(dishController.getDishByID(listOfDishes.get(1)))
-                .thenReturn(new ResponseEntity<>(dish2, HttpStatus.OK));
+    @Test
+    void get_customer_history_page() throws Exception, CustomerNotFoundException {
+        Order order2 = new Order().orderID(UUID.randomUUID()).date(order1.getDate());
+        when(orderService.getOrdersFromCustomerAtVendor(order1.getVendorID(), order1.getCustomerID(),
+                TimeWindow.allTime(), OrderCursor.start(), 1)).thenReturn(OrderPage.of(List.of(order1, order2), 1));
 
-        ResponseEntity<Float> response = vendorAnalyticsController.getOrderEarnings(orderID);
+        ResponseEntity<List<Order>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsHistoryCustomerIDGet(order1.getVendorID(), order1.getCustomerID(),
+                        null, null, 1, null);
 
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
-        Assertions.assertEquals(15.0f, response.getBody());
+        assertThat(response.getBody()).containsExactly(order1);
+        assertThat(response.getHeaders().getFirst("X-Next-Cursor")).isEqualTo(OrderCursor.after(order1).encode());
     }
 
     @Test
-    void get_customer_history_vendor_not_found() throws Exception, CustomerNotFoundException {
-        when(orderService.getOrdersFromCustomerAtVendor(order1.getVendorID(),
-                order1.getCustomerID())).thenThrow(VendorNotFoundException.class);
-
+    void get_customer_history_malformed_cursor() {
         ResponseEntity<List<Order>> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsHistoryCustomerIDGet(order1.getVendorID(), order1.getCustomerID());
+                .vendorVendorIDAnalyticsHistoryCustomerIDGet(order1.getVendorID(), order1.getCustomerID(),
+                        null, null, null, "not a cursor!");
 
-        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(orderService);
     }
 
     @Test
-    void get_customer_history_customer_not_found() throws Exception, CustomerNotFoundException {
-        when(orderService.getOrdersFromCustomerAtVendor(order1.getVendorID(),
-                order1.getCustomerID())).thenThrow(CustomerNotFoundException.class);
+    void get_unique_customers() throws Exception {
+        UniqueCustomers customers = new UniqueCustomers().estimate(3L).relativeStandardError(0.01625);
+        when(orderService.getUniqueCustomers(order1.getVendorID(), null, null)).thenReturn(customers);
 
-        ResponseEntity<List<Order>> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsHistoryCustomerIDGet(order1.getVendorID(), order1.getCustomerID());
+        ResponseEntity<UniqueCustomers> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsUniqueCustomersGet(order1.getVendorID(), null, null);
 
-        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(customers);
     }
 
     @Test
-    void get_customer_history_no_order() throws Exception, CustomerNotFoundException {
-        when(orderService.getOrdersFromCustomerAtVendor(order1.getVendorID(),
-                order1.getCustomerID())).thenThrow(NoOrdersException.class);
+    void get_unique_customers_vendor_not_found() throws Exception {
+        when(orderService.getUniqueCustomers(order1.getVendorID(), null, null)).thenThrow(VendorNotFoundException.class);
 
-        ResponseEntity<List<Order>> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsHistoryCustomerIDGet(order1.getVendorID(), order1.getCustomerID());
+        ResponseEntity<UniqueCustomers> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsUniqueCustomersGet(order1.getVendorID(), null, null);
 
-        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertThat(response.getBody()).isEqualTo(new ArrayList<>());
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
     @Test
-    void get_customer_history_unexpected_exception() throws Exception, CustomerNotFoundException {
-        when(orderService.getOrdersFromCustomerAtVendor(order1.getVendorID(),
-                order1.getCustomerID())).thenThrow(NullPointerException.class);
+    void get_top_dishes() throws Exception {
+        List<TopDish> dishes = List.of(new TopDish().dishID(dish1.getDishID()).count(4L).maxOverestimate(0L));
+        when(orderService.getTopDishes(order1.getVendorID(), null, null, 1)).thenReturn(dishes);
 
-        ResponseEntity<List<Order>> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsHistoryCustomerIDGet(order1.getVendorID(), order1.getCustomerID());
+        ResponseEntity<List<TopDish>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsTopDishesGet(order1.getVendorID(), null, null, 1);
 
-        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(dishes);
     }
 
     @Test
-    void get_customer_history_proper_request() throws Exception, CustomerNotFoundException {
-        when(orderService.getOrdersFromCustomerAtVendor(order1.getVendorID(),
-                order1.getCustomerID())).thenReturn(List.of(order1));
+    void get_top_dishes_limit_out_of_range() throws Exception {
+        when(orderService.getTopDishes(order1.getVendorID(), null, null, 65)).thenThrow(IllegalArgumentException.class);
 
-        ResponseEntity<List<Order>> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsHistoryCustomerIDGet(order1.getVendorID(), order1.getCustomerID());
+        ResponseEntity<List<TopDish>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsTopDishesGet(order1.getVendorID(), null, null, 65);
 
-        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertThat(response.getBody()).isEqualTo(List.of(order1));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
     @Test
     void get_vendor_order_volume_vendor_not_found() throws Exception {
-        when(orderService.getOrderVolume(order1.getVendorID()))
+        when(orderService.getOrderVolume(order1.getVendorID(), TimeWindow.allTime()))
                 .thenThrow(VendorNotFoundException.class);
 
         ResponseEntity<Integer> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsOrderVolumesGet(order1.getVendorID());
+                .vendorVendorIDAnalyticsOrderVolumesGet(order1.getVendorID(), null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
     @Test
     void get_vendor_order_volume_no_orders() throws Exception {
-        when(orderService.getOrderVolume(order1.getVendorID()))
+        when(orderService.getOrderVolume(order1.getVendorID(), TimeWindow.allTime()))
                 .thenThrow(NoOrdersException.class);
 
         ResponseEntity<Integer> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsOrderVolumesGet(order1.getVendorID());
+                .vendorVendorIDAnalyticsOrderVolumesGet(order1.getVendorID(), null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(0);
@@ -257,76 +269,141 @@ public class VendorAnalyticsControllerTests {
 
     @Test
     void get_vendor_order_volume_unexpected_error() throws Exception {
-        when(orderService.getOrderVolume(order1.getVendorID()))
+        when(orderService.getOrderVolume(order1.getVendorID(), TimeWindow.allTime()))
                 .thenThrow(NullPointerException.class);
 
         ResponseEntity<Integer> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsOrderVolumesGet(order1.getVendorID());
+                .vendorVendorIDAnalyticsOrderVolumesGet(order1.getVendorID(), null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
     @Test
     void get_vendor_order_volume_proper_request() throws Exception {
-        when(orderService.getOrderVolume(order1.getVendorID())).thenReturn(20);
+        when(orderService.getOrderVolume(order1.getVendorID(), TimeWindow.allTime())).thenReturn(20);
 
         ResponseEntity<Integer> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsOrderVolumesGet(order1.getVendorID());
+                .vendorVendorIDAnalyticsOrderVolumesGet(order1.getVendorID(), null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(20);
     }
 
+    @Test
+    void get_vendor_order_volume_cached() throws Exception {
+        when(orderService.getOrderVolume(order1.getVendorID(), TimeWindow.allTime())).thenReturn(20);
+
+        vendorAnalyticsController.vendorVendorIDAnalyticsOrderVolumesGet(order1.getVendorID(), null, null);
+        ResponseEntity<Integer> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsOrderVolumesGet(order1.getVendorID(), null, null);
+
+        assertThat(response.getBody()).isEqualTo(20);
+        verify(orderService, times(1)).getOrderVolume(order1.getVendorID(), TimeWindow.allTime());
+    }
+
     @Test
     void get_vendor_popular_items_vendor_not_found() throws Exception {
-        when(orderService.getDishesSortedByVolume(order1.getVendorID()))
+        when(orderService.getPopularItems(order1.getVendorID(), null))
                 .thenThrow(VendorNotFoundException.class);
 
-        ResponseEntity<List<Dish>> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsPopularItemsGet(order1.getVendorID());
+        ResponseEntity<List<PopularItem>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsPopularItemsGet(order1.getVendorID(), null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
     @Test
     void get_vendor_popular_items_unexpected_exception() throws Exception {
-        when(orderService.getDishesSortedByVolume(order1.getVendorID())).thenThrow(NullPointerException.class);
+        when(orderService.getPopularItems(order1.getVendorID(), null)).thenThrow(NullPointerException.class);
+
+        ResponseEntity<List<PopularItem>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsPopularItemsGet(order1.getVendorID(), null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void get_vendor_popular_items_invalid_limit() throws Exception {
+        when(orderService.getPopularItems(order1.getVendorID(), 0)).thenThrow(IllegalArgumentException.class);
+
+        ResponseEntity<List<PopularItem>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsPopularItemsGet(order1.getVendorID(), 0);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void get_dashboard() throws Exception {
+        VendorDashboard content = new VendorDashboard().orderVolume(2).peakTimes(Collections.nCopies(24, 0))
+                .popularItems(List.of());
+        Map<String, Long> timings = new LinkedHashMap<>();
+        timings.put(VendorDashboards.VENDOR, 1_000_000L);
+        timings.put(VendorDashboards.TOTAL, 2_500_000L);
+        when(vendorDashboards.getDashboard(order1.getVendorID(), null, null, null, 5))
+                .thenReturn(new VendorDashboards.Dashboard(content, timings));
+
+        ResponseEntity<VendorDashboard> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsDashboardGet(order1.getVendorID(), null, null, null, 5);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(content);
+        assertThat(response.getHeaders().getFirst(VendorAnalyticsController.SERVER_TIMING))
+                .isEqualTo("vendor;dur=1.0, total;dur=2.5");
+    }
+
+    @Test
+    void get_dashboard_vendor_not_found() throws Exception {
+        when(vendorDashboards.getDashboard(order1.getVendorID(), null, null, null, null))
+                .thenThrow(VendorNotFoundException.class);
+
+        ResponseEntity<VendorDashboard> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsDashboardGet(order1.getVendorID(), null, null, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void get_dashboard_limit_too_small() throws Exception {
+        when(vendorDashboards.getDashboard(order1.getVendorID(), null, null, null, 0))
+                .thenThrow(IllegalArgumentException.class);
 
-        ResponseEntity<List<Dish>> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsPopularItemsGet(order1.getVendorID());
+        ResponseEntity<VendorDashboard> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsDashboardGet(order1.getVendorID(), null, null, null, 0);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
     @Test
     void get_vendor_popular_items_proper_request() throws Exception {
-        when(orderService.getDishesSortedByVolume(order1.getVendorID())).thenReturn(List.of(dish2, dish1));
+        PopularItem item1 = new PopularItem().dishID(dish1.getDishID()).name(dish1.getName()).count(1L);
+        PopularItem item2 = new PopularItem().dishID(dish2.getDishID()).name(dish2.getName()).count(2L);
+        when(orderService.getPopularItems(order1.getVendorID(), 5)).thenReturn(List.of(item2, item1));
 
-        ResponseEntity<List<Dish>> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsPopularItemsGet(order1.getVendorID());
+        ResponseEntity<List<PopularItem>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsPopularItemsGet(order1.getVendorID(), 5);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody().size()).isEqualTo(2);
-        assertThat(response.getBody().get(0)).isEqualTo(dish2);
-        assertThat(response.getBody().get(1)).isEqualTo(dish1);
+        assertThat(response.getBody()).containsExactly(item2, item1);
     }
 
     @Test
     void get_vendor_peak_times_vendor_not_found() throws Exception {
-        when(orderService.getOrderVolumeByTime(order1.getVendorID())).thenThrow(VendorNotFoundException.class);
+        when(orderService.getOrderVolumeByTime(order1.getVendorID(), TimeWindow.allTime()))
+                .thenThrow(VendorNotFoundException.class);
 
         ResponseEntity<List<Integer>> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsPeakTimesGet(order1.getVendorID());
+                .vendorVendorIDAnalyticsPeakTimesGet(order1.getVendorID(), null, null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
     @Test
     void get_vendor_peak_times_no_orders() throws Exception {
-        when(orderService.getOrderVolumeByTime(order1.getVendorID())).thenThrow(NoOrdersException.class);
+        when(orderService.getOrderVolumeByTime(order1.getVendorID(), TimeWindow.allTime()))
+                .thenThrow(NoOrdersException.class);
 
         ResponseEntity<List<Integer>> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsPeakTimesGet(order1.getVendorID());
+                .vendorVendorIDAnalyticsPeakTimesGet(order1.getVendorID(), null, null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         List<Integer> res = new ArrayList<>();
@@ -338,10 +415,11 @@ public class VendorAnalyticsControllerTests {
 
     @Test
     void get_vendor_peak_times_unexpected_error() throws Exception {
-        when(orderService.getOrderVolumeByTime(order1.getVendorID())).thenThrow(NullPointerException.class);
+        when(orderService.getOrderVolumeByTime(order1.getVendorID(), TimeWindow.allTime()))
+                .thenThrow(NullPointerException.class);
 
         ResponseEntity<List<Integer>> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsPeakTimesGet(order1.getVendorID());
+                .vendorVendorIDAnalyticsPeakTimesGet(order1.getVendorID(), null, null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
@@ -357,35 +435,68 @@ public class VendorAnalyticsControllerTests {
         res.set(7, 2);
         res.set(0, 1);
         res.set(23, 7);
-        when(orderService.getOrderVolumeByTime(order1.getVendorID())).thenReturn(res);
+        when(orderService.getOrderVolumeByTime(order1.getVendorID(), TimeWindow.allTime())).thenReturn(res);
 
         ResponseEntity<List<Integer>> response = vendorAnalyticsController
-                .vendorVendorIDAnalyticsPeakTimesGet(order1.getVendorID());
+                .vendorVendorIDAnalyticsPeakTimesGet(order1.getVendorID(), null, null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(res);
     }
 
     @Test
-    public void testGetOrderEarningsInternalServerError() {
-        UUID orderId = UUID.randomUUID();
-        List<UUID> dishes = new ArrayList<>();
-        dishes.add(dish1.getDishID());
-        dishes.add(dish2.getDishID());
-        when(orderController.getListOfDishes(orderId))
-                .thenReturn(ResponseEntity.ok(dishes));
+    void get_peak_times_in_time_zone() throws Exception {
+        List<Integer> res = new ArrayList<>(Collections.nCopies(24, 0));
+        res.set(9, 3);
+        when(orderService.getOrderVolumeByTime(order1.getVendorID(), TimeWindow.of(10L, 20L, "Asia/Kathmandu")))
+                .thenReturn(res);
+
+        ResponseEntity<List<Integer>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsPeakTimesGet(order1.getVendorID(), 10L, 20L, "Asia/Kathmandu");
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertThat(response.getBody()).isEqualTo(res);
+    }
 
-        when(dishController.getDishByID(dish1.getDishID()))
-                .thenReturn(new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR))
-                .thenReturn(new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR))
-                .thenReturn(new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR));
-        when(dishController.getDishByID(dish2.getDishID()))
-                .thenReturn(new ResponseEntity<>(dish2, HttpStatus.OK));
+    @Test
+    void get_peak_times_unknown_zone() {
+        ResponseEntity<List<Integer>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsPeakTimesGet(order1.getVendorID(), null, null, "Mars/Olympus_Mons");
 
-        ResponseEntity<Float> result = vendorAnalyticsController.getOrderEarnings(orderId);
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(orderService);
+    }
 
-        Assertions.assertEquals(HttpStatus.OK, result.getStatusCode());
-        Assertions.assertEquals(10.0f, result.getBody());
+    @Test
+    void get_order_volumes_from_after_to() {
+        ResponseEntity<Integer> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsOrderVolumesGet(order1.getVendorID(), 20L, 10L);
 
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void get_weekdays_vendor_not_found() throws Exception {
+        when(orderService.getOrderVolumeByWeekday(order1.getVendorID(), TimeWindow.allTime()))
+                .thenThrow(VendorNotFoundException.class);
+
+        ResponseEntity<List<Integer>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsWeekdaysGet(order1.getVendorID(), null, null, null);
+
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void get_daily_volumes_proper_request() throws Exception {
+        List<DailyVolume> res = List.of(new DailyVolume().date("2023-11-15").volume(4));
+        when(orderService.getDailyOrderVolumes(order1.getVendorID(), TimeWindow.of(10L, null, "UTC")))
+                .thenReturn(res);
+
+        ResponseEntity<List<DailyVolume>> response = vendorAnalyticsController
+                .vendorVendorIDAnalyticsDailyVolumesGet(order1.getVendorID(), 10L, null, "UTC");
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertThat(response.getBody()).isEqualTo(res);
     }
 }
@@ -0,0 +1,128 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.DateTimeException;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import nl.tudelft.sem.template.model.PopularItem;
+import nl.tudelft.sem.template.model.VendorDashboard;
+import nl.tudelft.sem.template.order.domain.helpers.TimeWindow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+@ExtendWith(MockitoExtension.class)
+class VendorDashboardsTest {
+
+    @Mock
+    transient OrderService orderService;
+
+    transient VendorDashboards vendorDashboards;
+    transient UUID vendor;
+    transient PopularItem pizza;
+
+    @BeforeEach
+    void setup() {
+        vendorDashboards = new VendorDashboards(orderService,
+                new VendorAnalyticsCache(new MockEnvironment(), new SimpleMeterRegistry()),
+                new MockEnvironment().withProperty("analytics.dashboard.threads", "2"));
+        vendor = UUID.randomUUID();
+        pizza = new PopularItem().dishID(UUID.randomUUID()).name("Pizza").price(5.0f).count(3L);
+    }
+
+    @AfterEach
+    void shutdown() {
+        vendorDashboards.shutdown();
+    }
+
+    @Test
+    void getDashboardComputesAllSections() throws Exception {
+        TimeWindow window = TimeWindow.of(1L, 2L, null);
+        List<Integer> hours = Collections.nCopies(24, 1);
+        when(orderService.countOrders(vendor, window)).thenReturn(24);
+        when(orderService.countOrdersByHour(vendor, TimeWindow.of(1L, 2L, "UTC"))).thenReturn(hours);
+        when(orderService.countPopularItems(vendor, 5)).thenReturn(List.of(pizza));
+
+        VendorDashboards.Dashboard dashboard = vendorDashboards.getDashboard(vendor, 1L, 2L, "UTC", 5);
+
+        assertThat(dashboard.getContent()).isEqualTo(new VendorDashboard().orderVolume(24).peakTimes(hours)
+                .popularItems(List.of(pizza)));
+        assertThat(dashboard.getTimings()).containsOnlyKeys(VendorDashboards.VENDOR, VendorDashboards.ORDER_VOLUME,
+                VendorDashboards.PEAK_TIMES, VendorDashboards.POPULAR_ITEMS, VendorDashboards.TOTAL);
+        assertThat(dashboard.getServerTiming()).startsWith("vendor;dur=").contains(", orderVolume;dur=")
+                .contains(", total;dur=");
+        verify(orderService).verifyVendorExists(vendor);
+    }
+
+    @Test
+    void getDashboardWithoutOrders() throws Exception {
+        when(orderService.countOrders(vendor, TimeWindow.allTime())).thenThrow(NoOrdersException.class);
+        when(orderService.countOrdersByHour(vendor, TimeWindow.allTime())).thenThrow(NoOrdersException.class);
+        when(orderService.countPopularItems(vendor, null)).thenReturn(List.of());
+
+        VendorDashboard dashboard = vendorDashboards.getDashboard(vendor, null, null, null, null).getContent();
+
+        assertThat(dashboard.getOrderVolume()).isZero();
+        assertThat(dashboard.getPeakTimes()).hasSize(24).containsOnly(0);
+        assertThat(dashboard.getPopularItems()).isEmpty();
+    }
+
+    @Test
+    void getDashboardSectionsAreCached() throws Exception {
+        when(orderService.countOrders(vendor, TimeWindow.allTime())).thenReturn(1);
+        when(orderService.countOrdersByHour(vendor, TimeWindow.allTime())).thenReturn(Collections.nCopies(24, 0));
+        when(orderService.countPopularItems(vendor, null)).thenReturn(List.of(pizza));
+
+        vendorDashboards.getDashboard(vendor, null, null, null, null);
+        vendorDashboards.getDashboard(vendor, null, null, null, null);
+
+        verify(orderService, times(2)).verifyVendorExists(vendor);
+        verify(orderService).countOrders(vendor, TimeWindow.allTime());
+        verify(orderService).countOrdersByHour(vendor, TimeWindow.allTime());
+        verify(orderService).countPopularItems(vendor, null);
+    }
+
+    @Test
+    void getDashboardVendorNotFound() throws Exception {
+        doThrow(VendorNotFoundException.class).when(orderService).verifyVendorExists(vendor);
+
+        Assertions.assertThrows(VendorNotFoundException.class,
+                () -> vendorDashboards.getDashboard(vendor, null, null, null, null));
+        verify(orderService).verifyVendorExists(vendor);
+        verifyNoMoreInteractions(orderService);
+    }
+
+    @Test
+    void getDashboardChecksTheArgumentsFirst() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> vendorDashboards.getDashboard(vendor, null, null, null, 0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> vendorDashboards.getDashboard(vendor, 2L, 1L, null, null));
+        Assertions.assertThrows(DateTimeException.class,
+                () -> vendorDashboards.getDashboard(vendor, null, null, "Mars/Olympus", null));
+        verifyNoMoreInteractions(orderService);
+    }
+
+    @Test
+    void getDashboardSectionFails() throws Exception {
+        when(orderService.countOrders(vendor, TimeWindow.allTime())).thenReturn(1);
+        when(orderService.countOrdersByHour(vendor, TimeWindow.allTime())).thenReturn(Collections.nCopies(24, 0));
+        when(orderService.countPopularItems(vendor, null)).thenThrow(IllegalStateException.class);
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> vendorDashboards.getDashboard(vendor, null, null, null, null));
+    }
+}
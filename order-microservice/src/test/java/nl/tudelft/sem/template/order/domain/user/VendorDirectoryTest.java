@@ -0,0 +1,169 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.internal.verification.VerificationModeFactory.times;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.order.domain.helpers.GeoGridIndex;
+import nl.tudelft.sem.template.user.services.JsonParserService;
+import nl.tudelft.sem.template.user.services.ReactiveUserMicroServiceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class VendorDirectoryTest {
+    private static final String REFRESH_METRIC = "userMicroService.vendorDirectory.refresh";
+    private static final String AGE_METRIC = "userMicroService.vendorDirectory.age";
+    private static final String ETAG = "\"v1\"";
+
+    @Mock
+    transient ReactiveUserMicroServiceService mockUserService;
+
+    transient MeterRegistry meterRegistry;
+    transient VendorDirectory vendorDirectory;
+    transient UUID vendor;
+    transient String vendors;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        vendorDirectory = new VendorDirectory(mockUserService, new JsonParserService(), meterRegistry);
+        vendor = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+        vendors = """
+                [
+                    {
+                        "userID": "550e8400-e29b-41d4-a716-446655440000",
+                        "cuisineType": "italian",
+                        "location": {
+                            "latitude": 51.998513,
+                            "longitude": 4.37127
+                        }
+                    }
+                ]""";
+    }
+
+    private Mono<ResponseEntity<String>> vendorsResponse(String etag) {
+        return Mono.just(ResponseEntity.ok().eTag(etag).body(vendors));
+    }
+
+    private long refreshCount(String outcome) {
+        return meterRegistry.get(REFRESH_METRIC).tag("outcome", outcome).timer().count();
+    }
+
+    @Test
+    void coldStartFetchesVendors() {
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(ETAG));
+
+        GeoGridIndex index = vendorDirectory.getIndex().block();
+
+        assertThat(index.withinRadius(51.998513, 4.37127, 1)).containsExactly(vendor);
+        assertThat(refreshCount("updated")).isEqualTo(1);
+    }
+
+    @Test
+    void searchesAfterColdStartMakeNoCalls() {
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(ETAG));
+
+        GeoGridIndex first = vendorDirectory.getIndex().block();
+        GeoGridIndex second = vendorDirectory.getIndex().block();
+
+        assertThat(second).isSameAs(first);
+        verify(mockUserService, times(1)).getAllVendors(null);
+    }
+
+    @Test
+    void concurrentColdStartsShareOneFetch() {
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(ETAG).delayElement(Duration.ofMillis(200)));
+
+        List<GeoGridIndex> indexes = Mono.zip(vendorDirectory.getIndex(), vendorDirectory.getIndex(), List::of).block();
+
+        assertThat(indexes.get(0)).isSameAs(indexes.get(1));
+        verify(mockUserService, times(1)).getAllVendors(null);
+    }
+
+    @Test
+    void failedColdStartIsTriedAgain() {
+        when(mockUserService.getAllVendors(null))
+                .thenReturn(Mono.error(new RuntimeException("no vendors in database")))
+                .thenReturn(vendorsResponse(ETAG));
+
+        assertThrows(RuntimeException.class, () -> vendorDirectory.getIndex().block());
+        assertThat(vendorDirectory.getIndex().block().size()).isEqualTo(1);
+        assertThat(refreshCount("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void unparsableVendorsFailColdStart() {
+        when(mockUserService.getAllVendors(null)).thenReturn(Mono.just(ResponseEntity.ok("[]")));
+
+        assertThrows(RuntimeException.class, () -> vendorDirectory.getIndex().block());
+    }
+
+    @Test
+    void refreshSendsEtagAndKeepsIndexWhenNotModified() {
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(ETAG));
+        when(mockUserService.getAllVendors(ETAG))
+                .thenReturn(Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build()));
+        GeoGridIndex index = vendorDirectory.getIndex().block();
+
+        VendorDirectory.Snapshot refreshed = vendorDirectory.refresh().block();
+
+        assertThat(refreshed.getIndex()).isSameAs(index);
+        assertThat(refreshed.getEtag()).isEqualTo(ETAG);
+        assertThat(vendorDirectory.getIndex().block()).isSameAs(index);
+        assertThat(refreshCount("unchanged")).isEqualTo(1);
+    }
+
+    @Test
+    void refreshSwapsInChangedVendors() {
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(ETAG));
+        vendorDirectory.getIndex().block();
+        vendors = vendors.replace("51.998513", "52.1583");
+        when(mockUserService.getAllVendors(ETAG)).thenReturn(vendorsResponse("\"v2\""));
+
+        vendorDirectory.scheduledRefresh();
+
+        GeoGridIndex index = vendorDirectory.getIndex().block();
+        assertThat(index.withinRadius(51.998513, 4.37127, 1)).isEmpty();
+        assertThat(index.withinRadius(52.1583, 4.37127, 1)).containsExactly(vendor);
+        assertThat(refreshCount("updated")).isEqualTo(2);
+    }
+
+    @Test
+    void failedRefreshKeepsSnapshot() {
+        when(mockUserService.getAllVendors(null)).thenReturn(Mono.just(ResponseEntity.ok(vendors)));
+        GeoGridIndex index = vendorDirectory.getIndex().block();
+        when(mockUserService.getAllVendors(null)).thenReturn(Mono.error(new RuntimeException("no vendors in database")));
+
+        vendorDirectory.scheduledRefresh();
+
+        assertThat(vendorDirectory.getIndex().block()).isSameAs(index);
+        assertThat(refreshCount("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void ageIsPublished() {
+        when(mockUserService.getAllVendors(null)).thenReturn(vendorsResponse(ETAG));
+
+        assertThat(meterRegistry.get(AGE_METRIC).timeGauge().value(TimeUnit.MILLISECONDS)).isNaN();
+        vendorDirectory.getIndex().block();
+
+        assertThat(meterRegistry.get(AGE_METRIC).timeGauge().value(TimeUnit.MILLISECONDS))
+                .isGreaterThanOrEqualTo(0).isLessThan(60_000);
+        assertThat(meterRegistry.get("userMicroService.vendorDirectory.vendors").gauge().value()).isEqualTo(1);
+    }
+}
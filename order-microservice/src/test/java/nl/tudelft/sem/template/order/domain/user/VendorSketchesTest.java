@@ -0,0 +1,153 @@
+package nl.tudelft.sem.template.order.domain.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.TopDish;
+import nl.tudelft.sem.template.order.domain.analytics.VendorSketch;
+import nl.tudelft.sem.template.order.domain.helpers.HyperLogLog;
+import nl.tudelft.sem.template.order.domain.helpers.SpaceSaving;
+import nl.tudelft.sem.template.order.domain.user.repositories.VendorSketchRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class VendorSketchesTest {
+
+    static final LocalDate DAY = LocalDate.of(2023, 11, 15);
+
+    @Mock
+    transient VendorSketchRepository sketchRepository;
+
+    @Mock
+    transient EmptyRows emptyRows;
+
+    transient VendorSketches vendorSketches;
+    transient UUID vendor;
+    transient UUID pizza;
+    transient UUID lasagna;
+    transient Order order;
+
+    @BeforeEach
+    void setup() {
+        vendorSketches = new VendorSketches(sketchRepository, emptyRows);
+        vendor = UUID.randomUUID();
+        pizza = UUID.randomUUID();
+        lasagna = UUID.randomUUID();
+        order = new Order().orderID(UUID.randomUUID()).vendorID(vendor).customerID(UUID.randomUUID())
+                .date(BigDecimal.valueOf(DAY.atTime(12, 0).toInstant(ZoneOffset.UTC).toEpochMilli()))
+                .listOfDishes(List.of(pizza, pizza, lasagna));
+    }
+
+    private VendorSketch stored() {
+        ArgumentCaptor<VendorSketch> captor = ArgumentCaptor.forClass(VendorSketch.class);
+        verify(sketchRepository).saveAndFlush(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void addOrderCreatesTheSketchOfTheDay() {
+        VendorSketch created = new VendorSketch(vendor, DAY);
+        when(sketchRepository.findForUpdate(vendor, DAY)).thenReturn(Optional.empty())
+                .thenReturn(Optional.of(created));
+
+        vendorSketches.addOrder(order);
+
+        verify(emptyRows).create(any(VendorSketch.class));
+        VendorSketch sketch = stored();
+        assertThat(sketch).isSameAs(created);
+        assertThat(sketch.customerSketch().estimate()).isEqualTo(1);
+        assertThat(sketch.dishSketch().top(2)).extracting(SpaceSaving.Counter::getId, SpaceSaving.Counter::getCount)
+                .containsExactly(tuple(pizza, 2L), tuple(lasagna, 1L));
+    }
+
+    @Test
+    void addDishUpdatesTheStoredSketch() {
+        VendorSketch existing = new VendorSketch(vendor, DAY);
+        HyperLogLog customers = new HyperLogLog();
+        customers.add(order.getCustomerID());
+        existing.storeCustomerSketch(customers);
+        when(sketchRepository.findForUpdate(vendor, DAY)).thenReturn(Optional.of(existing));
+
+        vendorSketches.addDish(order, pizza);
+
+        verify(emptyRows, never()).create(any());
+        VendorSketch sketch = stored();
+        assertThat(sketch).isSameAs(existing);
+        assertThat(sketch.customerSketch()).isEqualTo(customers);
+        assertThat(sketch.dishSketch().top(2)).extracting(SpaceSaving.Counter::getId, SpaceSaving.Counter::getCount)
+                .containsExactly(tuple(pizza, 1L));
+    }
+
+    @Test
+    void ordersWithoutVendorOrDateAreNotCounted() {
+        vendorSketches.addOrder(order.date(null));
+        vendorSketches.addDish(new Order().date(BigDecimal.ONE), pizza);
+
+        verifyNoInteractions(sketchRepository);
+    }
+
+    @Test
+    void getUniqueCustomersMergesTheDays() {
+        UUID both = UUID.randomUUID();
+        HyperLogLog mondayCustomers = new HyperLogLog();
+        mondayCustomers.add(both);
+        mondayCustomers.add(UUID.randomUUID());
+        HyperLogLog tuesdayCustomers = new HyperLogLog();
+        tuesdayCustomers.add(both);
+        final VendorSketch monday = new VendorSketch(vendor, DAY);
+        monday.storeCustomerSketch(mondayCustomers);
+        final VendorSketch tuesday = new VendorSketch(vendor, DAY.plusDays(1));
+        tuesday.storeCustomerSketch(tuesdayCustomers);
+        when(sketchRepository.findSketches(vendor, DAY, RevenueBuckets.LAST_DAY)).thenReturn(List.of(monday, tuesday));
+
+        assertThat(vendorSketches.getUniqueCustomers(vendor, DAY, null).getEstimate()).isEqualTo(2);
+    }
+
+    @Test
+    void getTopDishesMergesTheDays() {
+        SpaceSaving mondayDishes = new SpaceSaving();
+        List.of(pizza, lasagna).forEach(mondayDishes::add);
+        SpaceSaving tuesdayDishes = new SpaceSaving();
+        List.of(lasagna, lasagna).forEach(tuesdayDishes::add);
+        final VendorSketch monday = new VendorSketch(vendor, DAY);
+        monday.storeDishSketch(mondayDishes);
+        final VendorSketch tuesday = new VendorSketch(vendor, DAY.plusDays(1));
+        tuesday.storeDishSketch(tuesdayDishes);
+        when(sketchRepository.findSketches(vendor, RevenueBuckets.FIRST_DAY, RevenueBuckets.LAST_DAY))
+                .thenReturn(List.of(monday, tuesday));
+
+        List<TopDish> top = vendorSketches.getTopDishes(vendor, null, null, null);
+
+        assertThat(top).containsExactly(new TopDish().dishID(lasagna).count(3L).maxOverestimate(0L),
+                new TopDish().dishID(pizza).count(1L).maxOverestimate(0L));
+    }
+
+    @Test
+    void getTopDishesChecksTheArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> vendorSketches.getTopDishes(vendor, null, null, 0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> vendorSketches.getTopDishes(vendor, null, null, SpaceSaving.CAPACITY + 1));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> vendorSketches.getTopDishes(vendor, DAY, DAY.minusDays(1), 5));
+        verifyNoInteractions(sketchRepository);
+    }
+}
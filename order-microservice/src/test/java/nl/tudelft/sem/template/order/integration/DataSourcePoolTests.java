@@ -0,0 +1,80 @@
+package nl.tudelft.sem.template.order.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import nl.tudelft.sem.template.user.services.UserMicroServiceService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class DataSourcePoolTests {
+
+    @Autowired
+    private transient DataSource dataSource;
+
+    @Autowired
+    private transient MeterRegistry meterRegistry;
+
+    @MockBean
+    private transient UserMicroServiceService userMicroServiceService;
+
+    private HikariDataSource hikari() {
+        return (HikariDataSource) dataSource;
+    }
+
+    @Test
+    void dataSourceIsPooledAndConfigured() {
+        assertThat(dataSource).isInstanceOf(HikariDataSource.class);
+        assertThat(hikari().getMaximumPoolSize()).isEqualTo(10);
+        assertThat(hikari().getMinimumIdle()).isEqualTo(2);
+        assertThat(hikari().getConnectionTimeout()).isEqualTo(3000L);
+        assertThat(hikari().getValidationTimeout()).isEqualTo(1000L);
+        assertThat(hikari().getLeakDetectionThreshold()).isEqualTo(10000L);
+    }
+
+    @Test
+    void statementCacheIsConfigured() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE NAME = 'QUERY_CACHE_SIZE'")) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isEqualTo("64");
+        }
+    }
+
+    @Test
+    void connectionsAreReused() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+            assertThat(hikari().getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+        }
+        assertThat(hikari().getHikariPoolMXBean().getActiveConnections()).isZero();
+        assertThat(hikari().getHikariPoolMXBean().getTotalConnections()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void poolMetricsAreRegistered() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+        assertThat(meterRegistry.find("hikaricp.connections.active").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.idle").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").timer()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.timeout").counter()).isNotNull();
+    }
+}
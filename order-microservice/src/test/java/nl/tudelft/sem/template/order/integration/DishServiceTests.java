@@ -213,6 +213,18 @@ public class DishServiceTests {
         assertThat(dishService.checkDishUuidIsUnique(d1.getDishID())).isFalse();
     }
 
+    @Transactional
+    @Test
+    public void missingDishes() throws DishIdAlreadyInUseException, VendorNotFoundException {
+        when(userMicroServiceService.checkVendorExists(d1.getVendorID())).thenReturn(true);
+        dishService.addDish(d1);
+        UUID missing = UUID.randomUUID();
+
+        assertThat(dishService.getMissingDishIDs(List.of(d1.getDishID(), missing, d1.getDishID())))
+                .containsExactly(missing);
+        assertThat(dishService.getMissingDishIDs(List.of(d1.getDishID()))).isEmpty();
+    }
+
     @Transactional
     @Test
     public void isUnique() {
@@ -0,0 +1,81 @@
+package nl.tudelft.sem.template.order.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import nl.tudelft.sem.template.order.domain.analytics.OrderVolumeCounter;
+import nl.tudelft.sem.template.order.domain.analytics.OrderVolumeCounterId;
+import nl.tudelft.sem.template.order.domain.user.EmptyRows;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderVolumeCounterRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Empty rows inserted in a transaction that goes on after the row turned out to exist already.
+ */
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class EmptyRowsTests {
+    private static final int HOUR = 13;
+
+    @Autowired
+    private transient EmptyRows emptyRows;
+
+    @Autowired
+    private transient OrderVolumeCounterRepository counterRepository;
+
+    @Autowired
+    private transient PlatformTransactionManager transactionManager;
+
+    transient TransactionTemplate transaction;
+    transient UUID vendorID;
+
+    @BeforeEach
+    public void setup() {
+        transaction = new TransactionTemplate(transactionManager);
+        vendorID = UUID.randomUUID();
+    }
+
+    @Test
+    public void createInsertsTheRow() {
+        Boolean created = transaction.execute(status -> emptyRows.create(new OrderVolumeCounter(vendorID, HOUR, 0)));
+
+        assertThat(created).isTrue();
+
+        assertThat(counterRepository.findById(new OrderVolumeCounterId(vendorID, HOUR)).orElseThrow().getVolume())
+                .isZero();
+    }
+
+    @Test
+    public void transactionGoesOnWhenTheRowExists() {
+        transaction.executeWithoutResult(status -> emptyRows.create(new OrderVolumeCounter(vendorID, HOUR, 0)));
+
+        Boolean created = transaction.execute(status -> createAndAddOne());
+
+        assertThat(created).isFalse();
+        assertThat(counterRepository.findById(new OrderVolumeCounterId(vendorID, HOUR)).orElseThrow().getVolume())
+                .isEqualTo(1);
+    }
+
+    private boolean createAndAddOne() {
+        boolean inserted = emptyRows.create(new OrderVolumeCounter(vendorID, HOUR, 0));
+        counterRepository.addToVolume(vendorID, HOUR, 1);
+        return inserted;
+    }
+
+    @Test
+    public void createNeedsATransaction() {
+        Assertions.assertThrows(IllegalTransactionStateException.class,
+                () -> emptyRows.create(new OrderVolumeCounter(vendorID, HOUR, 0)));
+    }
+}
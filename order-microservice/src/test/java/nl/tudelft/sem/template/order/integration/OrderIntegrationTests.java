@@ -16,6 +16,8 @@ import java.util.UUID;
 import nl.tudelft.sem.template.model.Address;
 import nl.tudelft.sem.template.model.Dish;
 import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.OrderTotal;
+import nl.tudelft.sem.template.order.controllers.OrderStreamController;
 import nl.tudelft.sem.template.order.domain.user.DishService;
 import nl.tudelft.sem.template.order.domain.user.OrderService;
 import nl.tudelft.sem.template.user.services.UserMicroServiceService;
@@ -33,6 +35,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -43,6 +46,8 @@ import org.springframework.transaction.annotation.Transactional;
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 @AutoConfigureMockMvc
 public class OrderIntegrationTests {
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
+
     @Autowired
     private transient MockMvc mockMvc;
 
@@ -280,6 +285,190 @@ public class OrderIntegrationTests {
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
 
+    @Transactional
+    @Test
+    public void getAllOrdersInPages() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        when(userMicroServiceService.getUserInformation(any())).thenReturn(adminJson);
+        Order undated = new Order().orderID(UUID.randomUUID()).vendorID(order2.getVendorID())
+                .customerID(order2.getCustomerID()).listOfDishes(new ArrayList<>());
+        Order sameDate = new Order().orderID(UUID.randomUUID()).vendorID(order1.getVendorID())
+                .customerID(order1.getCustomerID()).date(order1.getDate()).listOfDishes(new ArrayList<>());
+        orderService.createOrder(order2);
+        orderService.createOrder(sameDate);
+        orderService.createOrder(order1);
+        orderService.createOrder(undated);
+
+        List<Order> read = new ArrayList<>();
+        MvcResult page = getAllOrdersPage(null);
+        read.addAll(Arrays.asList(objectMapper.readValue(page.getResponse().getContentAsString(), Order[].class)));
+        while (page.getResponse().getHeader(NEXT_CURSOR) != null) {
+            page = getAllOrdersPage(page.getResponse().getHeader(NEXT_CURSOR));
+            read.addAll(Arrays.asList(objectMapper.readValue(page.getResponse().getContentAsString(), Order[].class)));
+        }
+
+        // orders without a date come first, orders with the same date are in a stable order
+        assertThat(read).hasSize(4).containsExactlyInAnyOrder(order1, order2, undated, sameDate);
+        assertThat(read.get(0)).isEqualTo(undated);
+        assertThat(read.get(3)).isEqualTo(order2);
+    }
+
+    /**
+     * Asserts that an order read back from the database is the order that was stored. Paying an order reads it
+     * back from the database, where the date has the scale of its column, so dates are compared on their value.
+     *
+     * @param expected the order that was stored
+     * @param actual the order that was read
+     */
+    private static void assertStoredOrder(Order expected, Order actual) {
+        assertThat(actual).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class).isEqualTo(expected);
+    }
+
+    private MvcResult getAllOrdersPage(String cursor) throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(getAllOrdersPath, UUID.randomUUID())
+                .param("limit", "1")
+                .accept(MediaType.APPLICATION_JSON);
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        return mockMvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk()).andReturn();
+    }
+
+    @Transactional
+    @Test
+    public void getAllOrdersMalformedCursor() throws Exception {
+        when(userMicroServiceService.getUserInformation(any())).thenReturn(adminJson);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(getAllOrdersPath, UUID.randomUUID())
+                        .param("cursor", "not a cursor!")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Transactional
+    @Test
+    public void pollVendorOrderFeed() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        Order pending = new Order().orderID(UUID.randomUUID()).vendorID(order1.getVendorID())
+                .customerID(order1.getCustomerID()).date(order2.getDate()).status(Order.StatusEnum.PENDING)
+                .listOfDishes(new ArrayList<>());
+        Order early = new Order().orderID(UUID.randomUUID()).vendorID(order1.getVendorID())
+                .customerID(order1.getCustomerID()).date(new BigDecimal("1690000000000"))
+                .status(Order.StatusEnum.DELIVERED).listOfDishes(new ArrayList<>());
+        orderService.createOrder(order1);
+        orderService.createOrder(order2);
+        orderService.createOrder(pending);
+        orderService.createOrder(early);
+
+        MvcResult first = getVendorOrderFeed(order1.getVendorID(), null);
+        assertThat(objectMapper.readValue(first.getResponse().getContentAsString(), Order[].class))
+                .containsExactly(order1, pending);
+        String cursor = first.getResponse().getHeader(NEXT_CURSOR);
+
+        MvcResult empty = getVendorOrderFeed(order1.getVendorID(), cursor);
+        assertThat(objectMapper.readValue(empty.getResponse().getContentAsString(), Order[].class)).isEmpty();
+        assertThat(empty.getResponse().getHeader(NEXT_CURSOR)).isEqualTo(cursor);
+
+        Order accepted = new Order().orderID(UUID.randomUUID()).vendorID(order1.getVendorID())
+                .customerID(order1.getCustomerID()).date(new BigDecimal("1700006406000"))
+                .status(Order.StatusEnum.ACCEPTED).listOfDishes(new ArrayList<>());
+        orderService.createOrder(accepted);
+
+        MvcResult next = getVendorOrderFeed(order1.getVendorID(), cursor);
+        assertThat(objectMapper.readValue(next.getResponse().getContentAsString(), Order[].class))
+                .containsExactly(accepted);
+    }
+
+    private MvcResult getVendorOrderFeed(UUID vendorID, String cursor) throws Exception {
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get("/order/fromVendorID/{vendorID}", vendorID)
+                .param("since", "1700000000000")
+                .accept(MediaType.APPLICATION_JSON);
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        return mockMvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk()).andReturn();
+    }
+
+    @Transactional
+    @Test
+    public void vendorOrderFeedVendorNotFound() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(false);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/order/fromVendorID/{vendorID}", UUID.randomUUID())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    // not transactional, the orders are streamed in a transaction of their own on another thread
+    @Test
+    public void streamAllOrders() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        when(userMicroServiceService.getUserInformation(any())).thenReturn(adminJson);
+        orderService.createOrder(order2);
+        orderService.createOrder(order1);
+
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders.get("/order/all/{userID}/stream", UUID.randomUUID())
+                        .accept(OrderStreamController.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult();
+        MvcResult streamed = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(OrderStreamController.APPLICATION_NDJSON))
+                .andReturn();
+
+        String[] lines = streamed.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], Order.class).getOrderID()).isEqualTo(order1.getOrderID());
+        assertThat(objectMapper.readValue(lines[1], Order.class).getOrderID()).isEqualTo(order2.getOrderID());
+    }
+
+    @Test
+    public void streamAllOrdersNotAdmin() throws Exception {
+        when(userMicroServiceService.getUserInformation(any())).thenReturn(adminJson.replace("Admin", "Customer"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/order/all/{userID}/stream", UUID.randomUUID())
+                        .accept(OrderStreamController.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+    }
+
+    @Test
+    public void streamCustomerOrderHistory() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        order1.setStatus(Order.StatusEnum.DELIVERED);
+        order2.setCustomerID(order1.getCustomerID());
+        orderService.createOrder(order1);
+        orderService.createOrder(order2);
+
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/order/{customerID}/history/stream", order1.getCustomerID())
+                        .accept(OrderStreamController.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult();
+        MvcResult streamed = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn();
+
+        assertThat(streamed.getResponse().getContentAsString().split("\n")).hasSize(1);
+        assertThat(objectMapper.readValue(streamed.getResponse().getContentAsString(), Order.class).getOrderID())
+                .isEqualTo(order1.getOrderID());
+    }
+
+    @Test
+    public void streamCustomerOrderHistoryCustomerNotFound() throws Exception {
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(false);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/order/{customerID}/history/stream", UUID.randomUUID())
+                        .accept(OrderStreamController.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
     @Transactional
     @Test
     public void getOrderByIdSuccessful() throws Exception {
@@ -554,7 +743,29 @@ public class OrderIntegrationTests {
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON)).andReturn();
         Boolean isPaid = objectMapper.readValue(res.getResponse().getContentAsString(),
                 new TypeReference<Order>() {}).getOrderPaid();
-        assertThat(isPaid).isFalse();
+        // paying a paid order again leaves it paid
+        assertThat(isPaid).isTrue();
+        assertThat(orderService.getOrderById(order2.getOrderID()).getOrderPaid()).isTrue();
+    }
+
+    @Transactional
+    @Test
+    public void checkOrderPaidUpdateRetriedWithIdempotencyKey() throws Exception {
+        when(userMicroServiceService.checkVendorExists(order2.getVendorID())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(order2.getCustomerID())).thenReturn(true);
+        order2.setOrderPaid(false);
+        orderService.createOrder(order2);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            MvcResult res = mockMvc.perform(MockMvcRequestBuilders.put(isPaidPath, order2.getOrderID())
+                            .header("Idempotency-Key", "payment-" + order2.getOrderID())
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andReturn();
+            assertThat(objectMapper.readValue(res.getResponse().getContentAsString(), Order.class).getOrderPaid())
+                    .isTrue();
+        }
+        assertThat(orderService.getOrderById(order2.getOrderID()).getOrderPaid()).isTrue();
     }
 
     @Transactional
@@ -711,41 +922,24 @@ public class OrderIntegrationTests {
 
         orderService.createOrder(order1);
 
-        String s1 = "DELIVERED";
-
-        mockMvc.perform(MockMvcRequestBuilders.put(orderStatusPath, order1.getOrderID(), s1)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(s1)
-                        .accept(MediaType.APPLICATION_JSON))
-                .andExpect(MockMvcResultMatchers.status().isOk())
-                .andReturn();
-
-        String edit1 = orderService.getStatusOfOrderById(order1.getOrderID());
-        Assertions.assertEquals("delivered", edit1);
-
-        String s2 = "rejected";
-
-        mockMvc.perform(MockMvcRequestBuilders.put(orderStatusPath, order1.getOrderID(), s2)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(s2)
-                        .accept(MediaType.APPLICATION_JSON))
-                .andExpect(MockMvcResultMatchers.status().isOk())
-                .andReturn();
-
-        String edit2 = orderService.getStatusOfOrderById(order1.getOrderID());
-        Assertions.assertEquals("rejected", edit2);
+        for (String status : List.of("preparing", "given to courier", "ON-TRANSIT", "DELIVERED")) {
+            mockMvc.perform(MockMvcRequestBuilders.put(orderStatusPath, order1.getOrderID())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(status)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
 
-        String s3 = "DELIVERED";
+        Assertions.assertEquals("delivered", orderService.getStatusOfOrderById(order1.getOrderID()));
 
-        mockMvc.perform(MockMvcRequestBuilders.put(orderStatusPath, order1.getOrderID(), s3)
+        // a delivered order cannot be rejected anymore
+        mockMvc.perform(MockMvcRequestBuilders.put(orderStatusPath, order1.getOrderID())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(s3)
+                        .content("rejected")
                         .accept(MediaType.APPLICATION_JSON))
-                .andExpect(MockMvcResultMatchers.status().isOk())
-                .andReturn();
+                .andExpect(MockMvcResultMatchers.status().isConflict());
 
-        String edit3 = orderService.getStatusOfOrderById(order1.getOrderID());
-        Assertions.assertEquals("delivered", edit3);
+        Assertions.assertEquals("delivered", orderService.getStatusOfOrderById(order1.getOrderID()));
 
     }
 
@@ -1073,7 +1267,7 @@ public class OrderIntegrationTests {
 
         Assertions.assertEquals(404, result1.getResponse().getStatus());
 
-        orderService.orderIsPaidUpdate(order1.getOrderID());
+        orderService.markOrderPaid(order1.getOrderID());
 
         MvcResult result2 = mockMvc.perform(MockMvcRequestBuilders
                         .get(getOrderToVendor, order1.getOrderID())
@@ -1086,7 +1280,7 @@ public class OrderIntegrationTests {
         order1.setOrderPaid(true);
         Order order = objectMapper.readValue(result2.getResponse().getContentAsString(), Order.class);
         Assertions.assertEquals(200, result2.getResponse().getStatus());
-        Assertions.assertEquals(order1, order);
+        assertStoredOrder(order1, order);
 
     }
 
@@ -1169,6 +1363,57 @@ public class OrderIntegrationTests {
 
     }
 
+    @Test
+    @Transactional
+    public void getOrderTotalCost_repeatedAndMissingDishes() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+
+        dishService.addDish(d1);
+        dishService.addDish(d2);
+
+        order1.setListOfDishes(List.of(d1.getDishID(), d2.getDishID(), d2.getDishID(), UUID.randomUUID()));
+        orderService.createOrder(order1);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                        .get(orderTotalCostPath, order1.getOrderID())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn();
+
+        Float totalCost = objectMapper.readValue(result.getResponse().getContentAsString(), Float.class);
+        Assertions.assertEquals(25.0f, totalCost);
+    }
+
+    @Test
+    @Transactional
+    public void getOrderTotalCosts_batch() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+
+        dishService.addDish(d1);
+        dishService.addDish(d2);
+
+        order1.setListOfDishes(List.of(d1.getDishID(), d2.getDishID()));
+        orderService.createOrder(order1);
+        Order emptyOrder = orderService.createOrder(new Order().orderID(UUID.randomUUID())
+                .vendorID(order1.getVendorID()).customerID(order1.getCustomerID()).listOfDishes(new ArrayList<>()));
+        List<UUID> orderIDs = List.of(emptyOrder.getOrderID(), UUID.randomUUID(), order1.getOrderID());
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                        .post("/order/totalCosts")
+                        .content(objectMapper.writeValueAsString(orderIDs))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn();
+
+        List<OrderTotal> totals = objectMapper.readValue(result.getResponse().getContentAsString(),
+                new TypeReference<List<OrderTotal>>() {});
+        Assertions.assertEquals(List.of(new OrderTotal().orderID(emptyOrder.getOrderID()).totalCost(0.0f),
+                new OrderTotal().orderID(order1.getOrderID()).totalCost(15.0f)), totals);
+    }
+
     @Test
     @Transactional
     public void getOrderTotalCost_orderNotFound() throws Exception {
@@ -1443,7 +1688,7 @@ public class OrderIntegrationTests {
         Order orderResponse8 = objectMapper.readValue(result8.getResponse().getContentAsString(), Order.class);
         Assertions.assertEquals(200, result8.getResponse().getStatus());
         order1.setOrderPaid(true);
-        Assertions.assertEquals(order1, orderResponse8);
+        assertStoredOrder(order1, orderResponse8);
 
         MvcResult result9 = mockMvc.perform(MockMvcRequestBuilders
                         .get(getOrderToVendor, order1.getOrderID())
@@ -1455,7 +1700,14 @@ public class OrderIntegrationTests {
 
         Order orderResponse9 = objectMapper.readValue(result9.getResponse().getContentAsString(), Order.class);
         Assertions.assertEquals(200, result9.getResponse().getStatus());
-        Assertions.assertEquals(order1, orderResponse9);
+        assertStoredOrder(order1, orderResponse9);
+
+        // the vendor accepts the order before preparing it
+        mockMvc.perform(MockMvcRequestBuilders.put(orderStatusPath, order1.getOrderID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("ACCEPTED")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
 
         String s = "PREPARING";
         mockMvc.perform(MockMvcRequestBuilders.put(orderStatusPath, order1.getOrderID(), s)
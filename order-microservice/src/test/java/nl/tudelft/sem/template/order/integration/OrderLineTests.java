@@ -0,0 +1,171 @@
+package nl.tudelft.sem.template.order.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import nl.tudelft.sem.template.model.Dish;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.order.domain.lines.OrderLine;
+import nl.tudelft.sem.template.order.domain.lines.OrderLineId;
+import nl.tudelft.sem.template.order.domain.user.OrderExports;
+import nl.tudelft.sem.template.order.domain.user.OrderLines;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderLineRepository;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+/**
+ * The dishes of orders stored as order lines: one line per order and dish, with the number of times it was ordered.
+ */
+public class OrderLineTests extends StoredOrderTests {
+    @Autowired
+    private transient OrderExports orderExports;
+
+    @SpyBean
+    private transient OrderLines orderLines;
+
+    @Autowired
+    private transient OrderRepository orderRepository;
+
+    @Autowired
+    private transient OrderLineRepository lineRepository;
+
+    transient Dish pizza;
+    transient Dish lasagna;
+    transient Order order;
+
+    /**
+     * Stores an order of a pizza, a lasagna and another pizza.
+     *
+     * @throws Exception if the order could not be stored
+     */
+    @BeforeEach
+    public void setup() throws Exception {
+        pizza = dish("Pizza", 5.0f);
+        lasagna = dish("Lasagna", 7.5f);
+        order = orderService.createOrder(order(List.of(pizza.getDishID(), lasagna.getDishID(), pizza.getDishID()))
+                .specialRequirements("Knock on the door").orderPaid(false).status(Order.StatusEnum.PENDING));
+    }
+
+    @Test
+    public void createdOrderHasOneLinePerDish() throws Exception {
+        assertThat(lineRepository.count()).isEqualTo(2);
+        assertThat(line(pizza).getQuantity()).isEqualTo(2);
+        assertThat(line(pizza).getUnitPrice()).isEqualTo(5.0f);
+        assertThat(line(lasagna).getQuantity()).isEqualTo(1);
+        assertThat(orderService.getOrderById(order.getOrderID()).getListOfDishes())
+                .containsExactly(pizza.getDishID(), pizza.getDishID(), lasagna.getDishID());
+    }
+
+    @Test
+    public void addingADishTheOrderHasIncrementsItsLine() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            orderService.addDishToOrder(order.getOrderID(), pizza.getDishID());
+        }
+
+        assertThat(lineRepository.count()).isEqualTo(2);
+        assertThat(line(pizza).getQuantity()).isEqualTo(5);
+        assertThat(orderService.getOrderById(order.getOrderID()).getListOfDishes())
+                .containsExactly(pizza.getDishID(), pizza.getDishID(), pizza.getDishID(), pizza.getDishID(),
+                        pizza.getDishID(), lasagna.getDishID());
+    }
+
+    @Test
+    public void addingADishTheOrderHasIsOneStatement() {
+        QueryCounter.reset();
+
+        orderLines.add(order.getOrderID(), lasagna.getDishID());
+
+        assertThat(QueryCounter.statements()).hasSize(1);
+        assertThat(line(lasagna).getQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    public void addingANewDishInsertsALineAfterTheOthers() throws Exception {
+        Dish soup = dish("Soup", 3.0f);
+
+        Order added = orderService.addDishToOrder(order.getOrderID(), soup.getDishID());
+
+        assertThat(line(soup).getQuantity()).isEqualTo(1);
+        assertThat(line(soup).getLineNumber()).isEqualTo(2);
+        assertThat(added.getListOfDishes())
+                .containsExactly(pizza.getDishID(), pizza.getDishID(), lasagna.getDishID(), soup.getDishID());
+    }
+
+    @Test
+    public void removingADishDecrementsAndThenDeletesItsLine() throws Exception {
+        orderService.removeDishFromOrder(order.getOrderID(), pizza.getDishID());
+        assertThat(line(pizza).getQuantity()).isEqualTo(1);
+
+        Order removed = orderService.removeDishFromOrder(order.getOrderID(), pizza.getDishID());
+        assertThat(lineRepository.findById(new OrderLineId(order.getOrderID(), pizza.getDishID()))).isEmpty();
+        assertThat(removed.getListOfDishes()).containsExactly(lasagna.getDishID());
+    }
+
+    @Test
+    public void totalKeepsThePricesTheDishesWereOrderedAt() throws Exception {
+        dishService.updateDish(pizza.getDishID(), pizza.price(6.0f));
+        dishService.deleteDishByDishId(lasagna.getDishID());
+
+        assertThat(orderService.getOrderTotal(order.getOrderID())).isEqualTo(17.5f);
+    }
+
+    @Test
+    public void editingAnOrderReplacesItsLines() throws Exception {
+        order.setListOfDishes(List.of(lasagna.getDishID()));
+
+        Order edited = orderService.editOrderByID(order.getOrderID(), order);
+
+        assertThat(lineRepository.count()).isEqualTo(1);
+        assertThat(edited.getListOfDishes()).containsExactly(lasagna.getDishID());
+    }
+
+    @Test
+    public void orderIsNotStoredWithoutItsLines() {
+        doThrow(new IllegalStateException("the lines could not be stored")).when(orderLines).replace(any(), any());
+        Order other = new Order().orderID(UUID.randomUUID()).vendorID(order.getVendorID())
+                .customerID(order.getCustomerID()).date(order.getDate()).listOfDishes(List.of(pizza.getDishID()));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> orderService.createOrder(other));
+
+        assertThat(orderRepository.existsByOrderID(other.getOrderID())).isFalse();
+    }
+
+    @Test
+    public void exportedOrdersAreProjectedTogether() throws Exception {
+        orderService.createOrder(new Order().orderID(UUID.randomUUID()).vendorID(order.getVendorID())
+                .customerID(order.getCustomerID()).date(order.getDate()).listOfDishes(List.of(lasagna.getDishID())));
+        clearInvocations(orderLines);
+        QueryCounter.reset();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExports.allOrders().writeTo(out);
+
+        // the orders, and the lines of both
+        assertThat(QueryCounter.statements()).hasSize(2);
+        verify(orderLines).project(anyCollection());
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize(2);
+    }
+
+    @Test
+    public void deletingAnOrderDeletesItsLines() throws Exception {
+        orderService.deleteOrderByID(order.getOrderID());
+
+        assertThat(lineRepository.count()).isZero();
+    }
+
+    private OrderLine line(Dish dish) {
+        return lineRepository.findById(new OrderLineId(order.getOrderID(), dish.getDishID())).orElseThrow();
+    }
+}
@@ -0,0 +1,114 @@
+package nl.tudelft.sem.template.order.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.Revenue;
+import nl.tudelft.sem.template.order.domain.user.OrderPayments;
+import nl.tudelft.sem.template.order.domain.user.RevenueBuckets;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Concurrent payments of one order, like the retries of a payment provider, every payment is committed on
+ * its own connection like concurrent requests would be.
+ */
+public class OrderPaymentContentionTests extends StoredOrderTests {
+    private static final int THREADS = 16;
+    private static final int PAYMENTS = 2000;
+
+    @Autowired
+    private transient OrderPayments payments;
+
+    @Autowired
+    private transient RevenueBuckets revenueBuckets;
+
+    @Autowired
+    private transient OrderRepository orderRepository;
+
+    transient Order order;
+    transient ExecutorService executor;
+
+    /**
+     * Stores an unpaid order of a dish of 5.00 and a dish of 10.00.
+     *
+     * @throws Exception if the order could not be stored
+     */
+    @BeforeEach
+    public void setup() throws Exception {
+        order = order(List.of(dish("Dish 5.0", 5.0f).getDishID(), dish("Dish 10.0", 10.0f).getDishID()))
+                .orderPaid(false).status(Order.StatusEnum.PENDING);
+        orderService.createOrder(order);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentPaymentsPayTheOrderOnce() throws Exception {
+        // half of the calls are retries of one payment, the other half come without an idempotency key
+        List<Callable<Order>> calls = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            if (i % 2 == 0) {
+                calls.add(payment("payment-" + order.getOrderID()));
+            } else {
+                calls.add(payment(null));
+            }
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> results = new ArrayList<>();
+        for (Callable<Order> call : calls) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        final long started = System.nanoTime();
+        start.countDown();
+        for (Future<Order> result : results) {
+            assertThat(result.get(60, TimeUnit.SECONDS).getOrderPaid()).isTrue();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        assertThat(orderRepository.findOrderByOrderID(order.getOrderID()).orElseThrow().getOrderPaid()).isTrue();
+        // the revenue of the order is added once, not once per payment
+        List<Revenue> revenue = revenueBuckets.getRevenue(order.getVendorID(), null, null, RevenueBuckets.Period.DAY);
+        assertThat(revenue).extracting(Revenue::getRevenueCents).containsExactly(1500L);
+        // a loose bound on the throughput, at least 100 payments per second even on a slow build machine
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(PAYMENTS / 100));
+    }
+
+    @Test
+    public void paymentIsOneConditionalUpdateWithoutLock() throws Exception {
+        QueryCounter.reset();
+        assertThat(orderService.markOrderPaid(order.getOrderID()).getOrderPaid()).isTrue();
+        // the paid order that is read back is not written again when the transaction commits
+        assertThat(QueryCounter.statements()).noneMatch(sql -> sql.contains(" for update"))
+                .filteredOn(sql -> sql.startsWith("update orders")).hasSize(1);
+
+        QueryCounter.reset();
+        assertThat(orderService.markOrderPaid(order.getOrderID()).getOrderPaid()).isTrue();
+        assertThat(QueryCounter.statements()).noneMatch(sql -> sql.contains(" for update"))
+                .filteredOn(sql -> sql.startsWith("update orders")).hasSize(1);
+    }
+
+    private Callable<Order> payment(String idempotencyKey) {
+        return () -> payments.pay(order.getOrderID(), idempotencyKey);
+    }
+}
@@ -0,0 +1,95 @@
+package nl.tudelft.sem.template.order.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.order.controllers.OrderController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * The number of SQL statements the order endpoints issue, counted by QueryCounter.
+ */
+@AutoConfigureMockMvc
+public class OrderQueryCountTests extends StoredOrderTests {
+    // selecting the order and selecting its list of dishes
+    private static final int ORDER_LOAD = 2;
+
+    @Autowired
+    private transient MockMvc mockMvc;
+
+    @Autowired
+    private transient OrderController orderController;
+
+    @Autowired
+    private transient PlatformTransactionManager transactionManager;
+
+    transient Order order;
+
+    /**
+     * Stores a paid order of two available dishes.
+     *
+     * @throws Exception if the order could not be stored
+     */
+    @BeforeEach
+    public void setup() throws Exception {
+        order = order(List.of(dish("Pizza", 5.0f).getDishID(), dish("Lasagna", 5.0f).getDishID()))
+                .specialRequirements("Knock on the door").orderPaid(true).status(Order.StatusEnum.ACCEPTED);
+        orderService.createOrder(order);
+        QueryCounter.reset();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void vendorViewLoadsTheOrderOnce() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/order/{orderID}/vendor", order.getOrderID()))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        // the order, and the dishes of the order that exist
+        assertThat(QueryCounter.statements()).hasSize(ORDER_LOAD + 1);
+    }
+
+    @Test
+    public void isPaidLoadsTheOrderOnce() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/order/{orderID}/isPaid", order.getOrderID()))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        assertThat(QueryCounter.statements()).hasSize(ORDER_LOAD);
+    }
+
+    @Test
+    public void fieldGettersShareTheOrderOfTheRequest() throws Exception {
+        when(userMicroServiceService.getUserName(order.getCustomerID())).thenReturn("Harry Potter");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // the getters are not endpoints, the read-only transaction stands in for the session of the request
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            assertThat(orderController.getSpecialRequirements(order.getOrderID()).getBody())
+                    .isEqualTo(order.getSpecialRequirements());
+            assertThat(orderController.getOrderAddress(order.getOrderID()).getBody()).isEqualTo(order.getAddress());
+            assertThat(orderController.getOrderDate(order.getOrderID()).getBody()).isEqualByComparingTo(order.getDate());
+            assertThat(orderController.getCustomerName(order.getOrderID()).getBody()).isEqualTo("Harry Potter");
+        });
+
+        assertThat(QueryCounter.statements()).hasSize(ORDER_LOAD);
+    }
+}
@@ -0,0 +1,103 @@
+package nl.tudelft.sem.template.order.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.order.domain.user.OrderStatusConflictException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Concurrent status updates of one order, every update is committed on its own connection like concurrent
+ * requests would be.
+ */
+public class OrderStatusContentionTests extends StoredOrderTests {
+    private static final int THREADS = 8;
+    private static final String PREPARING = "preparing";
+
+    transient Order order;
+    transient ExecutorService executor;
+
+    /**
+     * Stores an accepted order.
+     *
+     * @throws Exception if the order could not be stored
+     */
+    @BeforeEach
+    public void setup() throws Exception {
+        order = order(new ArrayList<>()).orderPaid(true).status(Order.StatusEnum.ACCEPTED);
+        orderService.createOrder(order);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void oneOfTheConcurrentTransitionsWins() throws Exception {
+        // an accepted order can be prepared or rejected, but a rejected order cannot be prepared and vice versa
+        List<Future<Boolean>> results = race(THREADS, i -> i % 2 == 0 ? PREPARING : "rejected");
+        List<Boolean> succeeded = new ArrayList<>();
+        List<Boolean> expected = new ArrayList<>();
+        for (Future<Boolean> result : results) {
+            succeeded.add(result.get(10, TimeUnit.SECONDS));
+        }
+
+        String status = orderService.getStatusOfOrderById(order.getOrderID());
+        assertThat(status).isIn(PREPARING, "rejected");
+        for (int i = 0; i < THREADS; i++) {
+            expected.add(i % 2 == 0 == PREPARING.equals(status));
+        }
+        // the updates to the status that won succeed, the updates to the other status conflict
+        assertThat(succeeded).isEqualTo(expected);
+    }
+
+    @Test
+    public void theSameTransitionSucceedsForEveryone() throws Exception {
+        for (Future<Boolean> result : race(THREADS, i -> PREPARING)) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(orderService.getStatusOfOrderById(order.getOrderID())).isEqualTo(PREPARING);
+
+        // after the race the order moves on as usual
+        orderService.updateStatusOfOrderById(order.getOrderID(), "given to courier");
+        assertThat(orderService.getStatusOfOrderById(order.getOrderID())).isEqualTo("given to courier");
+    }
+
+    /**
+     * Starts status updates of the order on all threads at the same time.
+     *
+     * @param updates the number of updates
+     * @param status the status of each update
+     * @return per update whether it changed the status, false if it failed with a conflict
+     */
+    private List<Future<Boolean>> race(int updates, IntFunction<String> status) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < updates; i++) {
+            String next = status.apply(i);
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.updateStatusOfOrderById(order.getOrderID(), next);
+                    return true;
+                } catch (OrderStatusConflictException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+}
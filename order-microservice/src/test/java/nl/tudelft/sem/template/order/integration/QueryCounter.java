@@ -0,0 +1,41 @@
+package nl.tudelft.sem.template.order.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records the SQL statements Hibernate prepares on the current thread, so a test can assert how many
+ * statements an endpoint issues without counting those of the background jobs.
+ * Registered with spring.jpa.properties.hibernate.session_factory.statement_inspector.
+ */
+public class QueryCounter implements StatementInspector {
+    public static final String PROPERTY = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "nl.tudelft.sem.template.order.integration.QueryCounter";
+
+    private static final long serialVersionUID = 1L;
+    private static final ThreadLocal<List<String>> RECORDED = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        RECORDED.get().add(sql);
+        return sql;
+    }
+
+    /**
+     * Starts recording from zero.
+     */
+    public static void reset() {
+        RECORDED.get().clear();
+    }
+
+    /**
+     * Gets the statements prepared on this thread since the last reset, asserting on them
+     * shows which statements were issued when the number is off.
+     *
+     * @return the SQL of the statements
+     */
+    public static List<String> statements() {
+        return List.copyOf(RECORDED.get());
+    }
+}
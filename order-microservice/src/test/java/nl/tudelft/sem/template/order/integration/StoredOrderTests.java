@@ -0,0 +1,81 @@
+package nl.tudelft.sem.template.order.integration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import nl.tudelft.sem.template.model.Address;
+import nl.tudelft.sem.template.model.Dish;
+import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.order.domain.user.DishService;
+import nl.tudelft.sem.template.order.domain.user.OrderService;
+import nl.tudelft.sem.template.user.services.UserMicroServiceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Base of the tests that store an order through OrderService and then read or change it the way requests do.
+ * The tests are not transactional, so every call commits on its own connection and the statements, bulk
+ * updates and locks of a call reach the database like they would in production, also when calls run
+ * concurrently. The statements are recorded by QueryCounter and every customer and vendor exists.
+ */
+@SpringBootTest(properties = QueryCounter.PROPERTY)
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public abstract class StoredOrderTests {
+    @Autowired
+    protected transient OrderService orderService;
+
+    @Autowired
+    protected transient DishService dishService;
+
+    @MockBean
+    protected transient UserMicroServiceService userMicroServiceService;
+
+    protected transient UUID vendorID;
+
+    /**
+     * Makes every customer and vendor exist and picks the vendor of the order.
+     */
+    @BeforeEach
+    public void setupUsers() {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        vendorID = UUID.randomUUID();
+    }
+
+    /**
+     * Stores a dish of the vendor.
+     *
+     * @param name the name of the dish
+     * @param price the price of the dish
+     * @return the stored dish
+     * @throws Exception if the dish could not be stored
+     */
+    protected Dish dish(String name, float price) throws Exception {
+        Dish dish = new Dish().dishID(UUID.randomUUID()).vendorID(vendorID).name(name).price(price)
+                .listOfIngredients(new ArrayList<>()).listOfAllergies(new ArrayList<>());
+        dishService.addDish(dish);
+        return dish;
+    }
+
+    /**
+     * Creates an order of the vendor placed on 2023-11-15, which is not stored yet.
+     *
+     * @param dishes the ids of the dishes of the order
+     * @return the order
+     */
+    protected Order order(List<UUID> dishes) {
+        return new Order().orderID(UUID.randomUUID()).vendorID(vendorID).customerID(UUID.randomUUID())
+                .address(new Address().street("Mekelweg 5").city("Delft").country("Netherlands").zip("2628CC"))
+                .date(new BigDecimal("1700006405000")).listOfDishes(dishes);
+    }
+}
@@ -15,6 +15,7 @@ import nl.tudelft.sem.template.order.domain.user.DishService;
 import nl.tudelft.sem.template.order.domain.user.OrderService;
 import nl.tudelft.sem.template.order.domain.user.RestaurantService;
 import nl.tudelft.sem.template.user.services.MockLocationService;
+import nl.tudelft.sem.template.user.services.ReactiveUserMicroServiceService;
 import nl.tudelft.sem.template.user.services.UserMicroServiceService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,12 +28,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @SpringBootTest
 @ExtendWith(SpringExtension.class)
@@ -64,6 +68,9 @@ public class SystemTests {
     @MockBean
     private transient UserMicroServiceService userMicroServiceService;
 
+    @MockBean
+    private transient ReactiveUserMicroServiceService reactiveUserMicroServiceService;
+
     @Mock
     transient MockLocationService mockLocationService;
 
@@ -206,10 +213,11 @@ public class SystemTests {
 
         Mockito.when(userMicroServiceService.checkVendorExists(vendorID)).thenReturn(true);
         Mockito.when(userMicroServiceService.checkUserExists(customerID)).thenReturn(true);
-        Mockito.when(userMicroServiceService.getUserAddress(customerID)).thenReturn(address);
+        Mockito.when(reactiveUserMicroServiceService.getUserAddress(customerID)).thenReturn(Mono.just(address));
 
         Mockito.when(mockLocationService.convertAddressToGeoCoords(address)).thenReturn(List.of(51.998513, 4.37127));
-        Mockito.when(userMicroServiceService.getAllVendors()).thenReturn(vendors.toString());
+        Mockito.when(reactiveUserMicroServiceService.getAllVendors(null))
+                .thenReturn(Mono.just(ResponseEntity.ok(vendors.toString())));
 
         mockMvc.perform(MockMvcRequestBuilders.post(postGetPath, dish1.getVendorID())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -224,21 +232,27 @@ public class SystemTests {
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON));
 
-        MvcResult allRestaurants = mockMvc.perform(MockMvcRequestBuilders.get(getRestaurantsPath, customerID)
+        MvcResult searching = mockMvc.perform(MockMvcRequestBuilders.get(getRestaurantsPath, customerID)
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        MvcResult allRestaurants = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(searching))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
                 .andReturn();
         List<UUID> list = objectMapper.readValue(allRestaurants.getResponse().getContentAsString(), ArrayList.class);
         Assertions.assertEquals(2, list.size());
-        Mockito.when(userMicroServiceService
-                .getVendorsFromID(Mockito.anyList())).thenReturn(vendors);
-        MvcResult allRestaurantsQuery = mockMvc
+        Mockito.when(reactiveUserMicroServiceService
+                .getVendorsFromID(Mockito.anyList())).thenReturn(Flux.fromIterable(vendors));
+        MvcResult searchingQuery = mockMvc
                 .perform(MockMvcRequestBuilders
                         .get(getRestaurantsWithQuery, customerID, "chinese")
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        MvcResult allRestaurantsQuery = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(searchingQuery))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
                 .andReturn();
@@ -287,6 +301,12 @@ public class SystemTests {
         Boolean isPaid = objectMapper.readValue(res.getResponse().getContentAsString(),
                 new TypeReference<Order>() {}).getOrderPaid();
         Assertions.assertTrue(isPaid);
+        // the vendor accepts the order before preparing it
+        mockMvc.perform(MockMvcRequestBuilders.put(orderStatusPath, order1.getOrderID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("accepted")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
         String status = "preparing";
         mockMvc.perform(MockMvcRequestBuilders.put(orderStatusPath, order1.getOrderID())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -1,12 +1,14 @@
 package nl.tudelft.sem.template.order.integration;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
@@ -16,10 +18,20 @@ import java.util.Random;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import nl.tudelft.sem.template.model.Address;
+import nl.tudelft.sem.template.model.DailyVolume;
 import nl.tudelft.sem.template.model.Dish;
 import nl.tudelft.sem.template.model.Order;
+import nl.tudelft.sem.template.model.PopularItem;
+import nl.tudelft.sem.template.model.Revenue;
+import nl.tudelft.sem.template.model.TopDish;
+import nl.tudelft.sem.template.model.UniqueCustomers;
+import nl.tudelft.sem.template.model.VendorDashboard;
 import nl.tudelft.sem.template.order.domain.user.DishService;
 import nl.tudelft.sem.template.order.domain.user.OrderService;
+import nl.tudelft.sem.template.order.domain.user.OrderVolumeCounters;
+import nl.tudelft.sem.template.order.domain.user.RevenueBuckets;
+import nl.tudelft.sem.template.order.domain.user.repositories.OrderVolumeCounterRepository;
+import nl.tudelft.sem.template.order.domain.user.repositories.RevenueBucketRepository;
 import nl.tudelft.sem.template.user.services.UserMicroServiceService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -51,6 +63,18 @@ public class VendorAnalyticsControllerIntegrationTests {
     @Autowired
     private transient OrderService orderService;
 
+    @Autowired
+    private transient OrderVolumeCounters orderVolumeCounters;
+
+    @Autowired
+    private transient OrderVolumeCounterRepository orderVolumeCounterRepository;
+
+    @Autowired
+    private transient RevenueBuckets revenueBuckets;
+
+    @Autowired
+    private transient RevenueBucketRepository revenueBucketRepository;
+
     @Autowired
     private transient ObjectMapper objectMapper; // Used for converting Java objects to JSON
 
@@ -410,6 +434,280 @@ public class VendorAnalyticsControllerIntegrationTests {
         assertThat(volume).isEqualTo(Arrays.stream(time).boxed().collect(Collectors.toList()));
     }
 
+    private List<Integer> getPeakTimes(UUID vendorID) throws Exception {
+        MvcResult res = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/vendor/{vendorID}/analytics/peakTimes", vendorID)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk()).andReturn();
+        return objectMapper.readValue(res.getResponse().getContentAsString(), new TypeReference<List<Integer>>() {});
+    }
+
+    private static int hourOf(BigDecimal date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(date.longValueExact());
+        return calendar.get(Calendar.HOUR_OF_DAY);
+    }
+
+    @Test
+    public void get_peak_times_follows_edits_and_deletes() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        order2.setDate(order1.getDate().add(BigDecimal.valueOf(3_600_000)));
+        orderService.createOrder(order1);
+        orderService.createOrder(order2);
+
+        order1.setDate(order2.getDate());
+        orderService.editOrderByID(order1.getOrderID(), order1);
+        orderService.deleteOrderByID(order2.getOrderID());
+
+        List<Integer> volume = getPeakTimes(order1.getVendorID());
+        assertThat(volume.get(hourOf(order1.getDate()))).isEqualTo(1);
+        assertThat(volume.stream().mapToInt(Integer::intValue).sum()).isEqualTo(1);
+    }
+
+    @Test
+    public void reconcile_rebuilds_peak_times() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        orderService.createOrder(order1);
+        orderService.createOrder(order2);
+        orderVolumeCounterRepository.deleteAllInBatch();
+
+        orderVolumeCounters.reconcile();
+
+        List<Integer> volume = getPeakTimes(order1.getVendorID());
+        assertThat(volume.get(hourOf(order1.getDate()))).isGreaterThanOrEqualTo(1);
+        assertThat(volume.stream().mapToInt(Integer::intValue).sum()).isEqualTo(2);
+    }
+
+    @Test
+    public void reconcile_corrects_drifted_peak_times() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        orderService.createOrder(order1);
+        int hour = hourOf(order1.getDate());
+        orderVolumeCounterRepository.setVolume(order1.getVendorID(), hour, 5);
+
+        orderVolumeCounters.reconcile();
+
+        List<Integer> volume = getPeakTimes(order1.getVendorID());
+        assertThat(volume.get(hour)).isEqualTo(1);
+        assertThat(volume.stream().mapToInt(Integer::intValue).sum()).isEqualTo(1);
+    }
+
+    private <T> T getAnalytics(String path, UUID vendorID, String query, TypeReference<T> type) throws Exception {
+        MvcResult res = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/vendor/{vendorID}/analytics/" + path + "?" + query, vendorID)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk()).andReturn();
+        return objectMapper.readValue(res.getResponse().getContentAsString(), type);
+    }
+
+    @Test
+    @Transactional
+    public void get_analytics_in_window_and_time_zone() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        orderService.createOrder(order1);
+        orderService.createOrder(order2);
+        // order1 was placed on Wednesday 2023-11-15 at 00:16:45 UTC, order2 is after the window
+        String window = "from=1700000000000&to=1700100000000";
+
+        List<Integer> utcHours = getAnalytics("peakTimes", order1.getVendorID(), window + "&zone=UTC",
+                new TypeReference<List<Integer>>() {});
+        List<Integer> kathmanduHours = getAnalytics("peakTimes", order1.getVendorID(), window + "&zone=Asia/Kathmandu",
+                new TypeReference<List<Integer>>() {});
+        List<Integer> weekdays = getAnalytics("weekdays", order1.getVendorID(), window + "&zone=UTC",
+                new TypeReference<List<Integer>>() {});
+        List<DailyVolume> days = getAnalytics("dailyVolumes", order1.getVendorID(), "zone=America/New_York",
+                new TypeReference<List<DailyVolume>>() {});
+        Integer volume = getAnalytics("orderVolumes", order1.getVendorID(), window,
+                new TypeReference<Integer>() {});
+
+        assertThat(utcHours.get(0)).isEqualTo(1);
+        assertThat(utcHours.stream().mapToInt(Integer::intValue).sum()).isEqualTo(1);
+        assertThat(kathmanduHours.get(6)).isEqualTo(1);
+        assertThat(weekdays).containsExactly(0, 0, 1, 0, 0, 0, 0);
+        assertThat(days).hasSize(2);
+        assertThat(days.get(0)).isEqualTo(new DailyVolume().date("2023-11-14").volume(1));
+        assertThat(volume).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    public void get_orders_of_customer_from_vendor_in_window() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        order2.setCustomerID(order1.getCustomerID());
+        orderService.createOrder(order1);
+        orderService.createOrder(order2);
+
+        List<Order> orders = getAnalytics("history/" + order1.getCustomerID(), order1.getVendorID(),
+                "from=1790000000000", new TypeReference<List<Order>>() {});
+
+        assertThat(orders).containsExactly(order2);
+    }
+
+    @Test
+    @Transactional
+    public void get_orders_of_customer_from_vendor_in_pages() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        order2.setCustomerID(order1.getCustomerID());
+        orderService.createOrder(order1);
+        orderService.createOrder(order2);
+        String path = "/vendor/{vendorID}/analytics/history/{customerID}";
+
+        MvcResult first = mockMvc.perform(MockMvcRequestBuilders.get(path, order1.getVendorID(), order1.getCustomerID())
+                        .param("limit", "1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk()).andReturn();
+        MvcResult second = mockMvc.perform(MockMvcRequestBuilders.get(path, order1.getVendorID(), order1.getCustomerID())
+                        .param("limit", "1").param("cursor", first.getResponse().getHeader("X-Next-Cursor"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk()).andReturn();
+        List<Order> inWindow = getAnalytics("history/" + order1.getCustomerID(), order1.getVendorID(),
+                "from=1790000000000&limit=1", new TypeReference<List<Order>>() {});
+
+        assertThat(objectMapper.readValue(first.getResponse().getContentAsString(), Order[].class))
+                .containsExactly(order1);
+        assertThat(objectMapper.readValue(second.getResponse().getContentAsString(), Order[].class))
+                .containsExactly(order2);
+        assertThat(second.getResponse().getHeader("X-Next-Cursor")).isNull();
+        assertThat(inWindow).containsExactly(order2);
+    }
+
+    @Test
+    @Transactional
+    public void get_revenue_follows_payments_and_dishes() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        dishService.addDish(d1);
+        dishService.addDish(d2);
+        // both orders are placed on 2023-11-15 (UTC), d1 costs 5.00 and d2 costs 10.00
+        order2.setDate(order1.getDate());
+        order2.setOrderPaid(false);
+        orderService.createOrder(order1);
+        orderService.createOrder(order2);
+
+        orderService.markOrderPaid(order2.getOrderID());
+        orderService.addDishToOrder(order1.getOrderID(), d1.getDishID());
+        orderService.removeDishFromOrder(order1.getOrderID(), d2.getDishID());
+        orderService.deleteOrderByID(order2.getOrderID());
+
+        List<Revenue> revenue = getAnalytics("revenue", order1.getVendorID(), "period=month",
+                new TypeReference<List<Revenue>>() {});
+        assertThat(revenue).containsExactly(new Revenue().start("2023-11-01").revenueCents(1000L));
+    }
+
+    @Test
+    public void reconcile_rebuilds_revenue() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        dishService.addDish(d1);
+        dishService.addDish(d2);
+        orderService.createOrder(order1);
+        orderService.createOrder(order2);
+        revenueBucketRepository.deleteAllInBatch();
+
+        revenueBuckets.reconcile();
+
+        List<Revenue> days = getAnalytics("revenue", order1.getVendorID(), "first=2023-11-15&last=2023-11-15",
+                new TypeReference<List<Revenue>>() {});
+        assertThat(days).containsExactly(new Revenue().start("2023-11-15").revenueCents(1500L));
+    }
+
+    @Test
+    public void reconcile_corrects_drifted_revenue() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        dishService.addDish(d1);
+        dishService.addDish(d2);
+        orderService.createOrder(order1);
+        List<Revenue> stored = getAllRevenue(order1.getVendorID());
+        revenueBucketRepository.setRevenue(order1.getVendorID(), LocalDate.parse(stored.get(0).getStart()), 99L);
+
+        revenueBuckets.reconcile();
+
+        assertThat(stored).hasSize(1);
+        assertThat(getAllRevenue(order1.getVendorID())).isEqualTo(stored);
+    }
+
+    private List<Revenue> getAllRevenue(UUID vendorID) throws Exception {
+        return getAnalytics("revenue", vendorID, "", new TypeReference<List<Revenue>>() {});
+    }
+
+    @Test
+    @Transactional
+    public void get_sketches_follow_orders_and_dishes() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        dishService.addDish(d1);
+        dishService.addDish(d2);
+        orderService.createOrder(order1);
+        orderService.createOrder(order2);
+        orderService.addDishToOrder(order1.getOrderID(), d1.getDishID());
+
+        UniqueCustomers customers = getAnalytics("uniqueCustomers", order1.getVendorID(), "",
+                new TypeReference<UniqueCustomers>() {});
+        assertThat(customers.getEstimate()).isEqualTo(2L);
+        List<TopDish> dishes = getAnalytics("topDishes", order1.getVendorID(), "limit=1",
+                new TypeReference<List<TopDish>>() {});
+        assertThat(dishes).containsExactly(new TopDish().dishID(d1.getDishID()).count(3L).maxOverestimate(0L));
+        // order2 is placed in 2026, after the last day
+        UniqueCustomers inWindow = getAnalytics("uniqueCustomers", order1.getVendorID(), "last=2023-12-31",
+                new TypeReference<UniqueCustomers>() {});
+        assertThat(inWindow.getEstimate()).isEqualTo(1L);
+    }
+
+    @Test
+    public void get_dashboard() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+        dishService.addDish(d1);
+        orderService.createOrder(order1);
+        orderService.createOrder(order2);
+
+        MvcResult res = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/vendor/{vendorID}/analytics/dashboard?zone=UTC", order1.getVendorID())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk()).andReturn();
+
+        VendorDashboard dashboard = objectMapper.readValue(res.getResponse().getContentAsString(),
+                VendorDashboard.class);
+        assertThat(dashboard.getOrderVolume()).isEqualTo(2);
+        assertThat(dashboard.getPeakTimes().stream().mapToInt(Integer::intValue).sum()).isEqualTo(2);
+        assertThat(dashboard.getPopularItems()).extracting(PopularItem::getDishID, PopularItem::getCount)
+                .containsExactly(tuple(d1.getDishID(), 2L));
+        assertThat(res.getResponse().getHeader("Server-Timing")).startsWith("vendor;dur=")
+                .contains("orderVolume;dur=", "peakTimes;dur=", "popularItems;dur=", "total;dur=");
+    }
+
+    @Test
+    public void get_dashboard_vendor_not_found() throws Exception {
+        when(userMicroServiceService.checkVendorExists(order1.getVendorID())).thenReturn(false);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/vendor/{vendorID}/analytics/dashboard", order1.getVendorID())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void get_revenue_unknown_period() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/vendor/{vendorID}/analytics/revenue?period=year", order1.getVendorID())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void get_peak_times_from_after_to() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/vendor/{vendorID}/analytics/peakTimes?from=2&to=1", order1.getVendorID())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
     @Test
     @Transactional
     public void get_popular_items_vendor_does_not_exist() throws Exception {
@@ -449,10 +747,9 @@ public class VendorAnalyticsControllerIntegrationTests {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON)).andReturn();
-        List<Dish> popularItems = objectMapper
-                .readValue(res.getResponse().getContentAsString(), new TypeReference<List<Dish>>() {});
-        assertThat(popularItems.size()).isEqualTo(1);
-        assertThat(popularItems.get(0)).isEqualTo(d1);
+        List<PopularItem> popularItems = objectMapper
+                .readValue(res.getResponse().getContentAsString(), new TypeReference<List<PopularItem>>() {});
+        assertThat(popularItems).containsExactly(popularItem(d1, 1));
     }
 
     @Test
@@ -473,11 +770,9 @@ public class VendorAnalyticsControllerIntegrationTests {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON)).andReturn();
-        List<Dish> popularItems = objectMapper
-                .readValue(res.getResponse().getContentAsString(), new TypeReference<List<Dish>>() {});
-        assertThat(popularItems.size()).isEqualTo(2);
-        assertThat(popularItems.get(0)).isEqualTo(d1);
-        assertThat(popularItems.get(1)).isEqualTo(d2);
+        List<PopularItem> popularItems = objectMapper
+                .readValue(res.getResponse().getContentAsString(), new TypeReference<List<PopularItem>>() {});
+        assertThat(popularItems).containsExactly(popularItem(d1, 2), popularItem(d2, 1));
     }
 
     @Test
@@ -499,11 +794,32 @@ public class VendorAnalyticsControllerIntegrationTests {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON)).andReturn();
-        List<Dish> popularItems = objectMapper
-                .readValue(res.getResponse().getContentAsString(), new TypeReference<List<Dish>>() {});
-        assertThat(popularItems.size()).isEqualTo(2);
-        assertThat(popularItems.get(0)).isEqualTo(d2);
-        assertThat(popularItems.get(1)).isEqualTo(d1);
+        List<PopularItem> popularItems = objectMapper
+                .readValue(res.getResponse().getContentAsString(), new TypeReference<List<PopularItem>>() {});
+        assertThat(popularItems).containsExactly(popularItem(d2, 2), popularItem(d1, 1));
+    }
+
+    @Test
+    @Transactional
+    public void get_popular_items_limited() throws Exception {
+        when(userMicroServiceService.checkVendorExists(any())).thenReturn(true);
+        when(userMicroServiceService.checkUserExists(any())).thenReturn(true);
+
+        dishService.addDish(d1);
+        dishService.addDish(d2);
+        orderService.createOrder(order2);
+        orderService.createOrder(order1);
+
+        MvcResult res = mockMvc.perform(MockMvcRequestBuilders.get(popularItemPath + "?limit=1", order2.getVendorID())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk()).andReturn();
+        List<PopularItem> popularItems = objectMapper
+                .readValue(res.getResponse().getContentAsString(), new TypeReference<List<PopularItem>>() {});
+        assertThat(popularItems).containsExactly(popularItem(d1, 2));
+    }
+
+    private static PopularItem popularItem(Dish dish, long count) {
+        return new PopularItem().dishID(dish.getDishID()).name(dish.getName()).price(dish.getPrice()).count(count);
     }
 
 }
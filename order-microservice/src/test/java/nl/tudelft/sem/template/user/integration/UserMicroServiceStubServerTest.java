@@ -0,0 +1,365 @@
+package nl.tudelft.sem.template.user.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import nl.tudelft.sem.template.user.services.ReactiveUserMicroServiceService;
+import nl.tudelft.sem.template.user.services.UserMicroServiceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs the vendor lookups of the (blocking) UserMicroServiceService against a local stub of the user microservice.
+ */
+class UserMicroServiceStubServerTest {
+
+    private static final String VENDORS_ETAG = "\"vendors-1\"";
+    private static final UUID LISTED_VENDOR = UUID.fromString("550e8400-e29b-41d4-a716-446655440000");
+
+    transient HttpServer server;
+    transient ExecutorService serverThreads;
+    transient Map<UUID, Long> delays;
+    transient Set<UUID> missing;
+    transient Set<UUID> broken;
+    transient AtomicInteger inFlight;
+    transient AtomicInteger maxInFlight;
+    transient AtomicInteger singleRequests;
+    transient AtomicInteger bulkRequests;
+    transient AtomicInteger listRequests;
+    transient long bulkDelay;
+
+    @BeforeEach
+    void setup() throws IOException {
+        delays = new ConcurrentHashMap<>();
+        missing = ConcurrentHashMap.newKeySet();
+        broken = ConcurrentHashMap.newKeySet();
+        inFlight = new AtomicInteger();
+        maxInFlight = new AtomicInteger();
+        singleRequests = new AtomicInteger();
+        bulkRequests = new AtomicInteger();
+        listRequests = new AtomicInteger();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.createContext("/vendor", this::handleVendorList);
+        server.createContext("/vendor/", this::handleVendor);
+        server.createContext("/user/", this::handleVendor);
+        server.createContext("/vendors/bulk", this::handleBulk);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private void handleVendor(HttpExchange exchange) throws IOException {
+        singleRequests.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String lastSegment = path.substring(path.lastIndexOf('/') + 1);
+            if (!lastSegment.matches("[0-9a-f-]{36}")) {
+                respond(exchange, 404, "");
+                return;
+            }
+            UUID id = UUID.fromString(lastSegment);
+            sleep(delays.getOrDefault(id, 0L));
+            if (missing.contains(id)) {
+                respond(exchange, 404, "");
+            } else if (broken.contains(id)) {
+                respond(exchange, 500, "");
+            } else {
+                respond(exchange, 200, vendorJson(id));
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void handleVendorList(HttpExchange exchange) throws IOException {
+        listRequests.incrementAndGet();
+        if (VENDORS_ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("ETag", VENDORS_ETAG);
+        respond(exchange, 200, "[" + vendorJson(LISTED_VENDOR) + "]");
+    }
+
+    private void handleBulk(HttpExchange exchange) throws IOException {
+        bulkRequests.incrementAndGet();
+        sleep(bulkDelay);
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        List<String> vendors = new ArrayList<>();
+        for (String id : body.replaceAll("[\\[\\]\"]", "").split(",")) {
+            vendors.add(vendorJson(UUID.fromString(id.trim())));
+        }
+        respond(exchange, 200, "[" + String.join(",", vendors) + "]");
+    }
+
+    private static String vendorJson(UUID id) {
+        return "{\"userID\":\"" + id + "\",\"cuisineType\":\"italian\"}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private UserMicroServiceService service(int maxInFlight, long deadlineMs, String bulkPath) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("userMicroService.vendorLookup.maxInFlight", String.valueOf(maxInFlight))
+                .withProperty("userMicroService.vendorLookup.deadlineMs", String.valueOf(deadlineMs))
+                .withProperty("userMicroService.vendorLookup.bulkPath", bulkPath);
+        WebClient webClient = WebClient.create(baseUrl());
+        return new UserMicroServiceService(
+                new ReactiveUserMicroServiceService(webClient, environment, new SimpleMeterRegistry()));
+    }
+
+    private static List<UUID> vendorIds(int n) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+
+    @Test
+    void fetchesConcurrentlyWithBoundedInFlight() {
+        List<UUID> ids = vendorIds(20);
+        ids.forEach(id -> delays.put(id, 200L));
+        UserMicroServiceService service = service(5, 5000, "");
+        // warm up the http client, so the measurement does not include its startup
+        service.getVendorsFromID(vendorIds(1));
+        maxInFlight.set(0);
+
+        long start = System.nanoTime();
+        List<String> result = service.getVendorsFromID(ids);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(result).hasSize(20);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(5).isGreaterThan(1);
+        // serially this takes 20 * 200ms
+        assertThat(elapsedMs).isLessThan(2500);
+    }
+
+    @Test
+    void failingVendorsAreSkipped() {
+        List<UUID> ids = vendorIds(6);
+        missing.add(ids.get(1));
+        broken.add(ids.get(3));
+
+        List<String> result = service(4, 5000, "").getVendorsFromID(ids);
+
+        assertThat(result).hasSize(4)
+                .noneMatch(json -> json.contains(ids.get(1).toString()))
+                .noneMatch(json -> json.contains(ids.get(3).toString()));
+    }
+
+    @Test
+    void slowVendorDoesNotTruncateResult() {
+        List<UUID> ids = vendorIds(6);
+        delays.put(ids.get(0), 2500L);
+        UserMicroServiceService service = service(6, 800, "");
+        service.getVendorsFromID(vendorIds(1));
+
+        long start = System.nanoTime();
+        List<String> result = service.getVendorsFromID(ids);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(result).hasSize(5).noneMatch(json -> json.contains(ids.get(0).toString()));
+        assertThat(elapsedMs).isLessThan(2000);
+    }
+
+    @Test
+    void emptyListMakesNoRequests() {
+        assertThat(service(4, 1000, "").getVendorsFromID(List.of())).isEmpty();
+        assertThat(singleRequests.get()).isZero();
+    }
+
+    @Test
+    void bulkEndpointIsUsedWhenExposed() {
+        List<UUID> ids = vendorIds(10);
+
+        List<String> result = service(4, 3000, "/vendors/bulk").getVendorsFromID(ids);
+
+        assertThat(result).hasSize(10);
+        assertThat(bulkRequests.get()).isEqualTo(1);
+        assertThat(singleRequests.get()).isZero();
+    }
+
+    @Test
+    void slowBulkRequestLeavesTimeForTheFallback() {
+        List<UUID> ids = vendorIds(3);
+        bulkDelay = 3000;
+
+        List<String> result = service(4, 2000, "/vendors/bulk").getVendorsFromID(ids);
+
+        assertThat(result).hasSize(3);
+        assertThat(bulkRequests.get()).isEqualTo(1);
+        assertThat(singleRequests.get()).isEqualTo(3);
+    }
+
+    @Test
+    void fallsBackWhenBulkEndpointIsMissing() {
+        List<UUID> ids = vendorIds(3);
+        UserMicroServiceService service = service(4, 3000, "/vendor/bulk-not-there");
+
+        assertThat(service.getVendorsFromID(ids)).hasSize(3);
+        int requestsAfterFirstLookup = singleRequests.get();
+        assertThat(service.getVendorsFromID(ids)).hasSize(3);
+
+        // the first lookup probes the bulk endpoint once, the second one goes straight to single lookups
+        assertThat(requestsAfterFirstLookup).isEqualTo(4);
+        assertThat(singleRequests.get()).isEqualTo(7);
+    }
+
+    @Test
+    void reactiveLookupSendsNothingUntilSubscribed() {
+        MockEnvironment environment = new MockEnvironment();
+        WebClient webClient = WebClient.create(baseUrl());
+        ReactiveUserMicroServiceService reactive =
+                new ReactiveUserMicroServiceService(webClient, environment, new SimpleMeterRegistry());
+        List<UUID> ids = vendorIds(3);
+
+        Flux<String> vendors = reactive.getVendorsFromID(ids);
+        assertThat(singleRequests.get()).isZero();
+
+        assertThat(vendors.collectList().block()).hasSize(3);
+        assertThat(singleRequests.get()).isEqualTo(3);
+    }
+
+    @Test
+    void reactiveExistenceChecksRunConcurrently() {
+        List<UUID> ids = vendorIds(2);
+        ids.forEach(id -> delays.put(id, 500L));
+        missing.add(ids.get(1));
+        WebClient webClient = WebClient.create(baseUrl());
+        ReactiveUserMicroServiceService reactive = new ReactiveUserMicroServiceService(webClient, new MockEnvironment(),
+                new SimpleMeterRegistry());
+        reactive.checkVendorExists(UUID.randomUUID()).block();
+
+        long start = System.nanoTime();
+        Boolean[] exist = Mono.zip(reactive.checkVendorExists(ids.get(0)), reactive.checkVendorExists(ids.get(1)),
+                (first, second) -> new Boolean[] {first, second}).block();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(exist).containsExactly(true, false);
+        assertThat(elapsedMs).isLessThan(900);
+    }
+
+    private ReactiveUserMicroServiceService cachingService(MeterRegistry meterRegistry, long negativeTtlMs) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("userMicroService.existenceCache.maximumSize", "100")
+                .withProperty("userMicroService.existenceCache.positiveTtlMs", "60000")
+                .withProperty("userMicroService.existenceCache.negativeTtlMs", String.valueOf(negativeTtlMs));
+        WebClient webClient = WebClient.create(baseUrl());
+        return new ReactiveUserMicroServiceService(webClient, environment, meterRegistry);
+    }
+
+    @Test
+    void existenceChecksAreCached() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReactiveUserMicroServiceService reactive = cachingService(meterRegistry, 60000);
+        UUID vendor = UUID.randomUUID();
+        UUID user = UUID.randomUUID();
+
+        // every subscription does the check again
+        assertThat(reactive.checkVendorExists(vendor).repeat(2).collectList().block()).containsExactly(true, true, true);
+        assertThat(reactive.checkUserExists(user).repeat(2).collectList().block()).containsExactly(true, true, true);
+
+        assertThat(singleRequests.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "userMicroService.vendorExists")
+                .tag("result", "hit").functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "userMicroService.vendorExists")
+                .tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", "userMicroService.userExists")
+                .functionCounter()).isNotNull();
+    }
+
+    @Test
+    void unknownIdsAreCachedWithTheirOwnTtl() throws InterruptedException {
+        ReactiveUserMicroServiceService reactive = cachingService(new SimpleMeterRegistry(), 300);
+        UUID vendor = UUID.randomUUID();
+        missing.add(vendor);
+
+        assertThat(reactive.checkVendorExists(vendor).block()).isFalse();
+        assertThat(reactive.checkVendorExists(vendor).block()).isFalse();
+        assertThat(singleRequests.get()).isEqualTo(1);
+
+        // the vendor got created, which is noticed once the negative answer expired
+        missing.remove(vendor);
+        Thread.sleep(500);
+        assertThat(reactive.checkVendorExists(vendor).block()).isTrue();
+        assertThat(singleRequests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void failedChecksAreNotCached() {
+        ReactiveUserMicroServiceService reactive = cachingService(new SimpleMeterRegistry(), 60000);
+        UUID vendor = UUID.randomUUID();
+        broken.add(vendor);
+
+        assertThat(reactive.checkVendorExists(vendor).block()).isFalse();
+        broken.remove(vendor);
+        assertThat(reactive.checkVendorExists(vendor).block()).isTrue();
+        assertThat(singleRequests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void vendorListIsNotSentAgainWhenUnchanged() {
+        ReactiveUserMicroServiceService reactive = cachingService(new SimpleMeterRegistry(), 60000);
+
+        ResponseEntity<String> first = reactive.getAllVendors(null).block();
+        ResponseEntity<String> second = reactive.getAllVendors(first.getHeaders().getETag()).block();
+
+        assertThat(first.getBody()).contains(LISTED_VENDOR.toString());
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getBody()).isNull();
+        assertThat(reactive.getAllVendors().block()).isEqualTo(first.getBody());
+        assertThat(listRequests.get()).isEqualTo(3);
+    }
+}
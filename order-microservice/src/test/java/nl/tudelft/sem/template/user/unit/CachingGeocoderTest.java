@@ -0,0 +1,120 @@
+package nl.tudelft.sem.template.user.unit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import nl.tudelft.sem.template.model.Address;
+import nl.tudelft.sem.template.user.api.Geocoder;
+import nl.tudelft.sem.template.user.services.CachingGeocoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+@ExtendWith(MockitoExtension.class)
+class CachingGeocoderTest {
+
+    static final List<Double> AULA = List.of(52.0021256d, 4.3732982d);
+
+    @Mock
+    transient Geocoder delegate;
+
+    @TempDir
+    transient Path directory;
+
+    transient Address address;
+
+    @BeforeEach
+    void setup() {
+        address = new Address().street("Mekelweg 5").zip("2628 CC").city("Delft").country("Netherlands");
+    }
+
+    private CachingGeocoder geocoder(String cacheFile) {
+        return new CachingGeocoder(delegate, new MockEnvironment().withProperty("geocoder.cache.file", cacheFile),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void normalisedAddressIsResolvedOnce() {
+        when(delegate.convertAddressToGeoCoords(address)).thenReturn(AULA);
+        CachingGeocoder geocoder = geocoder("");
+
+        Address sameAddress = new Address().street("  MEKELWEG   5 ").zip("2628cc").city("delft").country("Netherlands");
+
+        assertThat(geocoder.convertAddressToGeoCoords(address)).isEqualTo(AULA);
+        assertThat(geocoder.convertAddressToGeoCoords(sameAddress)).isEqualTo(AULA);
+        verify(delegate, times(1)).convertAddressToGeoCoords(any());
+    }
+
+    @Test
+    void differentAddressesAreResolvedSeparately() {
+        when(delegate.convertAddressToGeoCoords(any())).thenReturn(AULA);
+        CachingGeocoder geocoder = geocoder("");
+
+        geocoder.convertAddressToGeoCoords(address);
+        geocoder.convertAddressToGeoCoords(new Address().street("Mekelweg 4").zip("2628 CC").city("Delft"));
+
+        verify(delegate, times(2)).convertAddressToGeoCoords(any());
+    }
+
+    @Test
+    void unresolvedAddressIsNotCached() {
+        when(delegate.convertAddressToGeoCoords(address)).thenReturn(null).thenReturn(AULA);
+        CachingGeocoder geocoder = geocoder("");
+
+        assertThat(geocoder.convertAddressToGeoCoords(address)).isNull();
+        assertThat(geocoder.convertAddressToGeoCoords(address)).isEqualTo(AULA);
+    }
+
+    @Test
+    void nullAddressIsPassedToDelegate() {
+        when(delegate.convertAddressToGeoCoords(null)).thenReturn(AULA);
+
+        assertThat(geocoder("").convertAddressToGeoCoords(null)).isEqualTo(AULA);
+    }
+
+    @Test
+    void cacheFileKeepsEntriesAcrossRestarts() {
+        when(delegate.convertAddressToGeoCoords(address)).thenReturn(AULA);
+        Path cacheFile = directory.resolve("geocoder.json");
+        CachingGeocoder geocoder = geocoder(cacheFile.toString());
+        geocoder.convertAddressToGeoCoords(address);
+
+        geocoder.close();
+
+        assertThat(cacheFile).exists();
+        assertThat(geocoder(cacheFile.toString()).convertAddressToGeoCoords(address)).isEqualTo(AULA);
+        verify(delegate, times(1)).convertAddressToGeoCoords(any());
+    }
+
+    @Test
+    void unchangedCacheIsNotWritten() {
+        Path cacheFile = directory.resolve("geocoder.json");
+
+        geocoder(cacheFile.toString()).flush();
+
+        assertThat(cacheFile).doesNotExist();
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void corruptCacheFileStartsCold() throws IOException {
+        when(delegate.convertAddressToGeoCoords(address)).thenReturn(AULA);
+        Path cacheFile = Files.writeString(directory.resolve("geocoder.json"), "{\"mekelweg 5|2628cc|delft|");
+
+        assertThat(geocoder(cacheFile.toString()).convertAddressToGeoCoords(address)).isEqualTo(AULA);
+        verify(delegate, times(1)).convertAddressToGeoCoords(address);
+    }
+}
@@ -9,12 +9,15 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.UUID;
+import nl.tudelft.sem.template.order.domain.helpers.VendorLocations;
 import nl.tudelft.sem.template.user.services.JsonParserService;
 import org.junit.jupiter.api.Test;
 
 
 class JsonParserServiceTest {
 
+    transient JsonParserService jsonParserService = new JsonParserService();
+
     transient String jsonValid = """
             {
               "latitude": 51.998513,
@@ -287,39 +290,39 @@ class JsonParserServiceTest {
     @Test
     void parseLocationValid() {
         List<Double> list = Arrays.asList(51.998513, 4.37127);
-        List<Double> result = JsonParserService.parseLocation(jsonValid);
+        List<Double> result = jsonParserService.parseLocation(jsonValid);
         assertEquals(list, result);
     }
 
     @Test
     void parseLocationNoLat() {
-        List<Double> result = JsonParserService.parseLocation(jsonNoLat);
+        List<Double> result = jsonParserService.parseLocation(jsonNoLat);
         assertNull(result);
     }
 
     @Test
     void parseLocationNoLong() {
-        List<Double> result = JsonParserService.parseLocation(jsonNoLong);
+        List<Double> result = jsonParserService.parseLocation(jsonNoLong);
         assertNull(result);
     }
 
     @Test
     void parseLocationString() {
-        List<Double> result = JsonParserService.parseLocation(jsonString);
+        List<Double> result = jsonParserService.parseLocation(jsonString);
         assertNull(result);
     }
 
     @Test
     void parseLocationExtraAttr() {
         List<Double> list = Arrays.asList(51.998513, 4.37127);
-        List<Double> result = JsonParserService.parseLocation(jsonExtraAttr);
+        List<Double> result = jsonParserService.parseLocation(jsonExtraAttr);
         assertEquals(list, result);
     }
     
 
     @Test
     void parseVendorsLocationEmpty() {
-        HashMap<UUID, List<Double>> result = JsonParserService.parseVendorsLocation("");
+        VendorLocations result = jsonParserService.parseVendorsLocation("");
         assertNull(result);
     }
 
@@ -328,7 +331,7 @@ class JsonParserServiceTest {
         HashMap<UUID, List<Double>> hashMap = new HashMap<>();
         hashMap.put(uuid, Arrays.asList(51.998513, 4.37127));
         hashMap.put(UUID.fromString("110e8400-e29b-41d4-a716-446655440000"), Arrays.asList(5.998513, 41.37127));
-        HashMap<UUID, List<Double>> result = JsonParserService.parseVendorsLocation(vendor2);
+        HashMap<UUID, List<Double>> result = toMap(jsonParserService.parseVendorsLocation(vendor2));
         assertEquals(hashMap, result);
     }
 
@@ -336,7 +339,7 @@ class JsonParserServiceTest {
     void parseVendorsLocationNoLocation() {
         HashMap<UUID, List<Double>> hashMap = new HashMap<>();
         hashMap.put(uuid, Arrays.asList(51.998513, 4.37127));
-        HashMap<UUID, List<Double>> result = JsonParserService.parseVendorsLocation(vendor2NotValid);
+        HashMap<UUID, List<Double>> result = toMap(jsonParserService.parseVendorsLocation(vendor2NotValid));
         assertEquals(hashMap, result);
     }
 
@@ -344,56 +347,56 @@ class JsonParserServiceTest {
     void parseVendorsLocationMissingLocation() {
         HashMap<UUID, List<Double>> hashMap = new HashMap<>();
         hashMap.put(uuid, Arrays.asList(51.998513, 4.37127));
-        HashMap<UUID, List<Double>> result = JsonParserService.parseVendorsLocation(vendor2NoLoc);
+        HashMap<UUID, List<Double>> result = toMap(jsonParserService.parseVendorsLocation(vendor2NoLoc));
         assertEquals(hashMap, result);
     }
 
     @Test
     void parseVendorsLocationInvalidUUID() {
         HashMap<UUID, List<Double>> hashMap = new HashMap<>();
-        HashMap<UUID, List<Double>> result = JsonParserService.parseVendorsLocation(vendor1InValidUUID);
+        HashMap<UUID, List<Double>> result = toMap(jsonParserService.parseVendorsLocation(vendor1InValidUUID));
         assertEquals(hashMap, result);
     }
 
     @Test
     void parseVendorsLocationInvalidJson() {
-        HashMap<UUID, List<Double>> result = JsonParserService.parseVendorsLocation(vendorInvalidJson);
+        VendorLocations result = jsonParserService.parseVendorsLocation(vendorInvalidJson);
         assertNull(result);
     }
 
     @Test
     void parseUserTypeJsonIsNull() {
-        String result = JsonParserService.parseUserType(null);
+        String result = jsonParserService.parseUserType(null);
         assertNull(result);
     }
 
     @Test
     void parseUserTypeIsCustomer() {
-        String result = JsonParserService.parseUserType(customerJson);
+        String result = jsonParserService.parseUserType(customerJson);
         assertEquals(result, "Customer");
     }
 
     @Test
     void parseUserTypeIsVendor() {
-        String result = JsonParserService.parseUserType(vendorJson);
+        String result = jsonParserService.parseUserType(vendorJson);
         assertEquals(result, "Vendor");
     }
 
     @Test
     void parseUserTypeIsCourier() {
-        String result = JsonParserService.parseUserType(courierJson);
+        String result = jsonParserService.parseUserType(courierJson);
         assertEquals(result, "Courier");
     }
 
     @Test
     void parseUserTypeIsAdmin() {
-        String result = JsonParserService.parseUserType(adminJson);
+        String result = jsonParserService.parseUserType(adminJson);
         assertEquals(result, "Admin");
     }
 
     @Test
     void parseVendorCuisineEmptyList() {
-        HashMap<UUID, String> result = JsonParserService.parseVendorCuisine(new ArrayList<>());
+        HashMap<UUID, String> result = jsonParserService.parseVendorCuisine(new ArrayList<>());
         assertNull(result);
     }
 
@@ -445,10 +448,78 @@ class JsonParserServiceTest {
                 "cuisineType": "Asian"
             }""";
 
-        HashMap<UUID, String> result = JsonParserService.parseVendorCuisine(List.of(v1, v2, v3));
+        HashMap<UUID, String> result = jsonParserService.parseVendorCuisine(List.of(v1, v2, v3));
         HashMap<UUID, String> expected = new HashMap<>();
         expected.put(uuid, "italian");
         expected.put(UUID.fromString("220e8400-e29b-41d4-a716-446655440000"), "Asian");
         assertThat(result).isEqualTo(expected);
     }
+
+    @Test
+    void parseVendorsLocationIntegerCoordinatesStopParsing() {
+        String vendors = """
+                [
+                    {"userID": "550e8400-e29b-41d4-a716-446655440000", "location": {"latitude": 51.9, "longitude": 4.3}},
+                    {"userID": "110e8400-e29b-41d4-a716-446655440000", "location": {"latitude": 52, "longitude": 4.3}},
+                    {"userID": "220e8400-e29b-41d4-a716-446655440000", "location": {"latitude": 51.9, "longitude": 4.3}}
+                ]""";
+        HashMap<UUID, List<Double>> result = toMap(jsonParserService.parseVendorsLocation(vendors));
+        assertThat(result).containsOnlyKeys(uuid);
+    }
+
+    @Test
+    void parseVendorsLocationMissingUserId() {
+        String vendors = """
+                [
+                    {"location": {"latitude": 51.9, "longitude": 4.3}},
+                    {"userID": "110e8400-e29b-41d4-a716-446655440000", "location": {"latitude": 51.9, "longitude": 4.3}}
+                ]""";
+        assertThat(jsonParserService.parseVendorsLocation(vendors).isEmpty()).isTrue();
+    }
+
+    @Test
+    void parseVendorsLocationDuplicateVendorKeepsLastLocation() {
+        String vendors = """
+                [
+                    {"userID": "550e8400-e29b-41d4-a716-446655440000", "location": {"latitude": 51.9, "longitude": 4.3}},
+                    {"userID": "110e8400-e29b-41d4-a716-446655440000", "location": {"latitude": 52.0, "longitude": 4.3}},
+                    {"userID": "550e8400-e29b-41d4-a716-446655440000", "location": {"latitude": 52.1, "longitude": 4.4}}
+                ]""";
+        VendorLocations result = jsonParserService.parseVendorsLocation(vendors);
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(toMap(result)).containsEntry(uuid, Arrays.asList(52.1, 4.4));
+    }
+
+    @Test
+    void parseVendorsLocationInvalidJsonAfterInvalidVendor() {
+        String vendors = """
+                [
+                    {"userID": "oh hi", "location": {"latitude": 51.9, "longitude": 4.3}},
+                    {"userID": "110e8400-e29b-41d4-a716-446655440000", "location": {"latitude": 51.9 "longitude": 4.3}}
+                ]""";
+        assertNull(jsonParserService.parseVendorsLocation(vendors));
+    }
+
+    @Test
+    void parseVendorsLocationNotAList() {
+        assertThat(jsonParserService.parseVendorsLocation("42").isEmpty()).isTrue();
+    }
+
+    @Test
+    void parseLocationMissingLatitude() {
+        assertNull(jsonParserService.parseLocation("{\"longitude\": 4.37127}"));
+    }
+
+    @Test
+    void parseUserTypeMissing() {
+        assertNull(jsonParserService.parseUserType("{\"id\": \"550e8400-e29b-41d4-a716-446655440000\"}"));
+    }
+
+    private static HashMap<UUID, List<Double>> toMap(VendorLocations vendors) {
+        HashMap<UUID, List<Double>> result = new HashMap<>();
+        for (int i = 0; i < vendors.size(); i++) {
+            result.put(vendors.getId(i), Arrays.asList(vendors.getLatitude(i), vendors.getLongitude(i)));
+        }
+        return result;
+    }
 }
@@ -0,0 +1,111 @@
+package nl.tudelft.sem.template.user.unit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import nl.tudelft.sem.template.order.domain.user.UserIDNotFoundException;
+import nl.tudelft.sem.template.user.services.JsonParserService;
+import nl.tudelft.sem.template.user.services.UserMicroServiceService;
+import nl.tudelft.sem.template.user.services.UserRoleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+@ExtendWith(MockitoExtension.class)
+class UserRoleServiceTest {
+
+    static final String ADMIN = "Admin";
+
+    @Mock
+    transient UserMicroServiceService userMicroServiceService;
+
+    transient MeterRegistry meterRegistry;
+    transient UserRoleService userRoleService;
+    transient UUID user;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        userRoleService = new UserRoleService(userMicroServiceService, new JsonParserService(), new MockEnvironment()
+                .withProperty("userMicroService.roleCache.ttlMs", "200"), meterRegistry);
+        user = UUID.randomUUID();
+    }
+
+    private static String userJson(String userType) {
+        return "{\"id\": \"550e8400-e29b-41d4-a716-446655440000\", \"userType\": \"" + userType + "\"}";
+    }
+
+    @Test
+    void userTypeIsCached() throws UserIDNotFoundException {
+        when(userMicroServiceService.getUserInformation(user)).thenReturn(userJson(ADMIN));
+
+        assertThat(userRoleService.isAdmin(user)).isTrue();
+        assertThat(userRoleService.getUserType(user)).isEqualTo(ADMIN);
+
+        verify(userMicroServiceService, times(1)).getUserInformation(user);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "userMicroService.userRoles")
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void userTypeExpires() throws UserIDNotFoundException, InterruptedException {
+        when(userMicroServiceService.getUserInformation(user)).thenReturn(userJson(ADMIN), userJson("Customer"));
+
+        assertThat(userRoleService.isAdmin(user)).isTrue();
+        Thread.sleep(400);
+        assertThat(userRoleService.isAdmin(user)).isFalse();
+
+        verify(userMicroServiceService, times(2)).getUserInformation(user);
+    }
+
+    @Test
+    void unknownUserIsNotCached() {
+        when(userMicroServiceService.getUserInformation(user)).thenReturn("");
+
+        assertThrows(UserIDNotFoundException.class, () -> userRoleService.getUserType(user));
+        assertThrows(UserIDNotFoundException.class, () -> userRoleService.getUserType(user));
+
+        verify(userMicroServiceService, times(2)).getUserInformation(user);
+    }
+
+    @Test
+    void concurrentLookupsAreCollapsed() throws Exception {
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        when(userMicroServiceService.getUserInformation(user)).thenAnswer(invocation -> {
+            lookupStarted.countDown();
+            Thread.sleep(300);
+            return userJson(ADMIN);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> userRoleService.getUserType(user)));
+            lookupStarted.await();
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> userRoleService.getUserType(user)));
+            }
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo(ADMIN);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(userMicroServiceService, times(1)).getUserInformation(user);
+    }
+}